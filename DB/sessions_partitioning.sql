@@ -0,0 +1,60 @@
+-- OPTIONAL: range-partition `sessions` by expires_at, one partition per day.
+--
+-- Expired sessions then leave as a whole-partition DROP instead of row deletes.
+-- Run once against a database migrated by Flyway (V1-V9), during a quiet period
+-- (it copies the table), then start the backend with
+-- app.sessions.partitioning.enabled=true so SessionPartitionManager keeps
+-- creating upcoming partitions and dropping expired ones.
+--
+-- Trade-off: a unique index on a partitioned table must include the partition
+-- key, so refresh_token_hash is indexed but no longer UNIQUE. The hashes are
+-- SHA-256 of 32 random bytes, so the uniqueness was never load-bearing.
+
+BEGIN;
+
+-- 1. Move the old table aside; keep the ID sequence alive past its drop
+ALTER SEQUENCE sessions_session_id_seq OWNED BY NONE;
+ALTER TABLE sessions RENAME TO sessions_unpartitioned;
+ALTER INDEX IF EXISTS idx_sessions_refresh_token_hash RENAME TO idx_sessions_unpartitioned_hash;
+ALTER INDEX IF EXISTS idx_sessions_family_id RENAME TO idx_sessions_unpartitioned_family;
+ALTER INDEX IF EXISTS idx_sessions_expires_at RENAME TO idx_sessions_unpartitioned_expires;
+ALTER INDEX IF EXISTS idx_sessions_revoked_at RENAME TO idx_sessions_unpartitioned_revoked;
+ALTER INDEX IF EXISTS idx_sessions_user_active RENAME TO idx_sessions_unpartitioned_user_active;
+
+-- 2. Partitioned replacement with the same columns and defaults
+CREATE TABLE sessions (LIKE sessions_unpartitioned INCLUDING DEFAULTS)
+    PARTITION BY RANGE (expires_at);
+ALTER TABLE sessions ADD PRIMARY KEY (session_id, expires_at);
+ALTER TABLE sessions ADD FOREIGN KEY (user_id) REFERENCES login(user_id) ON DELETE CASCADE;
+
+CREATE INDEX idx_sessions_refresh_token_hash ON sessions (refresh_token_hash);
+CREATE INDEX idx_sessions_family_id ON sessions (family_id);
+CREATE INDEX idx_sessions_expires_at ON sessions (expires_at, session_id);
+CREATE INDEX idx_sessions_revoked_at ON sessions (revoked_at, session_id) WHERE revoked_at IS NOT NULL;
+CREATE INDEX idx_sessions_user_active ON sessions (user_id, is_revoked, expires_at, session_id)
+    INCLUDE (ip_address, user_agent, created_at);
+
+-- 3. Daily partitions covering the existing rows and the next 10 days,
+--    plus a default partition as a safety net
+DO $$
+DECLARE
+    day DATE;
+BEGIN
+    FOR day IN
+        SELECT generate_series(
+                   LEAST(COALESCE((SELECT min(expires_at)::date FROM sessions_unpartitioned), current_date),
+                         current_date),
+                   current_date + 10,
+                   interval '1 day')::date
+    LOOP
+        EXECUTE format('CREATE TABLE sessions_p%s PARTITION OF sessions FOR VALUES FROM (%L) TO (%L)',
+                       to_char(day, 'YYYYMMDD'), day, day + 1);
+    END LOOP;
+END $$;
+CREATE TABLE sessions_default PARTITION OF sessions DEFAULT;
+
+-- 4. Copy and swap
+INSERT INTO sessions SELECT * FROM sessions_unpartitioned;
+DROP TABLE sessions_unpartitioned;
+
+COMMIT;
@@ -0,0 +1,25 @@
+package com.securehealth.backend.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Startup work that stays eager under lazy initialization (the {@code lazy} profile,
+ * {@code spring.main.lazy-initialization=true}).
+ * <p>
+ * Flyway migrates before the node takes traffic, so a rolling deploy never runs a
+ * migration inside somebody's login. Beans with {@code @Scheduled} methods (session
+ * reaper, partition manager, denylist rebuild) are kept eager by Spring Boot itself.
+ * Everything else, including the JPA EntityManagerFactory, is built on first use.
+ * </p>
+ */
+@Configuration
+public class LazyInitializationConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerFlywayMigration() {
+        return LazyInitializationExcludeFilter.forBeanTypes(FlywayMigrationInitializer.class);
+    }
+}
@@ -0,0 +1,33 @@
+package com.securehealth.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+
+/**
+ * Limits applied by {@link com.securehealth.backend.security.RateLimitFilter}.
+ * <p>
+ * Keys of {@code endpoints} are the path below {@code /api/auth/}, e.g.
+ * {@code security.rate-limit.endpoints.login.ip-capacity=20}. Endpoints without
+ * an entry are not limited; a capacity of 0 disables that dimension.
+ * </p>
+ *
+ * @param enabled    master switch
+ * @param maxBuckets upper bound on tracked buckets across all endpoints
+ * @param endpoints  per-endpoint limits
+ */
+@ConfigurationProperties(prefix = "security.rate-limit")
+public record RateLimitProperties(boolean enabled, int maxBuckets, Map<String, EndpointLimit> endpoints) {
+
+    public RateLimitProperties {
+        if (maxBuckets <= 0) maxBuckets = 100_000;
+        if (endpoints == null) endpoints = Map.of();
+    }
+
+    /**
+     * Bucket sizes for one endpoint, per client IP and per email in the request body.
+     */
+    public record EndpointLimit(int ipCapacity, int ipRefillPerMinute,
+                                int emailCapacity, int emailRefillPerMinute) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.securehealth.backend.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Redis wiring for multi-node deployments (the {@code redis_cache} service).
+ * <p>
+ * Only active with {@code app.redis.enabled=true}; single-node and test runs use
+ * in-memory implementations instead.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.redis.enabled", havingValue = "true")
+public class RedisConfig {
+
+    /**
+     * Shared pub/sub listener container; features register their channels on it.
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+}
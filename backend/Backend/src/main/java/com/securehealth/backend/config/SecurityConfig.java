@@ -1,12 +1,30 @@
 package com.securehealth.backend.config;
 
+import com.securehealth.backend.security.Argon2Calibrator;
+import com.securehealth.backend.security.Argon2Calibrator.Argon2Parameters;
+import com.securehealth.backend.security.BoundedHashingPasswordEncoder;
+import com.securehealth.backend.security.JwtAuthenticationFilter;
+import com.securehealth.backend.security.RateLimitFilter;
+import com.securehealth.backend.security.TokenDenylist;
+import com.securehealth.backend.security.VerifiedTokenCache;
+import com.securehealth.backend.util.JwtUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.DispatcherType;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 /**
  * Security configuration for the application.
@@ -15,40 +33,139 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
  * to control access to endpoints.
  */
 @Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class SecurityConfig {
 
     /**
-     * Configures the Argon2 password encoder.
+     * Resolves the Argon2 cost parameters.
      *
-     * Parameters are tuned for current security standards (NIST/OWASP):
+     * Defaults are tuned for current security standards (NIST/OWASP):
      * Salt length: 16 bytes, hash length: 32 bytes, parallelism: 1,
      * memory: 4096 KB, iterations: 3.
      *
-     * @return a configured Argon2PasswordEncoder instance
+     * With {@code security.argon2.calibrate=true} the configured values become a
+     * floor and {@link Argon2Calibrator} benchmarks this host to hit the target
+     * per-hash latency instead.
+     *
+     * @return the parameters every new hash is created with
+     */
+    @Bean
+    public Argon2Parameters argon2Parameters(@Value("${security.argon2.salt-length:16}") int saltLength,
+                                             @Value("${security.argon2.hash-length:32}") int hashLength,
+                                             @Value("${security.argon2.parallelism:1}") int parallelism,
+                                             @Value("${security.argon2.memory-kb:4096}") int memoryKb,
+                                             @Value("${security.argon2.iterations:3}") int iterations,
+                                             @Value("${security.argon2.calibrate:false}") boolean calibrate,
+                                             @Value("${security.argon2.target-ms:250}") long targetMillis,
+                                             @Value("${security.argon2.max-memory-kb:65536}") int maxMemoryKb,
+                                             @Value("${security.argon2.max-parallelism:1}") int maxParallelism) {
+        Argon2Parameters configured = new Argon2Parameters(saltLength, hashLength, parallelism, memoryKb, iterations);
+        if (!calibrate) return configured;
+        return Argon2Calibrator.calibrate(configured, targetMillis, maxMemoryKb, maxParallelism);
+    }
+
+    /**
+     * Configures the Argon2 password encoder.
+     *
+     * The encoder runs on a dedicated pool sized to the number of cores with a
+     * bounded wait queue, so hashing never occupies servlet threads and a login
+     * burst is shed with 503 instead of starving every other endpoint.
+     *
+     * @param argon2 cost parameters for new hashes
+     * @param registry meter registry for queue depth, wait and hash time metrics
+     * @param poolSize hashing threads; 0 means one per available core
+     * @param queueCapacity hashing requests allowed to wait for a thread
+     * @param maxQueueWaitMillis queued requests older than this are dropped unhashed
+     * @param retryAfterSeconds value of the Retry-After header on rejection
+     * @return a bounded, Argon2-backed PasswordEncoder
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new Argon2PasswordEncoder(16, 32, 1, 4096, 3);
+    public PasswordEncoder passwordEncoder(Argon2Parameters argon2, MeterRegistry registry,
+                                           @Value("${security.hashing.pool-size:0}") int poolSize,
+                                           @Value("${security.hashing.queue-capacity:64}") int queueCapacity,
+                                           @Value("${security.hashing.max-queue-wait-ms:2000}") long maxQueueWaitMillis,
+                                           @Value("${security.hashing.retry-after-seconds:1}") long retryAfterSeconds) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        return new BoundedHashingPasswordEncoder(argon2.toEncoder(),
+                threads, queueCapacity, maxQueueWaitMillis, retryAfterSeconds, registry);
     }
 
     /**
      * Configures the HTTP security filter chain.
      *
      * Disables CSRF (stateless JWTs) and allows public access to
-     * registration and login endpoints.
+     * registration and login endpoints. Every other request must carry a
+     * bearer access token, verified by {@link JwtAuthenticationFilter}
+     * without any database lookup.
+     *
+     * Health checks are public too, and so is {@code /.well-known/jwks.json},
+     * the public keys other services verify access tokens with.
+     * {@code /actuator/prometheus} is only public when it is reached on
+     * {@code management.server.port}, which is not published outside the
+     * internal network; anywhere else it needs an access token like any other
+     * endpoint.
+     * {@code /api/admin/**} additionally requires the ADMIN role, and patient
+     * records, search and visit timelines are limited to clinical and admin staff.
+     * The lab order queue and result uploads are limited to lab technicians and
+     * admins; result downloads are authorized per file by {@code LabResultService}.
+     *
+     * The public auth endpoints sit behind {@link RateLimitFilter}, which runs
+     * first so throttled clients are turned away before any other work.
      *
      * @param http the HttpSecurity object to configure
+     * @param jwtUtil verifies access token signatures
+     * @param tokenCache cache of recently verified tokens
+     * @param denylist tokens revoked before their expiry
+     * @param rateLimits per-endpoint limits for {@code /api/auth/**}
+     * @param objectMapper reads the email from auth request bodies
+     * @param serverPort the application port
+     * @param managementPort the actuator port, -1 if actuator shares the application port
      * @return the built SecurityFilterChain
      * @throws Exception if configuration fails
      */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, JwtUtil jwtUtil,
+                                           VerifiedTokenCache tokenCache,
+                                           TokenDenylist denylist,
+                                           RateLimitProperties rateLimits,
+                                           ObjectMapper objectMapper,
+                                           @Value("${server.port:8080}") int serverPort,
+                                           @Value("${management.server.port:-1}") int managementPort) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable) // Disable CSRF for REST APIs
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .exceptionHandling(ex -> ex.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .addFilterBefore(new RateLimitFilter(rateLimits, objectMapper),
+                        UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(new JwtAuthenticationFilter(jwtUtil, tokenCache, denylist),
+                        UsernamePasswordAuthenticationFilter.class)
                 .authorizeHttpRequests(auth -> auth
+                        // Re-dispatches of an already authorized request (streamed responses, error pages);
+                        // the JWT filter does not run on them, so they would otherwise look anonymous
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
+                        .requestMatchers("/actuator/health/**").permitAll()
+                        .requestMatchers(metricsScrape(serverPort, managementPort)).permitAll()
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/api/patients").hasAnyRole("DOCTOR", "NURSE", "ADMIN")
+                        .requestMatchers("/api/patients/search").hasAnyRole("DOCTOR", "NURSE", "ADMIN")
+                        .requestMatchers("/api/patients/*/visits/**").hasAnyRole("DOCTOR", "NURSE", "ADMIN")
+                        .requestMatchers("/api/lab-orders/**").hasAnyRole("LAB_TECHNICIAN", "ADMIN")
                         .anyRequest().authenticated());
 
         return http.build();
     }
+
+    /**
+     * Matches {@code /actuator/prometheus} only on a dedicated management port,
+     * so the metrics (login outcomes, lockout and throttle rates, pool state) are
+     * never public on the application port.
+     */
+    static RequestMatcher metricsScrape(int serverPort, int managementPort) {
+        RequestMatcher path = new AntPathRequestMatcher("/actuator/prometheus");
+        return request -> managementPort > 0 && managementPort != serverPort
+                && request.getLocalPort() == managementPort
+                && path.matches(request);
+    }
 }
\ No newline at end of file
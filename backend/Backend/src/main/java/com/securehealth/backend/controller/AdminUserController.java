@@ -0,0 +1,114 @@
+package com.securehealth.backend.controller;
+
+import com.securehealth.backend.dto.SessionPage;
+import com.securehealth.backend.service.BulkProvisioningService;
+import com.securehealth.backend.service.BulkProvisioningService.Format;
+import com.securehealth.backend.service.SessionService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Map;
+
+/**
+ * REST Controller for account administration.
+ * <p>
+ * Restricted to the ADMIN role (see {@code SecurityConfig}).
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/admin/users")
+public class AdminUserController {
+
+    private static final String TEXT_CSV = "text/csv";
+
+    @Autowired
+    private BulkProvisioningService bulkProvisioningService;
+
+    @Autowired
+    private SessionService sessionService;
+
+    /**
+     * Registers many users from one streamed upload.
+     * <p>
+     * Endpoint: POST /api/admin/users/bulk
+     * </p>
+     * <p>
+     * Accepts {@code application/x-ndjson} (one {@code RegistrationRequest} object
+     * per line) or {@code text/csv} (header row {@code email,password,role}).
+     * Responds with {@code application/x-ndjson}: one result per input row, sent
+     * while the upload is still being processed, then a summary line.
+     * </p>
+     */
+    @PostMapping(value = "/bulk",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> bulkRegister(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                              HttpServletRequest request) {
+        Format format = contentType.isCompatibleWith(MediaType.parseMediaType(TEXT_CSV)) ? Format.CSV : Format.NDJSON;
+        StreamingResponseBody body = out -> bulkProvisioningService.provision(request.getInputStream(), format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Lists a user's active sessions.
+     * <p>
+     * Endpoint: GET /api/admin/users/{userId}/sessions?cursor=&amp;limit=
+     * </p>
+     *
+     * @return 200 with one page, or 400 if the cursor is malformed
+     */
+    @GetMapping("/{userId}/sessions")
+    public ResponseEntity<?> listSessions(@PathVariable Long userId,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer limit) {
+        try {
+            SessionPage page = sessionService.listActive(userId, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Revokes one of a user's sessions.
+     * <p>
+     * Endpoint: DELETE /api/admin/users/{userId}/sessions/{sessionId}
+     * </p>
+     *
+     * @return 204, or 404 if the user has no such live session
+     */
+    @DeleteMapping("/{userId}/sessions/{sessionId}")
+    public ResponseEntity<Void> revokeSession(@PathVariable Long userId, @PathVariable Long sessionId) {
+        return sessionService.revoke(userId, sessionId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Revokes all of a user's sessions.
+     * <p>
+     * Endpoint: DELETE /api/admin/users/{userId}/sessions
+     * </p>
+     *
+     * @return 200 with the number of sessions revoked
+     */
+    @DeleteMapping("/{userId}/sessions")
+    public ResponseEntity<Map<String, Integer>> revokeAllSessions(@PathVariable Long userId) {
+        return ResponseEntity.ok(Map.of("revoked", sessionService.revokeAll(userId)));
+    }
+}
@@ -4,12 +4,15 @@ import com.securehealth.backend.dto.LoginRequest;
 import com.securehealth.backend.dto.LoginResponse;
 import com.securehealth.backend.dto.RegistrationRequest;
 import com.securehealth.backend.model.Login;
+import com.securehealth.backend.security.HashingCapacityExceededException;
 import com.securehealth.backend.service.AuthService;
+import com.securehealth.backend.service.SessionUnavailableException;
 import jakarta.servlet.http.Cookie;            
 import jakarta.servlet.http.HttpServletRequest;  
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -54,6 +57,8 @@ public class AuthController {
             resp.put("message", "User registered successfully");
             return ResponseEntity.status(HttpStatus.CREATED).body(resp);
 
+        } catch (HashingCapacityExceededException e) {
+            return serviceBusy(e);
         } catch (RuntimeException e) {
             // In a real app, use a Global Exception Handler instead of try-catch here
             Map<String, String> resp = new HashMap<>();
@@ -98,6 +103,10 @@ public class AuthController {
             // 5. Return Access Token & Role
             return ResponseEntity.ok(loginData);
 
+        } catch (HashingCapacityExceededException e) {
+            return serviceBusy(e);
+        } catch (SessionUnavailableException e) {
+            return serviceBusy(e.getMessage(), 1);
         } catch (RuntimeException e) {
             Map<String, Object> resp = new HashMap<>();
             resp.put("message", e.getMessage());
@@ -108,10 +117,13 @@ public class AuthController {
     // --- LOGOUT (NEW - TASK #12515) ---
     @PostMapping("/logout")
     public ResponseEntity<?> logout(@CookieValue(name = "refreshToken", required = false) String refreshToken,
+                                    @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization,
                                     HttpServletResponse response) {
         
-        // 1. Invalidate in DB
-        if(refreshToken != null) authService.logout(refreshToken);
+        // 1. Invalidate in DB (and denylist the access token, if sent)
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7).trim() : null;
+        if (refreshToken != null || accessToken != null) authService.logout(refreshToken, accessToken);
 
         // 2. Kill the Cookie
         Cookie cookie = new Cookie("refreshToken", null);
@@ -124,4 +136,61 @@ public class AuthController {
         
         return ResponseEntity.ok("Logged out successfully");
     }
+
+    /**
+     * Rotates the refresh token cookie and issues a new access token.
+     * <p>
+     * Endpoint: POST /api/auth/refresh
+     * </p>
+     * <p>
+     * Cheap compared to login: no password hashing, one database statement.
+     * </p>
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@CookieValue(name = "refreshToken", required = false) String refreshToken,
+                                     HttpServletResponse response,
+                                     HttpServletRequest httpRequest) {
+        try {
+            LoginResponse refreshed = authService.refresh(
+                refreshToken,
+                httpRequest.getRemoteAddr(),
+                httpRequest.getHeader("User-Agent")
+            );
+
+            response.addCookie(refreshTokenCookie(refreshed.getRefreshToken(), 7 * 24 * 60 * 60));
+            refreshed.setRefreshToken(null); // Never in the JSON body
+            return ResponseEntity.ok(refreshed);
+
+        } catch (RuntimeException e) {
+            // Rotated, revoked or unknown token: drop the cookie so the client re-authenticates
+            response.addCookie(refreshTokenCookie(null, 0));
+            Map<String, Object> resp = new HashMap<>();
+            resp.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(resp);
+        }
+    }
+
+    private Cookie refreshTokenCookie(String value, int maxAgeSeconds) {
+        Cookie cookie = new Cookie("refreshToken", value);
+        cookie.setHttpOnly(true);
+        cookie.setSecure(false);   // False for Localhost, True for Production
+        cookie.setPath("/api/auth");
+        cookie.setMaxAge(maxAgeSeconds);
+        return cookie;
+    }
+
+    /**
+     * 503 with Retry-After when the password hashing pool is saturated.
+     */
+    private ResponseEntity<Map<String, String>> serviceBusy(HashingCapacityExceededException e) {
+        return serviceBusy(e.getMessage(), e.getRetryAfterSeconds());
+    }
+
+    private ResponseEntity<Map<String, String>> serviceBusy(String message, long retryAfterSeconds) {
+        Map<String, String> resp = new HashMap<>();
+        resp.put("message", message);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(resp);
+    }
 }
\ No newline at end of file
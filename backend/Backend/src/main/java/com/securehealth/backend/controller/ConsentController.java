@@ -0,0 +1,65 @@
+package com.securehealth.backend.controller;
+
+import com.securehealth.backend.model.ConsentType;
+import com.securehealth.backend.security.AuthenticatedUser;
+import com.securehealth.backend.service.ConsentService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * REST Controller for the caller's own consents.
+ * <p>
+ * Every change is appended to {@code consent_log}, which stays the audit trail;
+ * the current state is read from {@link ConsentService}'s in-memory copy.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/consents")
+public class ConsentController {
+
+    @Autowired
+    private ConsentService consentService;
+
+    /**
+     * Lists every consent type with whether the caller currently grants it.
+     * <p>
+     * Endpoint: GET /api/consents
+     * </p>
+     */
+    @GetMapping
+    public ResponseEntity<Map<ConsentType, Boolean>> current(@AuthenticationPrincipal AuthenticatedUser user) {
+        Set<ConsentType> granted = consentService.grantedTypes(user.userId());
+        Map<ConsentType, Boolean> state = new EnumMap<>(ConsentType.class);
+        for (ConsentType type : ConsentType.values()) state.put(type, granted.contains(type));
+        return ResponseEntity.ok(state);
+    }
+
+    /**
+     * Grants or withdraws one consent.
+     * <p>
+     * Endpoint: PUT /api/consents/{type}?granted=true
+     * </p>
+     *
+     * @return 204, or 400 if the type is unknown
+     */
+    @PutMapping("/{type}")
+    public ResponseEntity<Void> change(@AuthenticationPrincipal AuthenticatedUser user,
+                                       @PathVariable ConsentType type,
+                                       @RequestParam boolean granted,
+                                       HttpServletRequest request) {
+        consentService.record(user.userId(), type, granted, request.getRemoteAddr());
+        return ResponseEntity.noContent().build();
+    }
+}
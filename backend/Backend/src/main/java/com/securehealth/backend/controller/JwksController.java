@@ -0,0 +1,56 @@
+package com.securehealth.backend.controller;
+
+import com.securehealth.backend.security.JwtKeyRing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Publishes the public keys access tokens are signed with (RFC 7517 JWK Set).
+ * <p>
+ * Other services fetch this once per {@code jwt.keys.jwks-max-age-seconds} and verify
+ * tokens locally by {@code kid}. New keys appear here well before they start signing
+ * (see {@link JwtKeyRing}), so a cache that honours max-age never meets an unknown kid.
+ * </p>
+ */
+@RestController
+public class JwksController {
+
+    private static final MediaType JWK_SET = MediaType.parseMediaType("application/jwk-set+json");
+
+    @Autowired
+    private JwtKeyRing keyRing;
+
+    @Value("${jwt.keys.jwks-max-age-seconds:300}")
+    private long maxAgeSeconds;
+
+    /**
+     * Endpoint: GET /.well-known/jwks.json
+     *
+     * @param ifNoneMatch ETag of the caller's cached copy, if any
+     * @return the JWK Set, or 304 Not Modified if the cached copy is current
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        JwtKeyRing.JwkSet jwkSet = keyRing.jwkSet();
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic();
+        if (jwkSet.etag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).eTag(jwkSet.etag()).build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(jwkSet.etag())
+                .contentType(JWK_SET)
+                .body(jwkSet.document());
+    }
+}
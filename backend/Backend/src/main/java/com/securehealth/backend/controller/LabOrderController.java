@@ -0,0 +1,116 @@
+package com.securehealth.backend.controller;
+
+import com.securehealth.backend.dto.LabOrderClaim;
+import com.securehealth.backend.model.LabOrderStatus;
+import com.securehealth.backend.security.AuthenticatedUser;
+import com.securehealth.backend.service.LabOrderNotifier;
+import com.securehealth.backend.service.LabOrderQueue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST Controller for the lab technicians' work queue.
+ * <p>
+ * Restricted to LAB_TECHNICIAN and ADMIN (see {@code SecurityConfig}). Leases
+ * belong to the technician who claimed them; the other operations answer 409 if
+ * the caller's lease on the order is gone (expired, or never theirs).
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/lab-orders")
+public class LabOrderController {
+
+    @Autowired
+    private LabOrderQueue labOrderQueue;
+
+    @Autowired
+    private LabOrderNotifier labOrderNotifier;
+
+    /**
+     * Leases the next pending orders to the caller.
+     * <p>
+     * Endpoint: POST /api/lab-orders/claim?limit=5
+     * </p>
+     *
+     * @return 200 with the leased orders, oldest first (empty if none are waiting)
+     */
+    @PostMapping("/claim")
+    public ResponseEntity<List<LabOrderClaim>> claim(@AuthenticationPrincipal AuthenticatedUser user,
+                                                     @RequestParam(defaultValue = "1") int limit) {
+        return ResponseEntity.ok(labOrderQueue.claim(user.userId(), limit));
+    }
+
+    /**
+     * Extends the caller's lease on an order.
+     * <p>
+     * Endpoint: POST /api/lab-orders/{orderId}/lease
+     * </p>
+     *
+     * @return 204, or 409 if the caller holds no live lease on it
+     */
+    @PostMapping("/{orderId}/lease")
+    public ResponseEntity<?> renew(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable Long orderId) {
+        return labOrderQueue.renew(orderId, user.userId()) ? ResponseEntity.noContent().build() : leaseLost();
+    }
+
+    /**
+     * Returns a leased order to the queue.
+     * <p>
+     * Endpoint: DELETE /api/lab-orders/{orderId}/lease
+     * </p>
+     *
+     * @return 204, or 409 if the caller holds no live lease on it
+     */
+    @DeleteMapping("/{orderId}/lease")
+    public ResponseEntity<?> release(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable Long orderId) {
+        return labOrderQueue.release(orderId, user.userId()) ? ResponseEntity.noContent().build() : leaseLost();
+    }
+
+    /**
+     * Approves or rejects a leased order.
+     * <p>
+     * Endpoint: POST /api/lab-orders/{orderId}/decision?status=APPROVED
+     * </p>
+     *
+     * @return 204, 400 if the status is not APPROVED or REJECTED, or 409 if the caller holds no live lease on it
+     */
+    @PostMapping("/{orderId}/decision")
+    public ResponseEntity<?> decide(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable Long orderId,
+                                    @RequestParam LabOrderStatus status) {
+        try {
+            return labOrderQueue.decide(orderId, user.userId(), status) ? ResponseEntity.noContent().build() : leaseLost();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Streams a {@code lab-order} event (data {@code {"orderId": n}}) whenever an order
+     * becomes claimable, and {@code resync} when some may have been missed.
+     * <p>
+     * Endpoint: GET /api/lab-orders/events
+     * </p>
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events() {
+        return labOrderNotifier.subscribe();
+    }
+
+    private static ResponseEntity<Map<String, String>> leaseLost() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", "No live lease on this order"));
+    }
+}
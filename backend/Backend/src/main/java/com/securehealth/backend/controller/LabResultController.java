@@ -0,0 +1,204 @@
+package com.securehealth.backend.controller;
+
+import com.securehealth.backend.dto.LabResultSummary;
+import com.securehealth.backend.repository.LabResultRepository.FileAccess;
+import com.securehealth.backend.security.AuthenticatedUser;
+import com.securehealth.backend.service.LabFileStore;
+import com.securehealth.backend.service.LabResultService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * REST Controller for lab result files.
+ * <p>
+ * Uploading is limited to LAB_TECHNICIAN and ADMIN (see {@code SecurityConfig});
+ * downloads are authorized per file by {@link LabResultService}.
+ * </p>
+ */
+@RestController
+public class LabResultController {
+
+    // Tomcat sendfile request attributes (org.apache.coyote.Constants)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Patient data: any cache must revalidate, and shared caches must not keep it
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    @Autowired
+    private LabResultService labResultService;
+
+    @Autowired
+    private LabFileStore labFileStore;
+
+    /**
+     * Uploads a result file for an approved lab order.
+     * <p>
+     * Endpoint: POST /api/lab-orders/{orderId}/results?filename=scan.pdf
+     * </p>
+     * <p>
+     * The request body is the file itself, with its own Content-Type, streamed to
+     * storage as it arrives. (A multipart body would first be spooled whole by the
+     * servlet container.)
+     * </p>
+     *
+     * @return 201 with the stored result, 400 if the filename or Content-Type is
+     *         blank or too long, 404 if there is no such order, 409 if the order is
+     *         not approved, or 413 if the file is too large
+     */
+    @PostMapping("/api/lab-orders/{orderId}/results")
+    public ResponseEntity<?> upload(@PathVariable Long orderId,
+                                    @RequestParam String filename,
+                                    @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                    HttpServletRequest request) throws IOException {
+        String type = contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        try {
+            Optional<LabResultSummary> result = labResultService.upload(orderId, filename, type, request.getInputStream());
+            return result.<ResponseEntity<?>>map(r -> ResponseEntity.status(HttpStatus.CREATED).body(r))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        } catch (LabFileStore.FileTooLargeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Downloads a result file, whole or as one byte range.
+     * <p>
+     * Endpoint: GET /api/lab-results/{resultId}/file
+     * </p>
+     * <p>
+     * Honours {@code If-None-Match} / {@code If-Modified-Since} (304), {@code Range}
+     * (206, or 416 if unsatisfiable) and {@code If-Range}. The ETag is the content's
+     * SHA-256. Bytes go out through Tomcat's sendfile when the connector offers it,
+     * otherwise through {@code FileChannel.transferTo}; never through a heap copy of the file.
+     * </p>
+     */
+    @GetMapping("/api/lab-results/{resultId}/file")
+    public void download(@PathVariable Long resultId,
+                         @AuthenticationPrincipal AuthenticatedUser user,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        Optional<FileAccess> found = labResultService.fileAccess(resultId, user);
+        if (found.isEmpty()) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        FileAccess file = found.get();
+        long size = file.getSizeBytes();
+        String etag = "\"" + file.getSha256() + "\"";
+        long lastModified = file.getUploadedAt().truncatedTo(ChronoUnit.SECONDS)
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (notModified(request, etag, lastModified)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && rangeStillApplies(request, etag, lastModified)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of(); // malformed: ignored, the whole file is sent
+            }
+            // Several ranges would need multipart/byteranges; sending the whole file is allowed instead
+            if (ranges.size() == 1) {
+                try {
+                    start = ranges.get(0).getRangeStart(size);
+                    end = ranges.get(0).getRangeEnd(size);
+                } catch (IllegalArgumentException e) {
+                    start = size; // unsatisfiable
+                }
+                // HttpRange does not reject a first byte at or past the end ("bytes=100-" of 16 bytes)
+                if (start >= size || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentType(file.getContentType());
+        response.setContentLengthLong(Math.max(length, 0));
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(file.getFileName() != null ? file.getFileName() : "result-" + resultId, StandardCharsets.UTF_8)
+                .build().toString());
+        if (length <= 0 || "HEAD".equals(request.getMethod())) return;
+
+        Optional<Path> local = labFileStore.localPath(file.getStorageKey());
+        if (local.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat writes the file to the socket itself once this handler returns
+            request.setAttribute(SENDFILE_FILENAME, local.get().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        labFileStore.transferTo(file.getStorageKey(), start, length, Channels.newChannel(response.getOutputStream()));
+        response.flushBuffer();
+    }
+
+    private static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return ifNoneMatch.trim().equals("*") || List.of(ifNoneMatch.split("\\s*,\\s*")).contains(etag);
+        }
+        long ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince != -1 && lastModified <= ifModifiedSince;
+    }
+
+    /**
+     * {@code If-Range}: honour the Range only if the client's copy is still current.
+     */
+    private static boolean rangeStillApplies(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) return true;
+        if (ifRange.startsWith("\"")) return ifRange.equals(etag);
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) == lastModified;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
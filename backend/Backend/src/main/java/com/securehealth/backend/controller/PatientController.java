@@ -0,0 +1,131 @@
+package com.securehealth.backend.controller;
+
+import com.securehealth.backend.dto.PatientRecord;
+import com.securehealth.backend.dto.PatientSearchPage;
+import com.securehealth.backend.dto.VisitTimelinePage;
+import com.securehealth.backend.service.PatientSearchIndex;
+import com.securehealth.backend.service.PatientSearchIndex.IndexNotReadyException;
+import com.securehealth.backend.service.PatientRecordService;
+import com.securehealth.backend.service.VisitTimelineService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * REST Controller for patient records.
+ * <p>
+ * Records, search and visit timelines are limited to DOCTOR, NURSE and ADMIN (see {@code SecurityConfig}).
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/patients")
+public class PatientController {
+
+    @Autowired
+    private PatientSearchIndex patientSearchIndex;
+
+    @Autowired
+    private VisitTimelineService visitTimelineService;
+
+    @Autowired
+    private PatientRecordService patientRecordService;
+
+    @Value("${app.patient-search.default-limit:20}")
+    private int defaultLimit;
+
+    /**
+     * Fetches several patients' profiles with address and medical history decrypted.
+     * <p>
+     * Endpoint: GET /api/patients?ids=1,2,3
+     * </p>
+     *
+     * @return 200 with the profiles found, in ID order, or 400 if too many IDs are given
+     */
+    @GetMapping
+    public ResponseEntity<?> records(@RequestParam List<Long> ids) {
+        try {
+            List<PatientRecord> records = patientRecordService.findRecords(ids.stream().distinct().toList());
+            return ResponseEntity.ok(records);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Type-ahead search by name and date of birth, best matches first.
+     * <p>
+     * Endpoint: GET /api/patients/search?q=smi jo 1984&amp;offset=0&amp;limit=20
+     * </p>
+     * <p>
+     * Answered from memory; no database query per keystroke.
+     * </p>
+     *
+     * @return 200 with one page, or 503 with Retry-After while the index is loading
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam("q") String query,
+                                    @RequestParam(defaultValue = "0") int offset,
+                                    @RequestParam(required = false) Integer limit) {
+        try {
+            PatientSearchPage page = patientSearchIndex.search(query, offset, limit == null ? defaultLimit : limit);
+            return ResponseEntity.ok(page);
+        } catch (IndexNotReadyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Lists a patient's visits, newest first, with the doctor on each.
+     * <p>
+     * Endpoint: GET /api/patients/{patientId}/visits?cursor=&amp;limit=
+     * </p>
+     *
+     * @return 200 with one page, 400 if the cursor is malformed, or 404 if there is no such patient
+     */
+    @GetMapping("/{patientId}/visits")
+    public ResponseEntity<?> visits(@PathVariable Long patientId,
+                                    @RequestParam(required = false) String cursor,
+                                    @RequestParam(required = false) Integer limit) {
+        try {
+            Optional<VisitTimelinePage> page = visitTimelineService.page(patientId, cursor, limit);
+            return page.<ResponseEntity<?>>map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Streams a patient's whole visit history, newest first.
+     * <p>
+     * Endpoint: GET /api/patients/{patientId}/visits/stream
+     * </p>
+     * <p>
+     * One {@code VisitTimelineEntry} per line, written as the rows are read.
+     * </p>
+     *
+     * @return 200 with the stream, or 404 if there is no such patient
+     */
+    @GetMapping(value = "/{patientId}/visits/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamVisits(@PathVariable Long patientId) {
+        if (!visitTimelineService.patientExists(patientId)) return ResponseEntity.notFound().build();
+        StreamingResponseBody body = out -> visitTimelineService.stream(patientId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
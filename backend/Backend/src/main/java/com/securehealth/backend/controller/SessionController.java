@@ -0,0 +1,76 @@
+package com.securehealth.backend.controller;
+
+import com.securehealth.backend.dto.SessionPage;
+import com.securehealth.backend.security.AuthenticatedUser;
+import com.securehealth.backend.service.SessionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * REST Controller for the caller's own sessions ("devices signed in").
+ * <p>
+ * Requires a bearer access token; every operation is scoped to the token's user.
+ * Admins manage other accounts' sessions through {@link AdminUserController}.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/sessions")
+public class SessionController {
+
+    @Autowired
+    private SessionService sessionService;
+
+    /**
+     * Lists the caller's active sessions.
+     * <p>
+     * Endpoint: GET /api/sessions?cursor=&amp;limit=
+     * </p>
+     *
+     * @return 200 with one page, or 400 if the cursor is malformed
+     */
+    @GetMapping
+    public ResponseEntity<?> list(@AuthenticationPrincipal AuthenticatedUser user,
+                                  @RequestParam(required = false) String cursor,
+                                  @RequestParam(required = false) Integer limit) {
+        try {
+            SessionPage page = sessionService.listActive(user.userId(), cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Revokes one of the caller's sessions.
+     * <p>
+     * Endpoint: DELETE /api/sessions/{sessionId}
+     * </p>
+     *
+     * @return 204, or 404 if the caller has no such live session
+     */
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<Void> revoke(@AuthenticationPrincipal AuthenticatedUser user,
+                                       @PathVariable Long sessionId) {
+        return sessionService.revoke(user.userId(), sessionId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Revokes all of the caller's sessions, including the current one.
+     * <p>
+     * Endpoint: DELETE /api/sessions
+     * </p>
+     *
+     * @return 200 with the number of sessions revoked
+     */
+    @DeleteMapping
+    public ResponseEntity<Map<String, Integer>> revokeAll(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(Map.of("revoked", sessionService.revokeAll(user.userId())));
+    }
+}
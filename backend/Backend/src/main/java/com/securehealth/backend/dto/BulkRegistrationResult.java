@@ -0,0 +1,30 @@
+package com.securehealth.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one row of a bulk registration, streamed back as one NDJSON line.
+ * <p>
+ * {@code line} is the row's line number in the upload, so results can be matched
+ * to input rows; passwords are never echoed.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkRegistrationResult {
+
+    public enum Status {
+        CREATED, DUPLICATE, INVALID, FAILED
+    }
+
+    private long line;
+    private String email;
+    private Status status;
+    private Long userId;
+    private String message;
+}
@@ -0,0 +1,21 @@
+package com.securehealth.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A lab order leased to the calling technician until {@code leasedUntil}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LabOrderClaim {
+    private Long orderId;
+    private Long visitId;
+    private String testType;
+    private LocalDateTime createdAt;
+    private LocalDateTime leasedUntil;
+}
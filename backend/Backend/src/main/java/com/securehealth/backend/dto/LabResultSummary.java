@@ -0,0 +1,23 @@
+package com.securehealth.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A stored lab result file, as returned after upload.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LabResultSummary {
+    private Long resultId;
+    private Long orderId;
+    private String fileName;
+    private String contentType;
+    private long sizeBytes;
+    private String sha256;
+    private LocalDateTime uploadedAt;
+}
@@ -0,0 +1,21 @@
+package com.securehealth.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * A patient's profile with its encrypted fields decrypted, for clinical staff.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientRecord {
+    private Long profileId;
+    private String fullName;
+    private LocalDate dateOfBirth;
+    private String address;
+    private String medicalHistory;
+}
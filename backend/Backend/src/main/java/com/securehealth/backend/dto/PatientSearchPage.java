@@ -0,0 +1,25 @@
+package com.securehealth.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of ranked patient search results.
+ * <p>
+ * {@code total} counts every match; when {@code truncated} is set the query was
+ * too broad and only the first candidates were ranked, so the client should ask
+ * for more characters rather than page further.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientSearchPage {
+    private List<PatientSearchResult> results;
+    private int offset;
+    private int total;
+    private boolean truncated;
+}
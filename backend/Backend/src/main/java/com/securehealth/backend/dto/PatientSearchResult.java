@@ -0,0 +1,24 @@
+package com.securehealth.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * One patient matching a type-ahead search.
+ * <p>
+ * {@code score} orders the results: whole-word matches beat prefix matches, which
+ * beat approximate (trigram) matches.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientSearchResult {
+    private Long profileId;
+    private String fullName;
+    private LocalDate dateOfBirth;
+    private int score;
+}
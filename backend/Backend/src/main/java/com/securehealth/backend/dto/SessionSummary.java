@@ -0,0 +1,24 @@
+package com.securehealth.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One active (unrevoked, unexpired) session, as listed to its owner or an admin.
+ * <p>
+ * The refresh token hash and family ID never leave the server.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionSummary {
+    private Long sessionId;
+    private String ipAddress;
+    private String userAgent;
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+}
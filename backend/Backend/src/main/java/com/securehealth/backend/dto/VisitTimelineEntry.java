@@ -0,0 +1,26 @@
+package com.securehealth.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One visit on a patient's timeline, with the treating doctor.
+ * <p>
+ * The doctor fields are null for a visit without a doctor on record.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VisitTimelineEntry {
+    private Long visitId;
+    private LocalDateTime visitDate;
+    private Long doctorId;
+    private String doctorName;
+    private String doctorSpecialization;
+    private String diagnosisNotes;
+    private String prescriptionText;
+}
@@ -0,0 +1,22 @@
+package com.securehealth.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a patient's visits, newest first.
+ * <p>
+ * {@code nextCursor} is passed back as {@code ?cursor=} for the following page;
+ * it is null on the last page.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VisitTimelinePage {
+    private List<VisitTimelineEntry> visits;
+    private String nextCursor;
+}
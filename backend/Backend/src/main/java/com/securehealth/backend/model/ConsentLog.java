@@ -0,0 +1,42 @@
+package com.securehealth.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One consent change, as appended to {@code consent_log}.
+ * <p>
+ * Rows are never updated or deleted: the log is the audit record of who granted or
+ * withdrew what, and when. The current state is derived from it by
+ * {@link com.securehealth.backend.service.ConsentService}.
+ * </p>
+ */
+@Data
+@Entity
+@Table(name = "consent_log", indexes = {
+        @Index(name = "idx_consent_log_user", columnList = "user_id, log_id")
+})
+public class ConsentLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long logId;
+
+    @Column(updatable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false, length = 50)
+    private ConsentType consentType;
+
+    @Column(nullable = false, updatable = false)
+    private boolean isGranted;
+
+    @Column(updatable = false, length = 45)
+    private String ipAddress;
+
+    @Column(updatable = false)
+    private LocalDateTime changedAt = LocalDateTime.now();
+}
@@ -0,0 +1,15 @@
+package com.securehealth.backend.model;
+
+/**
+ * What a patient can consent to, stored in {@code consent_log.consent_type}.
+ * <p>
+ * {@link com.securehealth.backend.service.ConsentService} keeps each user's current
+ * grants as one bit per type (by ordinal), so there can be at most 64 types and new
+ * ones must be appended, never inserted or reordered.
+ * </p>
+ */
+public enum ConsentType {
+    DATA_SHARING,
+    RESEARCH,
+    MARKETING
+}
@@ -0,0 +1,30 @@
+package com.securehealth.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Professional profile of a doctor account, as stored in {@code doctor_profile}.
+ */
+@Data
+@Entity
+@Table(name = "doctor_profile")
+public class DoctorProfile {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long profileId;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", unique = true)
+    private Login user;
+
+    @Column(nullable = false, length = 100)
+    private String fullName;
+
+    @Column(nullable = false, unique = true, length = 50)
+    private String licenseNumber;
+
+    @Column(length = 100)
+    private String specialization;
+}
@@ -0,0 +1,31 @@
+package com.securehealth.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * One data key for field-level encryption, as stored in {@code field_encryption_keys}.
+ * <p>
+ * The key itself is kept wrapped (AES-GCM under {@code app.field-encryption.master-key});
+ * see {@link com.securehealth.backend.security.FieldEncryptionService}. Keys are never
+ * updated or deleted: every value encrypted under one names it.
+ * </p>
+ */
+@Data
+@Entity
+@Table(name = "field_encryption_keys")
+public class FieldEncryptionKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer keyId;
+
+    /** Base64 of the 12-byte IV followed by the AES-GCM sealed 256-bit data key. */
+    @Column(nullable = false, length = 128)
+    private String wrappedKey;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,54 @@
+package com.securehealth.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * One access-token signing key pair, as stored in {@code jwt_signing_keys}.
+ * <p>
+ * The private half is kept wrapped (AES-GCM under {@code jwt.keys.encryption-key});
+ * see {@link com.securehealth.backend.security.JpaSigningKeyStore}. Keys are created by
+ * {@link com.securehealth.backend.security.JwtKeyRing} and never updated except to set
+ * {@code expiresAt} when a successor is published.
+ * </p>
+ */
+@Data
+@Entity
+@Table(name = "jwt_signing_keys")
+public class JwtSigningKey {
+
+    /** RFC 7638 thumbprint of the public key, sent as the token's {@code kid} header. */
+    @Id
+    @Column(length = 64)
+    private String kid;
+
+    /**
+     * Position in the rotation sequence. Unique, so two nodes rotating at the same
+     * moment cannot both publish a successor.
+     */
+    @Column(nullable = false, unique = true)
+    private long generation;
+
+    @Column(nullable = false, length = 16)
+    private String algorithm;
+
+    /** Base64 X.509 SubjectPublicKeyInfo. */
+    @Column(nullable = false, length = 512)
+    private String publicKey;
+
+    /** Base64 of the 12-byte IV followed by the AES-GCM sealed PKCS#8 private key. */
+    @Column(nullable = false, length = 1024)
+    private String privateKey;
+
+    /** When the key starts signing; it is published (JWKS) from creation. */
+    @Column(nullable = false)
+    private Instant activatesAt;
+
+    /** When the last token the key may have signed has expired; null while it is current. */
+    private Instant expiresAt;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+}
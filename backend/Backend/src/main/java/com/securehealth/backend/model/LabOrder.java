@@ -0,0 +1,44 @@
+package com.securehealth.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A test ordered during a visit, as stored in {@code lab_orders}.
+ * <p>
+ * While PENDING, an order is handed to lab technicians through
+ * {@link com.securehealth.backend.service.LabOrderQueue}, which leases it to one of
+ * them until {@code leasedUntil}.
+ * </p>
+ */
+@Data
+@Entity
+@Table(name = "lab_orders")
+public class LabOrder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long orderId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "visit_id")
+    private Visit visit;
+
+    @Column(nullable = false, length = 100)
+    private String testType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private LabOrderStatus status = LabOrderStatus.PENDING;
+
+    @Column(updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    /** Login of the technician holding the lease; null when unclaimed. */
+    private Long leasedBy;
+
+    /** When the lease runs out and the order returns to the queue. */
+    private LocalDateTime leasedUntil;
+}
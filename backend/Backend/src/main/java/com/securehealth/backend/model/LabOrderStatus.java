@@ -0,0 +1,10 @@
+package com.securehealth.backend.model;
+
+/**
+ * Review state of a lab order. Results are only accepted for APPROVED orders.
+ */
+public enum LabOrderStatus {
+    PENDING,
+    APPROVED,
+    REJECTED
+}
@@ -0,0 +1,50 @@
+package com.securehealth.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A result file uploaded for a lab order, as stored in {@code lab_results}.
+ * <p>
+ * The bytes live in the {@link com.securehealth.backend.service.LabFileStore};
+ * {@code fileUrl} is their key there. Files are content-addressed, so two results
+ * with the same bytes share one stored file.
+ * </p>
+ */
+@Data
+@Entity
+@Table(name = "lab_results", indexes = {
+        @Index(name = "idx_lab_results_order_id", columnList = "order_id")
+})
+public class LabResult {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long resultId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id")
+    private LabOrder order;
+
+    /** Key of the file in the LabFileStore. */
+    @Column(length = 255)
+    private String fileUrl;
+
+    /** Name the file was uploaded under, offered back on download. */
+    @Column(length = 255)
+    private String fileName;
+
+    @Column(length = 100)
+    private String contentType;
+
+    private Long sizeBytes;
+
+    /** Hex SHA-256 of the content; also the download ETag. */
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(updatable = false)
+    private LocalDateTime uploadedAt = LocalDateTime.now();
+}
@@ -1,10 +1,12 @@
 package com.securehealth.backend.model;
 
+import com.securehealth.backend.security.CredentialCacheInvalidator;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 /**
  * Represents the core Identity entity for authentication.
@@ -21,18 +23,21 @@ import java.time.LocalDateTime;
 @AllArgsConstructor // Generates full constructor
 @Entity
 @Table(name = "login")
+@EntityListeners(CredentialCacheInvalidator.class) // keeps CredentialCache in step with entity writes
 public class Login {
 
     /**
      * Unique identifier for the user.
-     * Auto-incremented by the database.
+     * Drawn from {@code login_user_id_seq} in blocks of 50, so inserts can be
+     * JDBC-batched (IDENTITY would force one round trip per row).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "login_seq")
+    @SequenceGenerator(name = "login_seq", sequenceName = "login_user_id_seq", allocationSize = 50)
     private Long userId;
 
     /**
-     * User's unique email address.
+     * User's unique email address, stored normalized ({@link #normalizeEmail}).
      * Used as the username for login.
      */
     @Column(unique = true, nullable = false)
@@ -79,6 +84,25 @@ public class Login {
     @Column(updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    /**
+     * Whether a lock is in force at the given time.
+     * <p>
+     * A lock expires by itself once {@code lockoutUntil} has passed; a lock
+     * without {@code lockoutUntil} stays until cleared.
+     * </p>
+     */
+    public boolean isLockedAt(LocalDateTime now) {
+        return isLocked && (lockoutUntil == null || lockoutUntil.isAfter(now));
+    }
+
+    /**
+     * Canonical form of an email address: trimmed and lower-cased.
+     * Accounts are unique by this form ({@code idx_login_email_normalized}).
+     */
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
     // Compatibility methods for tests expecting snake_case naming
     public Long getUser_id() {
         return userId;
@@ -0,0 +1,42 @@
+package com.securehealth.backend.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns of a {@link Login} that authentication reads: identity, role,
+ * password hash and lock state.
+ * <p>
+ * Loaded by {@code LoginRepository.findCredentialsByEmail} and held by
+ * {@code CredentialCache}. Immutable, so a cached instance can be shared
+ * across threads; callers work on the detached copy from {@link #toLogin()}.
+ * </p>
+ */
+public record LoginCredentials(Long userId,
+                               String email,
+                               Role role,
+                               String passwordHash,
+                               boolean locked,
+                               LocalDateTime lockoutUntil,
+                               int failedAttempts) {
+
+    /**
+     * A detached {@link Login} carrying these values.
+     * <p>
+     * Never save it: the copy may be stale, and a merge would write every column
+     * back over newer lock, role or password changes. Writes go through the
+     * targeted updates on {@code LoginRepository}.
+     * </p>
+     */
+    public Login toLogin() {
+        Login login = new Login();
+        login.setUserId(userId);
+        login.setEmail(email);
+        login.setRole(role);
+        login.setPasswordHash(passwordHash);
+        login.setLocked(locked);
+        login.setLockoutUntil(lockoutUntil);
+        login.setFailedAttempts(failedAttempts);
+        login.setCreatedAt(null);
+        return login;
+    }
+}
@@ -0,0 +1,45 @@
+package com.securehealth.backend.model;
+
+import com.securehealth.backend.security.EncryptedStringConverter;
+import com.securehealth.backend.service.PatientSearchIndexUpdater;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Clinical profile of a patient account, as stored in {@code patient_profile}.
+ * <p>
+ * Name and date of birth are searchable through
+ * {@link com.securehealth.backend.service.PatientSearchIndex}. Address and medical
+ * history are plaintext here and encrypted in their {@code *_encrypted} columns by
+ * {@link EncryptedStringConverter}.
+ * </p>
+ */
+@Data
+@Entity
+@Table(name = "patient_profile")
+@EntityListeners(PatientSearchIndexUpdater.class) // keeps PatientSearchIndex in step with entity writes
+public class PatientProfile {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long profileId;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", unique = true)
+    private Login user;
+
+    @Column(nullable = false, length = 100)
+    private String fullName;
+
+    private LocalDate dateOfBirth;
+
+    @Convert(converter = EncryptedStringConverter.class)
+    @Column(name = "address_encrypted", columnDefinition = "TEXT")
+    private String address;
+
+    @Convert(converter = EncryptedStringConverter.class)
+    @Column(name = "medical_history_encrypted", columnDefinition = "TEXT")
+    private String medicalHistory;
+}
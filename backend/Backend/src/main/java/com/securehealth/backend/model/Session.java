@@ -6,19 +6,33 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "sessions")
+@Table(name = "sessions", indexes = {
+        @Index(name = "idx_sessions_family_id", columnList = "family_id"),
+        @Index(name = "idx_sessions_expires_at", columnList = "expires_at, session_id"),
+        @Index(name = "idx_sessions_revoked_at", columnList = "revoked_at, session_id"),
+        @Index(name = "idx_sessions_user_active", columnList = "user_id, is_revoked, expires_at, session_id")
+})
 public class Session {
+    // Pooled sequence (blocks of 50) so session inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sessions_seq")
+    @SequenceGenerator(name = "sessions_seq", sequenceName = "sessions_session_id_seq", allocationSize = 50)
     private Long sessionId;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private Login user;
 
-    @Column(nullable = false)
+    @Column(nullable = false, unique = true)
     private String refreshTokenHash; // Stores the SHA-256 Hash
 
+    /**
+     * Groups every session produced by rotating the refresh token of one login.
+     * Replaying an already-rotated token revokes the whole family.
+     */
+    @Column(length = 36)
+    private String familyId;
+
     private String ipAddress;
     private String userAgent;
 
@@ -27,6 +41,8 @@ public class Session {
 
     private boolean isRevoked = false;
 
+    private LocalDateTime revokedAt;
+
     @Column(updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
-}
\ No newline at end of file
+}
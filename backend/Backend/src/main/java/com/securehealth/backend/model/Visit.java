@@ -0,0 +1,42 @@
+package com.securehealth.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One clinical encounter between a patient and a doctor, as stored in {@code visits}.
+ * <p>
+ * Both sides are lazy; the visit timeline reads doctor details through a join in
+ * its own query rather than by navigating {@link #doctor} row by row.
+ * </p>
+ */
+@Data
+@Entity
+@Table(name = "visits", indexes = {
+        @Index(name = "idx_visits_patient_timeline", columnList = "patient_id, visit_date, visit_id")
+})
+public class Visit {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long visitId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "patient_id")
+    private PatientProfile patient;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "doctor_id")
+    private DoctorProfile doctor;
+
+    @Column(nullable = false)
+    private LocalDateTime visitDate = LocalDateTime.now();
+
+    @Column(columnDefinition = "TEXT")
+    private String diagnosisNotes;
+
+    @Column(columnDefinition = "TEXT")
+    private String prescriptionText;
+}
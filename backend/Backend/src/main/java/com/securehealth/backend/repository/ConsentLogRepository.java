@@ -0,0 +1,53 @@
+package com.securehealth.backend.repository;
+
+import com.securehealth.backend.model.ConsentLog;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface ConsentLogRepository extends JpaRepository<ConsentLog, Long> {
+
+    /**
+     * One consent change, without the audit columns.
+     */
+    interface ChangeRow {
+        Long getUserId();
+        String getConsentType();
+        Boolean getGranted();
+    }
+
+    /**
+     * The whole log in the order it was written, for folding into current state.
+     * Must be consumed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = """
+            SELECT c.user_id AS "userId", c.consent_type AS "consentType", c.is_granted AS "granted"
+              FROM consent_log c
+             WHERE c.user_id IS NOT NULL
+             ORDER BY c.log_id
+            """, nativeQuery = true)
+    Stream<ChangeRow> streamChanges();
+
+    /**
+     * One user's changes in the order they were written (uses idx_consent_log_user).
+     */
+    @Query(value = """
+            SELECT c.user_id AS "userId", c.consent_type AS "consentType", c.is_granted AS "granted"
+              FROM consent_log c
+             WHERE c.user_id = :userId
+             ORDER BY c.log_id
+            """, nativeQuery = true)
+    List<ChangeRow> findChanges(@Param("userId") Long userId);
+}
@@ -0,0 +1,16 @@
+package com.securehealth.backend.repository;
+
+import com.securehealth.backend.model.FieldEncryptionKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface FieldEncryptionKeyRepository extends JpaRepository<FieldEncryptionKey, Integer> {
+
+    /**
+     * The newest data key, which new values are encrypted under.
+     */
+    Optional<FieldEncryptionKey> findFirstByOrderByKeyIdDesc();
+}
@@ -0,0 +1,40 @@
+package com.securehealth.backend.repository;
+
+import com.securehealth.backend.model.JwtSigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface JwtSigningKeyRepository extends JpaRepository<JwtSigningKey, String> {
+
+    /**
+     * Keys that can still verify a token at {@code now}, newest generation first.
+     */
+    @Query("SELECT k FROM JwtSigningKey k WHERE k.expiresAt IS NULL OR k.expiresAt > :now ORDER BY k.generation DESC")
+    List<JwtSigningKey> findLive(@Param("now") Instant now);
+
+    /**
+     * Schedules the retirement of every current key other than {@code kid}, once
+     * {@code kid} has been published as their successor.
+     */
+    @Modifying
+    @Query("UPDATE JwtSigningKey k SET k.expiresAt = :expiresAt WHERE k.kid <> :kid AND k.expiresAt IS NULL")
+    int retireAllExcept(@Param("kid") String kid, @Param("expiresAt") Instant expiresAt);
+
+    /**
+     * Removes keys no unexpired token can refer to.
+     *
+     * @return number of keys removed
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM JwtSigningKey k WHERE k.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
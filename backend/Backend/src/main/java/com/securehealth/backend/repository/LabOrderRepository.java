@@ -0,0 +1,139 @@
+package com.securehealth.backend.repository;
+
+import com.securehealth.backend.model.LabOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LabOrderRepository extends JpaRepository<LabOrder, Long> {
+
+    /**
+     * An order just leased to a technician.
+     */
+    interface ClaimedOrder {
+        Long getOrderId();
+
+        Long getVisitId();
+
+        String getTestType();
+
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getLeasedUntil();
+    }
+
+    /**
+     * Leases up to {@code limit} claimable orders, oldest first, to {@code userId}.
+     * <p>
+     * Rows another transaction is claiming right now are skipped rather than waited
+     * for ({@code SKIP LOCKED}), so any number of technicians can claim at once and
+     * each gets different orders. {@code idx_lab_orders_pending} keeps the scan to
+     * pending orders only.
+     * </p>
+     */
+    @Transactional
+    @Query(value = """
+            WITH next AS (
+                SELECT order_id
+                  FROM lab_orders
+                 WHERE status = 'PENDING'
+                   AND (leased_until IS NULL OR leased_until < :now)
+                 ORDER BY created_at, order_id
+                 LIMIT :limit
+                   FOR UPDATE SKIP LOCKED
+            )
+            UPDATE lab_orders o
+               SET leased_by = :userId, leased_until = :leasedUntil
+              FROM next
+             WHERE o.order_id = next.order_id
+            RETURNING o.order_id AS "orderId", o.visit_id AS "visitId", o.test_type AS "testType",
+                      o.created_at AS "createdAt", o.leased_until AS "leasedUntil"
+            """, nativeQuery = true)
+    List<ClaimedOrder> claimPending(@Param("userId") Long userId,
+                                    @Param("now") LocalDateTime now,
+                                    @Param("leasedUntil") LocalDateTime leasedUntil,
+                                    @Param("limit") int limit);
+
+    /**
+     * Extends a live lease held by {@code userId}.
+     *
+     * @return 1 if extended, 0 if the lease is not theirs or has run out
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE lab_orders
+               SET leased_until = :leasedUntil
+             WHERE order_id = :orderId
+               AND status = 'PENDING'
+               AND leased_by = :userId
+               AND leased_until >= :now
+            """, nativeQuery = true)
+    int renewLease(@Param("orderId") Long orderId,
+                   @Param("userId") Long userId,
+                   @Param("now") LocalDateTime now,
+                   @Param("leasedUntil") LocalDateTime leasedUntil);
+
+    /**
+     * Gives a live lease held by {@code userId} back to the queue.
+     *
+     * @return 1 if released, 0 if the lease is not theirs or has run out
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE lab_orders
+               SET leased_by = NULL, leased_until = NULL
+             WHERE order_id = :orderId
+               AND status = 'PENDING'
+               AND leased_by = :userId
+               AND leased_until >= :now
+            """, nativeQuery = true)
+    int releaseLease(@Param("orderId") Long orderId,
+                     @Param("userId") Long userId,
+                     @Param("now") LocalDateTime now);
+
+    /**
+     * Records the decision on an order whose live lease {@code userId} holds, ending the lease.
+     *
+     * @param status APPROVED or REJECTED
+     * @return 1 if decided, 0 if the lease is not theirs or has run out
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE lab_orders
+               SET status = :status, leased_by = NULL, leased_until = NULL
+             WHERE order_id = :orderId
+               AND status = 'PENDING'
+               AND leased_by = :userId
+               AND leased_until >= :now
+            """, nativeQuery = true)
+    int decideLeased(@Param("orderId") Long orderId,
+                     @Param("userId") Long userId,
+                     @Param("now") LocalDateTime now,
+                     @Param("status") String status);
+
+    /**
+     * Clears leases that ran out, so their orders are announced as claimable again.
+     * Claims already ignore expired leases; this only makes the return visible.
+     *
+     * @return orders returned to the queue
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE lab_orders
+               SET leased_by = NULL, leased_until = NULL
+             WHERE status = 'PENDING'
+               AND leased_until < :now
+            """, nativeQuery = true)
+    int returnExpiredLeases(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,51 @@
+package com.securehealth.backend.repository;
+
+import com.securehealth.backend.model.LabResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface LabResultRepository extends JpaRepository<LabResult, Long> {
+
+    /**
+     * What serving a result file needs: where it is, how to describe it, and whose it is.
+     */
+    interface FileAccess {
+        Long getResultId();
+
+        String getStorageKey();
+
+        String getFileName();
+
+        String getContentType();
+
+        Long getSizeBytes();
+
+        String getSha256();
+
+        LocalDateTime getUploadedAt();
+
+        /** Login of the patient the order was made for; null if the order has no visit. */
+        Long getPatientUserId();
+    }
+
+    /**
+     * A result's file metadata and owning patient, following lab_orders to the visit, in one query.
+     */
+    @Query(value = """
+            SELECT r.result_id AS "resultId", r.file_url AS "storageKey", r.file_name AS "fileName",
+                   r.content_type AS "contentType", r.size_bytes AS "sizeBytes", r.sha256 AS "sha256",
+                   r.uploaded_at AS "uploadedAt", p.user_id AS "patientUserId"
+              FROM lab_results r
+              JOIN lab_orders o ON o.order_id = r.order_id
+              LEFT JOIN visits v ON v.visit_id = o.visit_id
+              LEFT JOIN patient_profile p ON p.profile_id = v.patient_id
+             WHERE r.result_id = :resultId
+            """, nativeQuery = true)
+    Optional<FileAccess> findFileAccess(@Param("resultId") Long resultId);
+}
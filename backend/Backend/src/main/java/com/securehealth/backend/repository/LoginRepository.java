@@ -1,9 +1,18 @@
 package com.securehealth.backend.repository;
 
 import com.securehealth.backend.model.Login;
+import com.securehealth.backend.model.LoginCredentials;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -20,15 +29,30 @@ import java.util.Optional;
 public interface LoginRepository extends JpaRepository<Login, Long> {
 
     /**
-     * Finds a user by their email address.
+     * Finds a user by their email address, ignoring case and surrounding whitespace.
      * <p>
-     * Used during authentication to retrieve the password hash and role.
+     * Used during authentication to retrieve the password hash and role. The
+     * comparison matches the unique index on {@code lower(trim(email))}, so this
+     * is a single index probe.
      * </p>
      *
      * @param email The unique email address to search for.
      * @return An Optional containing the Login entity if found, or empty if not.
      */
-    Optional<Login> findByEmail(String email);
+    @Query("SELECT l FROM Login l WHERE lower(trim(l.email)) = lower(trim(:email))")
+    Optional<Login> findByEmail(@Param("email") String email);
+
+    /**
+     * Same lookup as {@link #findByEmail}, reading only the columns login needs.
+     * <p>
+     * Feeds {@link com.securehealth.backend.security.CredentialCache}; a constructor
+     * expression, so nothing enters the persistence context.
+     * </p>
+     */
+    @Query("SELECT new com.securehealth.backend.model.LoginCredentials("
+            + "l.userId, l.email, l.role, l.passwordHash, l.isLocked, l.lockoutUntil, l.failedAttempts) "
+            + "FROM Login l WHERE lower(trim(l.email)) = lower(trim(:email))")
+    Optional<LoginCredentials> findCredentialsByEmail(@Param("email") String email);
 
     /**
      * Checks if a user exists with the given email.
@@ -40,4 +64,89 @@ public interface LoginRepository extends JpaRepository<Login, Long> {
      * @return true if the email is already registered, false otherwise.
      */
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    /**
+     * Returns which of the given emails are already registered.
+     * <p>
+     * One set-based query per chunk of a bulk registration, instead of an
+     * {@link #existsByEmail} round trip per row.
+     * </p>
+     *
+     * @param emails candidate email addresses, already normalized ({@link Login#normalizeEmail})
+     * @return the subset that already exists, normalized
+     */
+    @Query("SELECT lower(trim(l.email)) FROM Login l WHERE lower(trim(l.email)) IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Creates an account unless the email is taken, in one statement.
+     * <p>
+     * The email is stored normalized. A conflict on the unique index over
+     * {@code lower(trim(email))} inserts nothing, so concurrent sign-ups for the
+     * same address cannot both succeed and no separate existence check is needed.
+     * </p>
+     *
+     * @return the new user ID, or empty if the email is already registered
+     */
+    @Transactional
+    @Query(value = """
+            INSERT INTO login (user_id, email, password_hash, role, failed_attempts, is_locked, created_at)
+            VALUES (nextval('login_user_id_seq'), lower(trim(:email)), :passwordHash, :role, 0, false, :now)
+            ON CONFLICT DO NOTHING
+            RETURNING user_id
+            """, nativeQuery = true)
+    Optional<Long> insertIfAbsent(@Param("email") String email,
+                                  @Param("passwordHash") String passwordHash,
+                                  @Param("role") String role,
+                                  @Param("now") LocalDateTime now);
+
+    /**
+     * Locks an account unless a lock is already in force.
+     * <p>
+     * Always commits in its own transaction, so the lock sticks even if a caller
+     * that holds one rolls back after the failed login. The condition makes
+     * concurrent callers (threads or nodes) write the row at most once per lockout.
+     * </p>
+     *
+     * @return 1 if this call locked the account, 0 if it was already locked
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("UPDATE Login l SET l.isLocked = true, l.lockoutUntil = :until, l.failedAttempts = :attempts "
+            + "WHERE l.userId = :userId AND (l.isLocked = false OR l.lockoutUntil <= :now)")
+    int lockAccount(@Param("userId") Long userId,
+                    @Param("attempts") int attempts,
+                    @Param("until") LocalDateTime until,
+                    @Param("now") LocalDateTime now);
+
+    /**
+     * Clears a lock that has expired, along with the failure count.
+     * <p>
+     * Touches only the lock columns, and only while no lock is in force, so it
+     * cannot undo a lockout applied after the caller read the row.
+     * </p>
+     *
+     * @return 1 if the row was reset, 0 if a lock is in force again or the user is gone
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Login l SET l.isLocked = false, l.lockoutUntil = null, l.failedAttempts = 0 "
+            + "WHERE l.userId = :userId AND (l.isLocked = false OR l.lockoutUntil <= :now)")
+    int clearExpiredLock(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    /**
+     * Replaces the password hash, provided it is still the one the caller verified.
+     * <p>
+     * Used to upgrade a hash to the current Argon2 parameters. The compare on the
+     * old hash lets a concurrent password change win.
+     * </p>
+     *
+     * @return 1 if the hash was replaced, 0 if it had changed meanwhile
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Login l SET l.passwordHash = :newHash WHERE l.userId = :userId AND l.passwordHash = :oldHash")
+    int updatePasswordHash(@Param("userId") Long userId,
+                           @Param("oldHash") String oldHash,
+                           @Param("newHash") String newHash);
+}
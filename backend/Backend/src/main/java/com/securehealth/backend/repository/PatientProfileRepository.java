@@ -0,0 +1,81 @@
+package com.securehealth.backend.repository;
+
+import com.securehealth.backend.model.PatientProfile;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface PatientProfileRepository extends JpaRepository<PatientProfile, Long> {
+
+    /**
+     * The columns {@link com.securehealth.backend.service.PatientSearchIndex} indexes.
+     */
+    interface SearchRow {
+        Long getProfileId();
+
+        String getFullName();
+
+        LocalDate getDateOfBirth();
+    }
+
+    /**
+     * Every profile's searchable columns, read through a server-side cursor.
+     * <p>
+     * Must be consumed inside a transaction (the Postgres driver only streams with
+     * autocommit off) and closed afterwards. Rows are scalar projections, so
+     * nothing accumulates in the persistence context.
+     * </p>
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.profileId AS profileId, p.fullName AS fullName, p.dateOfBirth AS dateOfBirth FROM PatientProfile p")
+    Stream<SearchRow> streamSearchRows();
+
+    @Query("SELECT p.profileId AS profileId, p.fullName AS fullName, p.dateOfBirth AS dateOfBirth "
+            + "FROM PatientProfile p WHERE p.profileId = :profileId")
+    Optional<SearchRow> findSearchRow(@Param("profileId") Long profileId);
+
+    @Query("SELECT p.profileId AS profileId, p.fullName AS fullName, p.dateOfBirth AS dateOfBirth "
+            + "FROM PatientProfile p WHERE p.profileId IN :profileIds")
+    List<SearchRow> findSearchRows(@Param("profileIds") Collection<Long> profileIds);
+
+    /**
+     * A profile with its encrypted columns as stored, for bulk decryption.
+     */
+    interface RecordRow {
+        Long getProfileId();
+
+        String getFullName();
+
+        LocalDate getDateOfBirth();
+
+        String getAddressEncrypted();
+
+        String getMedicalHistoryEncrypted();
+    }
+
+    /**
+     * Profiles by ID with the encrypted columns as stored; native, so the
+     * per-value {@code EncryptedStringConverter} does not run.
+     */
+    @Query(value = """
+            SELECT profile_id AS "profileId", full_name AS "fullName", date_of_birth AS "dateOfBirth",
+                   address_encrypted AS "addressEncrypted", medical_history_encrypted AS "medicalHistoryEncrypted"
+              FROM patient_profile
+             WHERE profile_id IN (:profileIds)
+            """, nativeQuery = true)
+    List<RecordRow> findRecordRows(@Param("profileIds") Collection<Long> profileIds);
+}
@@ -2,10 +2,250 @@ package com.securehealth.backend.repository;
 
 import com.securehealth.backend.model.Session;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface SessionRepository extends JpaRepository<Session, Long> {
     Optional<Session> findByRefreshTokenHash(String refreshTokenHash);
-}
\ No newline at end of file
+
+    /**
+     * Identity of the user whose session was rotated.
+     */
+    interface RotatedSession {
+        Long getUserId();
+
+        String getEmail();
+
+        String getRole();
+    }
+
+    /**
+     * Rotates a refresh token in a single round trip.
+     * <p>
+     * Revokes the live session matching {@code oldHash}, inserts its successor in the
+     * same family (keeping the original absolute expiry) and returns the owner's
+     * identity for the new access token. Row locking on the UPDATE makes concurrent
+     * rotations of the same token mutually exclusive: only one of them can win.
+     * </p>
+     * <p>
+     * An account whose lock is in force (the same test as {@code Login.isLockedAt})
+     * rotates nothing. Its sessions are left alive, so they work again once a
+     * temporary lock expires, and a lockout forced by guessing passwords does not
+     * also log the owner out everywhere.
+     * </p>
+     * <p>
+     * The raw {@code nextval} is safe next to Hibernate's pooled allocation: the
+     * sequence steps by 50, so each value is the top of a block nobody else uses.
+     * </p>
+     *
+     * @return the session owner, or empty if the token is unknown, expired or already revoked,
+     *         or its account is locked
+     */
+    @Transactional
+    @Query(value = """
+            WITH rotated AS (
+                UPDATE sessions s
+                   SET is_revoked = true, revoked_at = :now
+                  FROM login l
+                 WHERE s.refresh_token_hash = :oldHash
+                   AND s.is_revoked = false
+                   AND s.expires_at > :now
+                   AND l.user_id = s.user_id
+                   AND NOT (l.is_locked AND (l.lockout_until IS NULL OR l.lockout_until > :now))
+             RETURNING s.user_id, s.family_id, s.expires_at
+            ), issued AS (
+                INSERT INTO sessions (session_id, user_id, refresh_token_hash, family_id, ip_address, user_agent,
+                                      expires_at, is_revoked, created_at)
+                SELECT nextval('sessions_session_id_seq'), user_id, :newHash, family_id, :ipAddress, :userAgent,
+                       expires_at, false, :now
+                  FROM rotated
+             RETURNING user_id
+            )
+            SELECT l.user_id AS "userId", l.email AS "email", CAST(l.role AS VARCHAR) AS "role"
+              FROM issued
+              JOIN login l ON l.user_id = issued.user_id
+            """, nativeQuery = true)
+    Optional<RotatedSession> rotateRefreshToken(@Param("oldHash") String oldHash,
+                                                @Param("newHash") String newHash,
+                                                @Param("ipAddress") String ipAddress,
+                                                @Param("userAgent") String userAgent,
+                                                @Param("now") LocalDateTime now);
+
+    /**
+     * Reuse detection: if {@code refreshTokenHash} belongs to an already revoked
+     * session, revokes every live session in its family.
+     *
+     * @return number of sessions revoked; non-zero means a stolen token was replayed
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE sessions
+               SET is_revoked = true, revoked_at = :now
+             WHERE is_revoked = false
+               AND family_id = (SELECT s.family_id FROM sessions s
+                                 WHERE s.refresh_token_hash = :refreshTokenHash
+                                   AND s.is_revoked = true)
+            """, nativeQuery = true)
+    int revokeFamilyOfReusedToken(@Param("refreshTokenHash") String refreshTokenHash,
+                                  @Param("now") LocalDateTime now);
+
+    /**
+     * One chunk deleted by the session reaper; the last row is the keyset cursor for the next chunk.
+     */
+    interface ReapedChunk {
+        long getDeleted();
+
+        LocalDateTime getLastTime();
+
+        Long getLastId();
+    }
+
+    /**
+     * Deletes up to {@code chunkSize} sessions that expired before {@code cutoff},
+     * walking {@code (expires_at, session_id)} upwards from the given cursor.
+     * <p>
+     * The keyset cursor keeps each chunk a short index range scan that never
+     * revisits dead index entries left by earlier chunks.
+     * </p>
+     *
+     * @return the chunk's size and cursor, or empty when nothing is left
+     */
+    @Transactional
+    @Query(value = """
+            WITH doomed AS (
+                SELECT session_id, expires_at
+                  FROM sessions
+                 WHERE expires_at < :cutoff
+                   AND (expires_at, session_id) > (:afterTime, :afterId)
+                 ORDER BY expires_at, session_id
+                 LIMIT :chunkSize
+            ), deleted AS (
+                DELETE FROM sessions s USING doomed d
+                 WHERE s.session_id = d.session_id
+             RETURNING s.session_id
+            )
+            SELECT (SELECT count(*) FROM deleted) AS "deleted",
+                   last.expires_at AS "lastTime", last.session_id AS "lastId"
+              FROM (SELECT expires_at, session_id FROM doomed
+                     ORDER BY expires_at DESC, session_id DESC LIMIT 1) last
+            """, nativeQuery = true)
+    Optional<ReapedChunk> deleteExpiredChunk(@Param("cutoff") LocalDateTime cutoff,
+                                             @Param("afterTime") LocalDateTime afterTime,
+                                             @Param("afterId") long afterId,
+                                             @Param("chunkSize") int chunkSize);
+
+    /**
+     * Same as {@link #deleteExpiredChunk} for sessions revoked before {@code cutoff}
+     * (logged out or rotated), keyed on {@code (revoked_at, session_id)}.
+     */
+    @Transactional
+    @Query(value = """
+            WITH doomed AS (
+                SELECT session_id, revoked_at
+                  FROM sessions
+                 WHERE revoked_at < :cutoff
+                   AND (revoked_at, session_id) > (:afterTime, :afterId)
+                 ORDER BY revoked_at, session_id
+                 LIMIT :chunkSize
+            ), deleted AS (
+                DELETE FROM sessions s USING doomed d
+                 WHERE s.session_id = d.session_id
+             RETURNING s.session_id
+            )
+            SELECT (SELECT count(*) FROM deleted) AS "deleted",
+                   last.revoked_at AS "lastTime", last.session_id AS "lastId"
+              FROM (SELECT revoked_at, session_id FROM doomed
+                     ORDER BY revoked_at DESC, session_id DESC LIMIT 1) last
+            """, nativeQuery = true)
+    Optional<ReapedChunk> deleteRevokedChunk(@Param("cutoff") LocalDateTime cutoff,
+                                             @Param("afterTime") LocalDateTime afterTime,
+                                             @Param("afterId") long afterId,
+                                             @Param("chunkSize") int chunkSize);
+
+    /**
+     * Columns of a session shown to its owner or an admin.
+     */
+    interface ActiveSession {
+        Long getSessionId();
+
+        String getIpAddress();
+
+        String getUserAgent();
+
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getExpiresAt();
+    }
+
+    /**
+     * One page of a user's live sessions, latest expiry first, strictly after the
+     * keyset cursor {@code (beforeTime, beforeId)}.
+     * <p>
+     * {@code idx_sessions_user_active} answers the filter, the order and the cursor
+     * as one index range scan that stops after {@code limit} rows, however deep the
+     * page. It also carries the selected columns, so the scan is index-only once the
+     * table is vacuumed.
+     * </p>
+     */
+    @Query(value = """
+            SELECT session_id AS "sessionId", ip_address AS "ipAddress", user_agent AS "userAgent",
+                   created_at AS "createdAt", expires_at AS "expiresAt"
+              FROM sessions
+             WHERE user_id = :userId
+               AND is_revoked = false
+               AND expires_at > :now
+               AND (expires_at, session_id) < (:beforeTime, :beforeId)
+             ORDER BY expires_at DESC, session_id DESC
+             LIMIT :limit
+            """, nativeQuery = true)
+    List<ActiveSession> findActivePage(@Param("userId") Long userId,
+                                       @Param("now") LocalDateTime now,
+                                       @Param("beforeTime") LocalDateTime beforeTime,
+                                       @Param("beforeId") long beforeId,
+                                       @Param("limit") int limit);
+
+    /**
+     * Revokes one live session, only if it belongs to {@code userId}.
+     *
+     * @return 1 if revoked, 0 if it is unknown, someone else's, or already revoked or expired
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE sessions
+               SET is_revoked = true, revoked_at = :now
+             WHERE session_id = :sessionId
+               AND user_id = :userId
+               AND is_revoked = false
+               AND expires_at > :now
+            """, nativeQuery = true)
+    int revokeSession(@Param("userId") Long userId,
+                      @Param("sessionId") Long sessionId,
+                      @Param("now") LocalDateTime now);
+
+    /**
+     * Revokes every live session of a user in one statement. Expired rows are left
+     * alone; the reaper deletes them.
+     *
+     * @return number of sessions revoked
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE sessions
+               SET is_revoked = true, revoked_at = :now
+             WHERE user_id = :userId
+               AND is_revoked = false
+               AND expires_at > :now
+            """, nativeQuery = true)
+    int revokeAllSessions(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+}
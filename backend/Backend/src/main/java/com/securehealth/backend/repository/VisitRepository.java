@@ -0,0 +1,87 @@
+package com.securehealth.backend.repository;
+
+import com.securehealth.backend.model.Visit;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface VisitRepository extends JpaRepository<Visit, Long> {
+
+    /**
+     * A visit with its doctor's name and specialization, read in the same row.
+     */
+    interface TimelineRow {
+        Long getVisitId();
+
+        LocalDateTime getVisitDate();
+
+        Long getDoctorId();
+
+        String getDoctorName();
+
+        String getDoctorSpecialization();
+
+        String getDiagnosisNotes();
+
+        String getPrescriptionText();
+    }
+
+    /**
+     * One page of a patient's visits, newest first, strictly after the keyset
+     * cursor {@code (beforeTime, beforeId)}.
+     * <p>
+     * The doctor is joined in, so a page is one query whatever its size.
+     * {@code idx_visits_patient_timeline} answers the filter, the order and the
+     * cursor as one index range scan that stops after {@code limit} rows.
+     * </p>
+     */
+    @Query(value = """
+            SELECT v.visit_id AS "visitId", v.visit_date AS "visitDate",
+                   d.profile_id AS "doctorId", d.full_name AS "doctorName",
+                   d.specialization AS "doctorSpecialization",
+                   v.diagnosis_notes AS "diagnosisNotes", v.prescription_text AS "prescriptionText"
+              FROM visits v
+              LEFT JOIN doctor_profile d ON d.profile_id = v.doctor_id
+             WHERE v.patient_id = :patientId
+               AND (v.visit_date, v.visit_id) < (:beforeTime, :beforeId)
+             ORDER BY v.visit_date DESC, v.visit_id DESC
+             LIMIT :limit
+            """, nativeQuery = true)
+    List<TimelineRow> findTimelinePage(@Param("patientId") Long patientId,
+                                       @Param("beforeTime") LocalDateTime beforeTime,
+                                       @Param("beforeId") long beforeId,
+                                       @Param("limit") int limit);
+
+    /**
+     * A patient's whole visit history, newest first, read through a server-side cursor.
+     * <p>
+     * Same single query as {@link #findTimelinePage} without the cursor and limit.
+     * Must be consumed inside a transaction (the Postgres driver only streams with
+     * autocommit off) and closed afterwards.
+     * </p>
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = """
+            SELECT v.visit_id AS "visitId", v.visit_date AS "visitDate",
+                   d.profile_id AS "doctorId", d.full_name AS "doctorName",
+                   d.specialization AS "doctorSpecialization",
+                   v.diagnosis_notes AS "diagnosisNotes", v.prescription_text AS "prescriptionText"
+              FROM visits v
+              LEFT JOIN doctor_profile d ON d.profile_id = v.doctor_id
+             WHERE v.patient_id = :patientId
+             ORDER BY v.visit_date DESC, v.visit_id DESC
+            """, nativeQuery = true)
+    Stream<TimelineRow> streamTimeline(@Param("patientId") Long patientId);
+}
@@ -0,0 +1,106 @@
+package com.securehealth.backend.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+
+import java.util.Arrays;
+
+/**
+ * Benchmarks the host and picks Argon2 cost parameters for a per-hash latency target.
+ * <p>
+ * Starting from the configured parameters (treated as a security floor, never
+ * lowered), the calibrator first raises parallelism up to the allowed maximum,
+ * then doubles memory while a hash stays well under the target, and finally adds
+ * iterations to use the remaining budget. Each measurement is the median of a few
+ * runs after a warm-up, so JIT and page faults don't skew the result.
+ * </p>
+ * <p>
+ * Enabled with {@code security.argon2.calibrate=true}; the chosen parameters are
+ * logged so they can be pinned in configuration for the node size.
+ * </p>
+ */
+public final class Argon2Calibrator {
+
+    private static final Logger log = LoggerFactory.getLogger(Argon2Calibrator.class);
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+    private static final int WARMUP_RUNS = 2;
+    private static final int MEASURED_RUNS = 5;
+
+    /**
+     * Argon2 cost parameters.
+     *
+     * @param saltLength  salt length in bytes
+     * @param hashLength  hash length in bytes
+     * @param parallelism lanes per hash
+     * @param memoryKb    memory cost in KiB
+     * @param iterations  time cost
+     */
+    public record Argon2Parameters(int saltLength, int hashLength, int parallelism, int memoryKb, int iterations) {
+
+        public Argon2PasswordEncoder toEncoder() {
+            return new Argon2PasswordEncoder(saltLength, hashLength, parallelism, memoryKb, iterations);
+        }
+    }
+
+    private Argon2Calibrator() {
+    }
+
+    /**
+     * Picks parameters whose hash time approaches (without exceeding) the target.
+     *
+     * @param floor          minimum acceptable parameters
+     * @param targetMillis   desired time for one hash on this host
+     * @param maxMemoryKb    upper bound on memory cost
+     * @param maxParallelism upper bound on lanes per hash
+     * @return calibrated parameters, never weaker than {@code floor}
+     */
+    public static Argon2Parameters calibrate(Argon2Parameters floor, long targetMillis,
+                                             int maxMemoryKb, int maxParallelism) {
+        int parallelism = Math.max(floor.parallelism(),
+                Math.min(maxParallelism, Runtime.getRuntime().availableProcessors()));
+        Argon2Parameters current = new Argon2Parameters(floor.saltLength(), floor.hashLength(),
+                parallelism, floor.memoryKb(), floor.iterations());
+        double elapsed = measureMillis(current);
+
+        // 1. Memory first: it is the main defense against GPU/ASIC cracking
+        while (current.memoryKb() * 2L <= maxMemoryKb && elapsed * 2 <= targetMillis) {
+            current = new Argon2Parameters(current.saltLength(), current.hashLength(), current.parallelism(),
+                    current.memoryKb() * 2, current.iterations());
+            elapsed = measureMillis(current);
+        }
+
+        // 2. Spend the remaining budget on iterations (cost grows linearly)
+        double perIteration = elapsed / current.iterations();
+        int iterations = current.iterations();
+        while ((iterations + 1) * perIteration <= targetMillis) {
+            iterations++;
+        }
+        if (iterations != current.iterations()) {
+            current = new Argon2Parameters(current.saltLength(), current.hashLength(), current.parallelism(),
+                    current.memoryKb(), iterations);
+            elapsed = measureMillis(current);
+        }
+
+        log.info("Argon2 calibrated for {} ms target: memory={} KiB, iterations={}, parallelism={} ({} ms/hash)",
+                targetMillis, current.memoryKb(), current.iterations(), current.parallelism(),
+                String.format("%.1f", elapsed));
+        return current;
+    }
+
+    private static double measureMillis(Argon2Parameters parameters) {
+        Argon2PasswordEncoder encoder = parameters.toEncoder();
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            encoder.encode(SAMPLE_PASSWORD);
+        }
+        long[] samples = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[MEASURED_RUNS / 2] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,16 @@
+package com.securehealth.backend.security;
+
+/**
+ * Principal placed in the SecurityContext for requests carrying a valid access token.
+ * <p>
+ * Built purely from the token claims, so authorizing a request never needs a
+ * database lookup.
+ * </p>
+ *
+ * @param userId  the {@code userId} claim
+ * @param email   the token subject
+ * @param role    the {@code role} claim (a {@link com.securehealth.backend.model.Role} name)
+ * @param tokenId the {@code jti} claim, checked against {@link TokenDenylist}
+ */
+public record AuthenticatedUser(Long userId, String email, String role, String tokenId) {
+}
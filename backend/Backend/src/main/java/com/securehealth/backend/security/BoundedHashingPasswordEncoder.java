@@ -0,0 +1,147 @@
+package com.securehealth.backend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PasswordEncoder decorator that runs the expensive Argon2 work on a dedicated pool.
+ * <p>
+ * The pool is sized to the number of cores (hashing is CPU-bound, more threads only
+ * add contention) and fronted by a bounded queue. When the queue is full, or a task
+ * has already waited longer than the configured limit, the call fails fast with
+ * {@link HashingCapacityExceededException} instead of piling more work onto the CPU.
+ * Servlet threads therefore never run Argon2 themselves and health checks and other
+ * endpoints keep responding during a login burst.
+ * </p>
+ * <p>
+ * Publishes {@code auth.hashing.queue.depth}, {@code auth.hashing.queue.wait},
+ * {@code auth.hashing.duration} and {@code auth.hashing.rejected}.
+ * </p>
+ */
+public class BoundedHashingPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long maxQueueWaitNanos;
+    private final long retryAfterSeconds;
+
+    private final Timer queueWait;
+    private final Timer hashDuration;
+    private final Counter rejected;
+
+    public BoundedHashingPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity,
+                                         long maxQueueWaitMillis, long retryAfterSeconds,
+                                         MeterRegistry registry) {
+        this.delegate = delegate;
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMillis);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HasherThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("auth.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a thread")
+                .register(registry);
+        Gauge.builder("auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing threads currently busy")
+                .register(registry);
+        this.queueWait = Timer.builder("auth.hashing.queue.wait")
+                .description("Time a hashing task spent queued before running")
+                .register(registry);
+        this.hashDuration = Timer.builder("auth.hashing.duration")
+                .description("Time spent computing a password hash")
+                .register(registry);
+        this.rejected = Counter.builder("auth.hashing.rejected")
+                .description("Hashing requests shed because the pool was saturated")
+                .register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Only decodes the parameter header, cheap enough for the caller's thread
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * The wrapped encoder, for callers that manage their own parallelism (e.g. bulk jobs).
+     */
+    public PasswordEncoder getDelegate() {
+        return delegate;
+    }
+
+    private <T> T submit(Callable<T> hashing) {
+        long enqueuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                long waited = startedAt - enqueuedAt;
+                queueWait.record(waited, TimeUnit.NANOSECONDS);
+                if (waited > maxQueueWaitNanos) {
+                    // The caller has likely given up already; don't burn CPU on it
+                    rejected.increment();
+                    throw new HashingCapacityExceededException(retryAfterSeconds);
+                }
+                try {
+                    return hashing.call();
+                } finally {
+                    hashDuration.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new HashingCapacityExceededException(retryAfterSeconds);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private static final class HasherThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "argon2-hasher-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.securehealth.backend.security;
+
+import com.securehealth.backend.model.Login;
+import com.securehealth.backend.model.LoginCredentials;
+import com.securehealth.backend.repository.LoginRepository;
+import com.securehealth.backend.util.IdBroadcastChannel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through near cache of {@link LoginCredentials}, keyed by normalized email.
+ * <p>
+ * Repeat logins are resolved in memory instead of by an index probe on
+ * {@code login}. Only existing accounts are cached, so registration never has to
+ * invalidate anything. Every entry is bounded by a TTL, and the cache as a whole
+ * by entry count and by an estimate of its heap footprint.
+ * </p>
+ * <p>
+ * Writes that change an account invalidate it by user ID through
+ * {@link #invalidate}: the {@link CredentialCacheInvalidator} entity listener
+ * covers entity saves (password rehash, lock clearing, role changes) and
+ * {@link LoginAttemptGuard} covers the bulk-update lockout. Invalidations reach
+ * the other nodes on the {@value #TOPIC} topic of {@link IdBroadcastChannel}; if
+ * that subscription is lost and re-established, the whole cache is dropped, as
+ * invalidations may have been missed meanwhile.
+ * </p>
+ * <p>
+ * A load that overlaps an invalidation is returned but not cached, so a row read
+ * just before a lockout commits can't outlive it here.
+ * </p>
+ */
+@Component
+public class CredentialCache {
+
+    static final String TOPIC = "auth:credentials";
+
+    private final LoginRepository loginRepository;
+    private final IdBroadcastChannel channel;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlMillis;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, String> keysByUser = new ConcurrentHashMap<>();
+    private final AtomicLong bytes = new AtomicLong();
+    // Bumped before every eviction by user ID; loads that straddle a bump are not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public CredentialCache(LoginRepository loginRepository,
+                           IdBroadcastChannel channel,
+                           MeterRegistry meterRegistry,
+                           @Value("${security.credential-cache.max-entries:20000}") int maxEntries,
+                           @Value("${security.credential-cache.max-bytes:8388608}") long maxBytes,
+                           @Value("${security.credential-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.loginRepository = loginRepository;
+        this.channel = channel;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttlMillis = ttlSeconds * 1000;
+
+        this.hits = Counter.builder("auth.credential.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("auth.credential.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("auth.credential.cache.size", entries, Map::size).register(meterRegistry);
+        Gauge.builder("auth.credential.cache.bytes", bytes, AtomicLong::get).register(meterRegistry);
+
+        channel.subscribe(TOPIC, this::evict, this::evictAll);
+    }
+
+    /**
+     * Looks an account up by email (case and surrounding whitespace ignored).
+     *
+     * @return a fresh detached {@link Login} per call, so callers may modify it
+     */
+    public Optional<Login> find(String email) {
+        String key = Login.normalizeEmail(email);
+        if (key == null) return Optional.empty();
+
+        long now = System.currentTimeMillis();
+        Entry cached = entries.get(key);
+        if (cached != null) {
+            if (cached.expiresAtMillis() > now) {
+                hits.increment();
+                return Optional.of(cached.credentials().toLogin());
+            }
+            remove(key, cached);
+        }
+
+        misses.increment();
+        long generation = invalidations.get();
+        Optional<LoginCredentials> loaded = loginRepository.findCredentialsByEmail(key);
+        loaded.ifPresent(credentials -> store(key, credentials, generation, now));
+        return loaded.map(LoginCredentials::toLogin);
+    }
+
+    /**
+     * Drops the account here and on every other node. Call after the change has committed.
+     */
+    public void invalidate(long userId) {
+        evict(userId);
+        channel.publish(TOPIC, userId);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    long bytes() {
+        return bytes.get();
+    }
+
+    private void evict(long userId) {
+        invalidations.incrementAndGet();
+        String key = keysByUser.remove(userId);
+        if (key == null) return;
+        Entry entry = entries.get(key);
+        if (entry != null && entry.credentials().userId() == userId) {
+            remove(key, entry);
+        }
+    }
+
+    private void evictAll() {
+        invalidations.incrementAndGet();
+        entries.forEach(this::remove);
+    }
+
+    private void store(String key, LoginCredentials credentials, long generation, long now) {
+        if (maxEntries <= 0 || ttlMillis <= 0) return;
+
+        Entry entry = new Entry(credentials, now + ttlMillis, weigh(key, credentials));
+        if (entries.size() >= maxEntries || bytes.get() + entry.bytes() > maxBytes) {
+            shrink(now);
+        }
+        Entry previous = entries.put(key, entry);
+        bytes.addAndGet(entry.bytes() - (previous == null ? 0 : previous.bytes()));
+        keysByUser.put(credentials.userId(), key);
+
+        // Checked after publishing the entry: either the invalidation saw it, or we see the invalidation
+        if (invalidations.get() != generation) {
+            remove(key, entry);
+        }
+    }
+
+    private void remove(String key, Entry entry) {
+        if (entries.remove(key, entry)) {
+            bytes.addAndGet(-entry.bytes());
+            keysByUser.remove(entry.credentials().userId(), key);
+        }
+    }
+
+    /**
+     * Drops expired entries first; if either bound is still exceeded, sheds down
+     * to three quarters of it so eviction cost is amortized over many inserts.
+     */
+    private void shrink(long now) {
+        entries.forEach((key, entry) -> {
+            if (entry.expiresAtMillis() <= now) remove(key, entry);
+        });
+        int targetEntries = maxEntries - maxEntries / 4;
+        long targetBytes = maxBytes - maxBytes / 4;
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while ((entries.size() > targetEntries || bytes.get() > targetBytes) && it.hasNext()) {
+            Map.Entry<String, Entry> next = it.next();
+            remove(next.getKey(), next.getValue());
+        }
+    }
+
+    /**
+     * Rough heap footprint of one entry: strings at two bytes per char (an upper
+     * bound with compact strings) plus a fixed allowance for the objects around them.
+     */
+    private static long weigh(String key, LoginCredentials credentials) {
+        long chars = key.length() + credentials.email().length() + credentials.passwordHash().length();
+        return 200 + 2 * chars;
+    }
+
+    private record Entry(LoginCredentials credentials, long expiresAtMillis, long bytes) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.securehealth.backend.security;
+
+import com.securehealth.backend.model.Login;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener on {@link Login}: any update or delete made through the
+ * entity invalidates the account in {@link CredentialCache}.
+ * <p>
+ * Instantiated by Hibernate through Spring's bean container. The invalidation
+ * waits for the commit, since a cache miss in between would otherwise reload
+ * and re-cache the old row. Bulk JPQL updates bypass entity listeners; their
+ * callers invalidate explicitly.
+ * </p>
+ */
+public class CredentialCacheInvalidator {
+
+    // Resolved per event: the listener is built with the EntityManagerFactory, before
+    // the cache (which needs a repository) can exist. Absent in slices such as @DataJpaTest.
+    @Autowired
+    private ObjectProvider<CredentialCache> credentialCacheProvider;
+
+    @PostUpdate
+    @PostRemove
+    void onChange(Login login) {
+        CredentialCache credentialCache = credentialCacheProvider == null ? null : credentialCacheProvider.getIfAvailable();
+        if (credentialCache == null || login.getUserId() == null) return;
+        long userId = login.getUserId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    credentialCache.invalidate(userId);
+                }
+            });
+        } else {
+            credentialCache.invalidate(userId);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.securehealth.backend.security;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Encrypts a String attribute with {@link FieldEncryptionService} on the way to
+ * the database and decrypts it on the way back.
+ * <p>
+ * Applied per attribute with {@code @Convert(converter = EncryptedStringConverter.class)}.
+ * Entity loads decrypt row by row; list reads that can skip the entity should read
+ * the stored column and use {@link FieldEncryptionService#decryptAll} instead.
+ * </p>
+ */
+@Converter
+public class EncryptedStringConverter implements AttributeConverter<String, String> {
+
+    // Resolved per call, like the entity listeners: converters are built with the
+    // EntityManagerFactory, before the service exists.
+    @Autowired
+    private ObjectProvider<FieldEncryptionService> encryptionProvider;
+
+    @Override
+    public String convertToDatabaseColumn(String attribute) {
+        return attribute == null ? null : service().encrypt(attribute);
+    }
+
+    @Override
+    public String convertToEntityAttribute(String dbData) {
+        return dbData == null ? null : service().decrypt(dbData);
+    }
+
+    private FieldEncryptionService service() {
+        FieldEncryptionService service = encryptionProvider == null ? null : encryptionProvider.getIfAvailable();
+        // Never fall back to writing plaintext
+        if (service == null) throw new IllegalStateException("FieldEncryptionService is not available");
+        return service;
+    }
+}
@@ -0,0 +1,254 @@
+package com.securehealth.backend.security;
+
+import com.securehealth.backend.model.FieldEncryptionKey;
+import com.securehealth.backend.repository.FieldEncryptionKeyRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envelope encryption of individual database columns (AES-256-GCM).
+ * <p>
+ * Each value is encrypted under a data key; data keys are stored in
+ * {@code field_encryption_keys} wrapped under {@code app.field-encryption.master-key},
+ * which never touches the database. A stored value is {@code v1:} followed by
+ * base64 of the data key ID, a 12-byte IV and the sealed text; the key ID is
+ * authenticated as associated data.
+ * </p>
+ * <p>
+ * Unwrapped data keys are cached for {@code data-key-ttl-seconds} and each thread
+ * reuses one {@link Cipher}, so a field costs one GCM operation rather than a key
+ * unwrap plus cipher lookup. A new data key is created once the newest one is
+ * older than {@code data-key-rotation-days}; older keys keep decrypting.
+ * </p>
+ * <p>
+ * Values without the {@code v1:} prefix are returned as they are, so rows written
+ * before encryption stay readable and are encrypted on their next save.
+ * </p>
+ */
+@Component
+public class FieldEncryptionService implements DisposableBean {
+
+    static final String PREFIX = "v1:";
+
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+    private static final int KEY_ID_LENGTH = Integer.BYTES;
+    // Below this many values a parallel decrypt costs more in hand-offs than it saves
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    private static final ThreadLocal<Cipher> CIPHERS = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(CIPHER);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES-GCM is not available", e);
+        }
+    });
+
+    private final FieldEncryptionKeyRepository repository;
+    private final SecretKey masterKey;
+    private final long keyTtlNanos;
+    private final Duration rotationAge;
+    private final ForkJoinPool decryptPool;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private final ConcurrentHashMap<Integer, CachedKey> dataKeys = new ConcurrentHashMap<>();
+    private final Object activeKeyLock = new Object();
+    private volatile ActiveKey activeKey;
+
+    public FieldEncryptionService(FieldEncryptionKeyRepository repository,
+                                  @Value("${app.field-encryption.master-key}") String masterKey,
+                                  @Value("${app.field-encryption.data-key-ttl-seconds:300}") long keyTtlSeconds,
+                                  @Value("${app.field-encryption.data-key-rotation-days:90}") long rotationDays,
+                                  @Value("${app.field-encryption.decrypt-parallelism:0}") int decryptParallelism) {
+        this.repository = repository;
+        if (masterKey == null || masterKey.isBlank()) {
+            throw new IllegalArgumentException("app.field-encryption.master-key is not set (FIELD_ENCRYPTION_MASTER_KEY)");
+        }
+        byte[] keyBytes = Base64.getDecoder().decode(masterKey);
+        if (keyBytes.length != 16 && keyBytes.length != 32) {
+            throw new IllegalArgumentException("app.field-encryption.master-key must be 16 or 32 bytes, base64 encoded");
+        }
+        this.masterKey = new SecretKeySpec(keyBytes, "AES");
+        this.keyTtlNanos = TimeUnit.SECONDS.toNanos(keyTtlSeconds);
+        this.rotationAge = Duration.ofDays(rotationDays);
+        this.decryptPool = new ForkJoinPool(decryptParallelism > 0
+                ? decryptParallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Encrypts one value under the current data key.
+     *
+     * @return the stored form, or null for null
+     */
+    public String encrypt(String plaintext) {
+        if (plaintext == null) return null;
+        ActiveKey key = activeKey(System.nanoTime());
+        byte[] iv = new byte[IV_LENGTH];
+        secureRandom.nextBytes(iv);
+        try {
+            Cipher cipher = CIPHERS.get();
+            cipher.init(Cipher.ENCRYPT_MODE, key.key(), new GCMParameterSpec(TAG_BITS, iv));
+            byte[] header = ByteBuffer.allocate(KEY_ID_LENGTH).putInt(key.keyId()).array();
+            cipher.updateAAD(header);
+            byte[] sealed = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
+            return PREFIX + Base64.getEncoder().encodeToString(ByteBuffer
+                    .allocate(KEY_ID_LENGTH + IV_LENGTH + sealed.length)
+                    .put(header).put(iv).put(sealed).array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot encrypt field", e);
+        }
+    }
+
+    /**
+     * Reverses {@link #encrypt(String)}.
+     *
+     * @return the plaintext, null for null, or the value itself if it was never encrypted
+     * @throws IllegalStateException if the value was tampered with or its data key is unknown
+     */
+    public String decrypt(String stored) {
+        return decrypt(stored, System.nanoTime());
+    }
+
+    /**
+     * Decrypts many values, in parallel once there are enough to be worth it.
+     * <p>
+     * The distinct data keys are resolved first, so the workers only ever hit the
+     * key cache. The result is in the order of {@code stored}.
+     * </p>
+     */
+    public List<String> decryptAll(List<String> stored) {
+        long now = System.nanoTime();
+        stored.stream()
+                .filter(value -> value != null && value.startsWith(PREFIX))
+                .map(FieldEncryptionService::keyIdOf)
+                .distinct()
+                .forEach(keyId -> dataKey(keyId, now));
+        if (stored.size() < PARALLEL_THRESHOLD) {
+            List<String> plain = new ArrayList<>(stored.size());
+            for (String value : stored) plain.add(decrypt(value, now));
+            return plain;
+        }
+        return decryptPool.submit(() -> stored.parallelStream().map(value -> decrypt(value, now)).toList()).join();
+    }
+
+    private String decrypt(String stored, long now) {
+        if (stored == null || !stored.startsWith(PREFIX)) return stored;
+        byte[] bytes = Base64.getDecoder().decode(stored.substring(PREFIX.length()));
+        int keyId = ByteBuffer.wrap(bytes, 0, KEY_ID_LENGTH).getInt();
+        try {
+            Cipher cipher = CIPHERS.get();
+            cipher.init(Cipher.DECRYPT_MODE, dataKey(keyId, now),
+                    new GCMParameterSpec(TAG_BITS, bytes, KEY_ID_LENGTH, IV_LENGTH));
+            cipher.updateAAD(bytes, 0, KEY_ID_LENGTH);
+            int offset = KEY_ID_LENGTH + IV_LENGTH;
+            return new String(cipher.doFinal(bytes, offset, bytes.length - offset), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot decrypt field under data key " + keyId, e);
+        }
+    }
+
+    /**
+     * The key new values are encrypted under, creating one if there is none or it is due for rotation.
+     */
+    ActiveKey activeKey(long now) {
+        ActiveKey current = activeKey;
+        if (current != null && now < current.refreshAt()) return current;
+        synchronized (activeKeyLock) {
+            current = activeKey;
+            if (current != null && now < current.refreshAt()) return current;
+
+            FieldEncryptionKey newest = repository.findFirstByOrderByKeyIdDesc()
+                    .filter(key -> key.getCreatedAt().plus(rotationAge).isAfter(Instant.now()))
+                    .orElseGet(this::createDataKey);
+            // Two nodes rotating at once both create a key; each encrypts under its own until the
+            // next refresh, and every node can decrypt both.
+            current = new ActiveKey(newest.getKeyId(), dataKey(newest.getKeyId(), now), now + keyTtlNanos);
+            activeKey = current;
+            return current;
+        }
+    }
+
+    /**
+     * An unwrapped data key, from the cache while it is fresh.
+     */
+    SecretKey dataKey(int keyId, long now) {
+        CachedKey cached = dataKeys.get(keyId);
+        if (cached != null && now < cached.expiresAt()) return cached.key();
+        cached = dataKeys.compute(keyId, (id, existing) -> existing != null && now < existing.expiresAt()
+                ? existing
+                : new CachedKey(unwrap(repository.findById(id)
+                        .orElseThrow(() -> new IllegalStateException("Unknown field encryption key " + id))),
+                        now + keyTtlNanos));
+        return cached.key();
+    }
+
+    private FieldEncryptionKey createDataKey() {
+        try {
+            KeyGenerator generator = KeyGenerator.getInstance("AES");
+            generator.init(256, secureRandom);
+            byte[] key = generator.generateKey().getEncoded();
+            byte[] iv = new byte[IV_LENGTH];
+            secureRandom.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.ENCRYPT_MODE, masterKey, new GCMParameterSpec(TAG_BITS, iv));
+            byte[] sealed = cipher.doFinal(key);
+
+            FieldEncryptionKey entity = new FieldEncryptionKey();
+            entity.setWrappedKey(Base64.getEncoder().encodeToString(
+                    ByteBuffer.allocate(iv.length + sealed.length).put(iv).put(sealed).array()));
+            entity.setCreatedAt(Instant.now());
+            return repository.save(entity);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot create field encryption key", e);
+        }
+    }
+
+    private SecretKey unwrap(FieldEncryptionKey entity) {
+        try {
+            byte[] bytes = Base64.getDecoder().decode(entity.getWrappedKey());
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.DECRYPT_MODE, masterKey, new GCMParameterSpec(TAG_BITS, bytes, 0, IV_LENGTH));
+            return new SecretKeySpec(cipher.doFinal(bytes, IV_LENGTH, bytes.length - IV_LENGTH), "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot unwrap field encryption key " + entity.getKeyId()
+                    + " (wrong app.field-encryption.master-key?)", e);
+        }
+    }
+
+    private static int keyIdOf(String stored) {
+        // The first 8 base64 characters are the first 6 bytes, enough for the key ID
+        byte[] head = Base64.getDecoder().decode(stored.substring(PREFIX.length(), PREFIX.length() + 8));
+        return ByteBuffer.wrap(head, 0, KEY_ID_LENGTH).getInt();
+    }
+
+    @Override
+    public void destroy() {
+        decryptPool.shutdown();
+    }
+
+    record ActiveKey(int keyId, SecretKey key, long refreshAt) {
+    }
+
+    private record CachedKey(SecretKey key, long expiresAt) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.securehealth.backend.security;
+
+/**
+ * Thrown when the password hashing pool cannot accept more work.
+ * <p>
+ * Controllers map this to 503 Service Unavailable with a {@code Retry-After}
+ * header, so a login burst is shed quickly instead of tying up request threads.
+ * </p>
+ */
+public class HashingCapacityExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public HashingCapacityExceededException(long retryAfterSeconds) {
+        super("Authentication service is busy, please retry shortly");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,90 @@
+package com.securehealth.backend.security;
+
+import com.securehealth.backend.util.SlidingWindowCounter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Single-node LoginFailureStore used when Redis is disabled ({@code app.redis.enabled=false}).
+ * <p>
+ * One {@link SlidingWindowCounter} per key in a {@link ConcurrentHashMap}: the map
+ * stripes contention across keys and the counters themselves are lock-free.
+ * </p>
+ * <p>
+ * Memory is bounded by {@code max-tracked-keys}, as in {@link RateLimitFilter}:
+ * once reached, keys whose window has emptied are dropped, and if every key is
+ * still active (a distributed credential-stuffing run) a quarter of the map is
+ * shed. One thread evicts at a time, so a spray of random IPs costs an
+ * occasional sweep rather than one per failed login.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.redis.enabled", havingValue = "false", matchIfMissing = true)
+public class InMemoryLoginFailureStore implements LoginFailureStore {
+
+    private final ConcurrentHashMap<String, SlidingWindowCounter> counters = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final Duration window;
+    private final int buckets;
+    private final int maxTrackedKeys;
+
+    public InMemoryLoginFailureStore(@Value("${security.lockout.window-seconds:900}") long windowSeconds,
+                                     @Value("${security.lockout.window-buckets:15}") int buckets,
+                                     @Value("${security.lockout.max-tracked-keys:100000}") int maxTrackedKeys) {
+        this.window = Duration.ofSeconds(windowSeconds);
+        this.buckets = buckets;
+        this.maxTrackedKeys = maxTrackedKeys;
+    }
+
+    @Override
+    public int recordFailure(String key) {
+        long now = System.currentTimeMillis();
+        SlidingWindowCounter counter = counters.get(key);
+        if (counter == null) {
+            if (counters.size() >= maxTrackedKeys) evict(now);
+            counter = counters.computeIfAbsent(key, k -> new SlidingWindowCounter(window, buckets));
+        }
+        return counter.increment(now);
+    }
+
+    @Override
+    public int failures(String key) {
+        SlidingWindowCounter counter = counters.get(key);
+        return counter == null ? 0 : counter.sum(System.currentTimeMillis());
+    }
+
+    @Override
+    public void reset(String key) {
+        counters.remove(key);
+    }
+
+    int trackedKeys() {
+        return counters.size();
+    }
+
+    /**
+     * Drops keys with an empty window first; if the map is still full, sheds a
+     * quarter of it so eviction cost is amortized. One thread evicts at a time.
+     */
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) return;
+        try {
+            counters.values().removeIf(counter -> counter.sum(now) == 0);
+            int excess = counters.size() - (maxTrackedKeys - maxTrackedKeys / 4);
+            Iterator<Map.Entry<String, SlidingWindowCounter>> it = counters.entrySet().iterator();
+            while (excess-- > 0 && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+}
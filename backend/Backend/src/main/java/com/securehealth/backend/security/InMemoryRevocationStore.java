@@ -0,0 +1,55 @@
+package com.securehealth.backend.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Single-node RevocationStore used when Redis is disabled ({@code app.redis.enabled=false}).
+ * <p>
+ * Also serves as the in-process stand-in for Redis in tests. Expired entries are
+ * dropped lazily on lookup and during Bloom filter rebuilds.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.redis.enabled", havingValue = "false", matchIfMissing = true)
+public class InMemoryRevocationStore implements RevocationStore {
+
+    private final ConcurrentHashMap<String, Long> expiresAtMillis = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void revoke(String tokenId, Duration ttl) {
+        expiresAtMillis.put(tokenId, System.currentTimeMillis() + ttl.toMillis());
+        listeners.forEach(listener -> listener.accept(tokenId));
+    }
+
+    @Override
+    public boolean isRevoked(String tokenId) {
+        Long expiry = expiresAtMillis.get(tokenId);
+        if (expiry == null) return false;
+        if (expiry <= System.currentTimeMillis()) {
+            expiresAtMillis.remove(tokenId, expiry);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void forEachRevoked(Consumer<String> action) {
+        long now = System.currentTimeMillis();
+        expiresAtMillis.entrySet().removeIf(e -> e.getValue() <= now);
+        expiresAtMillis.keySet().forEach(action);
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener, Runnable resync) {
+        // In-process delivery cannot miss a revocation, so there is never a resync
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,42 @@
+package com.securehealth.backend.security;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-process SigningKeyStore, for tests and benchmarks.
+ * <p>
+ * Keys live as long as the JVM, so tokens stop verifying after a restart; the
+ * application itself always uses {@link JpaSigningKeyStore}.
+ * </p>
+ */
+public class InMemorySigningKeyStore implements SigningKeyStore {
+
+    private final ConcurrentHashMap<String, StoredKey> keys = new ConcurrentHashMap<>();
+
+    @Override
+    public List<StoredKey> findLive(Instant now) {
+        return keys.values().stream()
+                .filter(k -> k.expiresAt() == null || k.expiresAt().isAfter(now))
+                .sorted(Comparator.comparingLong(StoredKey::generation).reversed())
+                .toList();
+    }
+
+    @Override
+    public synchronized boolean publish(StoredKey key, Instant retireOthersAt) {
+        if (keys.values().stream().anyMatch(k -> k.generation() == key.generation())) return false;
+        keys.replaceAll((kid, k) -> k.expiresAt() != null ? k
+                : new StoredKey(k.kid(), k.generation(), k.keyPair(), k.activatesAt(), retireOthersAt));
+        keys.put(key.kid(), key);
+        return true;
+    }
+
+    @Override
+    public int deleteExpired(Instant now) {
+        int before = keys.size();
+        keys.values().removeIf(k -> k.expiresAt() != null && !k.expiresAt().isAfter(now));
+        return before - keys.size();
+    }
+}
@@ -0,0 +1,133 @@
+package com.securehealth.backend.security;
+
+import com.securehealth.backend.model.JwtSigningKey;
+import com.securehealth.backend.repository.JwtSigningKeyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.SecureRandom;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * SigningKeyStore backed by the {@code jwt_signing_keys} table, shared by every node.
+ * <p>
+ * Private keys are sealed with AES-GCM under {@code jwt.keys.encryption-key} before
+ * they reach the database, with the {@code kid} as associated data so a sealed key
+ * cannot be moved to another row. Public keys are stored in the clear; they are
+ * published anyway.
+ * </p>
+ */
+@Component
+public class JpaSigningKeyStore implements SigningKeyStore {
+
+    private static final String KEY_ALGORITHM = "EC";
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+
+    private final JwtSigningKeyRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final SecretKey wrappingKey;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public JpaSigningKeyStore(JwtSigningKeyRepository repository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${jwt.keys.encryption-key}") String encryptionKey) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        if (encryptionKey == null || encryptionKey.isBlank()) {
+            throw new IllegalArgumentException("jwt.keys.encryption-key is not set (JWT_KEYS_ENCRYPTION_KEY)");
+        }
+        byte[] keyBytes = Base64.getDecoder().decode(encryptionKey);
+        if (keyBytes.length != 16 && keyBytes.length != 32) {
+            throw new IllegalArgumentException("jwt.keys.encryption-key must be 16 or 32 bytes, base64 encoded");
+        }
+        this.wrappingKey = new SecretKeySpec(keyBytes, "AES");
+    }
+
+    @Override
+    public List<StoredKey> findLive(Instant now) {
+        return repository.findLive(now).stream().map(this::toStoredKey).toList();
+    }
+
+    @Override
+    public boolean publish(StoredKey key, Instant retireOthersAt) {
+        JwtSigningKey entity = new JwtSigningKey();
+        entity.setKid(key.kid());
+        entity.setGeneration(key.generation());
+        entity.setAlgorithm(JwtKeyRing.ALGORITHM);
+        entity.setPublicKey(Base64.getEncoder().encodeToString(key.keyPair().getPublic().getEncoded()));
+        entity.setPrivateKey(seal(key.kid(), key.keyPair().getPrivate().getEncoded()));
+        entity.setActivatesAt(key.activatesAt());
+        entity.setCreatedAt(Instant.now());
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                repository.saveAndFlush(entity);
+                repository.retireAllExcept(key.kid(), retireOthersAt);
+            });
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Unique generation: another node published this rotation first
+            return false;
+        }
+    }
+
+    @Override
+    public int deleteExpired(Instant now) {
+        return repository.deleteExpired(now);
+    }
+
+    private StoredKey toStoredKey(JwtSigningKey entity) {
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance(KEY_ALGORITHM);
+            KeyPair keyPair = new KeyPair(
+                    keyFactory.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(entity.getPublicKey()))),
+                    keyFactory.generatePrivate(new PKCS8EncodedKeySpec(open(entity.getKid(), entity.getPrivateKey()))));
+            return new StoredKey(entity.getKid(), entity.getGeneration(), keyPair,
+                    entity.getActivatesAt(), entity.getExpiresAt());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot load signing key " + entity.getKid()
+                    + " (wrong jwt.keys.encryption-key?)", e);
+        }
+    }
+
+    private String seal(String kid, byte[] privateKey) {
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            secureRandom.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.ENCRYPT_MODE, wrappingKey, new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            byte[] sealed = cipher.doFinal(privateKey);
+            return Base64.getEncoder().encodeToString(
+                    ByteBuffer.allocate(iv.length + sealed.length).put(iv).put(sealed).array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot seal signing key " + kid, e);
+        }
+    }
+
+    private byte[] open(String kid, String sealedKey) throws GeneralSecurityException {
+        byte[] bytes = Base64.getDecoder().decode(sealedKey);
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.DECRYPT_MODE, wrappingKey, new GCMParameterSpec(TAG_BITS, bytes, 0, IV_LENGTH));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        return cipher.doFinal(bytes, IV_LENGTH, bytes.length - IV_LENGTH);
+    }
+}
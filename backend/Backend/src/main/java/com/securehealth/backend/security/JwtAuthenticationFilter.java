@@ -0,0 +1,89 @@
+package com.securehealth.backend.security;
+
+import com.securehealth.backend.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Stateless authentication for bearer access tokens.
+ * <p>
+ * Verifies the token issued by {@link JwtUtil#generateAccessToken} and fills the
+ * SecurityContext from its {@code role} and {@code userId} claims. No database
+ * lookup happens here; recently verified tokens are served from
+ * {@link VerifiedTokenCache}, and revoked tokens are rejected by
+ * {@link TokenDenylist}, which answers from memory in the common case.
+ * </p>
+ * <p>
+ * Requests without a valid token continue anonymously and are rejected later by
+ * the authorization rules in {@link com.securehealth.backend.config.SecurityConfig}.
+ * </p>
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache tokenCache;
+    private final TokenDenylist denylist;
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, VerifiedTokenCache tokenCache, TokenDenylist denylist) {
+        this.jwtUtil = jwtUtil;
+        this.tokenCache = tokenCache;
+        this.denylist = denylist;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        AuthenticatedUser user = resolve(header.substring(BEARER_PREFIX.length()).trim());
+        if (user != null && !denylist.isRevoked(user.tokenId())) {
+            UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated(
+                    user, null, List.of(new SimpleGrantedAuthority("ROLE_" + user.role())));
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(authentication);
+            SecurityContextHolder.setContext(context);
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private AuthenticatedUser resolve(String token) {
+        long now = System.currentTimeMillis();
+        AuthenticatedUser cached = tokenCache.get(token, now);
+        if (cached != null) return cached;
+
+        try {
+            Claims claims = jwtUtil.parseAccessToken(token);
+            String role = claims.get("role", String.class);
+            Long userId = claims.get("userId", Long.class);
+            if (role == null || userId == null || claims.getExpiration() == null) return null;
+
+            AuthenticatedUser user = new AuthenticatedUser(userId, claims.getSubject(), role, claims.getId());
+            tokenCache.put(token, user, claims.getExpiration().getTime(), now);
+            return user;
+        } catch (JwtException | IllegalArgumentException e) {
+            // Invalid, tampered or expired token: treat the request as anonymous
+            return null;
+        }
+    }
+}
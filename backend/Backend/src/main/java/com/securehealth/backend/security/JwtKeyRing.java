@@ -0,0 +1,227 @@
+package com.securehealth.backend.security;
+
+import com.securehealth.backend.security.SigningKeyStore.StoredKey;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ES256 key pairs access tokens are signed and verified with.
+ * <p>
+ * Keys rotate every {@code jwt.keys.rotation-interval-hours}. A successor is
+ * published {@code jwt.keys.publish-ahead-minutes} before it starts signing, so
+ * every node and every downstream JWKS cache already knows it when the first token
+ * carrying its {@code kid} arrives. The predecessor keeps verifying until the last
+ * token it signed has expired, then disappears from the JWKS.
+ * </p>
+ * <p>
+ * All lookups are served from an immutable snapshot that is reloaded from the
+ * {@link SigningKeyStore} every {@code jwt.keys.refresh-interval-ms}; whichever node
+ * notices a rotation is due performs it, and the store lets only one of them win.
+ * </p>
+ * <p>
+ * The first load runs once the application is ready, not while the bean is built,
+ * so a context can be refreshed without a database (e.g. for the AppCDS training
+ * run in {@code startup/cds.sh}). Until then no token can be signed or verified.
+ * A failed first load still stops the application.
+ * </p>
+ */
+@Component
+public class JwtKeyRing {
+
+    public static final String ALGORITHM = "ES256";
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    private final SigningKeyStore store;
+    private final Duration rotationInterval;
+    private final Duration publishAhead;
+    private final Duration verifyOverlap;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * @param store                 shared key storage
+     * @param rotationIntervalHours how long each key signs for
+     * @param publishAheadMinutes   how long a successor is published before it signs; must
+     *                              exceed the refresh interval plus the JWKS cache lifetime
+     * @param tokenLifetimeMillis   access token lifetime ({@code jwt.expiration})
+     * @param clockSkewSeconds      extra time a retired key keeps verifying
+     * @param refreshIntervalMillis how often the key set is reloaded from the store
+     * @param jwksMaxAgeSeconds     how long clients may cache the JWKS
+     */
+    public JwtKeyRing(SigningKeyStore store,
+                      @Value("${jwt.keys.rotation-interval-hours:24}") long rotationIntervalHours,
+                      @Value("${jwt.keys.publish-ahead-minutes:15}") long publishAheadMinutes,
+                      @Value("${jwt.expiration}") long tokenLifetimeMillis,
+                      @Value("${jwt.keys.clock-skew-seconds:60}") long clockSkewSeconds,
+                      @Value("${jwt.keys.refresh-interval-ms:60000}") long refreshIntervalMillis,
+                      @Value("${jwt.keys.jwks-max-age-seconds:300}") long jwksMaxAgeSeconds) {
+        this.store = store;
+        this.rotationInterval = Duration.ofHours(rotationIntervalHours);
+        this.publishAhead = Duration.ofMinutes(publishAheadMinutes);
+        this.verifyOverlap = Duration.ofMillis(tokenLifetimeMillis).plusSeconds(clockSkewSeconds);
+        if (publishAhead.compareTo(Duration.ofMillis(refreshIntervalMillis).plusSeconds(jwksMaxAgeSeconds)) <= 0) {
+            throw new IllegalArgumentException("jwt.keys.publish-ahead-minutes must exceed the refresh interval "
+                    + "plus the JWKS max-age, or tokens may carry a kid other nodes have not seen yet");
+        }
+    }
+
+    /**
+     * Loads the key set, creating the first key on a fresh database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload(Instant.now());
+    }
+
+    /**
+     * The key new tokens are signed with: the newest one whose activation time has passed.
+     */
+    public SigningKey signingKey() {
+        return signingKey(Instant.now());
+    }
+
+    SigningKey signingKey(Instant now) {
+        List<SigningKey> keys = loaded().signingKeys();
+        for (SigningKey key : keys) {
+            if (!key.activatesAt().isAfter(now)) return key;
+        }
+        // Only reachable if this node's clock is behind the one that created the keys
+        return keys.get(keys.size() - 1);
+    }
+
+    /**
+     * The public key for a token's {@code kid}, or null if it is unknown or retired.
+     */
+    public PublicKey verificationKey(String kid) {
+        Snapshot current = snapshot;
+        return kid == null || current == null ? null : current.verificationKeys().get(kid);
+    }
+
+    /**
+     * The current JWK Set: every key that is about to sign, signing, or still verifying.
+     */
+    public JwkSet jwkSet() {
+        return loaded().jwkSet();
+    }
+
+    private Snapshot loaded() {
+        Snapshot current = snapshot;
+        if (current == null) throw new IllegalStateException("JWT signing keys are not loaded yet");
+        return current;
+    }
+
+    /**
+     * Reloads the key set, rotating first if a successor is due, and drops keys
+     * that no unexpired token can refer to.
+     */
+    @Scheduled(fixedDelayString = "${jwt.keys.refresh-interval-ms:60000}",
+            initialDelayString = "${jwt.keys.refresh-interval-ms:60000}")
+    public void refresh() {
+        refresh(Instant.now());
+    }
+
+    void refresh(Instant now) {
+        try {
+            reload(now);
+            int removed = store.deleteExpired(now);
+            if (removed > 0) log.info("Deleted {} expired JWT signing key(s)", removed);
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh JWT signing keys, keeping the previous set", e);
+        }
+    }
+
+    private void reload(Instant now) {
+        List<StoredKey> keys = store.findLive(now);
+        if (rotationDue(keys, now)) {
+            rotate(keys, now);
+            keys = store.findLive(now);
+        }
+        if (keys.isEmpty()) {
+            throw new IllegalStateException("No live JWT signing key after rotation");
+        }
+        snapshot = Snapshot.of(keys);
+    }
+
+    private boolean rotationDue(List<StoredKey> keys, Instant now) {
+        if (keys.isEmpty()) return true;
+        // Newest first: a published successor that has not activated yet counts as "due later"
+        Instant successorDue = keys.get(0).activatesAt().plus(rotationInterval);
+        return !successorDue.minus(publishAhead).isAfter(now);
+    }
+
+    private void rotate(List<StoredKey> keys, Instant now) {
+        long generation = keys.isEmpty() ? 1 : keys.get(0).generation() + 1;
+        // Nothing can hold a token from an empty key set, so the first key signs at once
+        Instant activatesAt = keys.isEmpty() ? now : max(keys.get(0).activatesAt().plus(rotationInterval),
+                now.plus(publishAhead));
+
+        KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+        String kid = Jwks.builder().key(keyPair.getPublic()).idFromThumbprint().build().getId();
+        StoredKey successor = new StoredKey(kid, generation, keyPair, activatesAt, null);
+
+        if (store.publish(successor, activatesAt.plus(verifyOverlap))) {
+            log.info("Published JWT signing key {} (generation {}), signing from {}", kid, generation, activatesAt);
+        } else {
+            log.debug("JWT signing key generation {} was published by another node", generation);
+        }
+    }
+
+    private static Instant max(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    /**
+     * A private key with the {@code kid} that goes into the token header.
+     */
+    public record SigningKey(String kid, PrivateKey privateKey, Instant activatesAt) {
+    }
+
+    /**
+     * A JWK Set document and an ETag that changes whenever the key set does.
+     */
+    public record JwkSet(Map<String, Object> document, String etag) {
+    }
+
+    private record Snapshot(List<SigningKey> signingKeys,
+                            Map<String, PublicKey> verificationKeys,
+                            JwkSet jwkSet) {
+
+        static Snapshot of(List<StoredKey> keys) {
+            Map<String, PublicKey> verificationKeys = new HashMap<>();
+            List<Map<String, Object>> jwkList = keys.stream().map(key -> {
+                verificationKeys.put(key.kid(), key.keyPair().getPublic());
+                PublicJwk<PublicKey> jwk = Jwks.builder().key(key.keyPair().getPublic())
+                        .id(key.kid())
+                        .algorithm(ALGORITHM)
+                        .publicKeyUse("sig")
+                        .build();
+                return Map.<String, Object>copyOf(new LinkedHashMap<>(jwk));
+            }).toList();
+
+            return new Snapshot(
+                    keys.stream().map(k -> new SigningKey(k.kid(), k.keyPair().getPrivate(), k.activatesAt())).toList(),
+                    Map.copyOf(verificationKeys),
+                    new JwkSet(Map.of("keys", jwkList),
+                            "\"" + Integer.toHexString(keys.stream().map(StoredKey::kid).toList().hashCode()) + "\""));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.securehealth.backend.security;
+
+import com.securehealth.backend.model.Login;
+import com.securehealth.backend.repository.LoginRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Brute-force protection for {@code /api/auth/login}.
+ * <p>
+ * Failed logins are counted per account and per client IP in a sliding window
+ * held by {@link LoginFailureStore}. The {@code login} row is written only when
+ * the lock state actually changes: once when an account crosses the threshold
+ * (setting {@code isLocked}, {@code lockoutUntil} and {@code failedAttempts}),
+ * and once when the first successful login after an expired lock clears it.
+ * Both writes evict the account from {@link CredentialCache}, on every node.
+ * </p>
+ * <p>
+ * Expiry needs no sweep: {@link Login#isLockedAt} treats a lock whose
+ * {@code lockoutUntil} has passed as open. IP throttling lives only in the
+ * failure store and lifts as the window slides.
+ * </p>
+ */
+@Service
+public class LoginAttemptGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginAttemptGuard.class);
+
+    private final LoginFailureStore failures;
+    private final LoginRepository loginRepository;
+    private final CredentialCache credentialCache;
+    private final int maxAccountFailures;
+    private final int maxIpFailures;
+    private final Duration lockoutDuration;
+
+    public LoginAttemptGuard(LoginFailureStore failures,
+                             LoginRepository loginRepository,
+                             CredentialCache credentialCache,
+                             @Value("${security.lockout.max-failures:5}") int maxAccountFailures,
+                             @Value("${security.lockout.ip-max-failures:50}") int maxIpFailures,
+                             @Value("${security.lockout.duration-seconds:900}") long lockoutSeconds) {
+        this.failures = failures;
+        this.loginRepository = loginRepository;
+        this.credentialCache = credentialCache;
+        this.maxAccountFailures = maxAccountFailures;
+        this.maxIpFailures = maxIpFailures;
+        this.lockoutDuration = Duration.ofSeconds(lockoutSeconds);
+    }
+
+    /**
+     * Rejects the attempt up front if the client IP has failed too often recently.
+     * Checked before the password is hashed, so a throttled client costs no Argon2 work.
+     */
+    public void checkIp(String ipAddress) {
+        if (ipAddress != null && failures.failures(ipKey(ipAddress)) >= maxIpFailures) {
+            throw new RuntimeException("Too many failed attempts");
+        }
+    }
+
+    /**
+     * Records a failed attempt; locks the account once it reaches the threshold.
+     *
+     * @param user the account that was tried, or null if the email is unknown
+     */
+    public void onFailure(Login user, String ipAddress) {
+        if (ipAddress != null) failures.recordFailure(ipKey(ipAddress));
+        if (user == null) return;
+
+        int count = failures.recordFailure(accountKey(user));
+        if (count < maxAccountFailures) return;
+
+        LocalDateTime now = LocalDateTime.now();
+        if (user.isLockedAt(now)) return;
+
+        // Commits on its own; login holds no transaction, and the lock must outlive the failed request
+        LocalDateTime until = now.plus(lockoutDuration);
+        if (loginRepository.lockAccount(user.getUserId(), count, until, now) > 0) {
+            log.warn("Locked account {} until {} after {} failed logins", user.getUserId(), until, count);
+            // Already committed; a bulk update, so the entity listener doesn't see it
+            credentialCache.invalidate(user.getUserId());
+        }
+        user.setLocked(true);
+        user.setLockoutUntil(until);
+        user.setFailedAttempts(count);
+        failures.reset(accountKey(user));
+    }
+
+    /**
+     * Clears the account's failure window and, if the row still carries an
+     * expired lock, resets it.
+     * <p>
+     * {@code user} is a detached copy, possibly from {@link CredentialCache}, so
+     * only the lock columns are written, and only while no lock is in force.
+     * </p>
+     */
+    public void onSuccess(Login user) {
+        failures.reset(accountKey(user));
+        if (user.isLocked() || user.getFailedAttempts() != 0 || user.getLockoutUntil() != null) {
+            if (loginRepository.clearExpiredLock(user.getUserId(), LocalDateTime.now()) > 0) {
+                // A bulk update, so the entity listener doesn't see it
+                credentialCache.invalidate(user.getUserId());
+            }
+            user.setLocked(false);
+            user.setLockoutUntil(null);
+            user.setFailedAttempts(0);
+        }
+    }
+
+    private static String accountKey(Login user) {
+        return "account:" + user.getUserId();
+    }
+
+    private static String ipKey(String ipAddress) {
+        return "ip:" + ipAddress;
+    }
+}
@@ -0,0 +1,27 @@
+package com.securehealth.backend.security;
+
+/**
+ * Sliding-window counters of failed logins, keyed per account or per client IP.
+ * <p>
+ * Counts live here rather than in the {@code login} table so that a flood of
+ * bad passwords never turns into a flood of row updates; see
+ * {@link LoginAttemptGuard}.
+ * </p>
+ */
+public interface LoginFailureStore {
+
+    /**
+     * Records a failure and returns the number of failures in the current window, including it.
+     */
+    int recordFailure(String key);
+
+    /**
+     * Number of failures in the current window.
+     */
+    int failures(String key);
+
+    /**
+     * Forgets all failures for the key, e.g. after a successful login.
+     */
+    void reset(String key);
+}
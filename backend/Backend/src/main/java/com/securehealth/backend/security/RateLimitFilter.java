@@ -0,0 +1,263 @@
+package com.securehealth.backend.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.securehealth.backend.config.RateLimitProperties;
+import com.securehealth.backend.config.RateLimitProperties.EndpointLimit;
+import com.securehealth.backend.util.TokenBucket;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-client rate limiting for the anonymous {@code /api/auth/**} endpoints.
+ * <p>
+ * Each request takes a token from a {@link TokenBucket} for its client IP and,
+ * when the JSON body has an {@code email}, one for that email, using the limits
+ * configured for the endpoint in {@link RateLimitProperties}. A request with an
+ * empty bucket gets 429 with {@code Retry-After} before it reaches the
+ * controller, so abusive traffic costs no Argon2 work.
+ * </p>
+ * <p>
+ * Memory is bounded by {@code max-buckets}: once reached, buckets that have
+ * refilled completely are dropped (they are indistinguishable from new ones),
+ * and only if that is not enough is a quarter of the map shed.
+ * </p>
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String PATH_PREFIX = "/api/auth/";
+    private static final int MAX_INSPECTED_BODY_BYTES = 16 * 1024;
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.enabled() || limitFor(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String endpoint = endpoint(request);
+        EndpointLimit limit = properties.endpoints().get(endpoint);
+        long now = System.nanoTime();
+
+        // 1. Per client IP
+        long waitNanos = consume(endpoint + "|ip|" + request.getRemoteAddr(),
+                limit.ipCapacity(), limit.ipRefillPerMinute(), now);
+
+        // 2. Per account, read from the body (which is buffered so the controller can still read it)
+        if (waitNanos == 0 && limit.emailCapacity() > 0) {
+            CachedBodyRequest cached = new CachedBodyRequest(request);
+            request = cached;
+            String email = cached.email(objectMapper);
+            if (email != null) {
+                waitNanos = consume(endpoint + "|email|" + email,
+                        limit.emailCapacity(), limit.emailRefillPerMinute(), now);
+            }
+        }
+
+        if (waitNanos > 0) {
+            reject(response, waitNanos);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    private long consume(String key, int capacity, int refillPerMinute, long now) {
+        if (capacity <= 0) return 0;
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= properties.maxBuckets()) evict(now);
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, refillPerMinute, now));
+        }
+        return bucket.tryConsume(now);
+    }
+
+    /**
+     * Drops full (idle) buckets first; if the map is still full, sheds a quarter
+     * of it so eviction cost is amortized. One thread evicts at a time.
+     */
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) return;
+        try {
+            buckets.values().removeIf(bucket -> bucket.isIdle(now));
+            int maxBuckets = properties.maxBuckets();
+            int excess = buckets.size() - (maxBuckets - maxBuckets / 4);
+            Iterator<Map.Entry<String, TokenBucket>> it = buckets.entrySet().iterator();
+            while (excess-- > 0 && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"Too many requests\"}");
+    }
+
+    private EndpointLimit limitFor(HttpServletRequest request) {
+        String endpoint = endpoint(request);
+        return endpoint == null ? null : properties.endpoints().get(endpoint);
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.startsWith(PATH_PREFIX)) return null;
+        return path.substring(PATH_PREFIX.length());
+    }
+
+    /**
+     * Buffers up to {@link #MAX_INSPECTED_BODY_BYTES} of the body so the email can be
+     * read here and the full body replayed downstream. Larger bodies are passed
+     * through untouched and not inspected.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] head;
+        private final boolean complete;
+        private final ServletInputStream body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            ServletInputStream in = request.getInputStream();
+            this.head = in.readNBytes(MAX_INSPECTED_BODY_BYTES + 1);
+            this.complete = head.length <= MAX_INSPECTED_BODY_BYTES;
+            this.body = new ReplayInputStream(head, complete ? null : in);
+        }
+
+        String email(ObjectMapper objectMapper) {
+            if (!complete || head.length == 0) return null;
+            try {
+                JsonNode email = objectMapper.readTree(head).get("email");
+                return email != null && email.isTextual() ? email.asText().trim().toLowerCase(Locale.ROOT) : null;
+            } catch (IOException e) {
+                return null; // Malformed JSON: the controller will reject it
+            }
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return body;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(body,
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * The buffered head of the body followed, for bodies too large to buffer, by the
+     * rest of the container's stream. Supports non-blocking reads: with the whole body
+     * in memory a {@link ReadListener} is told at once that everything is available;
+     * otherwise it is registered with the container's stream, and the buffered head
+     * is offered before the container reports the end.
+     */
+    private static final class ReplayInputStream extends ServletInputStream {
+
+        private final ByteArrayInputStream head;
+        private final ServletInputStream rest; // null when head is the whole body
+
+        ReplayInputStream(byte[] head, ServletInputStream rest) {
+            this.head = new ByteArrayInputStream(head);
+            this.rest = rest;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = head.read();
+            return b != -1 || rest == null ? b : rest.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            int n = head.read(b, off, len);
+            return n > 0 || rest == null ? n : rest.read(b, off, len);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return head.available() == 0 && (rest == null || rest.isFinished());
+        }
+
+        @Override
+        public boolean isReady() {
+            return head.available() > 0 || rest == null || rest.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            if (rest == null) {
+                try {
+                    listener.onDataAvailable();
+                    if (isFinished()) listener.onAllDataRead();
+                } catch (IOException | RuntimeException e) {
+                    listener.onError(e);
+                }
+                return;
+            }
+            rest.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    listener.onDataAvailable();
+                }
+
+                @Override
+                public void onAllDataRead() throws IOException {
+                    if (head.available() > 0) listener.onDataAvailable();
+                    listener.onAllDataRead();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    listener.onError(t);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.securehealth.backend.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Redis-backed LoginFailureStore, so every node sees the same failure counts.
+ * <p>
+ * Mirrors the in-memory bucket ring: each window bucket is a counter key
+ * {@code auth:failures:<key>:<bucket>} that expires on its own once it falls
+ * out of the window. Recording a failure is one script call (INCR, then PEXPIRE
+ * if the key has no TTL yet, atomically) and one MGET over the window's buckets.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.redis.enabled", havingValue = "true")
+public class RedisLoginFailureStore implements LoginFailureStore {
+
+    static final String KEY_PREFIX = "auth:failures:";
+
+    // Atomic, so a crash or timeout between the two commands cannot leave a counter that never expires.
+    // Checking PTTL rather than the count also gives such a counter left by an older version a TTL.
+    static final RedisScript<Long> INCREMENT_BUCKET = RedisScript.of("""
+            local count = redis.call('INCR', KEYS[1])
+            if redis.call('PTTL', KEYS[1]) < 0 then
+                redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            end
+            return count
+            """, Long.class);
+
+    private final StringRedisTemplate redis;
+    private final long bucketMillis;
+    private final int buckets;
+
+    public RedisLoginFailureStore(StringRedisTemplate redis,
+                                  @Value("${security.lockout.window-seconds:900}") long windowSeconds,
+                                  @Value("${security.lockout.window-buckets:15}") int buckets) {
+        this.redis = redis;
+        this.buckets = buckets;
+        this.bucketMillis = Math.max(1, windowSeconds * 1000 / buckets);
+    }
+
+    @Override
+    public int recordFailure(String key) {
+        long bucket = System.currentTimeMillis() / bucketMillis;
+        String bucketKey = KEY_PREFIX + key + ":" + bucket;
+        redis.execute(INCREMENT_BUCKET, List.of(bucketKey), Long.toString(bucketMillis * (buckets + 1)));
+        return sum(key, bucket);
+    }
+
+    @Override
+    public int failures(String key) {
+        return sum(key, System.currentTimeMillis() / bucketMillis);
+    }
+
+    @Override
+    public void reset(String key) {
+        redis.delete(bucketKeys(key, System.currentTimeMillis() / bucketMillis));
+    }
+
+    private int sum(String key, long newestBucket) {
+        List<String> counts = redis.opsForValue().multiGet(bucketKeys(key, newestBucket));
+        if (counts == null) return 0;
+        int total = 0;
+        for (String count : counts) {
+            if (count != null) total += Integer.parseInt(count);
+        }
+        return total;
+    }
+
+    private List<String> bucketKeys(String key, long newestBucket) {
+        List<String> keys = new ArrayList<>(buckets);
+        for (long bucket = newestBucket - buckets + 1; bucket <= newestBucket; bucket++) {
+            keys.add(KEY_PREFIX + key + ":" + bucket);
+        }
+        return keys;
+    }
+}
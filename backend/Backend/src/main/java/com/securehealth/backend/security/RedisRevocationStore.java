@@ -0,0 +1,101 @@
+package com.securehealth.backend.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Redis-backed RevocationStore shared by every node.
+ * <p>
+ * Each revoked token is a key {@code auth:denylist:<jti>} whose TTL equals the
+ * token's remaining lifetime, so Redis forgets it exactly when the token would
+ * have expired anyway. Revocations are also published on the
+ * {@code auth:denylist} channel so other nodes update their Bloom filters.
+ * After a reconnect the subscriber is told to resync, since messages sent while
+ * the connection was down are gone.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.redis.enabled", havingValue = "true")
+public class RedisRevocationStore implements RevocationStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisRevocationStore.class);
+
+    static final String KEY_PREFIX = "auth:denylist:";
+    static final String CHANNEL = "auth:denylist";
+
+    private final StringRedisTemplate redis;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    public RedisRevocationStore(StringRedisTemplate redis, RedisMessageListenerContainer listenerContainer) {
+        this.redis = redis;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @Override
+    public void revoke(String tokenId, Duration ttl) {
+        redis.opsForValue().set(KEY_PREFIX + tokenId, "1", ttl);
+        redis.convertAndSend(CHANNEL, tokenId);
+    }
+
+    @Override
+    public boolean isRevoked(String tokenId) {
+        return Boolean.TRUE.equals(redis.hasKey(KEY_PREFIX + tokenId));
+    }
+
+    @Override
+    public void forEachRevoked(Consumer<String> action) {
+        ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(1000).build();
+        try (Cursor<String> keys = redis.scan(options)) {
+            keys.forEachRemaining(key -> action.accept(key.substring(KEY_PREFIX.length())));
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener, Runnable resync) {
+        listenerContainer.addMessageListener(new DenylistListener(listener, resync), new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * Passes revoked IDs on and reports resubscriptions, like
+     * {@code RedisIdBroadcastChannel}: every subscription confirmation after the
+     * first follows a lost connection, during which revocations went unheard.
+     */
+    static final class DenylistListener implements MessageListener, SubscriptionListener {
+
+        private final Consumer<String> listener;
+        private final Runnable resync;
+        private final AtomicBoolean subscribed = new AtomicBoolean();
+
+        DenylistListener(Consumer<String> listener, Runnable resync) {
+            this.listener = listener;
+            this.resync = resync;
+        }
+
+        @Override
+        public void onMessage(Message message, byte[] pattern) {
+            listener.accept(new String(message.getBody(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void onChannelSubscribed(byte[] channel, long count) {
+            if (subscribed.compareAndSet(false, true)) return;
+            log.info("Resubscribed to {}; revocations published meanwhile were lost, resyncing", CHANNEL);
+            resync.run();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.securehealth.backend.security;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Shared storage for revoked access-token IDs ({@code jti}).
+ * <p>
+ * The store is the source of truth; {@link TokenDenylist} keeps a local Bloom
+ * filter in front of it so that most lookups never leave the JVM.
+ * </p>
+ */
+public interface RevocationStore {
+
+    /**
+     * Records a revoked token for as long as it could still be presented.
+     */
+    void revoke(String tokenId, Duration ttl);
+
+    /**
+     * Exact check, used only when the Bloom filter reports a possible hit.
+     */
+    boolean isRevoked(String tokenId);
+
+    /**
+     * Streams every currently revoked token ID, used to (re)build the Bloom filter.
+     */
+    void forEachRevoked(Consumer<String> action);
+
+    /**
+     * Registers a callback for revocations made by any node, including this one.
+     * <p>
+     * {@code resync} runs when notifications may have been missed, e.g. after the
+     * store's subscription was re-established; the caller should reload from
+     * {@link #forEachRevoked}.
+     * </p>
+     */
+    void subscribe(Consumer<String> listener, Runnable resync);
+}
@@ -0,0 +1,48 @@
+package com.securehealth.backend.security;
+
+import java.security.KeyPair;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Shared storage for access-token signing keys.
+ * <p>
+ * Every node loads the same keys from here, so a token signed by one node verifies
+ * on all of them. {@link JwtKeyRing} decides when to rotate; the store only has to
+ * make publishing a successor atomic.
+ * </p>
+ */
+public interface SigningKeyStore {
+
+    /**
+     * Keys that can still verify a token at {@code now}, newest generation first.
+     */
+    List<StoredKey> findLive(Instant now);
+
+    /**
+     * Inserts {@code key} and schedules every other current key to expire at
+     * {@code retireOthersAt}, in one transaction.
+     *
+     * @return false if another node already published this generation
+     */
+    boolean publish(StoredKey key, Instant retireOthersAt);
+
+    /**
+     * Removes keys no unexpired token can refer to.
+     *
+     * @return number of keys removed
+     */
+    int deleteExpired(Instant now);
+
+    /**
+     * One signing key pair and its place in the rotation.
+     *
+     * @param kid         RFC 7638 thumbprint of the public key
+     * @param generation  position in the rotation sequence
+     * @param keyPair     the key pair
+     * @param activatesAt when the key starts signing
+     * @param expiresAt   when it stops verifying; null while it is current
+     */
+    record StoredKey(String kid, long generation, KeyPair keyPair, Instant activatesAt, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,137 @@
+package com.securehealth.backend.security;
+
+import com.securehealth.backend.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Denylist of access tokens revoked before their natural expiry (e.g. on logout).
+ * <p>
+ * The shared {@link RevocationStore} holds the exact set; each node keeps a local
+ * Bloom filter of it, fed by the store's pub/sub notifications. A token that is
+ * not in the filter is certainly not revoked, so the common case is decided in
+ * memory and only possible hits are confirmed against the store.
+ * </p>
+ * <p>
+ * Bloom filters cannot forget, so the filter is periodically rebuilt from the
+ * store, which drops revocations whose tokens have since expired. It is also
+ * rebuilt when the store reports that notifications may have been missed.
+ * </p>
+ */
+@Service
+public class TokenDenylist {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenDenylist.class);
+    private static final long UNAVAILABLE_WARN_INTERVAL_MILLIS = 60_000;
+
+    private final RevocationStore store;
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+
+    // Guards the handoff between the two filters; isRevoked reads filter without it
+    private final Object filterLock = new Object();
+    private volatile BloomFilter filter;
+    // Non-null while a rebuild is scanning the store; receives concurrent revocations too
+    private BloomFilter rebuilding;
+
+    private final AtomicLong unavailableRejections = new AtomicLong();
+    private final AtomicLong nextUnavailableWarnMillis = new AtomicLong();
+
+    public TokenDenylist(RevocationStore store,
+                         @Value("${security.denylist.expected-revocations:100000}") long expectedRevocations,
+                         @Value("${security.denylist.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.store = store;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+        store.subscribe(this::remember, this::resync);
+        rebuild();
+    }
+
+    /**
+     * Revokes a token until its expiry; a no-op for tokens that have already expired.
+     */
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (tokenId == null || expiresAt == null) return;
+        Duration ttl = Duration.between(Instant.now(), expiresAt);
+        if (ttl.isNegative() || ttl.isZero()) return;
+
+        // Store first: a concurrent rebuild that misses the local update will see it there
+        store.revoke(tokenId, ttl);
+        remember(tokenId);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(tokenId)) return false;
+        try {
+            return store.isRevoked(tokenId);
+        } catch (RuntimeException e) {
+            // The filter says "possibly revoked" and we can't confirm: fail closed
+            warnStoreUnavailable();
+            return true;
+        }
+    }
+
+    /**
+     * Replaces the filter with one built from the store's current contents.
+     */
+    @Scheduled(fixedDelayString = "${security.denylist.rebuild-interval-ms:600000}",
+            initialDelayString = "${security.denylist.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        BloomFilter fresh = new BloomFilter(expectedRevocations, falsePositiveRate);
+        synchronized (filterLock) {
+            rebuilding = fresh;
+        }
+        boolean complete = false;
+        try {
+            store.forEachRevoked(fresh::put);
+            complete = true;
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild token denylist filter, keeping the previous one", e);
+        } finally {
+            // Swapped under the lock, so a concurrent remember() lands in whichever filter survives
+            synchronized (filterLock) {
+                if (complete) filter = fresh;
+                rebuilding = null;
+            }
+        }
+    }
+
+    private void remember(String tokenId) {
+        synchronized (filterLock) {
+            filter.put(tokenId);
+            if (rebuilding != null) rebuilding.put(tokenId);
+        }
+    }
+
+    /**
+     * Rebuilds off the subscriber thread, which must not block on a full scan of the store.
+     */
+    private void resync() {
+        Thread thread = new Thread(this::rebuild, "token-denylist-resync");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * At most one warning per interval while the store is down, not one per request;
+     * token IDs stay out of the log.
+     */
+    private void warnStoreUnavailable() {
+        unavailableRejections.incrementAndGet();
+        long now = System.currentTimeMillis();
+        long next = nextUnavailableWarnMillis.get();
+        if (now < next || !nextUnavailableWarnMillis.compareAndSet(next, now + UNAVAILABLE_WARN_INTERVAL_MILLIS)) {
+            return;
+        }
+        log.warn("Revocation store unavailable; rejected {} possibly revoked tokens since the last warning",
+                unavailableRejections.getAndSet(0));
+    }
+}
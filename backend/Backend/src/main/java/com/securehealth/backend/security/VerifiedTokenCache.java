@@ -0,0 +1,77 @@
+package com.securehealth.backend.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of access tokens whose signature has already been verified.
+ * <p>
+ * Hot clients send the same bearer token on every call until it expires. Caching
+ * the verified principal lets the filter skip the HMAC check and JSON parsing for
+ * repeat requests. Entries are dropped as soon as the token's {@code exp} passes,
+ * so the cache never extends a token's lifetime.
+ * </p>
+ * <p>
+ * Keys are the full compact token, so a forged payload paired with a previously
+ * seen signature can never hit a cached entry.
+ * </p>
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    public VerifiedTokenCache(@Value("${jwt.cache.max-entries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the cached principal for a token, or null if it is unknown or expired.
+     */
+    public AuthenticatedUser get(String token, long nowMillis) {
+        Entry entry = entries.get(token);
+        if (entry == null) return null;
+        if (entry.expiresAtMillis() <= nowMillis) {
+            entries.remove(token, entry);
+            return null;
+        }
+        return entry.user();
+    }
+
+    /**
+     * Caches a verified principal until the token's expiry.
+     */
+    public void put(String token, AuthenticatedUser user, long expiresAtMillis, long nowMillis) {
+        if (maxEntries <= 0 || expiresAtMillis <= nowMillis) return;
+        if (entries.size() >= maxEntries) {
+            evict(nowMillis);
+        }
+        entries.put(token, new Entry(user, expiresAtMillis));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drops expired entries first; if the cache is still full (many live tokens),
+     * sheds a quarter of it so eviction cost is amortized over many inserts.
+     */
+    private void evict(long nowMillis) {
+        entries.values().removeIf(e -> e.expiresAtMillis() <= nowMillis);
+        int excess = entries.size() - (maxEntries - maxEntries / 4);
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (excess-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private record Entry(AuthenticatedUser user, long expiresAtMillis) {
+    }
+}
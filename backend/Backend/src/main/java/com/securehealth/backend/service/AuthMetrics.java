@@ -0,0 +1,161 @@
+package com.securehealth.backend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Per-stage latency of the authentication operations in {@link AuthService}.
+ * <p>
+ * A {@link Recording} marks the end of each stage with one {@link System#nanoTime()}
+ * call; stages are consecutive, so they add up to the whole operation. When the
+ * operation ends, every stage it ran is recorded as {@code auth.stage.duration}
+ * (tags {@code operation}, {@code stage}, {@code outcome}) and the total as
+ * {@code auth.operation.duration} (tags {@code operation}, {@code outcome}).
+ * Tagging every stage by the final outcome shows, for example, whether slow
+ * failed logins are slow in the lookup or in Argon2.
+ * </p>
+ * <p>
+ * Timers are registered on first use only, so outcomes that never happen don't
+ * add series, and then cached, so the hot path does no registry lookups.
+ * Histogram buckets are configured via {@code management.metrics.distribution.*}.
+ * The stages of {@code @Transactional} operations end before their commit.
+ * </p>
+ */
+@Component
+public class AuthMetrics {
+
+    public enum Operation {
+        LOGIN, REGISTER, LOGOUT
+    }
+
+    public enum Stage {
+        /** Per-IP throttle check, and failure bookkeeping (which may lock the account) */
+        GUARD,
+        /** Account lookup by email (CredentialCache, the database on a miss) */
+        LOOKUP,
+        /** Argon2 verify */
+        VERIFY,
+        /** Argon2 hash of a new password, or the upgrade of an outdated one */
+        HASH,
+        /** Access token signing and refresh token generation */
+        TOKEN,
+        /** Session insert (login) or revocation (logout) */
+        SESSION,
+        /** New account insert */
+        PERSIST,
+        /** Access token denylisting */
+        REVOKE
+    }
+
+    public enum Outcome {
+        SUCCESS, BAD_CREDENTIALS, LOCKED, THROTTLED, EMAIL_TAKEN, BUSY, ERROR
+    }
+
+    private static final int OPERATIONS = Operation.values().length;
+    private static final Stage[] ALL_STAGES = Stage.values(); // values() copies the array on every call
+    private static final int STAGES = ALL_STAGES.length;
+    private static final int OUTCOMES = Outcome.values().length;
+
+    private final MeterRegistry registry;
+    private final AtomicReferenceArray<Timer> stageTimers = new AtomicReferenceArray<>(OPERATIONS * STAGES * OUTCOMES);
+    private final AtomicReferenceArray<Timer> operationTimers = new AtomicReferenceArray<>(OPERATIONS * OUTCOMES);
+
+    public AuthMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Recording start(Operation operation) {
+        return new Recording(operation, System.nanoTime());
+    }
+
+    private Timer stageTimer(Operation operation, Stage stage, Outcome outcome) {
+        int index = (operation.ordinal() * STAGES + stage.ordinal()) * OUTCOMES + outcome.ordinal();
+        Timer timer = stageTimers.get(index);
+        if (timer == null) {
+            // Registering twice is harmless: the registry hands back the same timer
+            timer = Timer.builder("auth.stage.duration")
+                    .description("Time spent in one stage of an authentication operation")
+                    .tag("operation", tagValue(operation))
+                    .tag("stage", tagValue(stage))
+                    .tag("outcome", tagValue(outcome))
+                    .register(registry);
+            stageTimers.set(index, timer);
+        }
+        return timer;
+    }
+
+    private Timer operationTimer(Operation operation, Outcome outcome) {
+        int index = operation.ordinal() * OUTCOMES + outcome.ordinal();
+        Timer timer = operationTimers.get(index);
+        if (timer == null) {
+            timer = Timer.builder("auth.operation.duration")
+                    .description("Total time of an authentication operation")
+                    .tag("operation", tagValue(operation))
+                    .tag("outcome", tagValue(outcome))
+                    .register(registry);
+            operationTimers.set(index, timer);
+        }
+        return timer;
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Timing of one operation, used by a single thread.
+     * <p>
+     * The outcome defaults to {@link Outcome#ERROR}, so an unexpected exception
+     * is still recorded when {@link #finish()} runs from a {@code finally} block.
+     * </p>
+     */
+    public final class Recording {
+
+        private final Operation operation;
+        private final long startedAt;
+        private final long[] stageNanos = new long[STAGES];
+        private long lastMark;
+        private int stagesRun; // bit per Stage ordinal
+        private Outcome outcome = Outcome.ERROR;
+        private boolean finished;
+
+        private Recording(Operation operation, long startedAt) {
+            this.operation = operation;
+            this.startedAt = startedAt;
+            this.lastMark = startedAt;
+        }
+
+        /**
+         * Ends a stage: the time since the previous stage (or the start) is added to it.
+         */
+        public void stage(Stage stage) {
+            long now = System.nanoTime();
+            stageNanos[stage.ordinal()] += now - lastMark;
+            stagesRun |= 1 << stage.ordinal();
+            lastMark = now;
+        }
+
+        public void outcome(Outcome outcome) {
+            this.outcome = outcome;
+        }
+
+        /**
+         * Records the stages run and the total. Only the first call has any effect.
+         */
+        public void finish() {
+            if (finished) return;
+            finished = true;
+            for (Stage stage : ALL_STAGES) {
+                if ((stagesRun & (1 << stage.ordinal())) != 0) {
+                    stageTimer(operation, stage, outcome).record(stageNanos[stage.ordinal()], TimeUnit.NANOSECONDS);
+                }
+            }
+            operationTimer(operation, outcome).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+}
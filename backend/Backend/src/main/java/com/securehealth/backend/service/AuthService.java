@@ -5,9 +5,21 @@ import com.securehealth.backend.model.Role;
 import com.securehealth.backend.model.Session; // [FIXED] Added Import
 import com.securehealth.backend.repository.LoginRepository;
 import com.securehealth.backend.repository.SessionRepository; // [FIXED] Added Import
+import com.securehealth.backend.repository.SessionRepository.RotatedSession;
 import com.securehealth.backend.dto.LoginResponse; // [FIXED] Added Import
+import com.securehealth.backend.security.CredentialCache;
+import com.securehealth.backend.security.HashingCapacityExceededException;
+import com.securehealth.backend.security.LoginAttemptGuard;
+import com.securehealth.backend.security.TokenDenylist;
+import com.securehealth.backend.service.AuthMetrics.Operation;
+import com.securehealth.backend.service.AuthMetrics.Outcome;
+import com.securehealth.backend.service.AuthMetrics.Recording;
+import com.securehealth.backend.service.AuthMetrics.Stage;
+import com.securehealth.backend.service.SecurityAuditLog.Event;
 import com.securehealth.backend.util.JwtUtil;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -17,6 +29,7 @@ import java.time.LocalDateTime;
 import java.security.MessageDigest;
 import java.util.Base64;
 import java.util.Optional;
+import java.util.UUID;
 
 @Service
 public class AuthService {
@@ -33,57 +46,199 @@ public class AuthService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
+    @Autowired
+    private LoginAttemptGuard loginAttemptGuard;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    @Autowired
+    private CredentialCache credentialCache;
+
+    @Autowired
+    private SecurityAuditLog securityAuditLog;
+
+    // Present only with app.sessions.write-behind.enabled=true
+    @Autowired(required = false)
+    private SessionBatchWriter sessionBatchWriter;
+
     /**
      * Registers a new user.
+     * <p>
+     * One insert-on-conflict statement against the normalized-email unique index:
+     * no separate existence check, and no race between concurrent sign-ups.
+     * The password is hashed first, so a taken email costs as much as a new one
+     * (and response time doesn't reveal which emails are registered).
+     * Not {@code @Transactional}, so no connection is held while Argon2 runs.
+     * </p>
+     * <p>
+     * Sign-ups and rejected sign-ups are audited through {@link SecurityAuditLog},
+     * which writes {@code security_logs} off the request thread.
+     * </p>
      */
-    @Transactional // Now this will work!
     public Login registerUser(String email, String rawPassword, Role role) {
-        if (loginRepository.existsByEmail(email)) {
-            throw new RuntimeException("Email already taken");
-        }
+        Recording metrics = authMetrics.start(Operation.REGISTER);
+        try {
+            String hash = passwordEncoder.encode(rawPassword);
+            metrics.stage(Stage.HASH);
+
+            Login newUser = new Login();
+            newUser.setEmail(Login.normalizeEmail(email));
+            newUser.setPasswordHash(hash);
+            newUser.setRole(role);
 
-        String hash = passwordEncoder.encode(rawPassword);
+            Optional<Long> userId = loginRepository.insertIfAbsent(
+                    newUser.getEmail(), hash, role.name(), newUser.getCreatedAt());
+            metrics.stage(Stage.PERSIST);
+            if (userId.isEmpty()) {
+                metrics.outcome(Outcome.EMAIL_TAKEN);
+                securityAuditLog.record(Event.REGISTRATION_REJECTED, null, null);
+                throw new RuntimeException("Email already taken");
+            }
 
-        Login newUser = new Login();
-        newUser.setEmail(email);
-        newUser.setPasswordHash(hash);
-        newUser.setRole(role);
-        
-        return loginRepository.save(newUser);
+            newUser.setUserId(userId.get());
+            metrics.outcome(Outcome.SUCCESS);
+            securityAuditLog.record(Event.REGISTERED, newUser.getUserId(), null);
+            return newUser;
+        } catch (HashingCapacityExceededException e) {
+            metrics.outcome(Outcome.BUSY);
+            throw e;
+        } finally {
+            metrics.finish();
+        }
     }
 
     /**
      * Authenticates user and generates tokens.
+     * <p>
+     * Not {@code @Transactional}: each repository call commits on its own, so no
+     * pooled connection is held while Argon2 runs or while the session waits in
+     * {@link SessionBatchWriter} (whose writer thread needs a connection of its own).
+     * </p>
+     * <p>
+     * Each stage is timed by {@link AuthMetrics} and tagged with the outcome, and
+     * every outcome but BUSY is audited through {@link SecurityAuditLog}.
+     * </p>
      */
-    @Transactional
     public LoginResponse login(String email, String rawPassword, String ipAddress, String userAgent) {
-        // 1. Verify User
-        Login user = loginRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Invalid credentials"));
+        Recording metrics = authMetrics.start(Operation.LOGIN);
+        try {
+            // 1. Verify User (throttled IPs and locked accounts are turned away before hashing)
+            try {
+                loginAttemptGuard.checkIp(ipAddress);
+            } catch (RuntimeException e) {
+                metrics.outcome(Outcome.THROTTLED);
+                securityAuditLog.record(Event.LOGIN_THROTTLED, null, ipAddress);
+                throw e;
+            }
+            metrics.stage(Stage.GUARD);
+
+            Login user = credentialCache.find(email).orElse(null); // repeat logins skip the database
+            metrics.stage(Stage.LOOKUP);
+            if (user == null) {
+                loginAttemptGuard.onFailure(null, ipAddress);
+                metrics.stage(Stage.GUARD);
+                metrics.outcome(Outcome.BAD_CREDENTIALS);
+                securityAuditLog.record(Event.LOGIN_FAILED, null, ipAddress);
+                throw new RuntimeException("Invalid credentials");
+            }
 
-        if (user.isLocked()) throw new RuntimeException("Account locked");
+            if (user.isLockedAt(LocalDateTime.now())) {
+                metrics.outcome(Outcome.LOCKED);
+                securityAuditLog.record(Event.LOGIN_LOCKED, user.getUserId(), ipAddress);
+                throw new RuntimeException("Account locked");
+            }
 
-        if (!passwordEncoder.matches(rawPassword, user.getPasswordHash())) {
-            throw new RuntimeException("Invalid credentials");
+            boolean matches = passwordEncoder.matches(rawPassword, user.getPasswordHash());
+            metrics.stage(Stage.VERIFY);
+            if (!matches) {
+                loginAttemptGuard.onFailure(user, ipAddress);
+                metrics.stage(Stage.GUARD);
+                metrics.outcome(Outcome.BAD_CREDENTIALS);
+                securityAuditLog.record(Event.LOGIN_FAILED, user.getUserId(), ipAddress);
+                throw new RuntimeException("Invalid credentials");
+            }
+
+            loginAttemptGuard.onSuccess(user);
+            metrics.stage(Stage.GUARD);
+            rehashIfOutdated(user, rawPassword);
+            metrics.stage(Stage.HASH);
+
+            // 2. Generate Tokens
+            String accessToken = jwtUtil.generateAccessToken(user.getEmail(), user.getRole().name(), user.getUserId());
+            String refreshToken = jwtUtil.generateRefreshToken();
+
+            // 3. Hash Refresh Token
+            String refreshTokenHash = hashToken(refreshToken);
+            metrics.stage(Stage.TOKEN);
+
+            // 4. Create Session in DB
+            Session session = new Session();
+            session.setUser(user);
+            session.setRefreshTokenHash(refreshTokenHash);
+            session.setFamilyId(UUID.randomUUID().toString());
+            session.setIpAddress(ipAddress);
+            session.setUserAgent(userAgent);
+            session.setExpiresAt(LocalDateTime.now().plusDays(7));
+            try {
+                if (sessionBatchWriter != null) {
+                    sessionBatchWriter.save(session); // grouped with concurrent logins, returns once committed
+                } else {
+                    sessionRepository.save(session);
+                }
+            } catch (RuntimeException e) {
+                // The password was right; don't report a storage failure as bad credentials
+                throw new SessionUnavailableException(e);
+            }
+            metrics.stage(Stage.SESSION);
+
+            metrics.outcome(Outcome.SUCCESS);
+            securityAuditLog.record(Event.LOGIN_SUCCESS, user.getUserId(), ipAddress);
+            return new LoginResponse(accessToken, refreshToken, user.getRole().name());
+        } catch (HashingCapacityExceededException e) {
+            metrics.outcome(Outcome.BUSY);
+            throw e;
+        } finally {
+            metrics.finish();
         }
+    }
 
-        // 2. Generate Tokens
-        String accessToken = jwtUtil.generateAccessToken(user.getEmail(), user.getRole().name(), user.getUserId());
-        String refreshToken = jwtUtil.generateRefreshToken();
+    /**
+     * Exchanges a refresh token for a new access token and a rotated refresh token.
+     * <p>
+     * The rotation is one atomic statement, so no Argon2 work and no extra round
+     * trips are needed. Presenting a token that was already rotated (or logged out)
+     * is treated as theft: every live session in that token's family is revoked.
+     * A locked account cannot refresh; its sessions resume when the lock expires.
+     * </p>
+     * <p>
+     * Not {@code @Transactional}: each repository call commits on its own, so the
+     * family revocation sticks even though the request itself fails.
+     * </p>
+     */
+    public LoginResponse refresh(String refreshToken, String ipAddress, String userAgent) {
+        if (refreshToken == null) throw new RuntimeException("Invalid refresh token");
 
-        // 3. Hash Refresh Token
-        String refreshTokenHash = hashToken(refreshToken);
+        String oldHash = hashToken(refreshToken);
+        String newRefreshToken = jwtUtil.generateRefreshToken();
+        LocalDateTime now = LocalDateTime.now();
 
-        // 4. Create Session in DB
-        Session session = new Session();
-        session.setUser(user);
-        session.setRefreshTokenHash(refreshTokenHash);
-        session.setIpAddress(ipAddress);
-        session.setUserAgent(userAgent);
-        session.setExpiresAt(LocalDateTime.now().plusDays(7)); 
-        sessionRepository.save(session);
+        Optional<RotatedSession> rotated = sessionRepository
+                .rotateRefreshToken(oldHash, hashToken(newRefreshToken), ipAddress, userAgent, now);
+        if (rotated.isEmpty()) {
+            // Unknown, expired, replayed or locked; a replay takes the whole family down
+            if (sessionRepository.revokeFamilyOfReusedToken(oldHash, now) > 0) {
+                securityAuditLog.record(Event.REFRESH_TOKEN_REUSED, null, ipAddress);
+            }
+            throw new RuntimeException("Invalid refresh token");
+        }
 
-        return new LoginResponse(accessToken, refreshToken, user.getRole().name());
+        RotatedSession owner = rotated.get();
+        String accessToken = jwtUtil.generateAccessToken(owner.getEmail(), owner.getRole(), owner.getUserId());
+        return new LoginResponse(accessToken, newRefreshToken, owner.getRole());
     }
 
     /**
@@ -91,18 +246,82 @@ public class AuthService {
      */
     @Transactional
     public void logout(String refreshToken) {
-        if (refreshToken == null) return;
-        
-        String hash = hashToken(refreshToken);
-        
-        sessionRepository.findByRefreshTokenHash(hash)
-            .ifPresent(session -> {
-                session.setRevoked(true);
-                sessionRepository.save(session);
-            });
+        logout(refreshToken, null);
+    }
+
+    /**
+     * Revokes a session and, if given, the caller's access token.
+     * <p>
+     * Without the denylist entry the access token would stay usable until its
+     * expiry (up to 15 minutes) after logout.
+     * </p>
+     */
+    @Transactional
+    public void logout(String refreshToken, String accessToken) {
+        Recording metrics = authMetrics.start(Operation.LOGOUT);
+        try {
+            if (accessToken != null) {
+                revokeAccessToken(accessToken);
+                metrics.stage(Stage.REVOKE);
+            }
+            Long userId = null;
+            if (refreshToken != null) {
+                String hash = hashToken(refreshToken);
+
+                Optional<Session> found = sessionRepository.findByRefreshTokenHash(hash);
+                if (found.isPresent()) {
+                    Session session = found.get();
+                    session.setRevoked(true);
+                    session.setRevokedAt(LocalDateTime.now());
+                    sessionRepository.save(session);
+                    if (session.getUser() != null) userId = session.getUser().getUserId();
+                }
+                metrics.stage(Stage.SESSION);
+            }
+            metrics.outcome(Outcome.SUCCESS);
+            securityAuditLog.record(Event.LOGOUT, userId, null);
+        } finally {
+            metrics.finish();
+        }
     }
 
-    private String hashToken(String token) {
+    private void revokeAccessToken(String accessToken) {
+        try {
+            Claims claims = jwtUtil.parseAccessToken(accessToken);
+            tokenDenylist.revoke(claims.getId(), claims.getExpiration().toInstant());
+        } catch (JwtException | IllegalArgumentException e) {
+            // Invalid or already expired: nothing left to revoke
+        }
+    }
+
+    /**
+     * Transparently migrates a stored hash to the current Argon2 parameters.
+     * <p>
+     * Only runs after a successful verify, when the raw password is at hand, so
+     * existing users are upgraded on their next login without a bulk job.
+     * A saturated hashing pool skips the upgrade; it is retried next login.
+     * Only the hash column is written, and only if it still holds the hash that
+     * was just verified.
+     * </p>
+     */
+    private void rehashIfOutdated(Login user, String rawPassword) {
+        String oldHash = user.getPasswordHash();
+        if (!passwordEncoder.upgradeEncoding(oldHash)) return;
+        try {
+            String newHash = passwordEncoder.encode(rawPassword);
+            if (loginRepository.updatePasswordHash(user.getUserId(), oldHash, newHash) > 0) {
+                credentialCache.invalidate(user.getUserId());
+            }
+            user.setPasswordHash(newHash);
+        } catch (HashingCapacityExceededException e) {
+            // Login already succeeded; don't fail it over an optional upgrade
+        }
+    }
+
+    /**
+     * SHA-256 of a refresh token, Base64 encoded; only this digest is stored.
+     */
+    public String hashToken(String token) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             byte[] hash = digest.digest(token.getBytes());
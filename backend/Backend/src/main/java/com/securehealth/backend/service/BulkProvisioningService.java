@@ -0,0 +1,376 @@
+package com.securehealth.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.securehealth.backend.dto.BulkRegistrationResult;
+import com.securehealth.backend.dto.BulkRegistrationResult.Status;
+import com.securehealth.backend.dto.RegistrationRequest;
+import com.securehealth.backend.model.Login;
+import com.securehealth.backend.model.Role;
+import com.securehealth.backend.repository.LoginRepository;
+import com.securehealth.backend.security.BoundedHashingPasswordEncoder;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Creates accounts in bulk from a streamed NDJSON or CSV upload.
+ * <p>
+ * Rows are read and processed {@code chunk-size} at a time, so memory stays flat
+ * whatever the upload size. Per chunk: rows are validated like
+ * {@code POST /api/auth/register}, duplicates are found with one
+ * {@code IN} query, the passwords are hashed in parallel, and the accounts are
+ * inserted in one transaction as JDBC batches. One result line per row is
+ * written (and flushed) as each chunk completes, followed by a summary line.
+ * </p>
+ * <p>
+ * Hashing runs on a pool of its own, sized to half the cores by default, calling
+ * the bare Argon2 encoder: the shared hashing pool's queue is sized for logins,
+ * and an import must not be able to fill it.
+ * </p>
+ */
+@Service
+public class BulkProvisioningService implements DisposableBean {
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(BulkProvisioningService.class);
+
+    private final LoginRepository loginRepository;
+    private final PasswordEncoder hasher;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService hashers;
+    private final int chunkSize;
+
+    public BulkProvisioningService(LoginRepository loginRepository,
+                                   PasswordEncoder passwordEncoder,
+                                   Validator validator,
+                                   ObjectMapper objectMapper,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.bulk-provisioning.chunk-size:500}") int chunkSize,
+                                   @Value("${app.bulk-provisioning.hash-parallelism:0}") int hashParallelism) {
+        this.loginRepository = loginRepository;
+        this.hasher = passwordEncoder instanceof BoundedHashingPasswordEncoder bounded
+                ? bounded.getDelegate() : passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+
+        int threads = hashParallelism > 0 ? hashParallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.hashers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "bulk-hasher-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Reads registration rows from {@code in} and writes one NDJSON result per row to {@code out}.
+     * <p>
+     * NDJSON rows are objects with {@code email}, {@code password} and {@code role};
+     * CSV needs a header row naming those columns (quoted fields may not span lines).
+     * Blank lines are skipped.
+     * </p>
+     *
+     * @return rows per status
+     */
+    public Map<Status, Integer> provision(InputStream in, Format format, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Map<Status, Integer> counts = new EnumMap<>(Status.class);
+        for (Status status : Status.values()) counts.put(status, 0);
+
+        RowParser parser = format == Format.CSV ? new CsvRowParser() : this::parseJsonRow;
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) continue;
+            Row row;
+            try {
+                row = parser.parse(lineNumber, line);
+            } catch (IllegalArgumentException e) {
+                // Unusable CSV header: nothing after it can be read
+                writeLine(out, Map.of("error", e.getMessage()));
+                return counts;
+            }
+            if (row == null) continue; // CSV header
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                processChunk(chunk, out, counts);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) processChunk(chunk, out, counts);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        counts.forEach((status, count) -> summary.put(status.name().toLowerCase(Locale.ROOT), count));
+        writeLine(out, Map.of("summary", summary));
+        log.info("Bulk registration finished: {}", counts);
+        return counts;
+    }
+
+    private void processChunk(List<Row> chunk, OutputStream out, Map<Status, Integer> counts) throws IOException {
+        BulkRegistrationResult[] results = new BulkRegistrationResult[chunk.size()];
+
+        // 1. Validate, and reject repeats within the upload
+        List<Integer> candidates = new ArrayList<>();
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            Row row = chunk.get(i);
+            String error = row.error() != null ? row.error() : violations(row.request());
+            if (error != null) {
+                results[i] = result(row, Status.INVALID, null, error);
+            } else if (!emails.add(Login.normalizeEmail(row.request().getEmail()))) {
+                results[i] = result(row, Status.DUPLICATE, null, "Email appears earlier in this upload");
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        // 2. One query for the whole chunk (earlier chunks are already committed, so they count too)
+        if (!emails.isEmpty()) {
+            Set<String> existing = new HashSet<>(loginRepository.findExistingEmails(emails));
+            candidates.removeIf(i -> {
+                if (!existing.contains(Login.normalizeEmail(chunk.get(i).request().getEmail()))) return false;
+                results[i] = result(chunk.get(i), Status.DUPLICATE, null, "Email already taken");
+                return true;
+            });
+        }
+
+        // 3. Hash in parallel
+        List<CompletableFuture<String>> hashes = new ArrayList<>(candidates.size());
+        for (int i : candidates) {
+            String password = chunk.get(i).request().getPassword();
+            hashes.add(CompletableFuture.supplyAsync(() -> hasher.encode(password), hashers));
+        }
+        List<Integer> toInsert = new ArrayList<>(candidates.size());
+        List<Login> logins = new ArrayList<>(candidates.size());
+        for (int k = 0; k < candidates.size(); k++) {
+            int i = candidates.get(k);
+            try {
+                RegistrationRequest request = chunk.get(i).request();
+                Login login = new Login();
+                login.setEmail(Login.normalizeEmail(request.getEmail()));
+                login.setPasswordHash(hashes.get(k).join());
+                login.setRole(request.getRole());
+                toInsert.add(i);
+                logins.add(login);
+            } catch (CompletionException e) {
+                log.warn("Bulk registration could not hash line {}", chunk.get(i).line(), e.getCause());
+                results[i] = result(chunk.get(i), Status.FAILED, null, "Password hashing failed");
+            }
+        }
+
+        // 4. Insert as JDBC batches
+        insert(chunk, toInsert, logins, results);
+
+        for (BulkRegistrationResult result : results) {
+            counts.merge(result.getStatus(), 1, Integer::sum);
+            writeLine(out, result);
+        }
+        out.flush();
+    }
+
+    /**
+     * Inserts the chunk in one transaction; if that fails (e.g. an email registered
+     * concurrently), retries row by row so one bad row cannot fail the others.
+     */
+    private void insert(List<Row> chunk, List<Integer> indexes, List<Login> logins, BulkRegistrationResult[] results) {
+        if (logins.isEmpty()) return;
+        try {
+            transactionTemplate.executeWithoutResult(status -> loginRepository.saveAll(logins));
+            for (int k = 0; k < logins.size(); k++) {
+                int i = indexes.get(k);
+                results[i] = result(chunk.get(i), Status.CREATED, logins.get(k).getUserId(), null);
+            }
+        } catch (RuntimeException batchFailure) {
+            log.warn("Batched insert of {} accounts failed, retrying individually", logins.size(), batchFailure);
+            for (int k = 0; k < logins.size(); k++) {
+                int i = indexes.get(k);
+                Login login = logins.get(k);
+                try {
+                    login.setUserId(null); // discard the ID assigned in the rolled back batch
+                    transactionTemplate.executeWithoutResult(status -> loginRepository.save(login));
+                    results[i] = result(chunk.get(i), Status.CREATED, login.getUserId(), null);
+                } catch (DataIntegrityViolationException e) {
+                    results[i] = result(chunk.get(i), Status.DUPLICATE, null, "Email already taken");
+                } catch (RuntimeException e) {
+                    log.warn("Bulk registration could not insert line {}", chunk.get(i).line(), e);
+                    results[i] = result(chunk.get(i), Status.FAILED, null, "Account could not be saved");
+                }
+            }
+        }
+    }
+
+    private String violations(RegistrationRequest request) {
+        Set<ConstraintViolation<RegistrationRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) return null;
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private Row parseJsonRow(long line, String text) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(text);
+        } catch (JsonProcessingException e) {
+            return new Row(line, null, "Malformed JSON"); // Jackson's message may quote the password
+        }
+        if (!node.isObject()) return new Row(line, null, "Expected a JSON object");
+        return toRow(line, field(node, "email"), field(node, "password"), field(node, "role"));
+    }
+
+    private static String field(JsonNode node, String name) {
+        JsonNode value = node.get(name);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static Row toRow(long line, String email, String password, String role) {
+        Role parsedRole = null;
+        if (role != null && !role.isBlank()) {
+            try {
+                parsedRole = Role.valueOf(role.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return new Row(line, new RegistrationRequest(email, null, null), "Unknown role: " + role);
+            }
+        }
+        return new Row(line, new RegistrationRequest(email, password, parsedRole), null);
+    }
+
+    private static BulkRegistrationResult result(Row row, Status status, Long userId, String message) {
+        String email = row.request() != null ? row.request().getEmail() : null;
+        return new BulkRegistrationResult(row.line(), email, status, userId, message);
+    }
+
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write('\n');
+    }
+
+    @Override
+    public void destroy() {
+        hashers.shutdownNow();
+    }
+
+    /**
+     * One parsed input row; {@code error} is set if it could not be read.
+     */
+    private record Row(long line, RegistrationRequest request, String error) {
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        /**
+         * @return the row, or null for a line that carries no row (a header)
+         * @throws IllegalArgumentException if the upload cannot be read at all
+         */
+        Row parse(long line, String text);
+    }
+
+    /**
+     * Maps CSV lines to rows using the column positions from the header line.
+     */
+    private static final class CsvRowParser implements RowParser {
+
+        private int emailColumn = -1;
+        private int passwordColumn = -1;
+        private int roleColumn = -1;
+        private boolean headerRead;
+
+        @Override
+        public Row parse(long line, String text) {
+            List<String> fields = splitCsvLine(text);
+            if (!headerRead) {
+                for (int i = 0; i < fields.size(); i++) {
+                    switch (fields.get(i).trim().toLowerCase(Locale.ROOT)) {
+                        case "email" -> emailColumn = i;
+                        case "password" -> passwordColumn = i;
+                        case "role" -> roleColumn = i;
+                        default -> { } // Extra columns are ignored
+                    }
+                }
+                if (emailColumn < 0 || passwordColumn < 0 || roleColumn < 0) {
+                    throw new IllegalArgumentException("CSV header must name the email, password and role columns");
+                }
+                headerRead = true;
+                return null;
+            }
+            return toRow(line, column(fields, emailColumn), column(fields, passwordColumn), column(fields, roleColumn));
+        }
+
+        private static String column(List<String> fields, int index) {
+            return index < fields.size() ? fields.get(index) : null;
+        }
+    }
+
+    /**
+     * Splits one CSV line (RFC 4180 quoting: {@code "a,b"} and {@code ""} for a quote).
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
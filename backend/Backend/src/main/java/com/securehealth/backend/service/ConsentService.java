@@ -0,0 +1,308 @@
+package com.securehealth.backend.service;
+
+import com.securehealth.backend.model.ConsentLog;
+import com.securehealth.backend.model.ConsentType;
+import com.securehealth.backend.repository.ConsentLogRepository;
+import com.securehealth.backend.repository.ConsentLogRepository.ChangeRow;
+import com.securehealth.backend.util.IdBroadcastChannel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Current consent of every user, answered from memory.
+ * <p>
+ * {@code consent_log} is append-only and remains the record of every change. This
+ * service folds it into one {@code long} per user, a bit per {@link ConsentType}
+ * that is currently granted, so "may we share this patient's data?" is a map
+ * lookup instead of a latest-row-per-type query on every clinical read. Users who
+ * have granted nothing take no memory.
+ * </p>
+ * <p>
+ * The state is streamed from the log once the application is ready; until then
+ * checks read the user's log directly. Afterwards each change is announced on
+ * the {@value #TOPIC} topic of {@link IdBroadcastChannel} after it commits, and
+ * every node re-reads that user's log. Types no longer in {@link ConsentType} are ignored.
+ * </p>
+ * <p>
+ * A change can still be missed: the message is lost while a node's subscription is
+ * down, or the re-read fails. So the whole state is rebuilt from the log every
+ * {@code reconcile-interval-ms}, and at once when the subscription comes back. A
+ * user whose re-read failed is answered from the log until then, never from memory
+ * that is known to be stale.
+ * </p>
+ */
+@Service
+public class ConsentService {
+
+    static final String TOPIC = "consents:changed";
+
+    private static final Logger log = LoggerFactory.getLogger(ConsentService.class);
+
+    private static final long RETRY_DELAY_MILLIS = 10_000;
+    private static final Map<String, ConsentType> TYPES = Stream.of(ConsentType.values())
+            .collect(Collectors.toUnmodifiableMap(Enum::name, type -> type));
+
+    private final ConsentLogRepository repository;
+    private final IdBroadcastChannel channel;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Counter logReads;
+    private final Counter corrections;
+
+    // User ID -> granted types as bits (1 << ordinal); users with no grants are absent
+    private final ConcurrentHashMap<Long, Long> granted = new ConcurrentHashMap<>();
+
+    private final Object writeLock = new Object();
+    // Users whose consent changed while the initial load was streaming; re-read once it has finished
+    private final Set<Long> changedDuringLoad = new HashSet<>();
+    // Users changed while a reconciliation was streaming; null when none is running
+    private Set<Long> changedDuringReconcile;
+    // Users whose last re-read failed; their checks read the log until a re-read succeeds
+    private final Set<Long> stale = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    public ConsentService(ConsentLogRepository repository,
+                          IdBroadcastChannel channel,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.channel = channel;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        this.logReads = Counter.builder("consent.checks.log-reads")
+                .description("Consent checks answered from consent_log because the state was loading or stale")
+                .register(meterRegistry);
+        this.corrections = Counter.builder("consent.state.corrections")
+                .description("Users whose in-memory consent a reconciliation found out of date")
+                .register(meterRegistry);
+        Gauge.builder("consent.state.users", granted, Map::size).register(meterRegistry);
+
+        channel.subscribe(TOPIC, this::onChange, this::resync);
+    }
+
+    /**
+     * Whether the user currently grants this consent. Nothing is granted by default.
+     */
+    public boolean isGranted(long userId, ConsentType type) {
+        return (grantBits(userId) & bit(type)) != 0;
+    }
+
+    /**
+     * Every consent the user currently grants.
+     */
+    public Set<ConsentType> grantedTypes(long userId) {
+        long bits = grantBits(userId);
+        Set<ConsentType> types = EnumSet.noneOf(ConsentType.class);
+        for (ConsentType type : ConsentType.values()) {
+            if ((bits & bit(type)) != 0) types.add(type);
+        }
+        return types;
+    }
+
+    private long grantBits(long userId) {
+        if (ready && !stale.contains(userId)) {
+            Long bits = granted.get(userId);
+            return bits == null ? 0 : bits;
+        }
+        logReads.increment();
+        return fold(repository.findChanges(userId));
+    }
+
+    /**
+     * Appends a change to {@code consent_log}. Every node applies it once it commits.
+     */
+    @Transactional
+    public void record(long userId, ConsentType type, boolean grant, String ipAddress) {
+        ConsentLog entry = new ConsentLog();
+        entry.setUserId(userId);
+        entry.setConsentType(type);
+        entry.setGranted(grant);
+        entry.setIpAddress(ipAddress);
+        repository.save(entry);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    channel.publish(TOPIC, userId);
+                }
+            });
+        } else {
+            channel.publish(TOPIC, userId);
+        }
+    }
+
+    /**
+     * Loads the state on a background thread, so startup does not wait for it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoading() {
+        Thread loader = new Thread(() -> {
+            while (true) {
+                try {
+                    load();
+                    return;
+                } catch (RuntimeException e) {
+                    log.warn("Consent state load failed, retrying in {} ms", RETRY_DELAY_MILLIS, e);
+                }
+                try {
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }, "consent-state-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Folds the whole log into the state, then re-reads the users who changed meanwhile.
+     */
+    public void load() {
+        long start = System.nanoTime();
+        foldLog().forEach(this::put);
+
+        List<Long> changed;
+        synchronized (writeLock) {
+            ready = true;
+            changed = new ArrayList<>(changedDuringLoad);
+            changedDuringLoad.clear();
+        }
+        changed.forEach(this::onChange);
+        log.info("Consent state loaded: {} users with grants in {} ms", granted.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Re-reads one user's log into the state. If that fails, the user's checks read
+     * the log until a later change or reconciliation succeeds.
+     */
+    public void onChange(long userId) {
+        synchronized (writeLock) {
+            if (!ready) {
+                changedDuringLoad.add(userId);
+                return;
+            }
+            if (changedDuringReconcile != null) changedDuringReconcile.add(userId);
+            try {
+                // Read under the lock, so two refreshes of one user cannot land out of order
+                put(userId, fold(repository.findChanges(userId)));
+                stale.remove(userId);
+            } catch (RuntimeException e) {
+                stale.add(userId);
+                log.warn("Could not re-read consent of user {}; answering from consent_log until it succeeds", userId, e);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the state from the whole log, correcting whatever a lost message or a
+     * failed re-read left behind. Users who change while the log streams are re-read
+     * at the end, as the stream may predate their change.
+     */
+    @Scheduled(fixedDelayString = "${app.consent.reconcile-interval-ms:600000}",
+            initialDelayString = "${app.consent.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        synchronized (writeLock) {
+            if (!ready || changedDuringReconcile != null) return;
+            changedDuringReconcile = new HashSet<>();
+        }
+        try {
+            Map<Long, Long> folded = foldLog();
+            synchronized (writeLock) {
+                for (Long userId : changedDuringReconcile) {
+                    folded.put(userId, fold(repository.findChanges(userId)));
+                }
+                AtomicInteger corrected = new AtomicInteger();
+                granted.keySet().removeIf(userId -> {
+                    boolean revoked = folded.getOrDefault(userId, 0L) == 0;
+                    if (revoked) corrected.incrementAndGet();
+                    return revoked;
+                });
+                folded.forEach((userId, bits) -> {
+                    if (bits != 0 && !bits.equals(granted.put(userId, bits))) corrected.incrementAndGet();
+                });
+                stale.clear();
+                if (corrected.get() > 0) {
+                    corrections.increment(corrected.get());
+                    log.warn("Consent reconciliation corrected {} users", corrected.get());
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Consent state reconciliation failed", e);
+        } finally {
+            synchronized (writeLock) {
+                changedDuringReconcile = null;
+            }
+        }
+    }
+
+    /**
+     * Reconciles on a background thread once the change subscription is re-established,
+     * as changes announced while it was down never arrived.
+     */
+    private void resync() {
+        Thread thread = new Thread(this::reconcile, "consent-state-resync");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private Map<Long, Long> foldLog() {
+        Map<Long, Long> folded = new HashMap<>();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<ChangeRow> rows = repository.streamChanges()) {
+                rows.forEach(row -> folded.put(row.getUserId(),
+                        apply(folded.getOrDefault(row.getUserId(), 0L), row)));
+            }
+        });
+        return folded;
+    }
+
+    private void put(long userId, long bits) {
+        if (bits == 0) granted.remove(userId);
+        else granted.put(userId, bits);
+    }
+
+    private static long fold(List<ChangeRow> changes) {
+        long bits = 0;
+        for (ChangeRow row : changes) bits = apply(bits, row);
+        return bits;
+    }
+
+    private static long apply(long bits, ChangeRow row) {
+        ConsentType type = TYPES.get(row.getConsentType());
+        if (type == null) return bits;
+        return Boolean.TRUE.equals(row.getGranted()) ? bits | bit(type) : bits & ~bit(type);
+    }
+
+    private static long bit(ConsentType type) {
+        return 1L << type.ordinal();
+    }
+}
@@ -0,0 +1,55 @@
+package com.securehealth.backend.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Content-addressed storage for lab result files.
+ * <p>
+ * Files are written once and never modified; the key is derived from the content,
+ * so storing the same bytes twice yields the same key. Implementations stream in
+ * both directions and never hold a whole file in memory.
+ * </p>
+ */
+public interface LabFileStore {
+
+    /**
+     * The outcome of {@link #store}.
+     *
+     * @param key    where the file can be read back from
+     * @param sha256 hex SHA-256 of the content
+     * @param size   content length in bytes
+     */
+    record StoredFile(String key, String sha256, long size) {
+    }
+
+    /**
+     * Thrown by {@link #store} when the content exceeds the allowed size; nothing is kept.
+     */
+    class FileTooLargeException extends IOException {
+        public FileTooLargeException(long maxBytes) {
+            super("File exceeds the limit of " + maxBytes + " bytes");
+        }
+    }
+
+    /**
+     * Reads {@code in} to the end, hashing the bytes as they pass, and stores them.
+     *
+     * @throws FileTooLargeException if more than {@code maxBytes} arrive
+     */
+    StoredFile store(InputStream in, long maxBytes) throws IOException;
+
+    /**
+     * Copies {@code count} bytes of a stored file, starting at {@code position}, to {@code target}.
+     */
+    void transferTo(String key, long position, long count, WritableByteChannel target) throws IOException;
+
+    /**
+     * The file's path on the local filesystem, for servers that can send it directly
+     * (sendfile); empty for stores that are not local.
+     */
+    Optional<Path> localPath(String key);
+}
@@ -0,0 +1,217 @@
+package com.securehealth.backend.service;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes claimable lab orders to connected technicians over Server-Sent Events.
+ * <p>
+ * A trigger on {@code lab_orders} NOTIFYs {@code lab_orders_pending} whenever an
+ * order becomes claimable (see V7). One daemon thread per node LISTENs on a
+ * dedicated connection, outside the Hikari pool, and forwards each order ID to
+ * every subscriber as a {@code lab-order} event; clients then claim through
+ * {@link LabOrderQueue}. Nobody polls the table.
+ * </p>
+ * <p>
+ * If the LISTEN connection drops, it is reopened and subscribers get a
+ * {@code resync} event, as notifications sent meanwhile are lost. Idle streams
+ * receive a comment every {@code heartbeat-seconds} so proxies keep them open.
+ * </p>
+ * <p>
+ * The LISTEN thread never writes to a client. Each subscriber has its own queue of
+ * at most {@code max-pending-events}, drained by a sender thread, so a client on a
+ * slow link delays only itself; one whose queue is full has fallen behind and its
+ * stream is closed, and it resubscribes like after a timeout.
+ * </p>
+ */
+@Component
+public class LabOrderNotifier implements DisposableBean {
+
+    static final String CHANNEL = "lab_orders_pending";
+
+    private static final Logger log = LoggerFactory.getLogger(LabOrderNotifier.class);
+    private static final int POLL_TIMEOUT_MILLIS = 5_000;
+    private static final long RECONNECT_DELAY_MILLIS = 5_000;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final boolean enabled;
+    private final long emitterTimeoutMillis;
+    private final long heartbeatMillis;
+    private final int maxPendingEvents;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    // Cached: a thread per subscriber that is mid-send, reaped once idle
+    private final ExecutorService sender;
+    private volatile boolean running = true;
+    private volatile Thread listener;
+
+    public LabOrderNotifier(DataSourceProperties dataSourceProperties,
+                            @Value("${app.lab-queue.push.enabled:true}") boolean enabled,
+                            @Value("${app.lab-queue.push.emitter-timeout-ms:1800000}") long emitterTimeoutMillis,
+                            @Value("${app.lab-queue.push.heartbeat-seconds:25}") long heartbeatSeconds,
+                            @Value("${app.lab-queue.push.max-pending-events:32}") int maxPendingEvents) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.enabled = enabled;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.heartbeatMillis = heartbeatSeconds * 1000;
+        this.maxPendingEvents = maxPendingEvents;
+        AtomicInteger threads = new AtomicInteger();
+        this.sender = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "lab-order-push-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens an event stream for one technician. The client reconnects when it times out.
+     */
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(emitterTimeoutMillis));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, maxPendingEvents);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Queues one event for every subscriber without waiting for any of them to
+     * send it, and drops subscribers whose queue is already full.
+     */
+    void broadcast(SseEmitter.SseEventBuilder event) {
+        // Built once: SseEventBuilder.build() is not repeatable
+        Set<DataWithMediaType> items = event.build();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.pending.offer(items)) {
+                if (subscriber.draining.compareAndSet(false, true)) sender.execute(() -> drain(subscriber));
+            } else {
+                log.debug("Lab order subscriber fell behind by {} events, closing its stream", maxPendingEvents);
+                subscribers.remove(subscriber);
+                // complete() waits for a send in progress, so not on this thread
+                sender.execute(subscriber.emitter::complete);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            Set<DataWithMediaType> items;
+            while ((items = subscriber.pending.poll()) != null) {
+                try {
+                    subscriber.emitter.send(items);
+                } catch (IOException | IllegalStateException e) {
+                    subscribers.remove(subscriber);
+                    subscriber.pending.clear();
+                    subscriber.emitter.completeWithError(e);
+                }
+            }
+            subscriber.draining.set(false);
+            // An event queued after the last poll but before the flag was cleared found no drain to schedule
+        } while (!subscriber.pending.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+        Thread thread = new Thread(this::listen, "lab-order-listener");
+        thread.setDaemon(true);
+        listener = thread;
+        thread.start();
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                if (reconnecting) broadcast(SseEmitter.event().name("resync").data(Map.of()));
+                reconnecting = true;
+
+                long lastSent = System.currentTimeMillis();
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null && notifications.length > 0) {
+                        for (PGNotification notification : notifications) {
+                            broadcast(SseEmitter.event().name("lab-order")
+                                    .data(Map.of("orderId", Long.parseLong(notification.getParameter()))));
+                        }
+                        lastSent = System.currentTimeMillis();
+                    } else if (System.currentTimeMillis() - lastSent >= heartbeatMillis) {
+                        broadcast(SseEmitter.event().comment("keep-alive"));
+                        lastSent = System.currentTimeMillis();
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) return;
+                log.warn("Lab order LISTEN connection failed, reconnecting in {} ms", RECONNECT_DELAY_MILLIS, e);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        Thread thread = listener;
+        if (thread != null) thread.interrupt();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        sender.shutdownNow();
+    }
+
+    /**
+     * One stream, with the events not yet written to it.
+     */
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final BlockingQueue<Set<DataWithMediaType>> pending;
+        final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, int maxPending) {
+            this.emitter = emitter;
+            this.pending = new ArrayBlockingQueue<>(maxPending);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.securehealth.backend.service;
+
+import com.securehealth.backend.dto.LabOrderClaim;
+import com.securehealth.backend.model.LabOrderStatus;
+import com.securehealth.backend.repository.LabOrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Hands PENDING lab orders out to lab technicians as leases.
+ * <p>
+ * A claim leases the oldest claimable orders to the caller for
+ * {@code app.lab-queue.lease-seconds}. The technician then approves or rejects
+ * each one, renews the lease while still working, or releases it. A lease that
+ * runs out puts the order back in the queue: claims skip live leases only, and a
+ * periodic sweep clears expired ones so that {@link LabOrderNotifier} announces
+ * them again.
+ * </p>
+ * <p>
+ * Claims lock rows with {@code FOR UPDATE SKIP LOCKED}, so concurrent technicians
+ * never block one another or receive the same order.
+ * </p>
+ */
+@Service
+public class LabOrderQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(LabOrderQueue.class);
+
+    private final LabOrderRepository labOrderRepository;
+    private final Duration leaseDuration;
+    private final int maxClaim;
+
+    public LabOrderQueue(LabOrderRepository labOrderRepository,
+                         @Value("${app.lab-queue.lease-seconds:300}") long leaseSeconds,
+                         @Value("${app.lab-queue.max-claim:20}") int maxClaim) {
+        this.labOrderRepository = labOrderRepository;
+        this.leaseDuration = Duration.ofSeconds(leaseSeconds);
+        this.maxClaim = maxClaim;
+    }
+
+    /**
+     * Leases up to {@code limit} orders (capped at {@code max-claim}) to the technician.
+     *
+     * @return the leased orders, oldest first; empty if the queue is empty
+     */
+    public List<LabOrderClaim> claim(Long userId, int limit) {
+        return claim(userId, limit, LocalDateTime.now());
+    }
+
+    List<LabOrderClaim> claim(Long userId, int limit, LocalDateTime now) {
+        int count = Math.max(1, Math.min(limit, maxClaim));
+        return labOrderRepository.claimPending(userId, now, now.plus(leaseDuration), count).stream()
+                .map(o -> new LabOrderClaim(o.getOrderId(), o.getVisitId(), o.getTestType(),
+                        o.getCreatedAt(), o.getLeasedUntil()))
+                .toList();
+    }
+
+    /**
+     * Extends the technician's live lease on an order by another lease period.
+     *
+     * @return false if they do not hold a live lease on it
+     */
+    public boolean renew(Long orderId, Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        return labOrderRepository.renewLease(orderId, userId, now, now.plus(leaseDuration)) > 0;
+    }
+
+    /**
+     * Returns a leased order to the queue unprocessed.
+     *
+     * @return false if the technician does not hold a live lease on it
+     */
+    public boolean release(Long orderId, Long userId) {
+        return labOrderRepository.releaseLease(orderId, userId, LocalDateTime.now()) > 0;
+    }
+
+    /**
+     * Approves or rejects a leased order, ending the lease.
+     *
+     * @return false if the technician does not hold a live lease on it
+     * @throws IllegalArgumentException if {@code decision} is PENDING
+     */
+    public boolean decide(Long orderId, Long userId, LabOrderStatus decision) {
+        if (decision == LabOrderStatus.PENDING) {
+            throw new IllegalArgumentException("Decision must be APPROVED or REJECTED");
+        }
+        return labOrderRepository.decideLeased(orderId, userId, LocalDateTime.now(), decision.name()) > 0;
+    }
+
+    @Scheduled(fixedDelayString = "${app.lab-queue.sweep-interval-ms:30000}",
+            initialDelayString = "${app.lab-queue.sweep-interval-ms:30000}")
+    public void returnExpiredLeases() {
+        try {
+            int returned = labOrderRepository.returnExpiredLeases(LocalDateTime.now());
+            if (returned > 0) log.info("Returned {} lab orders with expired leases to the queue", returned);
+        } catch (RuntimeException e) {
+            log.warn("Lab order lease sweep failed", e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.securehealth.backend.service;
+
+import com.securehealth.backend.dto.LabResultSummary;
+import com.securehealth.backend.model.LabOrder;
+import com.securehealth.backend.model.LabOrderStatus;
+import com.securehealth.backend.model.LabResult;
+import com.securehealth.backend.model.Role;
+import com.securehealth.backend.repository.LabOrderRepository;
+import com.securehealth.backend.repository.LabResultRepository;
+import com.securehealth.backend.repository.LabResultRepository.FileAccess;
+import com.securehealth.backend.security.AuthenticatedUser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Uploads and authorizes downloads of lab result files.
+ * <p>
+ * Results are accepted only for APPROVED orders. A file may be read by clinical
+ * staff, lab technicians and admins, and by the patient the order was made for
+ * (lab_orders to visits to patient_profile); anyone else gets 403.
+ * </p>
+ */
+@Service
+public class LabResultService {
+
+    private static final Set<String> STAFF_ROLES = Set.of(
+            Role.DOCTOR.name(), Role.NURSE.name(), Role.LAB_TECHNICIAN.name(), Role.ADMIN.name());
+
+    // lab_results.file_name and content_type column lengths
+    private static final int MAX_FILE_NAME_LENGTH = 255;
+    private static final int MAX_CONTENT_TYPE_LENGTH = 100;
+
+    private final LabOrderRepository labOrderRepository;
+    private final LabResultRepository labResultRepository;
+    private final LabFileStore fileStore;
+    private final long maxBytes;
+
+    public LabResultService(LabOrderRepository labOrderRepository,
+                            LabResultRepository labResultRepository,
+                            LabFileStore fileStore,
+                            @Value("${app.lab-files.max-bytes:1073741824}") long maxBytes) {
+        this.labOrderRepository = labOrderRepository;
+        this.labResultRepository = labResultRepository;
+        this.fileStore = fileStore;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Streams an uploaded file into the store and records it as a result of the order.
+     * <p>
+     * The name, type and order are checked before any byte is read, and no
+     * transaction is held while the upload streams.
+     * </p>
+     *
+     * @return the stored result, or empty if there is no such order
+     * @throws IllegalArgumentException if the file name is blank or the name or type
+     *         does not fit its column
+     * @throws IllegalStateException if the order is not APPROVED
+     * @throws LabFileStore.FileTooLargeException if the file exceeds {@code app.lab-files.max-bytes}
+     */
+    public Optional<LabResultSummary> upload(Long orderId, String fileName, String contentType,
+                                             InputStream content) throws IOException {
+        if (fileName == null || fileName.isBlank() || fileName.length() > MAX_FILE_NAME_LENGTH) {
+            throw new IllegalArgumentException("filename must be 1 to " + MAX_FILE_NAME_LENGTH + " characters");
+        }
+        if (contentType.length() > MAX_CONTENT_TYPE_LENGTH) {
+            throw new IllegalArgumentException("Content-Type must be at most " + MAX_CONTENT_TYPE_LENGTH + " characters");
+        }
+        Optional<LabOrder> order = labOrderRepository.findById(orderId);
+        if (order.isEmpty()) return Optional.empty();
+        if (order.get().getStatus() != LabOrderStatus.APPROVED) {
+            throw new IllegalStateException("Lab order " + orderId + " is " + order.get().getStatus());
+        }
+
+        LabFileStore.StoredFile stored = fileStore.store(content, maxBytes);
+
+        LabResult result = new LabResult();
+        result.setOrder(order.get());
+        result.setFileUrl(stored.key());
+        result.setFileName(fileName);
+        result.setContentType(contentType);
+        result.setSizeBytes(stored.size());
+        result.setSha256(stored.sha256());
+        result = labResultRepository.save(result);
+        return Optional.of(new LabResultSummary(result.getResultId(), orderId, fileName, contentType,
+                stored.size(), stored.sha256(), result.getUploadedAt()));
+    }
+
+    /**
+     * A result file's metadata, if {@code user} may read it.
+     *
+     * @return empty if there is no such result or it has no file
+     * @throws AccessDeniedException if the file belongs to another patient
+     */
+    public Optional<FileAccess> fileAccess(Long resultId, AuthenticatedUser user) {
+        Optional<FileAccess> access = labResultRepository.findFileAccess(resultId)
+                .filter(file -> file.getStorageKey() != null && file.getSha256() != null);
+        if (access.isPresent() && !STAFF_ROLES.contains(user.role())
+                && !user.userId().equals(access.get().getPatientUserId())) {
+            throw new AccessDeniedException("Not your lab result");
+        }
+        return access;
+    }
+}
@@ -0,0 +1,110 @@
+package com.securehealth.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * LabFileStore on the local filesystem under {@code app.lab-files.root}.
+ * <p>
+ * A file is stored at {@code ab/cd/abcd...}, named by its SHA-256. Uploads are
+ * written to {@code tmp/} through a fixed 64 KB buffer, hashed on the way, forced
+ * to disk and then renamed into place, so a crash never leaves a partial file
+ * under a content key. Reads use {@link FileChannel#transferTo}, which the kernel
+ * serves without copying through the heap when the target is a file or socket.
+ * </p>
+ */
+@Component
+public class LocalLabFileStore implements LabFileStore {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+    private final Path tmp;
+
+    public LocalLabFileStore(@Value("${app.lab-files.root:./data/lab-files}") String root) throws IOException {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+        this.tmp = this.root.resolve("tmp");
+        Files.createDirectories(tmp);
+    }
+
+    @Override
+    public StoredFile store(InputStream in, long maxBytes) throws IOException {
+        MessageDigest sha256 = sha256();
+        Path upload = Files.createTempFile(tmp, "upload-", ".part");
+        long size = 0;
+        try (FileChannel out = FileChannel.open(upload, StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                size += read;
+                if (size > maxBytes) throw new FileTooLargeException(maxBytes);
+                sha256.update(buffer, 0, read);
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) out.write(chunk);
+            }
+            out.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(upload);
+            throw e;
+        }
+
+        String key = HexFormat.of().formatHex(sha256.digest());
+        Path target = pathOf(key);
+        if (Files.exists(target)) {
+            Files.delete(upload); // same content already stored
+        } else {
+            Files.createDirectories(target.getParent());
+            Files.move(upload, target, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return new StoredFile(key, key, size);
+    }
+
+    @Override
+    public void transferTo(String key, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel file = FileChannel.open(pathOf(key), StandardOpenOption.READ)) {
+            long end = position + count;
+            while (position < end) {
+                long sent = file.transferTo(position, end - position, target);
+                if (sent <= 0 && position >= file.size()) {
+                    throw new IOException("Stored file " + key + " is shorter than expected");
+                }
+                position += sent;
+            }
+        }
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.of(pathOf(key));
+    }
+
+    private Path pathOf(String key) {
+        // Keys come from the database; never let one name a path outside the store
+        if (!KEY.matcher(key).matches()) throw new IllegalArgumentException("Invalid lab file key");
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
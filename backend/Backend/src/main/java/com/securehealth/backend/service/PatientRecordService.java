@@ -0,0 +1,67 @@
+package com.securehealth.backend.service;
+
+import com.securehealth.backend.dto.PatientRecord;
+import com.securehealth.backend.repository.PatientProfileRepository;
+import com.securehealth.backend.repository.PatientProfileRepository.RecordRow;
+import com.securehealth.backend.security.FieldEncryptionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reads patient profiles with their encrypted fields, several at a time.
+ * <p>
+ * The rows are read in one query with the columns still encrypted, and every
+ * field of every row is then decrypted in one {@link FieldEncryptionService#decryptAll}
+ * call: one key lookup per data key and parallel GCM, instead of a converter call
+ * per field as entity loading would do.
+ * </p>
+ */
+@Service
+public class PatientRecordService {
+
+    private final PatientProfileRepository patientProfileRepository;
+    private final FieldEncryptionService fieldEncryptionService;
+    private final int maxIds;
+
+    public PatientRecordService(PatientProfileRepository patientProfileRepository,
+                                FieldEncryptionService fieldEncryptionService,
+                                @Value("${app.patient-records.max-ids:100}") int maxIds) {
+        this.patientProfileRepository = patientProfileRepository;
+        this.fieldEncryptionService = fieldEncryptionService;
+        this.maxIds = maxIds;
+    }
+
+    /**
+     * The profiles with the given IDs, in ID order; unknown IDs are left out.
+     *
+     * @throws IllegalArgumentException if more than the configured maximum are asked for
+     */
+    public List<PatientRecord> findRecords(Collection<Long> profileIds) {
+        if (profileIds.size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " patients per request");
+        }
+        if (profileIds.isEmpty()) return List.of();
+
+        List<RecordRow> rows = new ArrayList<>(patientProfileRepository.findRecordRows(profileIds));
+        rows.sort(Comparator.comparing(RecordRow::getProfileId));
+
+        // Addresses first, then histories, in row order
+        List<String> stored = new ArrayList<>(rows.size() * 2);
+        rows.forEach(row -> stored.add(row.getAddressEncrypted()));
+        rows.forEach(row -> stored.add(row.getMedicalHistoryEncrypted()));
+        List<String> plain = fieldEncryptionService.decryptAll(stored);
+
+        List<PatientRecord> records = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            RecordRow row = rows.get(i);
+            records.add(new PatientRecord(row.getProfileId(), row.getFullName(), row.getDateOfBirth(),
+                    plain.get(i), plain.get(rows.size() + i)));
+        }
+        return records;
+    }
+}
@@ -0,0 +1,623 @@
+package com.securehealth.backend.service;
+
+import com.securehealth.backend.dto.PatientSearchPage;
+import com.securehealth.backend.dto.PatientSearchResult;
+import com.securehealth.backend.repository.PatientProfileRepository;
+import com.securehealth.backend.repository.PatientProfileRepository.SearchRow;
+import com.securehealth.backend.util.IdBroadcastChannel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory type-ahead index over {@code patient_profile} names and dates of birth.
+ * <p>
+ * Names are split into normalized words (lower case, accents and apostrophes
+ * removed). Each word maps to a sorted array of profile IDs, and the words are kept
+ * in a sorted map, so a prefix is one range walk of that map instead of a
+ * {@code LIKE '%x%'} scan. Words that no indexed word starts with fall back to
+ * trigram similarity over the word dictionary ("smitth" still finds "smith"). Dates of
+ * birth are indexed by day.
+ * </p>
+ * <p>
+ * The index is streamed from the database once the application is ready; searches
+ * fail fast with {@link IndexNotReadyException} until then. Afterwards it is kept
+ * current one profile at a time from the {@value #TOPIC} topic of
+ * {@link IdBroadcastChannel}, and reconciled with the table whenever that
+ * subscription is re-established. Writes are serialized; searches never lock.
+ * </p>
+ * <p>
+ * Memory is roughly 150 bytes per profile plus 8 bytes per (word, profile) pair.
+ * </p>
+ */
+@Component
+public class PatientSearchIndex {
+
+    static final String TOPIC = "patients:changed";
+
+    static final int EXACT = 3;
+    static final int PREFIX = 2;
+    static final int FUZZY = 1;
+
+    private static final Logger log = LoggerFactory.getLogger(PatientSearchIndex.class);
+
+    private static final double FUZZY_THRESHOLD = 0.4;
+    private static final long RETRY_DELAY_MILLIS = 10_000;
+    private static final int REFRESH_BATCH = 1000;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern YEAR = Pattern.compile("(19|20)\\d\\d");
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("d/M/uuuu"),
+            DateTimeFormatter.ofPattern("d.M.uuuu"));
+    private static final Comparator<PatientSearchResult> RANKING =
+            Comparator.comparingInt(PatientSearchResult::getScore).reversed()
+                    .thenComparing(PatientSearchResult::getFullName, String.CASE_INSENSITIVE_ORDER)
+                    .thenComparing(PatientSearchResult::getProfileId);
+
+    private final PatientProfileRepository repository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxCandidates;
+    private final int maxResults;
+    private final Timer searchTimer;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, long[]> words = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Set<String>> trigrams = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<LocalDate, long[]> birthDates = new ConcurrentSkipListMap<>();
+
+    private final Object writeLock = new Object();
+    // Profiles changed while the initial load was streaming; re-read once it has finished
+    private final Set<Long> changedDuringLoad = new HashSet<>();
+    // Profiles changed while a reconciliation streams; null when none is running
+    private Set<Long> changedDuringReconcile;
+    private volatile boolean ready;
+
+    public PatientSearchIndex(PatientProfileRepository repository,
+                              IdBroadcastChannel channel,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.patient-search.max-candidates:50000}") int maxCandidates,
+                              @Value("${app.patient-search.max-results:200}") int maxResults) {
+        this.repository = repository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxCandidates = maxCandidates;
+        this.maxResults = maxResults;
+
+        this.searchTimer = Timer.builder("patients.search.duration")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("patients.search.index.size", entries, Map::size).register(meterRegistry);
+        Gauge.builder("patients.search.index.words", words, Map::size).register(meterRegistry);
+
+        channel.subscribe(TOPIC, this::onChange, this::resync);
+    }
+
+    /**
+     * Thrown by {@link #search} while the index is still loading.
+     */
+    public static class IndexNotReadyException extends RuntimeException {
+        public IndexNotReadyException() {
+            super("Patient search is starting up, try again shortly");
+        }
+    }
+
+    /**
+     * Loads the index on a background thread, so startup does not wait for it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoading() {
+        Thread loader = new Thread(() -> {
+            while (true) {
+                try {
+                    load();
+                    return;
+                } catch (RuntimeException e) {
+                    log.warn("Patient search index load failed, retrying in {} ms", RETRY_DELAY_MILLIS, e);
+                }
+                try {
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }, "patient-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Streams every profile into the index, then applies the changes that arrived meanwhile.
+     */
+    public void load() {
+        long start = System.nanoTime();
+        Map<String, LongList> wordPostings = new HashMap<>();
+        Map<LocalDate, LongList> datePostings = new HashMap<>();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<SearchRow> rows = repository.streamSearchRows()) {
+                rows.forEach(row -> {
+                    Entry entry = Entry.of(row);
+                    entries.put(entry.id(), entry);
+                    for (String word : entry.words()) {
+                        wordPostings.computeIfAbsent(word, w -> new LongList()).add(entry.id());
+                    }
+                    if (entry.dateOfBirth() != null) {
+                        datePostings.computeIfAbsent(entry.dateOfBirth(), d -> new LongList()).add(entry.id());
+                    }
+                });
+            }
+        });
+        wordPostings.forEach((word, ids) -> {
+            words.put(word, ids.toSortedArray());
+            addTrigrams(word);
+        });
+        datePostings.forEach((date, ids) -> birthDates.put(date, ids.toSortedArray()));
+
+        List<Long> changed;
+        synchronized (writeLock) {
+            ready = true;
+            changed = new ArrayList<>(changedDuringLoad);
+            changedDuringLoad.clear();
+        }
+        if (!changed.isEmpty()) refresh(changed);
+        log.info("Patient search index loaded: {} profiles, {} words in {} ms", entries.size(), words.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Re-reads one profile and re-indexes it, or drops it if it no longer exists.
+     */
+    public void onChange(long profileId) {
+        synchronized (writeLock) {
+            if (!ready) {
+                changedDuringLoad.add(profileId);
+                return;
+            }
+            if (changedDuringReconcile != null) changedDuringReconcile.add(profileId);
+            // Read under the lock, so two refreshes of one profile cannot land out of order
+            Entry entry = repository.findSearchRow(profileId).map(Entry::of).orElse(null);
+            if (entry == null) remove(profileId);
+            else put(entry);
+        }
+    }
+
+    /**
+     * Streams the whole table and re-reads the profiles the index has wrong or is
+     * missing, correcting whatever lost change messages left behind. Profiles that
+     * change while the table streams are re-read too, as the stream may predate
+     * their change. Does nothing until the index has loaded.
+     */
+    public void reconcile() {
+        synchronized (writeLock) {
+            if (!ready || changedDuringReconcile != null) return;
+            changedDuringReconcile = new HashSet<>();
+        }
+        try {
+            Set<Long> drifted = new HashSet<>();
+            LongList present = new LongList();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<SearchRow> rows = repository.streamSearchRows()) {
+                    rows.forEach(row -> {
+                        present.add(row.getProfileId());
+                        Entry indexed = entries.get(row.getProfileId());
+                        if (indexed == null
+                                || !Objects.equals(indexed.fullName(), row.getFullName())
+                                || !Objects.equals(indexed.dateOfBirth(), row.getDateOfBirth())) {
+                            drifted.add(row.getProfileId());
+                        }
+                    });
+                }
+            });
+            long[] presentIds = present.toSortedArray();
+            for (Long id : entries.keySet()) {
+                if (Arrays.binarySearch(presentIds, id) < 0) drifted.add(id);
+            }
+
+            int corrected;
+            synchronized (writeLock) {
+                corrected = drifted.size();
+                drifted.addAll(changedDuringReconcile);
+                refresh(new ArrayList<>(drifted));
+            }
+            if (corrected > 0) log.warn("Patient search reconciliation corrected {} profiles", corrected);
+        } catch (RuntimeException e) {
+            log.warn("Patient search index reconciliation failed", e);
+        } finally {
+            synchronized (writeLock) {
+                changedDuringReconcile = null;
+            }
+        }
+    }
+
+    /**
+     * Reconciles on a background thread once the change subscription is re-established,
+     * as changes announced while it was down never arrived.
+     */
+    private void resync() {
+        Thread thread = new Thread(this::reconcile, "patient-index-resync");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void refresh(List<Long> profileIds) {
+        synchronized (writeLock) {
+            for (int from = 0; from < profileIds.size(); from += REFRESH_BATCH) {
+                List<Long> batch = profileIds.subList(from, Math.min(from + REFRESH_BATCH, profileIds.size()));
+                Map<Long, Entry> current = new HashMap<>();
+                repository.findSearchRows(batch).forEach(row -> current.put(row.getProfileId(), Entry.of(row)));
+                for (Long id : batch) {
+                    Entry entry = current.get(id);
+                    if (entry == null) remove(id);
+                    else put(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ranked type-ahead search.
+     * <p>
+     * Every word of the query must match a word of the name (whole word, prefix, or
+     * approximately). A date ({@code 1984-03-07}, {@code 7/3/1984}, {@code 7.3.1984})
+     * must equal the date of birth; a bare year must match its year.
+     * </p>
+     *
+     * @param query  free text, e.g. {@code "smi jo 1984"}
+     * @param offset results to skip
+     * @param limit  page size
+     * @throws IndexNotReadyException while the index is loading
+     */
+    public PatientSearchPage search(String query, int offset, int limit) {
+        if (!ready) throw new IndexNotReadyException();
+        return searchTimer.record(() -> doSearch(Query.parse(query), offset, limit));
+    }
+
+    private PatientSearchPage doSearch(Query query, int offset, int limit) {
+        offset = Math.max(0, Math.min(offset, maxResults));
+        limit = Math.max(0, Math.min(limit, maxResults - offset));
+        if (query.isEmpty() || limit == 0) return new PatientSearchPage(List.of(), offset, 0, false);
+
+        List<Term> terms = query.names().stream().map(this::resolve).toList();
+        if (terms.stream().anyMatch(t -> !t.prefixMatches() && t.similar().isEmpty())) {
+            return new PatientSearchPage(List.of(), offset, 0, false); // a word that matches nothing
+        }
+
+        LongList candidates = new LongList();
+        boolean truncated = collectCandidates(query, terms, candidates);
+        long[] ids = candidates.toSortedArray();
+
+        int wanted = offset + limit;
+        PriorityQueue<PatientSearchResult> top = new PriorityQueue<>(wanted + 1, RANKING.reversed());
+        int total = 0;
+        long previous = Long.MIN_VALUE;
+        for (long id : ids) {
+            if (id == previous) continue; // the same profile reached through two words
+            previous = id;
+            Entry entry = entries.get(id);
+            if (entry == null || !query.matchesDate(entry.dateOfBirth())) continue;
+            int score = score(entry, terms);
+            if (score < 0) continue;
+
+            total++;
+            top.add(new PatientSearchResult(entry.id(), entry.fullName(), entry.dateOfBirth(), score));
+            if (top.size() > wanted) top.poll();
+        }
+
+        List<PatientSearchResult> ranked = new ArrayList<>(top);
+        ranked.sort(RANKING);
+        List<PatientSearchResult> page = offset >= ranked.size() ? List.of() : ranked.subList(offset, ranked.size());
+        return new PatientSearchPage(page, offset, total, truncated);
+    }
+
+    /**
+     * Fills {@code candidates} from the most selective part of the query.
+     *
+     * @return true if the candidate cap was hit
+     */
+    private boolean collectCandidates(Query query, List<Term> terms, LongList candidates) {
+        if (query.date() != null) {
+            long[] ids = birthDates.get(query.date());
+            if (ids != null) candidates.addAll(ids);
+            return false;
+        }
+        if (!terms.isEmpty()) {
+            Term driver = terms.stream().max(Comparator.comparingInt(t -> t.text().length())).orElseThrow();
+            if (driver.prefixMatches()) {
+                for (long[] ids : prefixRange(driver.text()).values()) {
+                    if (candidates.size() >= maxCandidates) return true;
+                    candidates.addAll(ids);
+                }
+            } else {
+                for (String word : driver.similar()) {
+                    if (candidates.size() >= maxCandidates) return true;
+                    long[] ids = words.get(word);
+                    if (ids != null) candidates.addAll(ids);
+                }
+            }
+            return false;
+        }
+        // Year only
+        for (long[] ids : birthDates.subMap(LocalDate.of(query.year(), 1, 1), LocalDate.of(query.year() + 1, 1, 1)).values()) {
+            if (candidates.size() >= maxCandidates) return true;
+            candidates.addAll(ids);
+        }
+        return false;
+    }
+
+    /**
+     * Sum of the best match of each query word against the name's words, or -1 if one has none.
+     */
+    private static int score(Entry entry, List<Term> terms) {
+        int total = 0;
+        for (Term term : terms) {
+            int best = 0;
+            for (String word : entry.words()) {
+                if (word.equals(term.text())) {
+                    best = EXACT;
+                    break;
+                }
+                if (term.prefixMatches() && word.startsWith(term.text())) best = PREFIX;
+                else if (best < FUZZY && term.similar().contains(word)) best = FUZZY;
+            }
+            if (best == 0) return -1;
+            total += best;
+        }
+        return total;
+    }
+
+    /**
+     * Decides how a query word is matched: by prefix if any indexed word starts
+     * with it, otherwise against the words most similar to it by trigrams.
+     */
+    private Term resolve(String text) {
+        if (!prefixRange(text).isEmpty()) return new Term(text, true, Set.of());
+        if (text.length() < 3) return new Term(text, false, Set.of());
+
+        Set<String> grams = trigramsOf(text);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : grams) {
+            Set<String> containing = trigrams.get(gram);
+            if (containing != null) containing.forEach(word -> shared.merge(word, 1, Integer::sum));
+        }
+        Set<String> similar = new HashSet<>();
+        shared.forEach((word, count) -> {
+            int union = grams.size() + word.length() - count; // a padded word of n letters has n trigrams
+            if ((double) count / union >= FUZZY_THRESHOLD) similar.add(word);
+        });
+        return new Term(text, false, similar);
+    }
+
+    private Map<String, long[]> prefixRange(String prefix) {
+        return words.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    // --- writes, always under writeLock ---
+
+    private void put(Entry entry) {
+        Entry old = entries.put(entry.id(), entry);
+        if (old != null) unindex(old);
+        for (String word : entry.words()) {
+            long[] before = words.get(word);
+            words.put(word, insert(before, entry.id()));
+            if (before == null) addTrigrams(word);
+        }
+        if (entry.dateOfBirth() != null) {
+            birthDates.put(entry.dateOfBirth(), insert(birthDates.get(entry.dateOfBirth()), entry.id()));
+        }
+    }
+
+    private void remove(long profileId) {
+        Entry old = entries.remove(profileId);
+        if (old != null) unindex(old);
+    }
+
+    private void unindex(Entry entry) {
+        for (String word : entry.words()) {
+            long[] after = delete(words.get(word), entry.id());
+            if (after != null) {
+                words.put(word, after);
+            } else {
+                words.remove(word);
+                removeTrigrams(word);
+            }
+        }
+        if (entry.dateOfBirth() != null) {
+            long[] after = delete(birthDates.get(entry.dateOfBirth()), entry.id());
+            if (after != null) birthDates.put(entry.dateOfBirth(), after);
+            else birthDates.remove(entry.dateOfBirth());
+        }
+    }
+
+    private void addTrigrams(String word) {
+        for (String gram : trigramsOf(word)) {
+            trigrams.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(word);
+        }
+    }
+
+    private void removeTrigrams(String word) {
+        for (String gram : trigramsOf(word)) {
+            trigrams.computeIfPresent(gram, (g, set) -> {
+                set.remove(word);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    /**
+     * Copy-on-write insert into a sorted ID array, so readers never see a partial update.
+     */
+    private static long[] insert(long[] ids, long id) {
+        if (ids == null) return new long[]{id};
+        int at = Arrays.binarySearch(ids, id);
+        if (at >= 0) return ids;
+        at = -at - 1;
+        long[] grown = new long[ids.length + 1];
+        System.arraycopy(ids, 0, grown, 0, at);
+        grown[at] = id;
+        System.arraycopy(ids, at, grown, at + 1, ids.length - at);
+        return grown;
+    }
+
+    /**
+     * Copy-on-write delete; null once the array would be empty.
+     */
+    private static long[] delete(long[] ids, long id) {
+        if (ids == null) return null;
+        int at = Arrays.binarySearch(ids, id);
+        if (at < 0) return ids;
+        if (ids.length == 1) return null;
+        long[] shrunk = new long[ids.length - 1];
+        System.arraycopy(ids, 0, shrunk, 0, at);
+        System.arraycopy(ids, at + 1, shrunk, at, ids.length - at - 1);
+        return shrunk;
+    }
+
+    // --- text handling ---
+
+    /**
+     * Lower case, accents and apostrophes dropped, split on anything that is not a letter or digit.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null) return List.of();
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT)
+                .replace("'", "").replace("’", "");
+        return Arrays.stream(NON_WORD.split(folded)).filter(w -> !w.isEmpty()).toList();
+    }
+
+    /**
+     * Trigrams of a word padded with {@code $} at both ends; "ann" gives $an, ann, nn$.
+     */
+    static Set<String> trigramsOf(String word) {
+        String padded = "$" + word + "$";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private record Entry(long id, String fullName, LocalDate dateOfBirth, String[] words) {
+
+        static Entry of(SearchRow row) {
+            return new Entry(row.getProfileId(), row.getFullName(), row.getDateOfBirth(),
+                    tokenize(row.getFullName()).stream().distinct().toArray(String[]::new));
+        }
+    }
+
+    /**
+     * A query word and how it is matched.
+     *
+     * @param prefixMatches some indexed word starts with {@code text}
+     * @param similar       otherwise, the indexed words close to it by trigram similarity
+     */
+    private record Term(String text, boolean prefixMatches, Set<String> similar) {
+    }
+
+    /**
+     * A parsed query: name words plus an optional exact date of birth or birth year.
+     */
+    private record Query(List<String> names, LocalDate date, Integer year) {
+
+        static Query parse(String text) {
+            List<String> names = new ArrayList<>();
+            LocalDate date = null;
+            Integer year = null;
+            for (String part : text == null ? new String[0] : text.trim().split("\\s+")) {
+                if (part.isEmpty()) continue;
+                LocalDate parsed = parseDate(part);
+                if (parsed != null) {
+                    date = parsed;
+                } else if (YEAR.matcher(part).matches()) {
+                    year = Integer.parseInt(part);
+                } else {
+                    names.addAll(tokenize(part));
+                }
+            }
+            return new Query(names, date, year);
+        }
+
+        private static LocalDate parseDate(String part) {
+            for (DateTimeFormatter format : DATE_FORMATS) {
+                try {
+                    return LocalDate.parse(part, format);
+                } catch (DateTimeParseException e) {
+                    // try the next format
+                }
+            }
+            return null;
+        }
+
+        boolean isEmpty() {
+            return names.isEmpty() && date == null && year == null;
+        }
+
+        boolean matchesDate(LocalDate dateOfBirth) {
+            if (date != null && !date.equals(dateOfBirth)) return false;
+            return year == null || (dateOfBirth != null && dateOfBirth.getYear() == year);
+        }
+    }
+
+    /**
+     * Growable primitive long array; avoids boxing millions of IDs during a load.
+     */
+    private static final class LongList {
+        private long[] values = new long[4];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        void addAll(long[] more) {
+            if (size + more.length > values.length) {
+                values = Arrays.copyOf(values, Math.max(size * 2, size + more.length));
+            }
+            System.arraycopy(more, 0, values, size, more.length);
+            size += more.length;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long[] toSortedArray() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.securehealth.backend.service;
+
+import com.securehealth.backend.model.PatientProfile;
+import com.securehealth.backend.util.IdBroadcastChannel;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener on {@link PatientProfile}: any insert, update or delete made
+ * through the entity is announced on {@link IdBroadcastChannel}, and every node
+ * re-indexes the profile in its {@link PatientSearchIndex}.
+ * <p>
+ * Announced after commit, so the receivers re-read the committed row. Bulk JPQL
+ * updates bypass entity listeners; their callers publish explicitly.
+ * </p>
+ */
+public class PatientSearchIndexUpdater {
+
+    // Resolved per event, like CredentialCacheInvalidator: the listener is built with
+    // the EntityManagerFactory, before the channel exists. Absent in slices such as @DataJpaTest.
+    @Autowired
+    private ObjectProvider<IdBroadcastChannel> channelProvider;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onChange(PatientProfile profile) {
+        IdBroadcastChannel channel = channelProvider == null ? null : channelProvider.getIfAvailable();
+        if (channel == null || profile.getProfileId() == null) return;
+        long profileId = profile.getProfileId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    channel.publish(PatientSearchIndex.TOPIC, profileId);
+                }
+            });
+        } else {
+            channel.publish(PatientSearchIndex.TOPIC, profileId);
+        }
+    }
+}
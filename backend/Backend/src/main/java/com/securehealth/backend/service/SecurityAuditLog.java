@@ -0,0 +1,441 @@
+package com.securehealth.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Asynchronous writer for {@code security_logs}.
+ * <p>
+ * {@link #record} copies an event into a ring of {@code capacity} slots and
+ * returns. The slots are parallel arrays allocated up front, so publishing
+ * allocates nothing and auth requests never wait on an INSERT. A daemon thread
+ * drains the ring every {@code flush-interval-ms}, or as soon as
+ * {@code batch-size} events are waiting, with one {@code COPY ... FROM STDIN}
+ * per batch (a JDBC batch insert on databases other than Postgres).
+ * </p>
+ * <p>
+ * When the ring is full, {@code overflow=BLOCK} makes the caller wait up to
+ * {@code block-timeout-ms} for room and then drops the new event, while
+ * {@code DROP_OLDEST} overwrites the oldest unwritten one. Every lost event is
+ * counted in {@code audit.events.dropped} by reason; {@code audit.buffer.lag} is
+ * the age of the oldest event not yet written. On shutdown the ring is drained
+ * before the data source closes.
+ * </p>
+ */
+@Component
+public class SecurityAuditLog implements DisposableBean {
+
+    /**
+     * What happened; stored as {@code event_type}, with its {@code severity}.
+     */
+    public enum Event {
+        LOGIN_SUCCESS("INFO"),
+        LOGIN_FAILED("WARN"),
+        LOGIN_LOCKED("WARN"),
+        LOGIN_THROTTLED("WARN"),
+        LOGOUT("INFO"),
+        REGISTERED("INFO"),
+        REGISTRATION_REJECTED("INFO"),
+        REFRESH_TOKEN_REUSED("CRITICAL");
+
+        private final String severity;
+
+        Event(String severity) {
+            this.severity = severity;
+        }
+
+        public String severity() {
+            return severity;
+        }
+    }
+
+    public enum Overflow {
+        BLOCK,
+        DROP_OLDEST
+    }
+
+    static final String COPY_SQL =
+            "COPY security_logs (user_id, event_type, ip_address, severity, \"timestamp\") FROM STDIN";
+    private static final String INSERT_SQL =
+            "INSERT INTO security_logs (user_id, event_type, ip_address, severity, \"timestamp\") VALUES (?, ?, ?, ?, ?)";
+
+    private static final Logger log = LoggerFactory.getLogger(SecurityAuditLog.class);
+    private static final long NO_USER = 0; // BIGSERIAL IDs start at 1
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final Overflow overflow;
+    private final int capacity;
+    private final int mask;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long blockTimeoutNanos;
+
+    // The ring; guarded by lock. head - tail events are waiting.
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchReady = lock.newCondition();
+    private final Condition roomFreed = lock.newCondition();
+    private final long[] userIds;
+    private final Event[] events;
+    private final String[] ipAddresses;
+    private final long[] timestamps;
+    private long head;
+    private long tail;
+
+    // The batch being written; only touched by the drain thread
+    private final long[] batchUserIds;
+    private final Event[] batchEvents;
+    private final String[] batchIpAddresses;
+    private final long[] batchTimestamps;
+    private final StringBuilder copyBuffer;
+    private volatile long inFlightSince; // timestamp of the batch's oldest event, 0 if none
+
+    private final Counter written;
+    private final Counter droppedOverflow;
+    private final Counter droppedTimeout;
+    private final Counter droppedShutdown;
+    private final Counter droppedWriteFailed;
+
+    private volatile boolean running = true;
+    private volatile Thread drainer;
+
+    public SecurityAuditLog(DataSource dataSource,
+                            MeterRegistry registry,
+                            @Value("${app.audit.enabled:true}") boolean enabled,
+                            @Value("${app.audit.capacity:8192}") int capacity,
+                            @Value("${app.audit.overflow:BLOCK}") Overflow overflow,
+                            @Value("${app.audit.batch-size:500}") int batchSize,
+                            @Value("${app.audit.flush-interval-ms:200}") long flushIntervalMillis,
+                            @Value("${app.audit.block-timeout-ms:1000}") long blockTimeoutMillis) {
+        if (capacity < 2) throw new IllegalArgumentException("app.audit.capacity must be at least 2");
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.overflow = overflow;
+        this.capacity = Integer.highestOneBit(capacity - 1) << 1; // next power of two, so a slot is seq & mask
+        this.mask = this.capacity - 1;
+        this.batchSize = Math.max(1, Math.min(batchSize, this.capacity));
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+
+        int slots = enabled ? this.capacity : 0;
+        this.userIds = new long[slots];
+        this.events = new Event[slots];
+        this.ipAddresses = new String[slots];
+        this.timestamps = new long[slots];
+        int batchSlots = enabled ? this.batchSize : 0;
+        this.batchUserIds = new long[batchSlots];
+        this.batchEvents = new Event[batchSlots];
+        this.batchIpAddresses = new String[batchSlots];
+        this.batchTimestamps = new long[batchSlots];
+        this.copyBuffer = new StringBuilder(batchSlots * 64);
+
+        this.written = Counter.builder("audit.events.written")
+                .description("Security audit events written to security_logs")
+                .register(registry);
+        this.droppedOverflow = dropCounter(registry, "overflow");
+        this.droppedTimeout = dropCounter(registry, "timeout");
+        this.droppedShutdown = dropCounter(registry, "shutdown");
+        this.droppedWriteFailed = dropCounter(registry, "write_failed");
+        Gauge.builder("audit.buffer.depth", this, SecurityAuditLog::depth)
+                .description("Security audit events waiting in the ring buffer")
+                .register(registry);
+        Gauge.builder("audit.buffer.lag", this, audit -> audit.lagMillis(System.currentTimeMillis()) / 1000.0)
+                .description("Age of the oldest security audit event not yet written")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    private static Counter dropCounter(MeterRegistry registry, String reason) {
+        return Counter.builder("audit.events.dropped").tag("reason", reason)
+                .description("Security audit events lost before reaching security_logs")
+                .register(registry);
+    }
+
+    /**
+     * Queues one event for {@code security_logs}.
+     * <p>
+     * Returns at once unless the ring is full under {@code overflow=BLOCK}.
+     * Never throws: a lost audit event must not fail the request that caused it.
+     * </p>
+     *
+     * @param userId    the account concerned, or null if unknown
+     * @param ipAddress the client address, or null
+     */
+    public void record(Event event, Long userId, String ipAddress) {
+        if (!enabled) return;
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            if (!running) {
+                droppedShutdown.increment();
+                return;
+            }
+            if (head - tail == capacity) {
+                if (overflow == Overflow.DROP_OLDEST) {
+                    ipAddresses[(int) tail & mask] = null;
+                    tail++;
+                    droppedOverflow.increment();
+                } else if (!awaitRoom()) {
+                    (running ? droppedTimeout : droppedShutdown).increment();
+                    return;
+                }
+            }
+            int slot = (int) head & mask;
+            userIds[slot] = userId != null ? userId : NO_USER;
+            events[slot] = event;
+            ipAddresses[slot] = ipAddress;
+            timestamps[slot] = now;
+            head++;
+            if (head - tail == batchSize) batchReady.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean awaitRoom() {
+        long remaining = blockTimeoutNanos;
+        try {
+            while (head - tail == capacity) {
+                if (remaining <= 0 || !running) return false;
+                remaining = roomFreed.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+        Thread thread = new Thread(this::drain, "security-audit-writer");
+        thread.setDaemon(true);
+        drainer = thread;
+        thread.start();
+    }
+
+    private void drain() {
+        while (true) {
+            int taken;
+            try {
+                taken = take(running ? flushIntervalNanos : 0);
+            } catch (InterruptedException e) {
+                running = false;
+                continue;
+            }
+            if (taken > 0) {
+                flush(taken);
+            } else if (!running) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Moves up to {@code batch-size} events from the ring into the batch arrays,
+     * first waiting up to {@code waitNanos} unless a full batch is already waiting.
+     *
+     * @return the number of events taken
+     */
+    int take(long waitNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            if (waitNanos > 0 && running && head - tail < batchSize) batchReady.awaitNanos(waitNanos);
+            int count = (int) Math.min(head - tail, batchSize);
+            for (int i = 0; i < count; i++) {
+                int slot = (int) (tail + i) & mask;
+                batchUserIds[i] = userIds[slot];
+                batchEvents[i] = events[slot];
+                batchIpAddresses[i] = ipAddresses[slot];
+                batchTimestamps[i] = timestamps[slot];
+                ipAddresses[slot] = null;
+            }
+            if (count > 0) {
+                tail += count;
+                inFlightSince = batchTimestamps[0];
+                roomFreed.signalAll();
+            }
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flush(int count) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write(count);
+                written.increment(count);
+                break;
+            } catch (SQLException | RuntimeException e) {
+                if (attempt == MAX_WRITE_ATTEMPTS || !running) {
+                    log.error("Dropping {} security audit events after {} failed writes", count, attempt, e);
+                    droppedWriteFailed.increment(count);
+                    break;
+                }
+                log.warn("Writing {} security audit events failed, retrying", count, e);
+                try {
+                    TimeUnit.NANOSECONDS.sleep(flushIntervalNanos);
+                } catch (InterruptedException ie) {
+                    running = false;
+                }
+            }
+        }
+        inFlightSince = 0;
+        Arrays.fill(batchIpAddresses, 0, count, null);
+    }
+
+    /**
+     * Writes the first {@code count} events of the batch in one statement.
+     */
+    void write(int count) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            if (connection.isWrapperFor(PGConnection.class)) {
+                copy(connection.unwrap(PGConnection.class), count);
+            } else {
+                insert(connection, count);
+            }
+            if (!connection.getAutoCommit()) connection.commit();
+        }
+    }
+
+    private void copy(PGConnection connection, int count) throws SQLException {
+        copyBuffer.setLength(0);
+        appendBatch(copyBuffer, count);
+        byte[] rows = copyBuffer.toString().getBytes(StandardCharsets.UTF_8);
+        CopyIn copyIn = connection.getCopyAPI().copyIn(COPY_SQL);
+        try {
+            copyIn.writeToCopy(rows, 0, rows.length);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) copyIn.cancelCopy();
+        }
+    }
+
+    private void insert(Connection connection, int count) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+            for (int i = 0; i < count; i++) {
+                if (batchUserIds[i] == NO_USER) statement.setNull(1, Types.BIGINT);
+                else statement.setLong(1, batchUserIds[i]);
+                statement.setString(2, batchEvents[i].name());
+                statement.setString(3, batchIpAddresses[i]);
+                statement.setString(4, batchEvents[i].severity());
+                statement.setTimestamp(5, Timestamp.valueOf(toLocalDateTime(batchTimestamps[i])));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Appends the first {@code count} events of the batch as COPY input.
+     */
+    void appendBatch(StringBuilder out, int count) {
+        for (int i = 0; i < count; i++) {
+            appendCopyRow(out, batchUserIds[i], batchEvents[i], batchIpAddresses[i], batchTimestamps[i]);
+        }
+    }
+
+    /**
+     * Appends one row in COPY text format: tab separated, {@code \N} for null.
+     */
+    static void appendCopyRow(StringBuilder out, long userId, Event event, String ipAddress, long timestamp) {
+        if (userId == NO_USER) out.append("\\N");
+        else out.append(userId);
+        out.append('\t').append(event.name());
+        out.append('\t');
+        if (ipAddress == null) out.append("\\N");
+        else appendEscaped(out, ipAddress);
+        out.append('\t').append(event.severity());
+        out.append('\t').append(toLocalDateTime(timestamp));
+        out.append('\n');
+    }
+
+    private static void appendEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '\t' -> out.append("\\t");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    // security_logs.timestamp has no zone; the rest of the schema is written in server local time
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    long depth() {
+        lock.lock();
+        try {
+            return head - tail;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long lagMillis(long now) {
+        long oldest = inFlightSince;
+        if (oldest == 0) {
+            lock.lock();
+            try {
+                if (head != tail) oldest = timestamps[(int) tail & mask];
+            } finally {
+                lock.unlock();
+            }
+        }
+        return oldest == 0 ? 0 : Math.max(0, now - oldest);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Stops accepting events and waits for the writer to drain the ring.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        lock.lock();
+        try {
+            running = false;
+            batchReady.signal();
+            roomFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        Thread thread = drainer;
+        if (thread != null) thread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
@@ -0,0 +1,202 @@
+package com.securehealth.backend.service;
+
+import com.securehealth.backend.model.Session;
+import com.securehealth.backend.repository.SessionRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-behind inserts for new login sessions.
+ * <p>
+ * Concurrent logins hand their session to {@link #save} and block until it is
+ * committed. A single writer thread collects sessions until it has
+ * {@code max-batch-size} of them or the oldest has waited {@code max-delay-ms},
+ * then inserts them in one transaction as a JDBC batch (pooled sequence IDs make
+ * that possible). A login storm thus pays one commit per batch instead of one
+ * per login, while every caller still only returns after its own row is durable.
+ * </p>
+ * <p>
+ * Enabled with {@code app.sessions.write-behind.enabled=true}; otherwise
+ * {@link AuthService} saves sessions directly. If a batch fails, its sessions
+ * are retried one by one so a single bad row cannot fail its neighbours.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.sessions.write-behind.enabled", havingValue = "true")
+public class SessionBatchWriter implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionBatchWriter.class);
+
+    private final SessionRepository sessionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingSession> queue = new LinkedBlockingQueue<>();
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final long commitTimeoutMillis;
+    private final DistributionSummary batchSizes;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public SessionBatchWriter(SessionRepository sessionRepository,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry registry,
+                              @Value("${app.sessions.write-behind.max-batch-size:50}") int maxBatchSize,
+                              @Value("${app.sessions.write-behind.max-delay-ms:5}") long maxDelayMillis,
+                              @Value("${app.sessions.write-behind.commit-timeout-ms:5000}") long commitTimeoutMillis) {
+        this.sessionRepository = sessionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Always a transaction of its own, never the caller's (the writer thread has none anyway)
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.commitTimeoutMillis = commitTimeoutMillis;
+        this.batchSizes = DistributionSummary.builder("auth.sessions.batch.size")
+                .description("Sessions inserted per write-behind commit")
+                .register(registry);
+
+        this.writer = new Thread(this::run, "session-batch-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues a session for the next batch and waits until it has been committed.
+     * <p>
+     * On timeout the session is withdrawn if the writer has not taken it into a
+     * batch yet, so a login that already failed cannot leave a session behind.
+     * If it has, the commit is under way and its outcome is awaited once more.
+     * </p>
+     *
+     * @throws RuntimeException if the insert failed or did not commit in time
+     */
+    public Session save(Session session) {
+        if (!running) throw new IllegalStateException("Session writer is shut down");
+        PendingSession pending = new PendingSession(session);
+        queue.add(pending);
+        try {
+            return pending.committed().get(commitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for session commit", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException("Session insert failed", e.getCause());
+        } catch (TimeoutException e) {
+            if (pending.claim()) {
+                queue.remove(pending);
+                throw new IllegalStateException("Timed out waiting for session commit", e);
+            }
+            return awaitClaimed(pending);
+        }
+    }
+
+    private Session awaitClaimed(PendingSession pending) {
+        try {
+            return pending.committed().get(commitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for session commit", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException("Session insert failed", e.getCause());
+        } catch (TimeoutException e) {
+            log.warn("Session commit still running after {} ms; it may yet commit unused", 2 * commitTimeoutMillis);
+            throw new IllegalStateException("Timed out waiting for session commit", e);
+        }
+    }
+
+    private void run() {
+        List<PendingSession> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingSession first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                // Size or deadline, whichever comes first
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        queue.drainTo(batch, maxBatchSize - batch.size());
+                        break;
+                    }
+                    PendingSession next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                // Sessions whose caller timed out and withdrew them are not written
+                batch.removeIf(pending -> !pending.claim());
+                if (!batch.isEmpty()) flush(batch);
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (RuntimeException e) {
+                log.error("Session writer failed a batch", e);
+                batch.forEach(p -> p.committed().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingSession> batch) {
+        List<Session> sessions = batch.stream().map(PendingSession::session).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> sessionRepository.saveAll(sessions));
+            batchSizes.record(batch.size());
+            batch.forEach(p -> p.committed().complete(p.session()));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) throw e;
+            log.warn("Batched insert of {} sessions failed, retrying individually", batch.size(), e);
+            for (PendingSession pending : batch) {
+                try {
+                    pending.session().setSessionId(null); // discard the ID assigned in the rolled back batch
+                    transactionTemplate.executeWithoutResult(status -> sessionRepository.save(pending.session()));
+                    pending.committed().complete(pending.session());
+                } catch (RuntimeException single) {
+                    pending.committed().completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        // Let the writer drain what is already queued, then stop
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private record PendingSession(Session session, CompletableFuture<Session> committed, AtomicBoolean claimed) {
+
+        PendingSession(Session session) {
+            this(session, new CompletableFuture<>(), new AtomicBoolean());
+        }
+
+        /**
+         * Taken once, either by the writer (to insert it) or by the timed-out caller (to withdraw it).
+         */
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.securehealth.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maintains daily range partitions of {@code sessions} by {@code expires_at}.
+ * <p>
+ * Only for databases converted with {@code DB/sessions_partitioning.sql}; enabled
+ * with {@code app.sessions.partitioning.enabled=true}. Each run creates the
+ * partitions for the coming {@code days-ahead} days (a login today expires in
+ * 7) and drops every partition whose whole day has passed, so expired sessions
+ * leave as one cheap DROP instead of row-by-row deletes. {@link SessionReaper}
+ * keeps handling revoked sessions and anything left in the default partition.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.sessions.partitioning.enabled", havingValue = "true")
+public class SessionPartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionPartitionManager.class);
+    private static final String PREFIX = "sessions_p";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int daysAhead;
+    private final long lockTimeoutMillis;
+
+    public SessionPartitionManager(JdbcTemplate jdbcTemplate,
+                                   @Value("${app.sessions.partitioning.days-ahead:10}") int daysAhead,
+                                   @Value("${app.sessions.partitioning.lock-timeout-ms:2000}") long lockTimeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.daysAhead = daysAhead;
+        this.lockTimeoutMillis = lockTimeoutMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${app.sessions.partitioning.interval-ms:3600000}")
+    public void maintain() {
+        LocalDate today = LocalDate.now();
+
+        // 1. Partitions for sessions created from now on
+        for (int i = 0; i <= daysAhead; i++) {
+            LocalDate day = today.plusDays(i);
+            execute("CREATE TABLE IF NOT EXISTS " + partitionName(day) + " PARTITION OF sessions"
+                    + " FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "')");
+        }
+
+        // 2. Partitions holding nothing but expired sessions
+        List<String> existing = jdbcTemplate.queryForList("""
+                SELECT c.relname
+                  FROM pg_inherits i
+                  JOIN pg_class c ON c.oid = i.inhrelid
+                 WHERE i.inhparent = 'sessions'::regclass
+                """, String.class);
+        for (String partition : expiredPartitions(existing, today)) {
+            if (execute("DROP TABLE IF EXISTS " + partition)) {
+                log.info("Dropped expired session partition {}", partition);
+            }
+        }
+    }
+
+    /**
+     * Partitions whose day ended before {@code today}: every row in them has expired.
+     */
+    static List<String> expiredPartitions(List<String> partitions, LocalDate today) {
+        List<String> expired = new ArrayList<>();
+        for (String name : partitions) {
+            if (!name.startsWith(PREFIX)) continue; // e.g. sessions_default
+            try {
+                LocalDate day = LocalDate.parse(name.substring(PREFIX.length()), SUFFIX);
+                if (!day.plusDays(1).isAfter(today)) expired.add(name);
+            } catch (DateTimeParseException e) {
+                // Not one of ours
+            }
+        }
+        return expired;
+    }
+
+    static String partitionName(LocalDate day) {
+        return PREFIX + day.format(SUFFIX);
+    }
+
+    /**
+     * Runs DDL with a short lock timeout, so a partition change never queues
+     * behind (and in front of) live session traffic; it is retried next run.
+     */
+    private boolean execute(String ddl) {
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET lock_timeout = " + lockTimeoutMillis);
+                    try {
+                        statement.execute(ddl);
+                    } finally {
+                        statement.execute("RESET lock_timeout");
+                    }
+                }
+                return null;
+            });
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("Session partition maintenance failed, will retry: {}", ddl, e);
+            return false;
+        }
+    }
+}
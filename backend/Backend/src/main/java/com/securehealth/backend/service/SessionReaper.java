@@ -0,0 +1,118 @@
+package com.securehealth.backend.service;
+
+import com.securehealth.backend.repository.SessionRepository;
+import com.securehealth.backend.repository.SessionRepository.ReapedChunk;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background deletion of dead rows from {@code sessions}.
+ * <p>
+ * Each pass removes sessions that have expired, and sessions revoked (logout or
+ * refresh rotation) longer ago than {@code revoked-retention-hours}. Revoked rows
+ * are kept for a while on purpose: refresh-token reuse detection needs them.
+ * </p>
+ * <p>
+ * Rows are deleted in small chunks, one short transaction each, walking a keyset
+ * cursor so no chunk rescans what the previous ones deleted. A pause between
+ * chunks leaves room for foreground traffic. Publishes
+ * {@code sessions.reaper.deleted} (tagged by reason) and
+ * {@code sessions.reaper.chunk.duration}.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.sessions.reaper.enabled", havingValue = "true", matchIfMissing = true)
+public class SessionReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionReaper.class);
+    private static final LocalDateTime START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final SessionRepository sessionRepository;
+    private final int chunkSize;
+    private final long pauseMillis;
+    private final Duration revokedRetention;
+    private final Counter expiredDeleted;
+    private final Counter revokedDeleted;
+    private final Timer chunkDuration;
+
+    public SessionReaper(SessionRepository sessionRepository, MeterRegistry registry,
+                         @Value("${app.sessions.reaper.chunk-size:1000}") int chunkSize,
+                         @Value("${app.sessions.reaper.pause-ms:50}") long pauseMillis,
+                         @Value("${app.sessions.reaper.revoked-retention-hours:168}") long revokedRetentionHours) {
+        this.sessionRepository = sessionRepository;
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pauseMillis;
+        this.revokedRetention = Duration.ofHours(revokedRetentionHours);
+        this.expiredDeleted = Counter.builder("sessions.reaper.deleted").tag("reason", "expired")
+                .description("Session rows deleted by the reaper")
+                .register(registry);
+        this.revokedDeleted = Counter.builder("sessions.reaper.deleted").tag("reason", "revoked")
+                .description("Session rows deleted by the reaper")
+                .register(registry);
+        this.chunkDuration = Timer.builder("sessions.reaper.chunk.duration")
+                .description("Time taken by one reaper delete chunk")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.sessions.reaper.interval-ms:300000}",
+            initialDelayString = "${app.sessions.reaper.interval-ms:300000}")
+    public void reap() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            long expired = drain(Reason.EXPIRED, now);
+            long revoked = drain(Reason.REVOKED, now.minus(revokedRetention));
+            if (expired + revoked > 0) {
+                log.info("Session reaper removed {} expired and {} revoked sessions", expired, revoked);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // Next pass starts over from the beginning; nothing is lost by stopping here
+            log.warn("Session reaper pass failed", e);
+        }
+    }
+
+    /**
+     * Deletes every row matching the reason, chunk by chunk.
+     *
+     * @return rows deleted
+     */
+    long drain(Reason reason, LocalDateTime cutoff) throws InterruptedException {
+        LocalDateTime afterTime = START;
+        long afterId = 0;
+        long total = 0;
+        while (true) {
+            long startedAt = System.nanoTime();
+            Optional<ReapedChunk> chunk = reason == Reason.EXPIRED
+                    ? sessionRepository.deleteExpiredChunk(cutoff, afterTime, afterId, chunkSize)
+                    : sessionRepository.deleteRevokedChunk(cutoff, afterTime, afterId, chunkSize);
+            chunkDuration.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            if (chunk.isEmpty()) return total;
+
+            long deleted = chunk.get().getDeleted();
+            (reason == Reason.EXPIRED ? expiredDeleted : revokedDeleted).increment(deleted);
+            total += deleted;
+            afterTime = chunk.get().getLastTime();
+            afterId = chunk.get().getLastId();
+            if (deleted < chunkSize) return total; // short chunk: nothing left past the cursor
+
+            if (pauseMillis > 0) Thread.sleep(pauseMillis);
+        }
+    }
+
+    enum Reason {
+        EXPIRED, REVOKED
+    }
+}
@@ -0,0 +1,90 @@
+package com.securehealth.backend.service;
+
+import com.securehealth.backend.dto.SessionPage;
+import com.securehealth.backend.dto.SessionSummary;
+import com.securehealth.backend.repository.SessionRepository;
+import com.securehealth.backend.repository.SessionRepository.ActiveSession;
+import com.securehealth.backend.util.KeysetCursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Lists and revokes a user's refresh-token sessions.
+ * <p>
+ * Pages are keyset-paginated on {@code (expires_at, session_id)}, so an account
+ * with thousands of sessions costs the same per page as one with three. Revoking
+ * is a single UPDATE either way; no rows are loaded into the persistence context.
+ * </p>
+ * <p>
+ * Revoking a session stops its refresh token. Access tokens already issued from it
+ * stay valid until they expire (at most {@code jwt.expiration}).
+ * </p>
+ */
+@Service
+public class SessionService {
+
+    // First-page cursor: after every session that can exist (they expire within days)
+    private static final KeysetCursor FIRST_PAGE = new KeysetCursor(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
+
+    private final SessionRepository sessionRepository;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public SessionService(SessionRepository sessionRepository,
+                          @Value("${app.sessions.listing.default-page-size:50}") int defaultPageSize,
+                          @Value("${app.sessions.listing.max-page-size:200}") int maxPageSize) {
+        this.sessionRepository = sessionRepository;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * One page of a user's active sessions, latest expiry first.
+     *
+     * @param cursor {@link SessionPage#getNextCursor()} of the previous page, or null for the first
+     * @param limit  page size; null for the default, capped at the configured maximum
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public SessionPage listActive(Long userId, String cursor, Integer limit) {
+        KeysetCursor after = cursor == null || cursor.isBlank() ? FIRST_PAGE : KeysetCursor.decode(cursor);
+        int pageSize = limit == null || limit <= 0 ? defaultPageSize : Math.min(limit, maxPageSize);
+
+        // One extra row tells us whether another page exists without a count query
+        List<ActiveSession> rows = sessionRepository.findActivePage(
+                userId, LocalDateTime.now(), after.time(), after.id(), pageSize + 1);
+        boolean more = rows.size() > pageSize;
+        List<ActiveSession> page = more ? rows.subList(0, pageSize) : rows;
+
+        List<SessionSummary> sessions = page.stream()
+                .map(s -> new SessionSummary(s.getSessionId(), s.getIpAddress(), s.getUserAgent(),
+                        s.getCreatedAt(), s.getExpiresAt()))
+                .toList();
+        String nextCursor = null;
+        if (more) {
+            ActiveSession last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getExpiresAt(), last.getSessionId()).encode();
+        }
+        return new SessionPage(sessions, nextCursor);
+    }
+
+    /**
+     * Revokes one of a user's sessions.
+     *
+     * @return false if the user has no such live session
+     */
+    public boolean revoke(Long userId, Long sessionId) {
+        return sessionRepository.revokeSession(userId, sessionId, LocalDateTime.now()) > 0;
+    }
+
+    /**
+     * Revokes every live session of a user ("sign out everywhere").
+     *
+     * @return number of sessions revoked
+     */
+    public int revokeAll(Long userId) {
+        return sessionRepository.revokeAllSessions(userId, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,15 @@
+package com.securehealth.backend.service;
+
+/**
+ * Thrown when a login verified the password but its session could not be stored.
+ * <p>
+ * A server-side failure, not a credentials problem: controllers map it to
+ * 503 Service Unavailable with a {@code Retry-After} header.
+ * </p>
+ */
+public class SessionUnavailableException extends RuntimeException {
+
+    public SessionUnavailableException(Throwable cause) {
+        super("Could not start a session, please retry shortly", cause);
+    }
+}
@@ -0,0 +1,130 @@
+package com.securehealth.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.securehealth.backend.dto.VisitTimelineEntry;
+import com.securehealth.backend.dto.VisitTimelinePage;
+import com.securehealth.backend.repository.PatientProfileRepository;
+import com.securehealth.backend.repository.VisitRepository;
+import com.securehealth.backend.repository.VisitRepository.TimelineRow;
+import com.securehealth.backend.util.KeysetCursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * A patient's visit history, newest first, with the doctor on each visit.
+ * <p>
+ * Pages are keyset-paginated on {@code (visit_date, visit_id)} and read with the
+ * doctor joined in, so every page is one query whether the chart holds three
+ * visits or ten years of them. Long histories can instead be streamed in full
+ * as NDJSON from a single server-side cursor.
+ * </p>
+ */
+@Service
+public class VisitTimelineService {
+
+    // First-page cursor: after every visit that can exist
+    private static final KeysetCursor FIRST_PAGE = new KeysetCursor(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
+    private static final int STREAM_FLUSH_ROWS = 100;
+
+    private final VisitRepository visitRepository;
+    private final PatientProfileRepository patientProfileRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public VisitTimelineService(VisitRepository visitRepository,
+                                PatientProfileRepository patientProfileRepository,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                @Value("${app.visits.timeline.default-page-size:20}") int defaultPageSize,
+                                @Value("${app.visits.timeline.max-page-size:100}") int maxPageSize) {
+        this.visitRepository = visitRepository;
+        this.patientProfileRepository = patientProfileRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * One page of a patient's visits, newest first.
+     *
+     * @param cursor {@link VisitTimelinePage#getNextCursor()} of the previous page, or null for the first
+     * @param limit  page size; null for the default, capped at the configured maximum
+     * @return the page, or empty if there is no such patient
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public Optional<VisitTimelinePage> page(Long patientId, String cursor, Integer limit) {
+        KeysetCursor after = cursor == null || cursor.isBlank() ? FIRST_PAGE : KeysetCursor.decode(cursor);
+        int pageSize = limit == null || limit <= 0 ? defaultPageSize : Math.min(limit, maxPageSize);
+
+        // One extra row tells us whether another page exists without a count query
+        List<TimelineRow> rows = visitRepository.findTimelinePage(patientId, after.time(), after.id(), pageSize + 1);
+        // Only an empty first page can mean an unknown patient; anything else skips the lookup
+        if (rows.isEmpty() && after == FIRST_PAGE && !patientProfileRepository.existsById(patientId)) {
+            return Optional.empty();
+        }
+        boolean more = rows.size() > pageSize;
+        List<TimelineRow> page = more ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (more) {
+            TimelineRow last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getVisitDate(), last.getVisitId()).encode();
+        }
+        return Optional.of(new VisitTimelinePage(page.stream().map(VisitTimelineService::entry).toList(), nextCursor));
+    }
+
+    /**
+     * Whether the patient exists; checked before a stream starts, as its status can't change afterwards.
+     */
+    public boolean patientExists(Long patientId) {
+        return patientProfileRepository.existsById(patientId);
+    }
+
+    /**
+     * Writes a patient's whole visit history to {@code out}, one NDJSON line per visit, newest first.
+     * <p>
+     * Rows are read through a server-side cursor and written as they arrive, so
+     * memory stays flat however long the history is. The output is flushed every
+     * {@value #STREAM_FLUSH_ROWS} visits.
+     * </p>
+     */
+    public void stream(Long patientId, OutputStream out) throws IOException {
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<TimelineRow> rows = visitRepository.streamTimeline(patientId)) {
+                    int written = 0;
+                    for (TimelineRow row : (Iterable<TimelineRow>) rows::iterator) {
+                        out.write(objectMapper.writeValueAsBytes(entry(row)));
+                        out.write('\n');
+                        if (++written % STREAM_FLUSH_ROWS == 0) out.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+    }
+
+    private static VisitTimelineEntry entry(TimelineRow row) {
+        return new VisitTimelineEntry(row.getVisitId(), row.getVisitDate(), row.getDoctorId(),
+                row.getDoctorName(), row.getDoctorSpecialization(),
+                row.getDiagnosisNotes(), row.getPrescriptionText());
+    }
+}
@@ -0,0 +1,36 @@
+package com.securehealth.backend.util;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Broadcasts entity IDs on named topics to every node, so each can refresh what it
+ * keeps in memory about that entity. The owner of the in-memory copy names the
+ * topic, e.g. {@code auth:credentials} for {@code CredentialCache}.
+ * <p>
+ * Redis pub/sub when {@code app.redis.enabled=true}, an in-process fan-out otherwise.
+ * Pub/sub does not replay what was published while a node's subscription was down;
+ * subscribers that must not drift pass a {@code resync} callback, which runs once the
+ * subscription is re-established.
+ * </p>
+ */
+public interface IdBroadcastChannel {
+
+    /**
+     * Announces that the entity with this ID changed.
+     */
+    void publish(String topic, long id);
+
+    /**
+     * Registers a callback for IDs published on the topic by any node, including this one.
+     */
+    default void subscribe(String topic, LongConsumer listener) {
+        subscribe(topic, listener, () -> {
+        });
+    }
+
+    /**
+     * Like {@link #subscribe(String, LongConsumer)}; {@code resync} runs whenever IDs
+     * published on the topic may have been missed.
+     */
+    void subscribe(String topic, LongConsumer listener, Runnable resync);
+}
@@ -0,0 +1,32 @@
+package com.securehealth.backend.util;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongConsumer;
+
+/**
+ * Single-node IdBroadcastChannel used when Redis is disabled
+ * ({@code app.redis.enabled=false}): listeners are called on the publishing thread.
+ * Nothing can be missed, so {@code resync} callbacks never run.
+ */
+@Component
+@ConditionalOnProperty(name = "app.redis.enabled", havingValue = "false", matchIfMissing = true)
+public class InMemoryIdBroadcastChannel implements IdBroadcastChannel {
+
+    private final Map<String, List<LongConsumer>> listeners = new ConcurrentHashMap<>();
+
+    @Override
+    public void publish(String topic, long id) {
+        listeners.getOrDefault(topic, List.of()).forEach(listener -> listener.accept(id));
+    }
+
+    @Override
+    public void subscribe(String topic, LongConsumer listener, Runnable resync) {
+        listeners.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+}
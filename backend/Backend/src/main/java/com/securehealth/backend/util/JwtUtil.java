@@ -1,44 +1,84 @@
 package com.securehealth.backend.util;
 
+import com.securehealth.backend.security.JwtKeyRing;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import javax.crypto.SecretKey;
+import java.security.Key;
+import java.security.PublicKey;
 import java.security.SecureRandom;
 import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
 
+/**
+ * Issues and verifies access tokens.
+ * <p>
+ * Tokens are ES256-signed with the current key of the {@link JwtKeyRing} and carry its
+ * {@code kid} header. Other services verify them locally against the public keys at
+ * {@code /.well-known/jwks.json}; no shared secret leaves this service.
+ * </p>
+ */
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secretKey;
+    private final JwtKeyRing keyRing;
+    private final long jwtExpiration; // 15 mins
 
-    @Value("${jwt.expiration}")
-    private long jwtExpiration; // 15 mins
+    // Built once; the key locator reads the ring's current snapshot on every parse
+    private final JwtParser parser;
 
-    private SecretKey getSignInKey() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public JwtUtil(JwtKeyRing keyRing, @Value("${jwt.expiration}") long jwtExpiration) {
+        this.keyRing = keyRing;
+        this.jwtExpiration = jwtExpiration;
+        this.parser = Jwts.parser().keyLocator(new LocatorAdapter<Key>() {
+            @Override
+            protected Key locate(JwsHeader header) {
+                PublicKey key = keyRing.verificationKey(header.getKeyId());
+                if (key == null) throw new UnsupportedJwtException("Unknown signing key: " + header.getKeyId());
+                return key;
+            }
+        }).build();
     }
 
     // Task #12513: Generate Access Token
     public String generateAccessToken(String email, String role, Long userId) {
+        JwtKeyRing.SigningKey key = keyRing.signingKey();
         return Jwts.builder()
+                .header().keyId(key.kid()).and()
+                .id(UUID.randomUUID().toString()) // jti, the handle used to revoke this token
                 .subject(email)
                 .claim("role", role)
                 .claim("userId", userId)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + jwtExpiration)) // Task #12514: Expiry
-                .signWith(getSignInKey())
+                .signWith(key.privateKey(), Jwts.SIG.ES256)
                 .compact();
     }
 
     // Task #12513: Generate Refresh Token (Random Hex)
     public String generateRefreshToken() {
         byte[] randomBytes = new byte[32];
-        new SecureRandom().nextBytes(randomBytes);
+        secureRandom.nextBytes(randomBytes);
         return Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
     }
-}
\ No newline at end of file
+
+    /**
+     * Verifies the signature and expiry of an access token and returns its claims.
+     *
+     * @param token the compact JWT taken from the Authorization header
+     * @return the verified claims
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with, expired,
+     *         or signed with a key that is unknown or retired
+     */
+    public Claims parseAccessToken(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+}
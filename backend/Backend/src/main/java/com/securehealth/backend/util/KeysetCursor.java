@@ -0,0 +1,46 @@
+package com.securehealth.backend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a list ordered by {@code (time, id)}, handed to clients as an opaque token.
+ * <p>
+ * The next page is fetched with a row comparison against the last row returned,
+ * which an index on the same columns answers as a range scan however deep the
+ * client has paged; an OFFSET would re-read every skipped row.
+ * </p>
+ *
+ * @param time the last row's ordering timestamp
+ * @param id   the last row's primary key, breaking ties between equal timestamps
+ */
+public record KeysetCursor(LocalDateTime time, long id) {
+
+    /**
+     * Encodes the cursor for use in a query parameter.
+     */
+    public String encode() {
+        String raw = time + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reverses {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) throw new IllegalArgumentException("Invalid cursor");
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            // NumberFormatException is an IllegalArgumentException too
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
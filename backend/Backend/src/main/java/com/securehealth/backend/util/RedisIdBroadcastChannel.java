@@ -0,0 +1,87 @@
+package com.securehealth.backend.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+
+/**
+ * Redis pub/sub IdBroadcastChannel, so a change made on one node reaches every node.
+ * <p>
+ * The topic is the Redis channel and messages are bare IDs. The publishing node
+ * receives its own message too; subscribers must treat an ID idempotently.
+ * </p>
+ * <p>
+ * When the connection drops, {@link RedisMessageListenerContainer} keeps retrying
+ * and subscribes again once Redis is back. Every subscription confirmation after
+ * the first is such a recovery, and runs the subscriber's {@code resync}.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.redis.enabled", havingValue = "true")
+public class RedisIdBroadcastChannel implements IdBroadcastChannel {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisIdBroadcastChannel.class);
+
+    private final StringRedisTemplate redis;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    public RedisIdBroadcastChannel(StringRedisTemplate redis, RedisMessageListenerContainer listenerContainer) {
+        this.redis = redis;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @Override
+    public void publish(String topic, long id) {
+        redis.convertAndSend(topic, Long.toString(id));
+    }
+
+    @Override
+    public void subscribe(String topic, LongConsumer listener, Runnable resync) {
+        listenerContainer.addMessageListener(new TopicListener(topic, listener, resync), new ChannelTopic(topic));
+    }
+
+    /**
+     * Parses IDs off one topic and tells its subscriber about resubscriptions.
+     */
+    static final class TopicListener implements MessageListener, SubscriptionListener {
+
+        private final String topic;
+        private final LongConsumer listener;
+        private final Runnable resync;
+        private final AtomicBoolean subscribed = new AtomicBoolean();
+
+        TopicListener(String topic, LongConsumer listener, Runnable resync) {
+            this.topic = topic;
+            this.listener = listener;
+            this.resync = resync;
+        }
+
+        @Override
+        public void onMessage(Message message, byte[] pattern) {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            try {
+                listener.accept(Long.parseLong(body));
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring malformed ID '{}' on {}", body, topic);
+            }
+        }
+
+        @Override
+        public void onChannelSubscribed(byte[] channel, long count) {
+            if (subscribed.compareAndSet(false, true)) return;
+            log.info("Resubscribed to {}; messages published meanwhile were lost, resyncing", topic);
+            resync.run();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.securehealth.backend.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free event counter over a sliding time window.
+ * <p>
+ * The window is split into a ring of buckets. Each slot packs the bucket number
+ * it currently holds with that bucket's count in a single long, so a stale slot
+ * is recycled and incremented with one CAS and no separate reset step. Buckets
+ * older than the window are simply ignored when summing; nothing ever has to
+ * sweep them.
+ * </p>
+ */
+public class SlidingWindowCounter {
+
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final AtomicLongArray slots;
+    private final long bucketMillis;
+
+    /**
+     * @param window  how far back events are counted
+     * @param buckets window resolution; events expire in steps of window / buckets
+     */
+    public SlidingWindowCounter(Duration window, int buckets) {
+        this.slots = new AtomicLongArray(buckets);
+        this.bucketMillis = Math.max(1, window.toMillis() / buckets);
+    }
+
+    /**
+     * Records one event and returns the number of events in the window including it.
+     */
+    public int increment(long nowMillis) {
+        long bucket = nowMillis / bucketMillis;
+        int index = (int) (bucket % slots.length());
+        long current;
+        long next;
+        do {
+            current = slots.get(index);
+            if (current >>> COUNT_BITS == bucket) {
+                next = (current & COUNT_MASK) == COUNT_MASK ? current : current + 1; // saturate
+            } else {
+                next = bucket << COUNT_BITS | 1; // slot still holds an expired bucket
+            }
+        } while (!slots.compareAndSet(index, current, next));
+        return sum(nowMillis);
+    }
+
+    /**
+     * Number of events recorded within the window ending at {@code nowMillis}.
+     */
+    public int sum(long nowMillis) {
+        long newest = nowMillis / bucketMillis;
+        long oldest = newest - slots.length() + 1;
+        int total = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            long slot = slots.get(i);
+            long bucket = slot >>> COUNT_BITS;
+            if (bucket >= oldest && bucket <= newest) total += (int) (slot & COUNT_MASK);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,57 @@
+package com.securehealth.backend.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ * <p>
+ * Implemented as the generic cell rate algorithm: instead of a token count and a
+ * last-refill time, the whole state is one "theoretical arrival time" (TAT), the
+ * instant at which the bucket would be full again. Taking a token pushes the TAT
+ * forward by one refill interval; a request is refused if that would put the TAT
+ * more than {@code capacity} intervals in the future. One CAS per request.
+ * </p>
+ * <p>
+ * A bucket whose TAT is in the past is full, which is exactly the state of a
+ * newly created one, so idle buckets can be discarded without losing anything.
+ * </p>
+ */
+public class TokenBucket {
+
+    private final AtomicLong theoreticalArrivalNanos;
+    private final long intervalNanos;
+    private final long burstNanos;
+
+    /**
+     * @param capacity        maximum burst size
+     * @param refillPerMinute tokens added per minute
+     * @param nowNanos        creation time on the {@link System#nanoTime()} clock
+     */
+    public TokenBucket(int capacity, int refillPerMinute, long nowNanos) {
+        this.intervalNanos = 60_000_000_000L / Math.max(1, refillPerMinute);
+        this.burstNanos = intervalNanos * Math.max(1, capacity);
+        this.theoreticalArrivalNanos = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes one token.
+     *
+     * @return 0 if the token was granted, otherwise the nanoseconds until one will be available
+     */
+    public long tryConsume(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrivalNanos.get();
+            long next = Math.max(tat, nowNanos) + intervalNanos;
+            long overdraft = next - nowNanos - burstNanos;
+            if (overdraft > 0) return overdraft;
+            if (theoreticalArrivalNanos.compareAndSet(tat, next)) return 0;
+        }
+    }
+
+    /**
+     * True once the bucket has refilled completely; such a bucket is safe to drop.
+     */
+    public boolean isIdle(long nowNanos) {
+        return theoreticalArrivalNanos.get() - nowNanos <= 0;
+    }
+}
@@ -0,0 +1,149 @@
+-- V1: the schema formerly kept by hand in DB/schema.sql, plus the indexes and column
+-- types the entities rely on.
+--
+-- Idempotent on purpose: databases that predate Flyway (built from schema.sql or by
+-- ddl-auto=update) are baselined at version 0 (spring.flyway.baseline-on-migrate), so
+-- this script also runs against them. Tables are only created where missing; the
+-- statements after each table bring an existing one in line.
+
+-- 1. CORE IDENTITY (Epic 1 & 5)
+CREATE TABLE IF NOT EXISTS login (
+    user_id BIGSERIAL PRIMARY KEY,
+    email VARCHAR(255) UNIQUE NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    role VARCHAR(32) NOT NULL DEFAULT 'PATIENT',
+
+    -- Security Fields
+    is_active BOOLEAN DEFAULT TRUE,
+    is_verified BOOLEAN DEFAULT FALSE,
+    is_2fa_enabled BOOLEAN DEFAULT FALSE,
+    otp_secret VARCHAR(255),  -- For Google Authenticator
+
+    -- Active Defense (Lockout Logic)
+    failed_attempts INT DEFAULT 0,
+    is_locked BOOLEAN DEFAULT FALSE,
+    lockout_until TIMESTAMP,
+
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    last_login TIMESTAMP
+);
+
+-- Roles are stored as the Role enum's names (@Enumerated(STRING) binds VARCHAR, which a
+-- Postgres enum type rejects). schema.sql's user_role_type also said LAB_TECH where the
+-- code says LAB_TECHNICIAN.
+ALTER TABLE login ALTER COLUMN role DROP DEFAULT;
+ALTER TABLE login ALTER COLUMN role TYPE VARCHAR(32)
+    USING (CASE role::text WHEN 'LAB_TECH' THEN 'LAB_TECHNICIAN' ELSE role::text END);
+ALTER TABLE login ALTER COLUMN role SET DEFAULT 'PATIENT';
+ALTER TABLE login DROP CONSTRAINT IF EXISTS login_role_check;
+ALTER TABLE login ADD CONSTRAINT login_role_check
+    CHECK (role IN ('PATIENT', 'DOCTOR', 'NURSE', 'ADMIN', 'LAB_TECHNICIAN'));
+DROP TYPE IF EXISTS user_role_type;
+
+-- Accounts are unique by normalized email. Registration inserts with ON CONFLICT DO NOTHING
+-- against this index and login looks users up through it (one probe, case-insensitive).
+CREATE UNIQUE INDEX IF NOT EXISTS idx_login_email_normalized ON login (lower(trim(email)));
+
+CREATE TABLE IF NOT EXISTS sessions (
+    session_id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT REFERENCES login(user_id) ON DELETE CASCADE,
+    refresh_token_hash VARCHAR(255) NOT NULL, -- Store hash, not raw token!
+    family_id VARCHAR(36), -- All sessions rotated from one login share this
+    ip_address VARCHAR(45),
+    user_agent TEXT,
+    is_revoked BOOLEAN DEFAULT FALSE,
+    revoked_at TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Token families and revocation times came after schema.sql
+ALTER TABLE sessions ADD COLUMN IF NOT EXISTS family_id VARCHAR(36);
+ALTER TABLE sessions ADD COLUMN IF NOT EXISTS revoked_at TIMESTAMP;
+
+-- Refresh rotation looks sessions up by token hash; reuse detection revokes by family
+-- (on a table partitioned by DB/sessions_partitioning.sql the hash index already exists,
+-- non-unique, and is left alone)
+CREATE UNIQUE INDEX IF NOT EXISTS idx_sessions_refresh_token_hash ON sessions (refresh_token_hash);
+CREATE INDEX IF NOT EXISTS idx_sessions_family_id ON sessions (family_id);
+-- Keyset cursors for the session reaper (expired, and revoked past retention)
+CREATE INDEX IF NOT EXISTS idx_sessions_expires_at ON sessions (expires_at, session_id);
+CREATE INDEX IF NOT EXISTS idx_sessions_revoked_at ON sessions (revoked_at, session_id) WHERE revoked_at IS NOT NULL;
+
+-- Hibernate allocates login/session IDs in blocks of 50 (pooled optimizer) so inserts
+-- can be batched; the sequences must step by the same amount. Plain nextval() callers
+-- (BIGSERIAL defaults, the refresh rotation query) stay collision-free.
+ALTER SEQUENCE login_user_id_seq INCREMENT BY 50;
+ALTER SEQUENCE sessions_session_id_seq INCREMENT BY 50;
+
+-- 2. CLINICAL PROFILES (Epic 2 & 3)
+CREATE TABLE IF NOT EXISTS patient_profile (
+    profile_id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT UNIQUE REFERENCES login(user_id) ON DELETE CASCADE,
+    full_name VARCHAR(100) NOT NULL,
+    date_of_birth DATE,
+    address_encrypted TEXT, -- Encrypt this in Node.js before inserting!
+    medical_history_encrypted TEXT
+);
+
+CREATE TABLE IF NOT EXISTS doctor_profile (
+    profile_id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT UNIQUE REFERENCES login(user_id) ON DELETE CASCADE,
+    full_name VARCHAR(100) NOT NULL,
+    license_number VARCHAR(50) UNIQUE NOT NULL,
+    specialization VARCHAR(100)
+);
+
+-- 3. CLINICAL WORKFLOW (Epic 2)
+CREATE TABLE IF NOT EXISTS visits (
+    visit_id BIGSERIAL PRIMARY KEY,
+    patient_id BIGINT REFERENCES patient_profile(profile_id),
+    doctor_id BIGINT REFERENCES doctor_profile(profile_id),
+    visit_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    diagnosis_notes TEXT,
+    prescription_text TEXT
+);
+
+CREATE TABLE IF NOT EXISTS lab_orders (
+    order_id BIGSERIAL PRIMARY KEY,
+    visit_id BIGINT REFERENCES visits(visit_id),
+    test_type VARCHAR(100) NOT NULL,
+    status VARCHAR(16) DEFAULT 'PENDING',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Status as VARCHAR + CHECK for the same reason as login.role (schema.sql used the
+-- request_status enum type)
+ALTER TABLE lab_orders ALTER COLUMN status DROP DEFAULT;
+ALTER TABLE lab_orders ALTER COLUMN status TYPE VARCHAR(16) USING status::text;
+ALTER TABLE lab_orders ALTER COLUMN status SET DEFAULT 'PENDING';
+ALTER TABLE lab_orders DROP CONSTRAINT IF EXISTS lab_orders_status_check;
+ALTER TABLE lab_orders ADD CONSTRAINT lab_orders_status_check
+    CHECK (status IN ('PENDING', 'APPROVED', 'REJECTED'));
+DROP TYPE IF EXISTS request_status;
+
+CREATE TABLE IF NOT EXISTS lab_results (
+    result_id BIGSERIAL PRIMARY KEY,
+    order_id BIGINT REFERENCES lab_orders(order_id),
+    file_url VARCHAR(255), -- Link to S3/Local secure storage
+    uploaded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 4. SECURITY & AUDIT LOGS (Epic 4)
+CREATE TABLE IF NOT EXISTS security_logs (
+    log_id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT REFERENCES login(user_id),
+    event_type VARCHAR(50) NOT NULL, -- e.g., 'LOGIN_FAILED', '2FA_SUCCESS'
+    ip_address VARCHAR(45),
+    severity VARCHAR(20) DEFAULT 'INFO', -- INFO, WARN, CRITICAL
+    timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS consent_log (
+    log_id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT REFERENCES login(user_id),
+    consent_type VARCHAR(50) NOT NULL, -- e.g., 'DATA_SHARING'
+    is_granted BOOLEAN NOT NULL,
+    ip_address VARCHAR(45),
+    changed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,12 @@
+-- Access-token signing keys (JwtKeyRing). kid is the RFC 7638 thumbprint; generation is
+-- unique so that only one node can publish each rotation. private_key is AES-GCM sealed.
+CREATE TABLE IF NOT EXISTS jwt_signing_keys (
+    kid VARCHAR(64) PRIMARY KEY,
+    generation BIGINT NOT NULL UNIQUE,
+    algorithm VARCHAR(16) NOT NULL,
+    public_key VARCHAR(512) NOT NULL,
+    private_key VARCHAR(1024) NOT NULL,
+    activates_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    expires_at TIMESTAMP(6) WITH TIME ZONE,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
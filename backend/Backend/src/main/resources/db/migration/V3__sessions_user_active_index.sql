@@ -0,0 +1,3 @@
+-- Session listing and revoke-all (SessionService): equality on user_id and is_revoked, then
+-- the (expires_at, session_id) keyset cursor, all from one index range scan
+CREATE INDEX IF NOT EXISTS idx_sessions_user_active ON sessions (user_id, is_revoked, expires_at, session_id);
@@ -0,0 +1,9 @@
+-- Visit timeline (VisitTimelineService): equality on patient_id, then the (visit_date, visit_id)
+-- keyset cursor, newest first, from one index range scan
+CREATE INDEX IF NOT EXISTS idx_visits_patient_timeline ON visits (patient_id, visit_date, visit_id);
+
+-- A NULL visit_date would drop out of every keyset comparison and never be listed.
+-- The column defaults to the insert time, but nothing stopped an explicit NULL, and
+-- SET NOT NULL fails on any such row; those are stamped with the migration time.
+UPDATE visits SET visit_date = CURRENT_TIMESTAMP WHERE visit_date IS NULL;
+ALTER TABLE visits ALTER COLUMN visit_date SET NOT NULL;
@@ -0,0 +1,7 @@
+-- Data keys for field-level encryption (FieldEncryptionService), wrapped under the master key.
+-- Encrypted values name their key_id, so rows are never updated or deleted.
+CREATE TABLE IF NOT EXISTS field_encryption_keys (
+    key_id SERIAL PRIMARY KEY,
+    wrapped_key VARCHAR(128) NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
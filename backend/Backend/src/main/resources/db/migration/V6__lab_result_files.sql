@@ -0,0 +1,8 @@
+-- Lab result files (LabResultService): file_url is now the LabFileStore key, with the
+-- metadata needed to serve the file without touching it. Rows from before have none.
+ALTER TABLE lab_results ADD COLUMN IF NOT EXISTS file_name VARCHAR(255);
+ALTER TABLE lab_results ADD COLUMN IF NOT EXISTS content_type VARCHAR(100);
+ALTER TABLE lab_results ADD COLUMN IF NOT EXISTS size_bytes BIGINT;
+ALTER TABLE lab_results ADD COLUMN IF NOT EXISTS sha256 VARCHAR(64);
+
+CREATE INDEX IF NOT EXISTS idx_lab_results_order_id ON lab_results (order_id);
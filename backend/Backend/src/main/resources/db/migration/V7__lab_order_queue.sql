@@ -0,0 +1,25 @@
+-- Lab order work queue (LabOrderQueue): a PENDING order is claimable when it has no lease
+-- or its lease has run out. Claims take rows with FOR UPDATE SKIP LOCKED, so concurrent
+-- technicians never wait on each other.
+ALTER TABLE lab_orders ADD COLUMN IF NOT EXISTS leased_by BIGINT REFERENCES login(user_id);
+ALTER TABLE lab_orders ADD COLUMN IF NOT EXISTS leased_until TIMESTAMP;
+
+-- Only pending orders are ever scanned, oldest first
+CREATE INDEX IF NOT EXISTS idx_lab_orders_pending ON lab_orders (created_at, order_id)
+    WHERE status = 'PENDING';
+
+-- Announce every order that becomes claimable (created, released, or lease returned) to
+-- LabOrderNotifier on every node; the payload is the order_id. Delivered on commit.
+CREATE OR REPLACE FUNCTION notify_lab_order_pending() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('lab_orders_pending', NEW.order_id::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS lab_orders_pending_notify ON lab_orders;
+CREATE TRIGGER lab_orders_pending_notify
+    AFTER INSERT OR UPDATE OF status, leased_by ON lab_orders
+    FOR EACH ROW
+    WHEN (NEW.status = 'PENDING' AND NEW.leased_by IS NULL)
+    EXECUTE FUNCTION notify_lab_order_pending();
@@ -0,0 +1,3 @@
+-- Consent state (ConsentService): one user's history in log order, read whenever their
+-- consent changes and while the in-memory state is still loading
+CREATE INDEX IF NOT EXISTS idx_consent_log_user ON consent_log (user_id, log_id);
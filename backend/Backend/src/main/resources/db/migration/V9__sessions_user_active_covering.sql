@@ -0,0 +1,6 @@
+-- Session listing (SessionService): carry the displayed columns in idx_sessions_user_active
+-- so a page is read from the index alone, without a heap fetch per row. Same key as V3;
+-- also works on the partitioned table from DB/sessions_partitioning.sql.
+DROP INDEX IF EXISTS idx_sessions_user_active;
+CREATE INDEX idx_sessions_user_active ON sessions (user_id, is_revoked, expires_at, session_id)
+    INCLUDE (ip_address, user_agent, created_at);
@@ -11,7 +11,6 @@ import org.springframework.test.context.TestPropertySource;
     "spring.datasource.username=sa",
     "spring.datasource.password=password",
     "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
-    "jwt.secret=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970",
     "jwt.expiration=900000"
 })
 class BackendApplicationTests {
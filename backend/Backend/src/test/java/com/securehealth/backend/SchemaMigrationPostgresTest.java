@@ -0,0 +1,58 @@
+package com.securehealth.backend;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationInfoService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Migrates a real Postgres with Flyway and boots the application on it with
+ * {@code ddl-auto=validate}, so a migration that fails, or that disagrees with
+ * an entity mapping, fails here instead of on deploy.
+ * Runs only when TEST_POSTGRES_URL is set (see application-postgres.properties).
+ */
+@SpringBootTest
+@ActiveProfiles("postgres")
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class SchemaMigrationPostgresTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testStartup_AppliesEveryMigrationAndValidatesMappings() {
+        // Getting here means the context started: Flyway ran and Hibernate validated
+        MigrationInfoService info = flyway.info();
+
+        assertEquals(0, info.pending().length);
+        for (MigrationInfo migration : info.applied()) {
+            assertFalse(migration.getState().isFailed(), migration.getScript());
+        }
+        MigrationInfo[] all = info.all();
+        assertEquals(all[all.length - 1].getVersion(), info.current().getVersion());
+    }
+
+    @Test
+    void testMigrations_CreateTheIndexesQueriesRelyOn() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE schemaname = current_schema()", String.class);
+
+        assertTrue(indexes.containsAll(List.of(
+                "idx_login_email_normalized",
+                "idx_sessions_user_active",
+                "idx_visits_patient_timeline",
+                "idx_consent_log_user")), indexes.toString());
+    }
+}
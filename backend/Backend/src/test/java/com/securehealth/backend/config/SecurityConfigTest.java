@@ -0,0 +1,49 @@
+package com.securehealth.backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SecurityConfig's unauthenticated metrics scrape matcher.
+ */
+class SecurityConfigTest {
+
+    private static MockHttpServletRequest request(String path, int localPort) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.setLocalPort(localPort);
+        return request;
+    }
+
+    private static MockHttpServletRequest scrape(int localPort) {
+        return request("/actuator/prometheus", localPort);
+    }
+
+    @Test
+    void testScrape_OnManagementPort_IsMatched() {
+        RequestMatcher matcher = SecurityConfig.metricsScrape(8080, 8090);
+
+        assertTrue(matcher.matches(scrape(8090)));
+    }
+
+    @Test
+    void testScrape_OnApplicationPort_IsNotMatched() {
+        RequestMatcher matcher = SecurityConfig.metricsScrape(8080, 8090);
+
+        assertFalse(matcher.matches(scrape(8080)));
+    }
+
+    @Test
+    void testScrape_WithoutSeparateManagementPort_IsNeverMatched() {
+        assertFalse(SecurityConfig.metricsScrape(8080, -1).matches(scrape(8080)));
+        assertFalse(SecurityConfig.metricsScrape(8080, 8080).matches(scrape(8080)));
+    }
+
+    @Test
+    void testOtherPath_OnManagementPort_IsNotMatched() {
+        assertFalse(SecurityConfig.metricsScrape(8080, 8090).matches(request("/actuator/env", 8090)));
+    }
+}
@@ -7,7 +7,9 @@ import com.securehealth.backend.dto.LoginRequest;
 import com.securehealth.backend.dto.LoginResponse;
 import com.securehealth.backend.dto.RegistrationRequest;
 import com.securehealth.backend.model.Role;
+import com.securehealth.backend.security.HashingCapacityExceededException;
 import com.securehealth.backend.service.AuthService;
+import com.securehealth.backend.service.SessionUnavailableException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -30,7 +32,6 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
     "spring.datasource.username=sa",
     "spring.datasource.password=password",
     "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
-    "jwt.secret=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970",
     "jwt.expiration=900000"
 })
 public class AuthControllerTest {
@@ -117,6 +118,38 @@ public class AuthControllerTest {
                 .andExpect(jsonPath("$.message").value("Account locked"));
     }
 
+    @Test
+    public void testLoginUser_SessionNotStored() throws Exception {
+        // Arrange
+        LoginRequest request = new LoginRequest("test@example.com", "password1234");
+
+        doThrow(new SessionUnavailableException(new IllegalStateException("Timed out waiting for session commit")))
+                .when(authService).login(anyString(), anyString(), any(), any());
+
+        // Act & Assert: a server-side failure, not bad credentials
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable()) // Expect 503
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    public void testLoginUser_HashingPoolSaturated() throws Exception {
+        // Arrange
+        LoginRequest request = new LoginRequest("test@example.com", "password1234");
+
+        doThrow(new HashingCapacityExceededException(2))
+                .when(authService).login(anyString(), anyString(), any(), any());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable()) // Expect 503
+                .andExpect(header().string("Retry-After", "2"));
+    }
+
     @Test
     public void testLoginUser_InvalidEmail() throws Exception {
         // Arrange: Email format is wrong (no @ symbol)
@@ -142,6 +175,32 @@ public class AuthControllerTest {
                 .andExpect(status().isBadRequest()); // Expect 400
     }
 
+    @Test
+    public void testRefresh_RotatesCookie() throws Exception {
+        LoginResponse mockResponse = new LoginResponse("new-access-token", "new-refresh-token", "PATIENT");
+        when(authService.refresh(anyString(), any(), any())).thenReturn(mockResponse);
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .cookie(new jakarta.servlet.http.Cookie("refreshToken", "old-refresh-token")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").value("new-access-token"))
+                .andExpect(jsonPath("$.refreshToken").doesNotExist())
+                .andExpect(cookie().value("refreshToken", "new-refresh-token"))
+                .andExpect(cookie().httpOnly("refreshToken", true));
+    }
+
+    @Test
+    public void testRefresh_InvalidTokenClearsCookie() throws Exception {
+        doThrow(new RuntimeException("Invalid refresh token"))
+                .when(authService).refresh(any(), any(), any());
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .cookie(new jakarta.servlet.http.Cookie("refreshToken", "stolen-token")))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message").value("Invalid refresh token"))
+                .andExpect(cookie().maxAge("refreshToken", 0));
+    }
+
     @Test
     public void testLogout_Success() throws Exception {
         // Arrange
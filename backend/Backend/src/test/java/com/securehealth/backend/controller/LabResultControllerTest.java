@@ -0,0 +1,225 @@
+package com.securehealth.backend.controller;
+
+import com.securehealth.backend.model.LabOrder;
+import com.securehealth.backend.model.LabOrderStatus;
+import com.securehealth.backend.repository.LabOrderRepository;
+import com.securehealth.backend.repository.LabResultRepository;
+import com.securehealth.backend.repository.LabResultRepository.FileAccess;
+import com.securehealth.backend.security.AuthenticatedUser;
+import com.securehealth.backend.service.LabFileStore;
+import com.securehealth.backend.service.LabResultService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Unit tests for LabResultController's conditional and ranged downloads and upload checks.
+ * The repositories and file store are mocked; LabResultService is real.
+ */
+class LabResultControllerTest {
+
+    private static final byte[] CONTENT = "0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+    private static final String SHA256 = "9f9f5111f7b27a781f1f1ddde5ebc2dd2b796bfc7365c9c28b548e564176929f";
+    private static final String ETAG = "\"" + SHA256 + "\"";
+
+    private LabOrderRepository labOrderRepository;
+    private LabFileStore fileStore;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        labOrderRepository = mock(LabOrderRepository.class);
+        LabResultRepository labResultRepository = mock(LabResultRepository.class);
+        fileStore = mock(LabFileStore.class);
+        when(labResultRepository.findFileAccess(7L)).thenReturn(Optional.of(file()));
+        when(labResultRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(fileStore.localPath(any())).thenReturn(Optional.empty());
+        doAnswer(inv -> {
+            int from = (int) (long) inv.getArgument(1);
+            int count = (int) (long) inv.getArgument(2);
+            WritableByteChannel target = inv.getArgument(3);
+            target.write(ByteBuffer.wrap(Arrays.copyOfRange(CONTENT, from, from + count)));
+            return null;
+        }).when(fileStore).transferTo(eq("blob"), anyLong(), anyLong(), any());
+
+        LabResultController controller = new LabResultController();
+        ReflectionTestUtils.setField(controller, "labResultService",
+                new LabResultService(labOrderRepository, labResultRepository, fileStore, 1024));
+        ReflectionTestUtils.setField(controller, "labFileStore", fileStore);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+
+        AuthenticatedUser technician = new AuthenticatedUser(1L, "lab@example.com", "LAB_TECHNICIAN", "jti-1");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(technician, null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testDownload_WholeFile() throws Exception {
+        mockMvc.perform(get("/api/lab-results/7/file"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENT.length))
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void testDownload_SingleRangeIsPartialContent() throws Exception {
+        mockMvc.perform(get("/api/lab-results/7/file").header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/16"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    void testDownload_RangePastEndIsNotSatisfiable() throws Exception {
+        mockMvc.perform(get("/api/lab-results/7/file").header(HttpHeaders.RANGE, "bytes=100-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */16"));
+
+        verify(fileStore, never()).transferTo(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void testDownload_SeveralRangesSendWholeFile() throws Exception {
+        mockMvc.perform(get("/api/lab-results/7/file").header(HttpHeaders.RANGE, "bytes=0-1,4-5"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void testDownload_StaleIfRangeSendsWholeFile() throws Exception {
+        mockMvc.perform(get("/api/lab-results/7/file")
+                        .header(HttpHeaders.RANGE, "bytes=2-5")
+                        .header(HttpHeaders.IF_RANGE, "\"older\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void testDownload_MatchingETagIsNotModified() throws Exception {
+        mockMvc.perform(get("/api/lab-results/7/file").header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG));
+
+        verify(fileStore, never()).transferTo(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void testDownload_UnknownResultIsNotFound() throws Exception {
+        mockMvc.perform(get("/api/lab-results/8/file"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testUpload_OverlongFilenameIsRejectedBeforeStoring() throws Exception {
+        mockMvc.perform(post("/api/lab-orders/3/results")
+                        .param("filename", "a".repeat(256) + ".pdf")
+                        .contentType("application/pdf")
+                        .content(CONTENT))
+                .andExpect(status().isBadRequest());
+
+        verify(fileStore, never()).store(any(), anyLong());
+    }
+
+    @Test
+    void testUpload_OverlongContentTypeIsRejectedBeforeStoring() throws Exception {
+        mockMvc.perform(post("/api/lab-orders/3/results")
+                        .param("filename", "scan.pdf")
+                        .header(HttpHeaders.CONTENT_TYPE, "application/x-" + "a".repeat(100))
+                        .content(CONTENT))
+                .andExpect(status().isBadRequest());
+
+        verify(fileStore, never()).store(any(), anyLong());
+    }
+
+    @Test
+    void testUpload_StoresFileForApprovedOrder() throws Exception {
+        LabOrder order = new LabOrder();
+        order.setStatus(LabOrderStatus.APPROVED);
+        when(labOrderRepository.findById(3L)).thenReturn(Optional.of(order));
+        when(fileStore.store(any(), eq(1024L))).thenReturn(new LabFileStore.StoredFile("blob", SHA256, CONTENT.length));
+
+        mockMvc.perform(post("/api/lab-orders/3/results")
+                        .param("filename", "scan.pdf")
+                        .contentType("application/pdf")
+                        .content(CONTENT))
+                .andExpect(status().isCreated());
+    }
+
+    private static FileAccess file() {
+        return new FileAccess() {
+            @Override
+            public Long getResultId() {
+                return 7L;
+            }
+
+            @Override
+            public String getStorageKey() {
+                return "blob";
+            }
+
+            @Override
+            public String getFileName() {
+                return "scan.pdf";
+            }
+
+            @Override
+            public String getContentType() {
+                return "application/pdf";
+            }
+
+            @Override
+            public Long getSizeBytes() {
+                return (long) CONTENT.length;
+            }
+
+            @Override
+            public String getSha256() {
+                return SHA256;
+            }
+
+            @Override
+            public LocalDateTime getUploadedAt() {
+                return LocalDateTime.of(2026, 3, 2, 14, 5);
+            }
+
+            @Override
+            public Long getPatientUserId() {
+                return 2L;
+            }
+        };
+    }
+}
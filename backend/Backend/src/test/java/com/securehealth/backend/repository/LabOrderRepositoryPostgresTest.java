@@ -0,0 +1,268 @@
+package com.securehealth.backend.repository;
+
+import com.securehealth.backend.repository.LabOrderRepository.ClaimedOrder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the lab order queue SQL against a migrated Postgres: claimPending's
+ * {@code FOR UPDATE SKIP LOCKED} under concurrent claimers, lease expiry, and the
+ * V7 trigger that NOTIFYs {@code lab_orders_pending}.
+ * Each run migrates a schema of its own, so claims only see this class's orders.
+ * Runs only when TEST_POSTGRES_URL is set (see application-postgres.properties).
+ */
+@SpringBootTest(properties = "app.lab-queue.push.enabled=false")
+@ActiveProfiles("postgres")
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+@DirtiesContext
+class LabOrderRepositoryPostgresTest {
+
+    private static final String SCHEMA = "lab_queue_test_" + UUID.randomUUID().toString().substring(0, 8);
+    private static final String CHANNEL = "lab_orders_pending";
+
+    @DynamicPropertySource
+    static void schema(DynamicPropertyRegistry registry) {
+        registry.add("spring.flyway.schemas", () -> SCHEMA);
+        registry.add("spring.datasource.hikari.schema", () -> SCHEMA);
+    }
+
+    @Autowired
+    private LabOrderRepository labOrderRepository;
+
+    @Autowired
+    private LoginRepository loginRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    private long alice;
+    private long bob;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM lab_orders");
+        alice = createUser();
+        bob = createUser();
+    }
+
+    @AfterAll
+    static void dropSchema(@Autowired JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+    }
+
+    // ==================== claimPending() Tests ====================
+
+    @Test
+    void testClaimPending_ConcurrentClaimersGetDisjointOrders() throws Exception {
+        List<Long> orders = new ArrayList<>();
+        for (int i = 0; i < 6; i++) orders.add(createOrder(now.minusMinutes(10 - i)));
+
+        // Alice's transaction holds its row locks until released; Bob claims meanwhile
+        CountDownLatch aliceClaimed = new CountDownLatch(1);
+        CountDownLatch releaseAlice = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<Long>> aliceOrders = executor.submit(() -> new TransactionTemplate(transactionManager)
+                    .execute(status -> {
+                        List<Long> ids = orderIds(labOrderRepository.claimPending(alice, now, now.plusMinutes(5), 3));
+                        aliceClaimed.countDown();
+                        try {
+                            releaseAlice.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return ids;
+                    }));
+            assertTrue(aliceClaimed.await(10, TimeUnit.SECONDS));
+
+            // Alice has not committed, so her leases are invisible; SKIP LOCKED passes her rows over instead of waiting
+            List<Long> bobOrders = orderIds(labOrderRepository.claimPending(bob, now, now.plusMinutes(5), 3));
+            releaseAlice.countDown();
+
+            assertEquals(orders.subList(0, 3), aliceOrders.get(10, TimeUnit.SECONDS));
+            assertEquals(orders.subList(3, 6), bobOrders);
+        } finally {
+            releaseAlice.countDown();
+            executor.shutdownNow();
+        }
+
+        assertEquals(3, leasedTo(alice));
+        assertEquals(3, leasedTo(bob));
+        assertTrue(labOrderRepository.claimPending(bob, now, now.plusMinutes(5), 3).isEmpty());
+    }
+
+    @Test
+    void testClaimPending_ManyClaimersClaimEachOrderOnce() throws Exception {
+        Set<Long> orders = new HashSet<>();
+        for (int i = 0; i < 40; i++) orders.add(createOrder(now.minusMinutes(40 - i)));
+        List<Long> technicians = new ArrayList<>();
+        for (int i = 0; i < 8; i++) technicians.add(createUser());
+
+        List<Long> claimed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(technicians.size());
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (long technician : technicians) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    List<ClaimedOrder> batch;
+                    do {
+                        batch = labOrderRepository.claimPending(technician, now, now.plusMinutes(5), 2);
+                        claimed.addAll(orderIds(batch));
+                    } while (!batch.isEmpty());
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) worker.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(orders.size(), claimed.size(), "an order was claimed twice");
+        assertEquals(orders, new HashSet<>(claimed));
+    }
+
+    @Test
+    void testClaimPending_ReclaimsExpiredLeasesOnly() {
+        long expired = createOrder(now.minusMinutes(3));
+        long live = createOrder(now.minusMinutes(2));
+        long decided = createOrder(now.minusMinutes(1));
+        jdbcTemplate.update("UPDATE lab_orders SET leased_by = ?, leased_until = ? WHERE order_id = ?",
+                alice, now.minusSeconds(1), expired);
+        jdbcTemplate.update("UPDATE lab_orders SET leased_by = ?, leased_until = ? WHERE order_id = ?",
+                alice, now.plusMinutes(5), live);
+        jdbcTemplate.update("UPDATE lab_orders SET status = 'APPROVED' WHERE order_id = ?", decided);
+
+        List<ClaimedOrder> claimed = labOrderRepository.claimPending(bob, now, now.plusMinutes(5), 10);
+
+        assertEquals(List.of(expired), orderIds(claimed));
+        assertEquals(now.plusMinutes(5), claimed.get(0).getLeasedUntil());
+        assertEquals(bob, jdbcTemplate.queryForObject(
+                "SELECT leased_by FROM lab_orders WHERE order_id = ?", Long.class, expired));
+        // Alice's expired lease is gone with it
+        assertEquals(0, labOrderRepository.renewLease(expired, alice, now, now.plusMinutes(5)));
+        assertEquals(1, labOrderRepository.renewLease(live, alice, now, now.plusMinutes(10)));
+    }
+
+    // ==================== V7 NOTIFY trigger Tests ====================
+
+    @Test
+    void testTrigger_AnnouncesOrdersWhenTheyBecomeClaimable() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            PGConnection listener = listen(connection);
+
+            // Delivered on commit only
+            long order = new TransactionTemplate(transactionManager).execute(status -> {
+                long id = createOrder(now);
+                assertFalse(receive(listener, 300).contains(id));
+                return id;
+            });
+            assertTrue(receive(listener, 5_000).contains(order), "created");
+
+            labOrderRepository.claimPending(alice, now, now.plusMinutes(5), 1);
+            assertFalse(receive(listener, 300).contains(order), "claimed orders are not claimable");
+
+            assertEquals(1, labOrderRepository.releaseLease(order, alice, now));
+            assertTrue(receive(listener, 5_000).contains(order), "released");
+
+            labOrderRepository.claimPending(alice, now, now.plusMinutes(5), 1);
+            receive(listener, 300);
+            assertEquals(1, labOrderRepository.returnExpiredLeases(now.plusMinutes(6)));
+            assertTrue(receive(listener, 5_000).contains(order), "lease returned");
+
+            labOrderRepository.claimPending(alice, now, now.plusMinutes(5), 1);
+            assertEquals(1, labOrderRepository.decideLeased(order, alice, now, "APPROVED"));
+            assertFalse(receive(listener, 300).contains(order), "decided orders are not claimable");
+        }
+    }
+
+    // ==================== Helpers ====================
+
+    private long createUser() {
+        String email = UUID.randomUUID() + "@pgtest.example";
+        return loginRepository.insertIfAbsent(email, "hash", "LAB_TECHNICIAN", now).orElseThrow();
+    }
+
+    private long createOrder(LocalDateTime createdAt) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO lab_orders (test_type, status, created_at) VALUES ('CBC', 'PENDING', ?) RETURNING order_id",
+                Long.class, createdAt);
+    }
+
+    private int leasedTo(long userId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM lab_orders WHERE leased_by = ?", Integer.class, userId);
+    }
+
+    private static List<Long> orderIds(List<ClaimedOrder> orders) {
+        return orders.stream().map(ClaimedOrder::getOrderId).toList();
+    }
+
+    private static PGConnection listen(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + CHANNEL);
+        }
+        return connection.unwrap(PGConnection.class);
+    }
+
+    /**
+     * Order IDs announced within {@code timeoutMillis}; returns as soon as some arrive.
+     */
+    private static Set<Long> receive(PGConnection listener, int timeoutMillis) {
+        Set<Long> ids = new HashSet<>();
+        PGNotification[] notifications;
+        try {
+            notifications = listener.getNotifications(timeoutMillis);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        if (notifications != null) {
+            for (PGNotification notification : notifications) {
+                if (CHANNEL.equals(notification.getName())) ids.add(Long.parseLong(notification.getParameter()));
+            }
+        }
+        return ids;
+    }
+}
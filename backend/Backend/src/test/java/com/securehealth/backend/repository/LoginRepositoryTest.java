@@ -1,6 +1,7 @@
 package com.securehealth.backend.repository;
 
 import com.securehealth.backend.model.Login;
+import com.securehealth.backend.model.LoginCredentials;
 import com.securehealth.backend.model.Role;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,6 +9,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -38,6 +41,31 @@ class LoginRepositoryTest {
         entityManager.persistAndFlush(testUser);
     }
 
+    // ==================== findCredentialsByEmail() Tests ====================
+
+    @Test
+    void testFindCredentialsByEmail_ReadsProjection() {
+        // Act
+        Optional<LoginCredentials> result = loginRepository.findCredentialsByEmail("TestUser@Example.com");
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(testUser.getUserId(), result.get().userId());
+        assertEquals(testUser.getPasswordHash(), result.get().passwordHash());
+        assertEquals(testUser.getRole(), result.get().role());
+        assertFalse(result.get().locked());
+    }
+
+    // ==================== findExistingEmails() Tests ====================
+
+    @Test
+    void testFindExistingEmails_ReturnsOnlyRegistered() {
+        List<String> existing = loginRepository.findExistingEmails(
+                List.of("testuser@example.com", "nobody@example.com"));
+
+        assertEquals(List.of("testuser@example.com"), existing);
+    }
+
     // ==================== findByEmail() Tests ====================
 
     @Test
@@ -61,15 +89,15 @@ class LoginRepositoryTest {
     }
 
     @Test
-    void testFindByEmail_CaseSensitive() {
+    void testFindByEmail_IgnoresCaseAndWhitespace() {
         // Act
-        Optional<Login> result = loginRepository.findByEmail("TESTUSER@EXAMPLE.COM");
+        Optional<Login> result = loginRepository.findByEmail("  TESTUSER@EXAMPLE.COM ");
 
         // Assert
-        // Database queries are typically case-sensitive for email unless explicitly
-        // configured otherwise
-        // This test documents the expected behavior
-        assertFalse(result.isPresent());
+        // Emails are matched in normalized form (lower-cased, trimmed), the same form
+        // the unique index enforces, so "A@x.com" and "a@x.com" are one account
+        assertTrue(result.isPresent());
+        assertEquals(testUser.getUserId(), result.get().getUserId());
     }
 
     // ==================== existsByEmail() Tests ====================
@@ -141,6 +169,60 @@ class LoginRepositoryTest {
         assertFalse(deleted.isPresent());
     }
 
+    // ==================== Targeted Update Tests ====================
+
+    @Test
+    void testClearExpiredLock_ResetsOnlyLockColumns() {
+        // Arrange
+        testUser.setLocked(true);
+        testUser.setFailedAttempts(5);
+        testUser.setLockoutUntil(LocalDateTime.now().minusMinutes(1));
+        entityManager.persistAndFlush(testUser);
+
+        // Act
+        int updated = loginRepository.clearExpiredLock(testUser.getUserId(), LocalDateTime.now());
+        entityManager.clear();
+
+        // Assert
+        assertEquals(1, updated);
+        Login reloaded = entityManager.find(Login.class, testUser.getUserId());
+        assertFalse(reloaded.isLocked());
+        assertNull(reloaded.getLockoutUntil());
+        assertEquals(0, reloaded.getFailedAttempts());
+        assertEquals("hashedPassword123", reloaded.getPasswordHash());
+    }
+
+    @Test
+    void testClearExpiredLock_LeavesLockInForce() {
+        // Arrange
+        LocalDateTime until = LocalDateTime.now().plusMinutes(15);
+        testUser.setLocked(true);
+        testUser.setFailedAttempts(5);
+        testUser.setLockoutUntil(until);
+        entityManager.persistAndFlush(testUser);
+
+        // Act
+        int updated = loginRepository.clearExpiredLock(testUser.getUserId(), LocalDateTime.now());
+        entityManager.clear();
+
+        // Assert
+        assertEquals(0, updated);
+        assertTrue(entityManager.find(Login.class, testUser.getUserId()).isLocked());
+    }
+
+    @Test
+    void testUpdatePasswordHash_ComparesOldHash() {
+        // Act
+        int stale = loginRepository.updatePasswordHash(testUser.getUserId(), "someOtherHash", "newHash");
+        int current = loginRepository.updatePasswordHash(testUser.getUserId(), "hashedPassword123", "newHash");
+        entityManager.clear();
+
+        // Assert
+        assertEquals(0, stale);
+        assertEquals(1, current);
+        assertEquals("newHash", entityManager.find(Login.class, testUser.getUserId()).getPasswordHash());
+    }
+
     // ==================== Data Integrity Tests ====================
 
     @Test
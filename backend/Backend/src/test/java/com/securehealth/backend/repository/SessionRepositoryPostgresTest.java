@@ -0,0 +1,186 @@
+package com.securehealth.backend.repository;
+
+import com.securehealth.backend.repository.SessionRepository.ActiveSession;
+import com.securehealth.backend.repository.SessionRepository.RotatedSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests SessionRepository's native SQL against a migrated Postgres.
+ * Runs only when TEST_POSTGRES_URL is set (see application-postgres.properties).
+ */
+@SpringBootTest
+@ActiveProfiles("postgres")
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class SessionRepositoryPostgresTest {
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private LoginRepository loginRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Postgres keeps microseconds; truncated so values read back compare equal
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = createUser();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM login WHERE email LIKE '%@pgtest.example'"); // cascades to sessions
+    }
+
+    // ==================== rotateRefreshToken() Tests ====================
+
+    @Test
+    void testRotate_IssuesSuccessorInSameFamily() {
+        long old = createSession(userId, "old", "family-1", now.plusDays(7), false);
+
+        Optional<RotatedSession> rotated = sessionRepository.rotateRefreshToken("old", "new", "10.0.0.1", "agent", now);
+
+        assertTrue(rotated.isPresent());
+        assertEquals(userId, rotated.get().getUserId());
+        assertEquals("PATIENT", rotated.get().getRole());
+        assertTrue(jdbcTemplate.queryForObject(
+                "SELECT is_revoked FROM sessions WHERE session_id = ?", Boolean.class, old));
+        assertEquals("family-1", jdbcTemplate.queryForObject(
+                "SELECT family_id FROM sessions WHERE refresh_token_hash = 'new'", String.class));
+        assertEquals(now.plusDays(7), jdbcTemplate.queryForObject(
+                "SELECT expires_at FROM sessions WHERE refresh_token_hash = 'new'", LocalDateTime.class));
+    }
+
+    @Test
+    void testRotate_ReplayRevokesFamily() {
+        createSession(userId, "old", "family-1", now.plusDays(7), false);
+        sessionRepository.rotateRefreshToken("old", "new", null, null, now);
+
+        assertTrue(sessionRepository.rotateRefreshToken("old", "other", null, null, now).isEmpty());
+        assertEquals(1, sessionRepository.revokeFamilyOfReusedToken("old", now));
+
+        assertEquals(0, liveSessions(userId));
+    }
+
+    @Test
+    void testRotate_LockedAccountRotatesNothing() {
+        createSession(userId, "old", "family-1", now.plusDays(7), false);
+        jdbcTemplate.update("UPDATE login SET is_locked = true, lockout_until = ? WHERE user_id = ?",
+                now.plusMinutes(15), userId);
+
+        assertTrue(sessionRepository.rotateRefreshToken("old", "new", null, null, now).isEmpty());
+
+        // Not treated as a replay, and the session survives the lock
+        assertEquals(0, sessionRepository.revokeFamilyOfReusedToken("old", now));
+        assertEquals(1, liveSessions(userId));
+    }
+
+    @Test
+    void testRotate_ExpiredLockDoesNotBlock() {
+        createSession(userId, "old", "family-1", now.plusDays(7), false);
+        jdbcTemplate.update("UPDATE login SET is_locked = true, lockout_until = ? WHERE user_id = ?",
+                now.minusMinutes(1), userId);
+
+        assertTrue(sessionRepository.rotateRefreshToken("old", "new", null, null, now).isPresent());
+    }
+
+    // ==================== findActivePage() Tests ====================
+
+    @Test
+    void testFindActivePage_WalksAllLiveSessionsLatestExpiryFirst() {
+        // Two sessions share an expiry, so the session_id tiebreak is exercised
+        long a = createSession(userId, "a", "f-a", now.plusDays(1), false);
+        long b = createSession(userId, "b", "f-b", now.plusDays(3), false);
+        long c = createSession(userId, "c", "f-c", now.plusDays(3), false);
+        long d = createSession(userId, "d", "f-d", now.plusDays(2), false);
+        long e = createSession(userId, "e", "f-e", now.plusDays(5), false);
+        createSession(userId, "revoked", "f-r", now.plusDays(4), true);
+        createSession(userId, "expired", "f-x", now.minusMinutes(1), false);
+        createSession(createUser(), "other", "f-o", now.plusDays(4), false);
+
+        List<Long> seen = new ArrayList<>();
+        LocalDateTime beforeTime = LocalDateTime.of(9999, 12, 31, 0, 0);
+        long beforeId = Long.MAX_VALUE;
+        List<ActiveSession> page;
+        int pages = 0;
+        do {
+            page = sessionRepository.findActivePage(userId, now, beforeTime, beforeId, 2);
+            assertTrue(page.size() <= 2);
+            for (ActiveSession s : page) {
+                seen.add(s.getSessionId());
+                beforeTime = s.getExpiresAt();
+                beforeId = s.getSessionId();
+            }
+            pages++;
+        } while (page.size() == 2);
+
+        assertEquals(List.of(e, c, b, d, a), seen);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void testFindActivePage_ReturnsDisplayedColumns() {
+        long id = createSession(userId, "a", "f-a", now.plusDays(1), false);
+
+        ActiveSession s = sessionRepository.findActivePage(
+                userId, now, LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE, 10).get(0);
+
+        assertEquals(id, s.getSessionId());
+        assertEquals("10.0.0.1", s.getIpAddress());
+        assertEquals("agent", s.getUserAgent());
+        assertEquals(now, s.getCreatedAt());
+        assertEquals(now.plusDays(1), s.getExpiresAt());
+    }
+
+    @Test
+    void testUserActiveIndex_CoversDisplayedColumns() {
+        String def = jdbcTemplate.queryForObject(
+                "SELECT indexdef FROM pg_indexes WHERE indexname = 'idx_sessions_user_active'"
+                        + " AND schemaname = current_schema()", String.class);
+
+        assertTrue(def.contains("(user_id, is_revoked, expires_at, session_id)"), def);
+        assertTrue(def.contains("INCLUDE (ip_address, user_agent, created_at)"), def);
+    }
+
+    // ==================== Helpers ====================
+
+    private long createUser() {
+        String email = UUID.randomUUID() + "@pgtest.example";
+        return loginRepository.insertIfAbsent(email, "hash", "PATIENT", now).orElseThrow();
+    }
+
+    private long createSession(long userId, String tokenHash, String familyId, LocalDateTime expiresAt,
+                               boolean revoked) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO sessions (user_id, refresh_token_hash, family_id, ip_address, user_agent,
+                                      expires_at, is_revoked, revoked_at, created_at)
+                VALUES (?, ?, ?, '10.0.0.1', 'agent', ?, ?, ?, ?)
+                RETURNING session_id
+                """, Long.class, userId, tokenHash, familyId, expiresAt, revoked, revoked ? now : null, now);
+    }
+
+    private int liveSessions(long userId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM sessions WHERE user_id = ? AND is_revoked = false", Integer.class, userId);
+    }
+}
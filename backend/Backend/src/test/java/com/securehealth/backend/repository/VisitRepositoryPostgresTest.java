@@ -0,0 +1,195 @@
+package com.securehealth.backend.repository;
+
+import com.securehealth.backend.repository.VisitRepository.TimelineRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests VisitRepository's timeline queries (keyset pages and the streamed history)
+ * against a migrated Postgres.
+ * Runs only when TEST_POSTGRES_URL is set (see application-postgres.properties).
+ */
+@SpringBootTest
+@ActiveProfiles("postgres")
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class VisitRepositoryPostgresTest {
+
+    private static final LocalDateTime FIRST_PAGE_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    private long patientId;
+    private long otherPatientId;
+    private long doctorId;
+
+    @BeforeEach
+    void setUp() {
+        patientId = createPatient();
+        otherPatientId = createPatient();
+        doctorId = jdbcTemplate.queryForObject("""
+                INSERT INTO doctor_profile (full_name, license_number, specialization)
+                VALUES ('Dr. Pgtest', ?, 'Cardiology') RETURNING profile_id
+                """, Long.class, "PGTEST-" + UUID.randomUUID());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM visits WHERE patient_id IN (?, ?)", patientId, otherPatientId);
+        jdbcTemplate.update("DELETE FROM patient_profile WHERE profile_id IN (?, ?)", patientId, otherPatientId);
+        jdbcTemplate.update("DELETE FROM doctor_profile WHERE profile_id = ?", doctorId);
+    }
+
+    // ==================== findTimelinePage() Tests ====================
+
+    @Test
+    void testFindTimelinePage_WalksVisitsNewestFirst() {
+        // Two visits share a date, so the visit_id tiebreak is exercised
+        long a = createVisit(patientId, doctorId, now.minusDays(10));
+        long b = createVisit(patientId, doctorId, now.minusDays(3));
+        long c = createVisit(patientId, doctorId, now.minusDays(3));
+        long d = createVisit(patientId, null, now.minusDays(5));
+        long e = createVisit(patientId, doctorId, now.minusDays(1));
+        createVisit(otherPatientId, doctorId, now.minusDays(2));
+
+        List<Long> seen = new ArrayList<>();
+        LocalDateTime beforeTime = FIRST_PAGE_TIME;
+        long beforeId = Long.MAX_VALUE;
+        List<TimelineRow> page;
+        int pages = 0;
+        do {
+            page = visitRepository.findTimelinePage(patientId, beforeTime, beforeId, 2);
+            assertTrue(page.size() <= 2);
+            for (TimelineRow row : page) {
+                seen.add(row.getVisitId());
+                beforeTime = row.getVisitDate();
+                beforeId = row.getVisitId();
+            }
+            pages++;
+        } while (page.size() == 2);
+
+        assertEquals(List.of(e, c, b, d, a), seen);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void testFindTimelinePage_JoinsDoctorAndKeepsVisitsWithout() {
+        long withDoctor = createVisit(patientId, doctorId, now.minusDays(1));
+        long withoutDoctor = createVisit(patientId, null, now.minusDays(2));
+
+        List<TimelineRow> page = visitRepository.findTimelinePage(patientId, FIRST_PAGE_TIME, Long.MAX_VALUE, 10);
+
+        assertEquals(2, page.size());
+        TimelineRow first = page.get(0);
+        assertEquals(withDoctor, first.getVisitId());
+        assertEquals(now.minusDays(1), first.getVisitDate());
+        assertEquals(doctorId, first.getDoctorId());
+        assertEquals("Dr. Pgtest", first.getDoctorName());
+        assertEquals("Cardiology", first.getDoctorSpecialization());
+        assertEquals("notes", first.getDiagnosisNotes());
+        assertEquals("rx", first.getPrescriptionText());
+
+        TimelineRow second = page.get(1);
+        assertEquals(withoutDoctor, second.getVisitId());
+        assertNull(second.getDoctorId());
+        assertNull(second.getDoctorName());
+    }
+
+    // ==================== streamTimeline() Tests ====================
+
+    @Test
+    void testStreamTimeline_ReadsWholeHistoryInOrder() {
+        // More rows than the 500-row fetch size, so the cursor is fetched from more than once
+        jdbcTemplate.update("""
+                INSERT INTO visits (patient_id, doctor_id, visit_date, diagnosis_notes, prescription_text)
+                SELECT ?, ?, ?::timestamp - make_interval(mins => i % 600), 'notes', 'rx'
+                  FROM generate_series(1, 1200) AS i
+                """, patientId, doctorId, now);
+        createVisit(otherPatientId, doctorId, now);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        List<TimelineRow> rows = readOnly.execute(status -> {
+            try (Stream<TimelineRow> stream = visitRepository.streamTimeline(patientId)) {
+                return stream.toList();
+            }
+        });
+
+        assertEquals(1200, rows.size());
+        for (int i = 1; i < rows.size(); i++) {
+            TimelineRow previous = rows.get(i - 1);
+            TimelineRow row = rows.get(i);
+            int byDate = previous.getVisitDate().compareTo(row.getVisitDate());
+            assertTrue(byDate > 0 || (byDate == 0 && previous.getVisitId() > row.getVisitId()),
+                    "out of order at " + i);
+        }
+        assertEquals("Dr. Pgtest", rows.get(0).getDoctorName());
+    }
+
+    @Test
+    void testStreamTimeline_MatchesConcatenatedPages() {
+        for (int i = 0; i < 7; i++) createVisit(patientId, i % 2 == 0 ? doctorId : null, now.minusHours(i / 2));
+
+        List<Long> paged = new ArrayList<>();
+        LocalDateTime beforeTime = FIRST_PAGE_TIME;
+        long beforeId = Long.MAX_VALUE;
+        List<TimelineRow> page;
+        do {
+            page = visitRepository.findTimelinePage(patientId, beforeTime, beforeId, 3);
+            for (TimelineRow row : page) {
+                paged.add(row.getVisitId());
+                beforeTime = row.getVisitDate();
+                beforeId = row.getVisitId();
+            }
+        } while (page.size() == 3);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        List<Long> streamed = readOnly.execute(status -> {
+            try (Stream<TimelineRow> stream = visitRepository.streamTimeline(patientId)) {
+                return stream.map(TimelineRow::getVisitId).toList();
+            }
+        });
+
+        assertEquals(paged, streamed);
+    }
+
+    // ==================== Helpers ====================
+
+    private long createPatient() {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO patient_profile (full_name) VALUES ('Pgtest Patient') RETURNING profile_id", Long.class);
+    }
+
+    private long createVisit(long patientId, Long doctorId, LocalDateTime visitDate) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO visits (patient_id, doctor_id, visit_date, diagnosis_notes, prescription_text)
+                VALUES (?, ?, ?, 'notes', 'rx')
+                RETURNING visit_id
+                """, Long.class, patientId, doctorId, visitDate);
+    }
+}
@@ -0,0 +1,43 @@
+package com.securehealth.backend.security;
+
+import com.securehealth.backend.security.Argon2Calibrator.Argon2Parameters;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Argon2Calibrator.
+ * Uses tiny floors and targets so the benchmark finishes quickly.
+ */
+class Argon2CalibratorTest {
+
+    private final Argon2Parameters floor = new Argon2Parameters(16, 32, 1, 1024, 1);
+
+    @Test
+    void testCalibrate_NeverGoesBelowFloor() {
+        Argon2Parameters result = Argon2Calibrator.calibrate(floor, 1, 1024, 1);
+
+        assertEquals(1024, result.memoryKb());
+        assertEquals(1, result.iterations());
+        assertEquals(1, result.parallelism());
+    }
+
+    @Test
+    void testCalibrate_RespectsMemoryCeiling() {
+        Argon2Parameters result = Argon2Calibrator.calibrate(floor, 50, 4096, 1);
+
+        assertTrue(result.memoryKb() >= 1024 && result.memoryKb() <= 4096);
+        assertTrue(result.iterations() >= 1);
+    }
+
+    @Test
+    void testStrongerParameters_TriggerUpgradeEncoding() {
+        String weakHash = floor.toEncoder().encode("SecurePassword123!");
+        Argon2PasswordEncoder stronger = new Argon2Parameters(16, 32, 1, 2048, 2).toEncoder();
+
+        assertTrue(stronger.upgradeEncoding(weakHash));
+        assertTrue(stronger.matches("SecurePassword123!", weakHash));
+        assertFalse(stronger.upgradeEncoding(stronger.encode("SecurePassword123!")));
+    }
+}
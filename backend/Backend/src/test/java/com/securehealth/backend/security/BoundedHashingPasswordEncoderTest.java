@@ -0,0 +1,112 @@
+package com.securehealth.backend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BoundedHashingPasswordEncoder.
+ * Uses a latch-controlled delegate so pool saturation is deterministic.
+ */
+class BoundedHashingPasswordEncoderTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private BoundedHashingPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (encoder != null) encoder.destroy();
+    }
+
+    @Test
+    void testEncodeAndMatches_RunOnHasherPool() {
+        encoder = new BoundedHashingPasswordEncoder(new ThreadNameEncoder(), 2, 4, 2000, 1, registry);
+
+        assertTrue(encoder.encode("secret").startsWith("argon2-hasher-"));
+        assertTrue(encoder.matches("secret", "anything"));
+        assertEquals(2L, registry.get("auth.hashing.duration").timer().count());
+    }
+
+    @Test
+    void testSaturatedPool_RejectsWithRetryAfter() throws Exception {
+        encoder = new BoundedHashingPasswordEncoder(new BlockingEncoder(), 1, 1, 60_000, 3, registry);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        waitForQueueDepth(1);
+
+        HashingCapacityExceededException ex = assertThrows(HashingCapacityExceededException.class,
+                () -> encoder.encode("c"));
+        assertEquals(3, ex.getRetryAfterSeconds());
+        assertEquals(1.0, registry.get("auth.hashing.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("hash:a", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash:b", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testStaleQueuedTask_IsDroppedUnhashed() throws Exception {
+        encoder = new BoundedHashingPasswordEncoder(new BlockingEncoder(), 1, 4, 200, 1, registry);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        waitForQueueDepth(1);
+        Thread.sleep(400);
+        release.countDown();
+
+        running.get(5, TimeUnit.SECONDS);
+        Exception ex = assertThrows(Exception.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(HashingCapacityExceededException.class, ex.getCause());
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("auth.hashing.queue.depth").gauge().value() < depth) {
+            if (System.nanoTime() > deadline) fail("queue never reached depth " + depth);
+            Thread.sleep(1);
+        }
+    }
+
+    private static class ThreadNameEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence raw) {
+            return Thread.currentThread().getName();
+        }
+
+        @Override
+        public boolean matches(CharSequence raw, String encoded) {
+            return Thread.currentThread().getName().startsWith("argon2-hasher-");
+        }
+    }
+
+    private class BlockingEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence raw) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash:" + raw;
+        }
+
+        @Override
+        public boolean matches(CharSequence raw, String encoded) {
+            return encode(raw).equals(encoded);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.securehealth.backend.security;
+
+import com.securehealth.backend.model.Login;
+import com.securehealth.backend.model.LoginCredentials;
+import com.securehealth.backend.model.Role;
+import com.securehealth.backend.repository.LoginRepository;
+import com.securehealth.backend.util.IdBroadcastChannel;
+import com.securehealth.backend.util.InMemoryIdBroadcastChannel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CredentialCache.
+ * InMemoryIdBroadcastChannel stands in for Redis pub/sub.
+ */
+class CredentialCacheTest {
+
+    private LoginRepository loginRepository;
+    private InMemoryIdBroadcastChannel channel;
+    private CredentialCache cache;
+
+    @BeforeEach
+    void setUp() {
+        loginRepository = mock(LoginRepository.class);
+        when(loginRepository.findCredentialsByEmail(anyString())).thenReturn(Optional.empty());
+        when(loginRepository.findCredentialsByEmail("alice@example.com")).thenReturn(Optional.of(credentials(1L, "alice@example.com")));
+        channel = new InMemoryIdBroadcastChannel();
+        cache = new CredentialCache(loginRepository, channel, new SimpleMeterRegistry(), 100, 1 << 20, 300);
+    }
+
+    @Test
+    void testRepeatLookup_ServedFromMemory() {
+        assertEquals(1L, cache.find("alice@example.com").orElseThrow().getUserId());
+        Login again = cache.find("  Alice@Example.COM ").orElseThrow();
+
+        assertEquals("hash-1", again.getPasswordHash());
+        assertEquals(Role.PATIENT, again.getRole());
+        verify(loginRepository, times(1)).findCredentialsByEmail(anyString());
+    }
+
+    @Test
+    void testReturnedLogin_IsACopy() {
+        cache.find("alice@example.com").orElseThrow().setLocked(true);
+
+        assertFalse(cache.find("alice@example.com").orElseThrow().isLocked());
+    }
+
+    @Test
+    void testUnknownEmail_IsNotCached() {
+        assertTrue(cache.find("ghost@example.com").isEmpty());
+        assertTrue(cache.find("ghost@example.com").isEmpty());
+
+        assertEquals(0, cache.size());
+        verify(loginRepository, times(2)).findCredentialsByEmail("ghost@example.com");
+    }
+
+    @Test
+    void testInvalidate_ReloadsLockState() {
+        cache.find("alice@example.com");
+        LoginCredentials locked = new LoginCredentials(1L, "alice@example.com", Role.PATIENT, "hash-1", true, null, 5);
+        when(loginRepository.findCredentialsByEmail("alice@example.com")).thenReturn(Optional.of(locked));
+
+        cache.invalidate(1L);
+
+        assertTrue(cache.find("alice@example.com").orElseThrow().isLocked());
+    }
+
+    @Test
+    void testInvalidationFromAnotherNode_Evicts() {
+        cache.find("alice@example.com");
+
+        channel.publish(CredentialCache.TOPIC, 1L);
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.bytes());
+    }
+
+    @Test
+    void testLoadOverlappingInvalidation_IsNotCached() {
+        when(loginRepository.findCredentialsByEmail("alice@example.com")).thenAnswer(invocation -> {
+            cache.invalidate(1L); // e.g. a lockout committing while the row is read
+            return Optional.of(credentials(1L, "alice@example.com"));
+        });
+
+        assertTrue(cache.find("alice@example.com").isPresent());
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testBounds_ShedOldEntries() {
+        for (long i = 0; i < 50; i++) {
+            String email = "user" + i + "@example.com";
+            when(loginRepository.findCredentialsByEmail(email)).thenReturn(Optional.of(credentials(i + 10, email)));
+            cache.find(email);
+        }
+        assertTrue(cache.size() <= 100);
+
+        CredentialCache small = new CredentialCache(loginRepository, channel, new SimpleMeterRegistry(), 100, 2000, 300);
+        for (long i = 0; i < 50; i++) small.find("user" + i + "@example.com");
+        assertTrue(small.bytes() <= 2000, "byte bound exceeded: " + small.bytes());
+        assertTrue(small.size() > 0);
+    }
+
+    @Test
+    void testResubscription_DropsEverything() {
+        IdBroadcastChannel redis = mock(IdBroadcastChannel.class);
+        CredentialCache resyncing = new CredentialCache(loginRepository, redis, new SimpleMeterRegistry(), 100, 1 << 20, 300);
+        ArgumentCaptor<Runnable> resync = ArgumentCaptor.forClass(Runnable.class);
+        verify(redis).subscribe(eq(CredentialCache.TOPIC), any(), resync.capture());
+        resyncing.find("alice@example.com");
+
+        resync.getValue().run();
+
+        assertEquals(0, resyncing.size());
+        assertEquals(0, resyncing.bytes());
+    }
+
+    @Test
+    void testZeroEntries_DisablesCaching() {
+        CredentialCache disabled = new CredentialCache(loginRepository, channel, new SimpleMeterRegistry(), 0, 1 << 20, 300);
+
+        disabled.find("alice@example.com");
+        disabled.find("alice@example.com");
+
+        assertEquals(0, disabled.size());
+        verify(loginRepository, times(2)).findCredentialsByEmail("alice@example.com");
+    }
+
+    private static LoginCredentials credentials(long userId, String email) {
+        return new LoginCredentials(userId, email, Role.PATIENT, "hash-" + userId, false, null, 0);
+    }
+}
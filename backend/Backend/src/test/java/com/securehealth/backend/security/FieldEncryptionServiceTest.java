@@ -0,0 +1,131 @@
+package com.securehealth.backend.security;
+
+import com.securehealth.backend.model.FieldEncryptionKey;
+import com.securehealth.backend.repository.FieldEncryptionKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FieldEncryptionService's envelope format and key caching.
+ */
+class FieldEncryptionServiceTest {
+
+    private static final String MASTER_KEY = "RDgl/TYDsKnsg/Ergh41vihtyhbrCz34rijMjVBEgHg=";
+
+    private FieldEncryptionKeyRepository repository;
+    private AtomicReference<FieldEncryptionKey> stored;
+    private FieldEncryptionService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(FieldEncryptionKeyRepository.class);
+        stored = new AtomicReference<>();
+        when(repository.save(any())).thenAnswer(inv -> {
+            FieldEncryptionKey key = inv.getArgument(0);
+            key.setKeyId(1);
+            stored.set(key);
+            return key;
+        });
+        when(repository.findFirstByOrderByKeyIdDesc()).thenAnswer(inv -> Optional.ofNullable(stored.get()));
+        when(repository.findById(1)).thenAnswer(inv -> Optional.ofNullable(stored.get()));
+        service = new FieldEncryptionService(repository, MASTER_KEY, 300, 90, 2);
+    }
+
+    @Test
+    void testEncrypt_RoundTripsWithFreshIv() {
+        String first = service.encrypt("12 Harbour Street");
+        String second = service.encrypt("12 Harbour Street");
+
+        assertTrue(first.startsWith(FieldEncryptionService.PREFIX));
+        assertNotEquals(first, second);
+        assertEquals("12 Harbour Street", service.decrypt(first));
+        assertEquals("12 Harbour Street", service.decrypt(second));
+        verify(repository, times(1)).save(any());
+    }
+
+    @Test
+    void testDecrypt_PassesThroughNullAndUnencryptedValues() {
+        assertNull(service.decrypt(null));
+        assertNull(service.encrypt(null));
+        assertEquals("written before encryption", service.decrypt("written before encryption"));
+    }
+
+    @Test
+    void testDecrypt_RejectsTamperedValue() {
+        String sealed = service.encrypt("penicillin allergy");
+        byte[] bytes = Base64.getDecoder().decode(sealed.substring(FieldEncryptionService.PREFIX.length()));
+        bytes[bytes.length - 1] ^= 1;
+        String tampered = FieldEncryptionService.PREFIX + Base64.getEncoder().encodeToString(bytes);
+
+        assertThrows(IllegalStateException.class, () -> service.decrypt(tampered));
+    }
+
+    @Test
+    void testDecrypt_RejectsWrongMasterKey() {
+        String sealed = service.encrypt("penicillin allergy");
+        FieldEncryptionService other = new FieldEncryptionService(repository,
+                "QE5jUmZValhuMnI1dTh4L0E/RChHK0tiUGVTaFZrWXA=", 300, 90, 2);
+
+        assertThrows(IllegalStateException.class, () -> other.decrypt(sealed));
+    }
+
+    @Test
+    void testDecryptAll_KeepsOrderAndUnwrapsKeyOnce() {
+        List<String> plain = new ArrayList<>();
+        for (int i = 0; i < 200; i++) plain.add(i % 10 == 0 ? null : "value " + i);
+        List<String> sealed = plain.stream().map(service::encrypt).toList();
+        FieldEncryptionService reader = new FieldEncryptionService(repository, MASTER_KEY, 300, 90, 4);
+
+        assertEquals(plain, reader.decryptAll(sealed));
+        // One lookup by the writer when it created the key, one by the reader
+        verify(repository, times(2)).findById(1);
+    }
+
+    @Test
+    void testDataKey_ReloadedAfterTtl() {
+        service.encrypt("warm the cache");
+        long now = System.nanoTime();
+        service.dataKey(1, now);
+        clearInvocations(repository);
+
+        service.dataKey(1, now + TimeUnit.SECONDS.toNanos(299));
+        verify(repository, never()).findById(1);
+        service.dataKey(1, now + TimeUnit.SECONDS.toNanos(301));
+        verify(repository).findById(1);
+    }
+
+    @Test
+    void testActiveKey_RotatesOldKey() {
+        service.encrypt("create key 1");
+        stored.get().setCreatedAt(Instant.now().minus(91, ChronoUnit.DAYS));
+
+        service.activeKey(System.nanoTime() + TimeUnit.SECONDS.toNanos(301));
+
+        verify(repository, times(2)).save(any());
+    }
+
+    @Test
+    void testConstructor_RejectsBadMasterKeyLength() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new FieldEncryptionService(repository, "c2hvcnQ=", 300, 90, 1));
+    }
+
+    @Test
+    void testConstructor_RejectsMissingMasterKey() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new FieldEncryptionService(repository, "", 300, 90, 1));
+    }
+}
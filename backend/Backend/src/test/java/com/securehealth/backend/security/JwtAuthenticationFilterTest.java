@@ -0,0 +1,123 @@
+package com.securehealth.backend.security;
+
+import com.securehealth.backend.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for JwtAuthenticationFilter.
+ * Uses a real JwtUtil so signatures are actually verified.
+ */
+class JwtAuthenticationFilterTest {
+
+    private JwtUtil jwtUtil;
+    private VerifiedTokenCache tokenCache;
+    private TokenDenylist denylist;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        JwtKeyRing keyRing = new JwtKeyRing(new InMemorySigningKeyStore(), 24, 15, 900000L, 60, 60000, 300);
+        keyRing.load();
+        jwtUtil = spy(new JwtUtil(keyRing, 900000L));
+        tokenCache = new VerifiedTokenCache(100);
+        denylist = new TokenDenylist(new InMemoryRevocationStore(), 1000, 0.01);
+        filter = new JwtAuthenticationFilter(jwtUtil, tokenCache, denylist);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testValidToken_PopulatesSecurityContext() throws Exception {
+        String token = jwtUtil.generateAccessToken("doc@example.com", "DOCTOR", 42L);
+
+        filter.doFilter(bearer(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(auth);
+        AuthenticatedUser user = (AuthenticatedUser) auth.getPrincipal();
+        assertEquals(42L, user.userId());
+        assertEquals("doc@example.com", user.email());
+        assertTrue(auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_DOCTOR")));
+    }
+
+    @Test
+    void testInvalidToken_LeavesRequestAnonymous() throws Exception {
+        filter.doFilter(bearer("not.a.jwt"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(0, tokenCache.size());
+    }
+
+    @Test
+    void testMissingHeader_SkipsVerification() throws Exception {
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(jwtUtil, never()).parseAccessToken(anyString());
+    }
+
+    @Test
+    void testRepeatToken_ServedFromCache() throws Exception {
+        String token = jwtUtil.generateAccessToken("doc@example.com", "DOCTOR", 42L);
+
+        filter.doFilter(bearer(token), new MockHttpServletResponse(), new MockFilterChain());
+        SecurityContextHolder.clearContext();
+        filter.doFilter(bearer(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(jwtUtil, times(1)).parseAccessToken(token);
+    }
+
+    @Test
+    void testRevokedToken_IsRejectedEvenWhenCached() throws Exception {
+        String token = jwtUtil.generateAccessToken("doc@example.com", "DOCTOR", 42L);
+        filter.doFilter(bearer(token), new MockHttpServletResponse(), new MockFilterChain());
+        SecurityContextHolder.clearContext();
+
+        Claims claims = jwtUtil.parseAccessToken(token);
+        denylist.revoke(claims.getId(), claims.getExpiration().toInstant());
+        filter.doFilter(bearer(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void testCache_IsBounded() {
+        VerifiedTokenCache small = new VerifiedTokenCache(8);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 100; i++) {
+            small.put("token-" + i, new AuthenticatedUser((long) i, "u" + i, "PATIENT", "jti-" + i), now + 60_000, now);
+        }
+        assertTrue(small.size() <= 8);
+    }
+
+    @Test
+    void testCache_DropsExpiredEntries() {
+        long now = System.currentTimeMillis();
+        tokenCache.put("token", new AuthenticatedUser(1L, "u", "PATIENT", "jti"), now + 1_000, now);
+
+        assertNotNull(tokenCache.get("token", now));
+        assertNull(tokenCache.get("token", now + 1_000));
+    }
+
+    private MockHttpServletRequest bearer(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/patients");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
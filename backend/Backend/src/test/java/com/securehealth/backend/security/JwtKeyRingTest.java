@@ -0,0 +1,146 @@
+package com.securehealth.backend.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Unit tests for JwtKeyRing rotation and overlap, over an in-memory key store.
+ * Keys rotate hourly, successors are published 15 minutes ahead and tokens live 15 minutes.
+ */
+class JwtKeyRingTest {
+
+    private static final long TOKEN_LIFETIME_MS = Duration.ofMinutes(15).toMillis();
+
+    private InMemorySigningKeyStore store;
+    private JwtKeyRing ring;
+    private Instant start;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemorySigningKeyStore();
+        start = Instant.now();
+        ring = new JwtKeyRing(store, 1, 15, TOKEN_LIFETIME_MS, 60, 60000, 300);
+        ring.load();
+    }
+
+    @Test
+    void testFirstStart_CreatesSigningKey() {
+        JwtKeyRing.SigningKey key = ring.signingKey();
+
+        assertNotNull(key.kid());
+        assertNotNull(ring.verificationKey(key.kid()));
+        assertEquals(1, store.findLive(start).size());
+    }
+
+    @Test
+    void testConstruction_LeavesStoreAloneUntilLoad() {
+        SigningKeyStore untouched = mock(SigningKeyStore.class);
+
+        JwtKeyRing notLoaded = new JwtKeyRing(untouched, 1, 15, TOKEN_LIFETIME_MS, 60, 60000, 300);
+
+        verifyNoInteractions(untouched);
+        assertThrows(IllegalStateException.class, notLoaded::signingKey);
+        assertNull(notLoaded.verificationKey("any-kid"));
+    }
+
+    @Test
+    void testSecondNode_SharesKeys() {
+        JwtKeyRing other = new JwtKeyRing(store, 1, 15, TOKEN_LIFETIME_MS, 60, 60000, 300);
+        other.load();
+
+        assertEquals(ring.signingKey().kid(), other.signingKey().kid());
+        assertEquals(1, store.findLive(start).size());
+    }
+
+    @Test
+    void testRotation_PublishesSuccessorBeforeItSigns() {
+        String first = ring.signingKey().kid();
+
+        ring.refresh(start.plus(Duration.ofMinutes(46)));
+
+        List<SigningKeyStore.StoredKey> live = store.findLive(start.plus(Duration.ofMinutes(46)));
+        assertEquals(2, live.size());
+        String second = live.get(0).kid();
+        assertNotEquals(first, second);
+        // Verifiable and in the JWKS right away, but the old key keeps signing until the successor activates
+        assertNotNull(ring.verificationKey(second));
+        assertEquals(2, jwkCount());
+        assertEquals(first, ring.signingKey(start.plus(Duration.ofMinutes(59))).kid());
+        assertEquals(second, ring.signingKey(start.plus(Duration.ofMinutes(62))).kid());
+    }
+
+    @Test
+    void testRotation_OldKeyVerifiesUntilItsTokensExpire() {
+        String first = ring.signingKey().kid();
+        ring.refresh(start.plus(Duration.ofMinutes(46)));
+
+        // Successor signs from 61m; the first key's last token expires at 76m, plus 1m skew
+        ring.refresh(start.plus(Duration.ofMinutes(76)));
+        assertNotNull(ring.verificationKey(first));
+
+        ring.refresh(start.plus(Duration.ofMinutes(78)));
+        assertNull(ring.verificationKey(first));
+        assertEquals(1, jwkCount());
+        assertTrue(store.findLive(start).stream().noneMatch(k -> k.kid().equals(first)));
+    }
+
+    @Test
+    void testRotation_OnlyOneNodeWins() {
+        JwtKeyRing other = new JwtKeyRing(store, 1, 15, TOKEN_LIFETIME_MS, 60, 60000, 300);
+        other.load();
+        Instant due = start.plus(Duration.ofMinutes(46));
+
+        ring.refresh(due);
+        other.refresh(due);
+
+        assertEquals(2, store.findLive(due).size());
+        Instant later = start.plus(Duration.ofMinutes(62));
+        assertEquals(ring.signingKey(later).kid(), other.signingKey(later).kid());
+    }
+
+    @Test
+    void testJwks_PublishesPublicKeysOnly() {
+        Map<String, Object> jwk = firstJwk();
+
+        assertEquals("EC", jwk.get("kty"));
+        assertEquals("P-256", jwk.get("crv"));
+        assertEquals("ES256", jwk.get("alg"));
+        assertEquals("sig", jwk.get("use"));
+        assertEquals(ring.signingKey().kid(), jwk.get("kid"));
+        assertFalse(jwk.containsKey("d"));
+    }
+
+    @Test
+    void testJwks_EtagChangesWithKeySet() {
+        String before = ring.jwkSet().etag();
+        ring.refresh(start.plus(Duration.ofMinutes(1)));
+        assertEquals(before, ring.jwkSet().etag());
+
+        ring.refresh(start.plus(Duration.ofMinutes(46)));
+        assertNotEquals(before, ring.jwkSet().etag());
+    }
+
+    @Test
+    void testPublishAhead_MustCoverJwksCaching() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new JwtKeyRing(store, 1, 5, TOKEN_LIFETIME_MS, 60, 60000, 300));
+    }
+
+    private int jwkCount() {
+        return ((List<?>) ring.jwkSet().document().get("keys")).size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> firstJwk() {
+        return (Map<String, Object>) ((List<?>) ring.jwkSet().document().get("keys")).get(0);
+    }
+}
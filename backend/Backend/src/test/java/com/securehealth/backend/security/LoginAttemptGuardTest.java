@@ -0,0 +1,149 @@
+package com.securehealth.backend.security;
+
+import com.securehealth.backend.model.Login;
+import com.securehealth.backend.repository.LoginRepository;
+import com.securehealth.backend.util.SlidingWindowCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for LoginAttemptGuard with the in-memory failure store.
+ * The point under test is that the login row is only written on lock state changes.
+ */
+class LoginAttemptGuardTest {
+
+    private LoginRepository loginRepository;
+    private CredentialCache credentialCache;
+    private LoginAttemptGuard guard;
+    private Login user;
+
+    @BeforeEach
+    void setUp() {
+        loginRepository = mock(LoginRepository.class);
+        when(loginRepository.lockAccount(anyLong(), anyInt(), any(), any())).thenReturn(1);
+        when(loginRepository.clearExpiredLock(anyLong(), any())).thenReturn(1);
+        credentialCache = mock(CredentialCache.class);
+        guard = new LoginAttemptGuard(new InMemoryLoginFailureStore(900, 15, 1000), loginRepository, credentialCache,
+                3, 5, 900);
+
+        user = new Login();
+        user.setUserId(7L);
+        user.setEmail("victim@example.com");
+    }
+
+    @Test
+    void testFailuresBelowThreshold_WriteNothing() {
+        guard.onFailure(user, "10.0.0.1");
+        guard.onFailure(user, "10.0.0.1");
+
+        verifyNoInteractions(loginRepository, credentialCache);
+        assertFalse(user.isLocked());
+    }
+
+    @Test
+    void testThreshold_LocksAccountOnce() {
+        for (int i = 0; i < 3; i++) guard.onFailure(user, "10.0.0." + i);
+
+        verify(loginRepository, times(1)).lockAccount(eq(7L), eq(3), any(), any());
+        verify(credentialCache, times(1)).invalidate(7L);
+        assertTrue(user.isLockedAt(LocalDateTime.now()));
+        assertFalse(user.isLockedAt(user.getLockoutUntil()));
+
+        // Further failures while locked don't touch the row again
+        guard.onFailure(user, "10.0.0.9");
+        guard.onFailure(user, "10.0.0.9");
+        guard.onFailure(user, "10.0.0.9");
+        verify(loginRepository, times(1)).lockAccount(anyLong(), anyInt(), any(), any());
+    }
+
+    @Test
+    void testIpThrottle_AppliesAcrossAccounts() {
+        for (int i = 0; i < 5; i++) guard.onFailure(null, "203.0.113.5");
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> guard.checkIp("203.0.113.5"));
+        assertEquals("Too many failed attempts", e.getMessage());
+        assertDoesNotThrow(() -> guard.checkIp("203.0.113.6"));
+    }
+
+    @Test
+    void testSuccess_ClearsExpiredLockAndResetsWindow() {
+        user.setLocked(true);
+        user.setFailedAttempts(3);
+        user.setLockoutUntil(LocalDateTime.now().minusMinutes(1));
+
+        guard.onSuccess(user);
+
+        assertFalse(user.isLocked());
+        assertNull(user.getLockoutUntil());
+        verify(loginRepository).clearExpiredLock(eq(7L), any());
+        verify(loginRepository, never()).save(any());
+        verify(credentialCache).invalidate(7L);
+
+        // Window starts fresh: two more failures stay under the threshold
+        guard.onFailure(user, "10.0.0.1");
+        guard.onFailure(user, "10.0.0.1");
+        verify(loginRepository, never()).lockAccount(anyLong(), anyInt(), any(), any());
+    }
+
+    @Test
+    void testSuccess_LockReappliedMeanwhileIsKept() {
+        user.setLocked(true);
+        user.setLockoutUntil(LocalDateTime.now().minusMinutes(1));
+        // Another node locked the account again after this copy was read
+        when(loginRepository.clearExpiredLock(eq(7L), any())).thenReturn(0);
+
+        guard.onSuccess(user);
+
+        verify(loginRepository, never()).save(any());
+        verify(credentialCache, never()).invalidate(anyLong());
+    }
+
+    @Test
+    void testSuccess_CleanAccountWritesNothing() {
+        guard.onSuccess(user);
+
+        verifyNoInteractions(loginRepository);
+    }
+
+    @Test
+    void testSlidingWindow_ForgetsOldBuckets() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofSeconds(60), 6);
+        long start = 1_000_000L;
+
+        counter.increment(start);
+        counter.increment(start + 15_000);
+        assertEquals(2, counter.sum(start + 15_000));
+        assertEquals(1, counter.sum(start + 65_000));   // first bucket slid out
+        assertEquals(0, counter.sum(start + 200_000));
+        assertEquals(1, counter.increment(start + 200_000)); // stale slot recycled
+    }
+
+    @Test
+    void testFailureStore_StaysBoundedWhenEveryKeyIsActive() {
+        InMemoryLoginFailureStore store = new InMemoryLoginFailureStore(900, 15, 100);
+
+        // A distributed spray: every key has a failure inside the window, none can be pruned
+        for (int i = 0; i < 1_000; i++) {
+            store.recordFailure("ip:203.0.113." + i);
+            assertTrue(store.trackedKeys() <= 100, "keys: " + store.trackedKeys());
+        }
+
+        assertEquals(1, store.failures("ip:203.0.113.999"));
+    }
+
+    @Test
+    void testFailureStore_KnownKeyIsNotEvictedToMakeRoom() {
+        InMemoryLoginFailureStore store = new InMemoryLoginFailureStore(900, 15, 4);
+        for (int i = 0; i < 4; i++) store.recordFailure("ip:" + i);
+
+        assertEquals(2, store.recordFailure("ip:0"));
+        assertEquals(4, store.trackedKeys());
+    }
+}
@@ -0,0 +1,155 @@
+package com.securehealth.backend.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.securehealth.backend.config.RateLimitProperties;
+import com.securehealth.backend.config.RateLimitProperties.EndpointLimit;
+import com.securehealth.backend.util.TokenBucket;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RateLimitFilter and the TokenBucket behind it.
+ */
+class RateLimitFilterTest {
+
+    private RateLimitFilter filter(int maxBuckets) {
+        RateLimitProperties properties = new RateLimitProperties(true, maxBuckets, Map.of(
+                "login", new EndpointLimit(3, 1, 2, 1)));
+        return new RateLimitFilter(properties, new ObjectMapper());
+    }
+
+    @Test
+    void testIpOverLimit_Gets429WithRetryAfter() throws Exception {
+        RateLimitFilter filter = filter(100);
+
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse ok = new MockHttpServletResponse();
+            filter.doFilter(login("10.0.0.1", "user" + i + "@example.com"), ok, new MockFilterChain());
+            assertEquals(200, ok.getStatus());
+        }
+
+        MockHttpServletResponse limited = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(login("10.0.0.1", "other@example.com"), limited, chain);
+
+        assertEquals(429, limited.getStatus());
+        assertEquals("60", limited.getHeader("Retry-After"));
+        assertNull(chain.getRequest(), "controller must not be reached");
+    }
+
+    @Test
+    void testEmailOverLimit_AppliesAcrossIps() throws Exception {
+        RateLimitFilter filter = filter(100);
+
+        filter.doFilter(login("10.0.0.1", "victim@example.com"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(login("10.0.0.2", " Victim@Example.com"), new MockHttpServletResponse(), new MockFilterChain());
+        MockHttpServletResponse limited = new MockHttpServletResponse();
+        filter.doFilter(login("10.0.0.3", "victim@example.com"), limited, new MockFilterChain());
+
+        assertEquals(429, limited.getStatus());
+    }
+
+    @Test
+    void testBody_IsStillReadableDownstream() throws Exception {
+        RateLimitFilter filter = filter(100);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(login("10.0.0.1", "doc@example.com"), new MockHttpServletResponse(), chain);
+
+        String body = new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(body.contains("doc@example.com"));
+    }
+
+    @Test
+    void testBody_CanBeReadWithReadListener() throws Exception {
+        RateLimitFilter filter = filter(100);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(login("10.0.0.1", "doc@example.com"), new MockHttpServletResponse(), chain);
+
+        ServletInputStream in = chain.getRequest().getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicBoolean allRead = new AtomicBoolean();
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                byte[] buffer = new byte[8];
+                int n;
+                while (in.isReady() && (n = in.read(buffer)) != -1) read.write(buffer, 0, n);
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allRead.set(true);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail(t);
+            }
+        });
+
+        assertTrue(allRead.get());
+        assertTrue(in.isFinished());
+        assertTrue(read.toString(StandardCharsets.UTF_8).contains("doc@example.com"));
+    }
+
+    @Test
+    void testUnconfiguredEndpoint_IsNotLimited() throws Exception {
+        RateLimitFilter filter = filter(100);
+
+        for (int i = 0; i < 10; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/logout");
+            request.setRemoteAddr("10.0.0.1");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, new MockFilterChain());
+            assertEquals(200, response.getStatus());
+        }
+        assertEquals(0, filter.bucketCount());
+    }
+
+    @Test
+    void testRotatingSourceAddresses_KeepsMemoryBounded() throws Exception {
+        RateLimitFilter filter = filter(50);
+
+        for (int i = 0; i < 1_000; i++) {
+            filter.doFilter(login("198.51.100." + i, "x" + i + "@example.com"),
+                    new MockHttpServletResponse(), new MockFilterChain());
+        }
+
+        assertTrue(filter.bucketCount() <= 50, "buckets: " + filter.bucketCount());
+    }
+
+    @Test
+    void testTokenBucket_RefillsOverTime() {
+        long minute = 60_000_000_000L;
+        TokenBucket bucket = new TokenBucket(2, 2, 0);
+
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(minute / 2, bucket.tryConsume(0));
+        assertFalse(bucket.isIdle(0));
+
+        assertEquals(0, bucket.tryConsume(minute / 2));
+        assertTrue(bucket.isIdle(2 * minute));
+    }
+
+    private MockHttpServletRequest login(String ip, String email) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        request.setContent(("{\"email\":\"" + email + "\",\"password\":\"password1234\"}").getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
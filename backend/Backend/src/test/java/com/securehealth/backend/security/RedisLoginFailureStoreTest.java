@@ -0,0 +1,51 @@
+package com.securehealth.backend.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RedisLoginFailureStore's commands; no Redis is involved,
+ * so the Lua script itself is not executed.
+ */
+class RedisLoginFailureStoreTest {
+
+    private StringRedisTemplate redis;
+    private ValueOperations<String, String> values;
+    private RedisLoginFailureStore store;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redis = mock(StringRedisTemplate.class);
+        values = mock(ValueOperations.class);
+        when(redis.opsForValue()).thenReturn(values);
+        store = new RedisLoginFailureStore(redis, 900, 15);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRecordFailure_IncrementsAndExpiresInOneScript() {
+        when(values.multiGet(anyCollection())).thenReturn(Arrays.asList("2", null, "1"));
+
+        int count = store.recordFailure("account:7");
+
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        // 15 buckets of 60 s, kept one bucket longer than the window
+        verify(redis).execute(eq(RedisLoginFailureStore.INCREMENT_BUCKET), keys.capture(), eq("960000"));
+        assertEquals(1, keys.getValue().size());
+        assertTrue(keys.getValue().get(0).startsWith(RedisLoginFailureStore.KEY_PREFIX + "account:7:"));
+        verify(values, never()).increment(anyString());
+        verify(redis, never()).expire(anyString(), any());
+        assertEquals(3, count);
+    }
+}
@@ -0,0 +1,48 @@
+package com.securehealth.backend.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RedisRevocationStore's channel listener; no Redis is involved.
+ */
+class RedisRevocationStoreTest {
+
+    private final List<String> received = new ArrayList<>();
+    private final AtomicInteger resyncs = new AtomicInteger();
+    private final RedisRevocationStore.DenylistListener listener =
+            new RedisRevocationStore.DenylistListener(received::add, resyncs::incrementAndGet);
+
+    @Test
+    void testMessage_IsPassedOnAsTokenId() {
+        listener.onMessage(new DefaultMessage(channel(), "jti-1".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertEquals(List.of("jti-1"), received);
+    }
+
+    @Test
+    void testFirstSubscription_DoesNotResync() {
+        listener.onChannelSubscribed(channel(), 1);
+
+        assertEquals(0, resyncs.get());
+    }
+
+    @Test
+    void testEverySubscriptionAfterTheFirst_Resyncs() {
+        listener.onChannelSubscribed(channel(), 1);
+        listener.onChannelSubscribed(channel(), 1);
+
+        assertEquals(1, resyncs.get());
+    }
+
+    private static byte[] channel() {
+        return RedisRevocationStore.CHANNEL.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,129 @@
+package com.securehealth.backend.security;
+
+import com.securehealth.backend.util.BloomFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TokenDenylist and its Bloom filter front.
+ * InMemoryRevocationStore stands in for Redis.
+ */
+class TokenDenylistTest {
+
+    private InMemoryRevocationStore store;
+    private TokenDenylist denylist;
+
+    @BeforeEach
+    void setUp() {
+        store = spy(new InMemoryRevocationStore());
+        denylist = new TokenDenylist(store, 1000, 0.01);
+    }
+
+    @Test
+    void testRevokedToken_IsReported() {
+        denylist.revoke("jti-1", Instant.now().plusSeconds(60));
+
+        assertTrue(denylist.isRevoked("jti-1"));
+    }
+
+    @Test
+    void testUnknownToken_DecidedWithoutStoreLookup() {
+        denylist.revoke("jti-1", Instant.now().plusSeconds(60));
+
+        for (int i = 0; i < 100; i++) {
+            assertFalse(denylist.isRevoked("other-" + i));
+        }
+        // 1% false-positive target: a handful of confirmations at most, not one per call
+        verify(store, atMost(5)).isRevoked(anyString());
+    }
+
+    @Test
+    void testAlreadyExpiredToken_IsNotStored() {
+        denylist.revoke("jti-old", Instant.now().minusSeconds(1));
+
+        verify(store, never()).revoke(anyString(), any(Duration.class));
+        assertFalse(denylist.isRevoked("jti-old"));
+    }
+
+    @Test
+    void testRevocationFromAnotherNode_ReachesLocalFilter() {
+        // Simulates a pub/sub message: written to the store by someone else
+        store.revoke("jti-remote", Duration.ofMinutes(5));
+
+        assertTrue(denylist.isRevoked("jti-remote"));
+    }
+
+    @Test
+    void testRebuild_ForgetsExpiredRevocations() throws Exception {
+        store.revoke("jti-short", Duration.ofMillis(1));
+        Thread.sleep(5);
+
+        denylist.rebuild();
+
+        assertFalse(denylist.isRevoked("jti-short"));
+        verify(store, never()).isRevoked("jti-short");
+    }
+
+    @Test
+    void testRevocationDuringRebuild_SurvivesSwap() {
+        doAnswer(invocation -> {
+            invocation.callRealMethod();
+            // Arrives after the scan has passed, before the new filter is installed
+            store.revoke("jti-late", Duration.ofMinutes(5));
+            return null;
+        }).when(store).forEachRevoked(any());
+
+        denylist.rebuild();
+
+        assertTrue(denylist.isRevoked("jti-late"));
+    }
+
+    @Test
+    void testResubscription_RebuildsFromStore() {
+        RevocationStore redis = mock(RevocationStore.class);
+        TokenDenylist resyncing = new TokenDenylist(redis, 1000, 0.01);
+        ArgumentCaptor<Runnable> resync = ArgumentCaptor.forClass(Runnable.class);
+        verify(redis).subscribe(any(), resync.capture());
+        // Revoked while the subscription was down, so no message reached this node
+        doAnswer(invocation -> {
+            invocation.<Consumer<String>>getArgument(0).accept("jti-missed");
+            return null;
+        }).when(redis).forEachRevoked(any());
+        when(redis.isRevoked("jti-missed")).thenReturn(true);
+
+        resync.getValue().run();
+
+        verify(redis, timeout(2000).times(2)).forEachRevoked(any());
+        assertTrue(resyncing.isRevoked("jti-missed"));
+    }
+
+    @Test
+    void testStoreUnavailable_FailsClosed() {
+        denylist.revoke("jti-1", Instant.now().plusSeconds(60));
+        doThrow(new IllegalStateException("connection refused")).when(store).isRevoked(anyString());
+
+        assertTrue(denylist.isRevoked("jti-1"));
+        assertTrue(denylist.isRevoked("jti-1"));
+    }
+
+    @Test
+    void testBloomFilter_HasNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) filter.put("token-" + i);
+
+        for (int i = 0; i < 10_000; i++) assertTrue(filter.mightContain("token-" + i));
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) if (filter.mightContain("absent-" + i)) falsePositives++;
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,66 @@
+package com.securehealth.backend.service;
+
+import com.securehealth.backend.service.AuthMetrics.Operation;
+import com.securehealth.backend.service.AuthMetrics.Outcome;
+import com.securehealth.backend.service.AuthMetrics.Recording;
+import com.securehealth.backend.service.AuthMetrics.Stage;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AuthMetrics metrics = new AuthMetrics(registry);
+
+    @Test
+    void testStagesAddUpToTheOperation() throws Exception {
+        Recording recording = metrics.start(Operation.LOGIN);
+        Thread.sleep(5);
+        recording.stage(Stage.LOOKUP);
+        Thread.sleep(5);
+        recording.stage(Stage.VERIFY);
+        recording.outcome(Outcome.SUCCESS);
+        recording.finish();
+
+        double lookup = stage("lookup").totalTime(TimeUnit.NANOSECONDS);
+        double verify = stage("verify").totalTime(TimeUnit.NANOSECONDS);
+        double total = registry.get("auth.operation.duration")
+                .tags("operation", "login", "outcome", "success").timer().totalTime(TimeUnit.NANOSECONDS);
+        assertTrue(lookup >= TimeUnit.MILLISECONDS.toNanos(5));
+        assertTrue(verify >= TimeUnit.MILLISECONDS.toNanos(5));
+        assertTrue(total >= lookup + verify);
+    }
+
+    @Test
+    void testRepeatedStageAccumulatesIntoOneSample() {
+        Recording recording = metrics.start(Operation.LOGIN);
+        recording.stage(Stage.GUARD);
+        recording.stage(Stage.LOOKUP);
+        recording.stage(Stage.GUARD);
+        recording.outcome(Outcome.SUCCESS);
+        recording.finish();
+        recording.finish(); // e.g. once in the body, once in finally
+
+        assertEquals(1, stage("guard").count());
+        assertNull(registry.find("auth.stage.duration").tag("stage", "verify").timer());
+    }
+
+    @Test
+    void testUnfinishedOutcomeIsRecordedAsError() {
+        Recording recording = metrics.start(Operation.REGISTER);
+        recording.stage(Stage.LOOKUP);
+        recording.finish();
+
+        assertEquals(1, registry.get("auth.operation.duration")
+                .tags("operation", "register", "outcome", "error").timer().count());
+    }
+
+    private Timer stage(String stage) {
+        return registry.get("auth.stage.duration").tags("operation", "login", "stage", stage).timer();
+    }
+}
@@ -6,15 +6,27 @@ import com.securehealth.backend.model.Role;
 import com.securehealth.backend.model.Session;
 import com.securehealth.backend.repository.LoginRepository;
 import com.securehealth.backend.repository.SessionRepository;
+import com.securehealth.backend.security.CredentialCache;
+import com.securehealth.backend.security.LoginAttemptGuard;
+import com.securehealth.backend.security.TokenDenylist;
 import com.securehealth.backend.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,6 +48,23 @@ class AuthServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private TokenDenylist tokenDenylist;
+
+    @Mock
+    private LoginAttemptGuard loginAttemptGuard;
+
+    @Mock
+    private CredentialCache credentialCache;
+
+    @Mock
+    private SecurityAuditLog securityAuditLog;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private AuthMetrics authMetrics = new AuthMetrics(meterRegistry);
+
     @InjectMocks
     private AuthService authService;
 
@@ -55,29 +84,34 @@ class AuthServiceTest {
 
     @Test
     void testRegisterUser_Success() {
-        String email = "newuser@example.com";
+        String email = " NewUser@Example.com";
         String password = "SecurePassword123!";
         Role role = Role.DOCTOR;
 
-        when(loginRepository.existsByEmail(email)).thenReturn(false);
         when(passwordEncoder.encode(password)).thenReturn("hashedPassword");
-        when(loginRepository.save(any(Login.class))).thenReturn(testUser);
+        when(loginRepository.insertIfAbsent(eq("newuser@example.com"), eq("hashedPassword"), eq("DOCTOR"), any()))
+                .thenReturn(Optional.of(7L));
 
         Login result = authService.registerUser(email, password, role);
 
-        assertNotNull(result);
-        verify(loginRepository).save(any(Login.class));
+        assertEquals(7L, result.getUserId());
+        assertEquals("newuser@example.com", result.getEmail());
+        verify(loginRepository, never()).existsByEmail(anyString());
+        verify(securityAuditLog).record(SecurityAuditLog.Event.REGISTERED, 7L, null);
     }
 
     @Test
     void testRegisterUser_DuplicateEmail() {
         String email = "existing@example.com";
-        when(loginRepository.existsByEmail(email)).thenReturn(true);
+        when(passwordEncoder.encode(anyString())).thenReturn("hashedPassword");
+        when(loginRepository.insertIfAbsent(eq(email), anyString(), anyString(), any())).thenReturn(Optional.empty());
 
-        assertThrows(RuntimeException.class,
+        RuntimeException exception = assertThrows(RuntimeException.class,
                 () -> authService.registerUser(email, "Password123!", Role.PATIENT));
 
+        assertEquals("Email already taken", exception.getMessage());
         verify(loginRepository, never()).save(any(Login.class));
+        verify(securityAuditLog).record(SecurityAuditLog.Event.REGISTRATION_REJECTED, null, null);
     }
 
     // ==================== login() Tests (UPDATED) ====================
@@ -91,7 +125,7 @@ class AuthServiceTest {
         String agent = "Chrome";
 
         // Mocks for User Validation
-        when(loginRepository.findByEmail(email)).thenReturn(Optional.of(testUser));
+        when(credentialCache.find(email)).thenReturn(Optional.of(testUser));
         when(passwordEncoder.matches(password, testUser.getPasswordHash())).thenReturn(true);
 
         // Mocks for Token Generation
@@ -108,8 +142,72 @@ class AuthServiceTest {
         assertEquals("refresh-token-456", result.getRefreshToken());
         assertEquals("PATIENT", result.getRole());
 
-        // Verify Session was saved to DB
-        verify(sessionRepository, times(1)).save(any(Session.class));
+        // Verify Session was saved to DB, starting a new token family
+        verify(sessionRepository, times(1)).save(argThat(session -> session.getFamilyId() != null));
+        verify(securityAuditLog).record(SecurityAuditLog.Event.LOGIN_SUCCESS, 1L, ip);
+    }
+
+    @Test
+    void testLogin_RehashesOutdatedPasswordHash() {
+        String password = "SecurePassword123!";
+        when(credentialCache.find("test@example.com")).thenReturn(Optional.of(testUser));
+        when(passwordEncoder.matches(password, "hashedPassword123")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("hashedPassword123")).thenReturn(true);
+        when(passwordEncoder.encode(password)).thenReturn("strongerHash");
+        when(loginRepository.updatePasswordHash(1L, "hashedPassword123", "strongerHash")).thenReturn(1);
+        when(jwtUtil.generateAccessToken(anyString(), anyString(), anyLong())).thenReturn("access-token-123");
+        when(jwtUtil.generateRefreshToken()).thenReturn("refresh-token-456");
+
+        authService.login("test@example.com", password, "ip", "agent");
+
+        assertEquals("strongerHash", testUser.getPasswordHash());
+        // Only the hash column, so a detached cached copy cannot overwrite lock or role changes
+        verify(loginRepository).updatePasswordHash(1L, "hashedPassword123", "strongerHash");
+        verify(loginRepository, never()).save(any(Login.class));
+        verify(credentialCache).invalidate(1L);
+    }
+
+    @Test
+    void testLogin_RehashLosesToConcurrentPasswordChange() {
+        String password = "SecurePassword123!";
+        when(credentialCache.find("test@example.com")).thenReturn(Optional.of(testUser));
+        when(passwordEncoder.matches(password, "hashedPassword123")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("hashedPassword123")).thenReturn(true);
+        when(passwordEncoder.encode(password)).thenReturn("strongerHash");
+        when(jwtUtil.generateAccessToken(anyString(), anyString(), anyLong())).thenReturn("access-token-123");
+        when(jwtUtil.generateRefreshToken()).thenReturn("refresh-token-456");
+
+        authService.login("test@example.com", password, "ip", "agent");
+
+        verify(loginRepository, never()).save(any(Login.class));
+        verify(credentialCache, never()).invalidate(anyLong());
+    }
+
+    @Test
+    void testLogin_SessionStoreFailure_IsNotBadCredentials() {
+        String password = "SecurePassword123!";
+        when(credentialCache.find("test@example.com")).thenReturn(Optional.of(testUser));
+        when(passwordEncoder.matches(password, "hashedPassword123")).thenReturn(true);
+        when(jwtUtil.generateAccessToken(anyString(), anyString(), anyLong())).thenReturn("access-token-123");
+        when(jwtUtil.generateRefreshToken()).thenReturn("refresh-token-456");
+        when(sessionRepository.save(any(Session.class))).thenThrow(new IllegalStateException("connection refused"));
+
+        assertThrows(SessionUnavailableException.class,
+                () -> authService.login("test@example.com", password, "ip", "agent"));
+    }
+
+    @Test
+    void testLogin_CurrentHashIsNotRehashed() {
+        String password = "SecurePassword123!";
+        when(credentialCache.find("test@example.com")).thenReturn(Optional.of(testUser));
+        when(passwordEncoder.matches(password, "hashedPassword123")).thenReturn(true);
+        when(jwtUtil.generateAccessToken(anyString(), anyString(), anyLong())).thenReturn("access-token-123");
+        when(jwtUtil.generateRefreshToken()).thenReturn("refresh-token-456");
+
+        authService.login("test@example.com", password, "ip", "agent");
+
+        verify(passwordEncoder, never()).encode(anyString());
+        verify(loginRepository, never()).save(any(Login.class));
     }
 
     @Test
@@ -117,7 +215,7 @@ class AuthServiceTest {
         String email = "test@example.com";
         String password = "WrongPassword!";
 
-        when(loginRepository.findByEmail(email)).thenReturn(Optional.of(testUser));
+        when(credentialCache.find(email)).thenReturn(Optional.of(testUser));
         when(passwordEncoder.matches(password, testUser.getPasswordHash())).thenReturn(false);
 
         RuntimeException exception = assertThrows(RuntimeException.class,
@@ -130,12 +228,115 @@ class AuthServiceTest {
     @Test
     void testLogin_AccountLocked() {
         testUser.setLocked(true);
-        when(loginRepository.findByEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(credentialCache.find(anyString())).thenReturn(Optional.of(testUser));
 
         RuntimeException exception = assertThrows(RuntimeException.class,
                 () -> authService.login("test@example.com", "Password!", "ip", "agent"));
 
         assertTrue(exception.getMessage().contains("locked"));
+        verify(passwordEncoder, never()).matches(anyString(), anyString());
+    }
+
+    @Test
+    void testLogin_StagesAreTimedByOutcome() {
+        String password = "SecurePassword123!";
+        when(credentialCache.find("test@example.com")).thenReturn(Optional.of(testUser));
+        when(passwordEncoder.matches(password, "hashedPassword123")).thenReturn(true, false);
+        when(jwtUtil.generateAccessToken(anyString(), anyString(), anyLong())).thenReturn("access-token-123");
+        when(jwtUtil.generateRefreshToken()).thenReturn("refresh-token-456");
+
+        authService.login("test@example.com", password, "ip", "agent");
+        assertThrows(RuntimeException.class, () -> authService.login("test@example.com", password, "ip", "agent"));
+
+        assertEquals(1, stageCount("login", "session", "success"));
+        assertEquals(1, stageCount("login", "verify", "bad_credentials"));
+        assertEquals(0, stageCount("login", "session", "bad_credentials"));
+        assertEquals(1, meterRegistry.get("auth.operation.duration")
+                .tags("operation", "login", "outcome", "bad_credentials").timer().count());
+    }
+
+    @Test
+    void testLogin_LockedOutcomeIsRecorded() {
+        testUser.setLocked(true);
+        when(credentialCache.find(anyString())).thenReturn(Optional.of(testUser));
+
+        assertThrows(RuntimeException.class, () -> authService.login("test@example.com", "Password!", "ip", "agent"));
+
+        assertEquals(1, stageCount("login", "lookup", "locked"));
+        verify(securityAuditLog).record(SecurityAuditLog.Event.LOGIN_LOCKED, 1L, "ip");
+    }
+
+    @Test
+    void testLogin_ExpiredLockIsIgnored() {
+        testUser.setLocked(true);
+        testUser.setLockoutUntil(LocalDateTime.now().minusMinutes(1));
+        when(credentialCache.find(anyString())).thenReturn(Optional.of(testUser));
+        when(passwordEncoder.matches("Password!", testUser.getPasswordHash())).thenReturn(true);
+        when(jwtUtil.generateAccessToken(anyString(), anyString(), anyLong())).thenReturn("access-token-123");
+        when(jwtUtil.generateRefreshToken()).thenReturn("refresh-token-456");
+
+        LoginResponse result = authService.login("test@example.com", "Password!", "ip", "agent");
+
+        assertEquals("access-token-123", result.getAccessToken());
+        verify(loginAttemptGuard).onSuccess(testUser);
+    }
+
+    @Test
+    void testLogin_FailuresAreReportedToGuard() {
+        when(credentialCache.find("test@example.com")).thenReturn(Optional.of(testUser));
+        when(credentialCache.find("ghost@example.com")).thenReturn(Optional.empty());
+        when(passwordEncoder.matches(anyString(), anyString())).thenReturn(false);
+
+        assertThrows(RuntimeException.class, () -> authService.login("test@example.com", "wrong", "ip", "agent"));
+        assertThrows(RuntimeException.class, () -> authService.login("ghost@example.com", "wrong", "ip", "agent"));
+
+        verify(loginAttemptGuard).onFailure(testUser, "ip");
+        verify(loginAttemptGuard).onFailure(null, "ip");
+        verify(loginAttemptGuard, never()).onSuccess(any());
+        verify(securityAuditLog).record(SecurityAuditLog.Event.LOGIN_FAILED, 1L, "ip");
+        verify(securityAuditLog).record(SecurityAuditLog.Event.LOGIN_FAILED, null, "ip");
+    }
+
+    // ==================== refresh() Tests ====================
+
+    @Test
+    void testRefresh_RotatesToken() {
+        SessionRepository.RotatedSession owner = mock(SessionRepository.RotatedSession.class);
+        when(owner.getUserId()).thenReturn(1L);
+        when(owner.getEmail()).thenReturn("test@example.com");
+        when(owner.getRole()).thenReturn("PATIENT");
+        when(jwtUtil.generateRefreshToken()).thenReturn("new-refresh-token");
+        when(sessionRepository.rotateRefreshToken(anyString(), anyString(), any(), any(), any()))
+                .thenReturn(Optional.of(owner));
+        when(jwtUtil.generateAccessToken("test@example.com", "PATIENT", 1L)).thenReturn("new-access-token");
+
+        LoginResponse result = authService.refresh("old-refresh-token", "ip", "agent");
+
+        assertEquals("new-access-token", result.getAccessToken());
+        assertEquals("new-refresh-token", result.getRefreshToken());
+        verify(sessionRepository, never()).revokeFamilyOfReusedToken(anyString(), any());
+    }
+
+    @Test
+    void testRefresh_ReusedTokenRevokesFamily() {
+        when(jwtUtil.generateRefreshToken()).thenReturn("new-refresh-token");
+        when(sessionRepository.rotateRefreshToken(anyString(), anyString(), any(), any(), any()))
+                .thenReturn(Optional.empty());
+        when(sessionRepository.revokeFamilyOfReusedToken(anyString(), any())).thenReturn(2);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> authService.refresh("already-rotated-token", "ip", "agent"));
+
+        assertEquals("Invalid refresh token", exception.getMessage());
+        verify(sessionRepository).revokeFamilyOfReusedToken(anyString(), any());
+        verify(jwtUtil, never()).generateAccessToken(anyString(), anyString(), anyLong());
+        verify(securityAuditLog).record(SecurityAuditLog.Event.REFRESH_TOKEN_REUSED, null, "ip");
+    }
+
+    @Test
+    void testRefresh_MissingToken() {
+        assertThrows(RuntimeException.class, () -> authService.refresh(null, "ip", "agent"));
+        verifyNoInteractions(sessionRepository);
     }
 
     // ==================== logout() Tests (NEW) ====================
@@ -153,5 +354,37 @@ class AuthServiceTest {
         // Verify the session was updated (revoked)
         verify(sessionRepository).save(mockSession);
         assertTrue(mockSession.isRevoked());
+        verify(securityAuditLog).record(SecurityAuditLog.Event.LOGOUT, null, null);
+    }
+
+    @Test
+    void testLogout_RevokesAccessToken() {
+        Instant expiry = Instant.now().plusSeconds(600).truncatedTo(ChronoUnit.MILLIS);
+        Claims claims = mock(Claims.class);
+        when(claims.getId()).thenReturn("jti-123");
+        when(claims.getExpiration()).thenReturn(Date.from(expiry));
+        when(jwtUtil.parseAccessToken("access-token")).thenReturn(claims);
+
+        authService.logout(null, "access-token");
+
+        verify(tokenDenylist).revoke("jti-123", expiry);
+        verifyNoInteractions(sessionRepository);
+    }
+
+    @Test
+    void testLogout_ExpiredAccessTokenIsIgnored() {
+        when(jwtUtil.parseAccessToken("expired-token"))
+                .thenThrow(new ExpiredJwtException(null, null, "expired"));
+
+        authService.logout("some-refresh-token", "expired-token");
+
+        verify(tokenDenylist, never()).revoke(any(), any());
+        verify(sessionRepository).findByRefreshTokenHash(anyString());
+    }
+
+    private long stageCount(String operation, String stage, String outcome) {
+        Timer timer = meterRegistry.find("auth.stage.duration")
+                .tags("operation", operation, "stage", stage, "outcome", outcome).timer();
+        return timer == null ? 0 : timer.count();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,165 @@
+package com.securehealth.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.securehealth.backend.dto.BulkRegistrationResult.Status;
+import com.securehealth.backend.model.Login;
+import com.securehealth.backend.repository.LoginRepository;
+import com.securehealth.backend.service.BulkProvisioningService.Format;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BulkProvisioningService.
+ * The repository is mocked; hashing is a cheap stand-in for Argon2.
+ */
+class BulkProvisioningServiceTest {
+
+    private final LoginRepository loginRepository = mock(LoginRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private final AtomicLong ids = new AtomicLong();
+    private BulkProvisioningService service;
+
+    @BeforeEach
+    void setUp() {
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        when(encoder.encode(anyString())).thenAnswer(invocation -> "hashed:" + invocation.getArgument(0));
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(loginRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+        when(loginRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Login> logins = invocation.getArgument(0);
+            batchSizes.add(logins.size());
+            logins.forEach(login -> login.setUserId(ids.incrementAndGet()));
+            return logins;
+        });
+
+        service = new BulkProvisioningService(loginRepository, encoder,
+                Validation.buildDefaultValidatorFactory().getValidator(), objectMapper, transactionManager, 2, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    void testNdjson_CreatesInChunksAndStreamsOneResultPerRow() throws Exception {
+        String upload = """
+                {"email":"a@example.com","password":"password12345","role":"DOCTOR"}
+                {"email":"b@example.com","password":"password12345","role":"nurse"}
+
+                {"email":"c@example.com","password":"password12345","role":"PATIENT"}
+                """;
+
+        List<JsonNode> lines = run(upload, Format.NDJSON);
+
+        assertEquals(List.of(2, 1), batchSizes);
+        assertEquals(4, lines.size());
+        assertEquals("CREATED", lines.get(0).get("status").asText());
+        assertEquals(4, lines.get(2).get("line").asLong()); // blank line 3 skipped, numbering kept
+        assertEquals(3, lines.get(3).get("summary").get("created").asInt());
+        verify(loginRepository, times(2)).findExistingEmails(anyCollection());
+    }
+
+    @Test
+    void testInvalidAndDuplicateRows_AreReportedWithoutStoppingTheUpload() throws Exception {
+        when(loginRepository.findExistingEmails(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> emails = invocation.getArgument(0);
+            return emails.contains("taken@example.com") ? List.of("taken@example.com") : List.of();
+        });
+        String upload = """
+                {"email":"taken@example.com","password":"password12345","role":"DOCTOR"}
+                not json
+                {"email":"x@example.com","password":"short","role":"DOCTOR"}
+                {"email":"y@example.com","password":"password12345","role":"SURGEON"}
+                {"email":"z@example.com","password":"password12345","role":"ADMIN"}
+                {"email":"z@example.com","password":"password12345","role":"ADMIN"}
+                """;
+
+        List<JsonNode> lines = run(upload, Format.NDJSON);
+
+        assertEquals("DUPLICATE", lines.get(0).get("status").asText());
+        assertEquals("INVALID", lines.get(1).get("status").asText());
+        assertEquals("INVALID", lines.get(2).get("status").asText());
+        assertTrue(lines.get(2).get("message").asText().contains("12 characters"));
+        assertEquals("INVALID", lines.get(3).get("status").asText());
+        assertEquals("CREATED", lines.get(4).get("status").asText());
+        assertEquals("DUPLICATE", lines.get(5).get("status").asText());
+        assertFalse(lines.toString().contains("password12345"), "passwords must never be echoed");
+    }
+
+    @Test
+    void testCsv_QuotedFieldsAndHeaderOrder() throws Exception {
+        String upload = """
+                role,email,password
+                DOCTOR,a@example.com,"pass,word,12345"
+                """;
+
+        List<JsonNode> lines = run(upload, Format.CSV);
+
+        assertEquals("CREATED", lines.get(0).get("status").asText());
+        verify(loginRepository).saveAll(argThat(logins -> {
+            Login login = ((List<Login>) logins).get(0);
+            return login.getPasswordHash().equals("hashed:pass,word,12345") && login.getEmail().equals("a@example.com");
+        }));
+        assertEquals(List.of("a", "b \"c\"", ""), BulkProvisioningService.splitCsvLine("a,\"b \"\"c\"\"\","));
+    }
+
+    @Test
+    void testCsv_MissingColumnStopsWithError() throws Exception {
+        List<JsonNode> lines = run("email,role\na@example.com,DOCTOR\n", Format.CSV);
+
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).has("error"));
+        verifyNoInteractions(loginRepository);
+    }
+
+    @Test
+    void testFailedBatch_IsRetriedRowByRow() throws Exception {
+        when(loginRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("unique"));
+        when(loginRepository.save(any(Login.class))).thenAnswer(invocation -> {
+            Login login = invocation.getArgument(0);
+            if (login.getEmail().startsWith("race")) throw new DataIntegrityViolationException("unique");
+            return login;
+        });
+        String upload = """
+                {"email":"race@example.com","password":"password12345","role":"DOCTOR"}
+                {"email":"ok@example.com","password":"password12345","role":"DOCTOR"}
+                """;
+
+        Map<Status, Integer> counts = service.provision(
+                new ByteArrayInputStream(upload.getBytes(StandardCharsets.UTF_8)), Format.NDJSON, new ByteArrayOutputStream());
+
+        assertEquals(1, counts.get(Status.CREATED));
+        assertEquals(1, counts.get(Status.DUPLICATE));
+    }
+
+    private List<JsonNode> run(String upload, Format format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.provision(new ByteArrayInputStream(upload.getBytes(StandardCharsets.UTF_8)), format, out);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) lines.add(objectMapper.readTree(line));
+        return lines;
+    }
+}
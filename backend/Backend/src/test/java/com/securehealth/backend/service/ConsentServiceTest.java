@@ -0,0 +1,176 @@
+package com.securehealth.backend.service;
+
+import com.securehealth.backend.model.ConsentLog;
+import com.securehealth.backend.model.ConsentType;
+import com.securehealth.backend.repository.ConsentLogRepository;
+import com.securehealth.backend.repository.ConsentLogRepository.ChangeRow;
+import com.securehealth.backend.util.IdBroadcastChannel;
+import com.securehealth.backend.util.InMemoryIdBroadcastChannel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ConsentService's folding of consent_log and incremental updates.
+ */
+class ConsentServiceTest {
+
+    private ConsentLogRepository repository;
+    private SimpleMeterRegistry registry;
+    private ConsentService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ConsentLogRepository.class);
+        registry = new SimpleMeterRegistry();
+        service = new ConsentService(repository, new InMemoryIdBroadcastChannel(),
+                mock(PlatformTransactionManager.class), registry);
+        when(repository.streamChanges()).thenAnswer(inv -> List.of(
+                row(1L, "DATA_SHARING", true),
+                row(1L, "RESEARCH", true),
+                row(2L, "DATA_SHARING", true),
+                row(1L, "RESEARCH", false),
+                row(2L, "DATA_SHARING", false),
+                row(3L, "RETIRED_TYPE", true)).stream());
+    }
+
+    @Test
+    void testLoad_LatestChangePerTypeWins() {
+        service.load();
+
+        assertTrue(service.isGranted(1L, ConsentType.DATA_SHARING));
+        assertFalse(service.isGranted(1L, ConsentType.RESEARCH));
+        assertEquals(Set.of(ConsentType.DATA_SHARING), service.grantedTypes(1L));
+        assertFalse(service.isGranted(2L, ConsentType.DATA_SHARING));
+        assertEquals(Set.of(), service.grantedTypes(3L));
+        verify(repository, never()).findChanges(any());
+    }
+
+    @Test
+    void testLoad_OnlyUsersWithGrantsAreKept() {
+        service.load();
+
+        assertEquals(1, registry.get("consent.state.users").gauge().value());
+    }
+
+    @Test
+    void testIsGranted_ReadsLogWhileLoading() {
+        when(repository.findChanges(5L)).thenReturn(List.of(row(5L, "RESEARCH", true)));
+
+        assertTrue(service.isGranted(5L, ConsentType.RESEARCH));
+        assertEquals(1, registry.get("consent.checks.log-reads").counter().count());
+    }
+
+    @Test
+    void testOnChange_DuringLoadIsReappliedAfterwards() {
+        service.onChange(2L);
+        verify(repository, never()).findChanges(any());
+        when(repository.findChanges(2L)).thenReturn(List.of(
+                row(2L, "DATA_SHARING", false), row(2L, "MARKETING", true)));
+
+        service.load();
+
+        assertEquals(Set.of(ConsentType.MARKETING), service.grantedTypes(2L));
+    }
+
+    @Test
+    void testRecord_AppendsToLogAndUpdatesState() {
+        service.load();
+        when(repository.findChanges(1L)).thenReturn(List.of(
+                row(1L, "DATA_SHARING", true), row(1L, "DATA_SHARING", false)));
+
+        service.record(1L, ConsentType.DATA_SHARING, false, "10.0.0.1");
+
+        verify(repository).save(argThat((ConsentLog entry) -> entry.getUserId() == 1L
+                && entry.getConsentType() == ConsentType.DATA_SHARING
+                && !entry.isGranted()
+                && "10.0.0.1".equals(entry.getIpAddress())));
+        assertFalse(service.isGranted(1L, ConsentType.DATA_SHARING));
+        assertEquals(0, registry.get("consent.state.users").gauge().value());
+    }
+
+    @Test
+    void testOnChange_FailedReadAnswersFromLogUntilItSucceeds() {
+        service.load();
+        when(repository.findChanges(1L))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(List.of(row(1L, "MARKETING", true)));
+
+        assertDoesNotThrow(() -> service.onChange(1L));
+
+        assertEquals(Set.of(ConsentType.MARKETING), service.grantedTypes(1L));
+        assertEquals(1, registry.get("consent.checks.log-reads").counter().count());
+    }
+
+    @Test
+    void testReconcile_RepairsMissedChanges() {
+        service.load();
+        // User 1 withdrew and user 4 granted on another node; neither message arrived
+        when(repository.streamChanges()).thenAnswer(inv -> List.of(
+                row(1L, "DATA_SHARING", true),
+                row(1L, "DATA_SHARING", false),
+                row(4L, "RESEARCH", true)).stream());
+
+        service.reconcile();
+
+        assertEquals(Set.of(), service.grantedTypes(1L));
+        assertEquals(Set.of(ConsentType.RESEARCH), service.grantedTypes(4L));
+        assertEquals(2, registry.get("consent.state.corrections").counter().count());
+    }
+
+    @Test
+    void testReconcile_ClearsStaleUsers() {
+        service.load();
+        when(repository.findChanges(1L)).thenThrow(new IllegalStateException("db down"));
+        service.onChange(1L);
+
+        service.reconcile();
+        clearInvocations(repository);
+
+        assertTrue(service.isGranted(1L, ConsentType.DATA_SHARING));
+        verify(repository, never()).findChanges(any());
+    }
+
+    @Test
+    void testResubscription_Reconciles() throws Exception {
+        IdBroadcastChannel redis = mock(IdBroadcastChannel.class);
+        ConsentService resyncing = new ConsentService(repository, redis,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+        ArgumentCaptor<Runnable> resync = ArgumentCaptor.forClass(Runnable.class);
+        verify(redis).subscribe(eq(ConsentService.TOPIC), any(), resync.capture());
+        resyncing.load();
+
+        resync.getValue().run();
+
+        verify(repository, timeout(2000).times(2)).streamChanges();
+    }
+
+    private static ChangeRow row(Long userId, String type, boolean granted) {
+        return new ChangeRow() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public String getConsentType() {
+                return type;
+            }
+
+            @Override
+            public Boolean getGranted() {
+                return granted;
+            }
+        };
+    }
+}
@@ -0,0 +1,129 @@
+package com.securehealth.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LabOrderNotifier's per-subscriber delivery.
+ * The LISTEN loop needs Postgres and is not covered here.
+ */
+class LabOrderNotifierTest {
+
+    private LabOrderNotifier notifier;
+
+    @BeforeEach
+    void setUp() {
+        notifier = new LabOrderNotifier(new DataSourceProperties(), false, 60_000, 25, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        notifier.destroy();
+    }
+
+    @Test
+    void testBroadcast_StuckSubscriberDoesNotDelayOthers() throws Exception {
+        StuckEmitter stuck = new StuckEmitter();
+        RecordingEmitter fast = new RecordingEmitter(3);
+        notifier.subscribe(stuck);
+        notifier.subscribe(fast);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+            for (long orderId = 1; orderId <= 3; orderId++) notifier.broadcast(orderEvent(orderId));
+        });
+
+        assertTrue(fast.received.await(2, TimeUnit.SECONDS));
+        assertEquals(3, fast.events.size());
+        assertEquals(2, notifier.subscriberCount());
+        stuck.release.countDown();
+    }
+
+    @Test
+    void testBroadcast_SubscriberThatFallsBehindIsClosed() throws Exception {
+        StuckEmitter stuck = new StuckEmitter();
+        notifier.subscribe(stuck);
+
+        // One event is being sent, four more fill the queue, the sixth overflows it
+        notifier.broadcast(orderEvent(1));
+        assertTrue(stuck.sending.await(2, TimeUnit.SECONDS));
+        for (long orderId = 2; orderId <= 6; orderId++) notifier.broadcast(orderEvent(orderId));
+
+        assertEquals(0, notifier.subscriberCount());
+        stuck.release.countDown();
+        assertTrue(stuck.completed.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testBroadcast_FailedSendDropsSubscriber() throws Exception {
+        CountDownLatch failed = new CountDownLatch(1);
+        notifier.subscribe(new SseEmitter() {
+            @Override
+            public synchronized void send(Set<DataWithMediaType> items) {
+                failed.countDown();
+                throw new IllegalStateException("client went away");
+            }
+        });
+
+        notifier.broadcast(orderEvent(1));
+
+        assertTrue(failed.await(2, TimeUnit.SECONDS));
+        for (int i = 0; i < 100 && notifier.subscriberCount() > 0; i++) Thread.sleep(10);
+        assertEquals(0, notifier.subscriberCount());
+    }
+
+    private static SseEmitter.SseEventBuilder orderEvent(long orderId) {
+        return SseEmitter.event().name("lab-order").data(Map.of("orderId", orderId));
+    }
+
+    /** Blocks in send until released, like a client whose TCP window is full. */
+    private static final class StuckEmitter extends SseEmitter {
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public synchronized void send(Set<DataWithMediaType> items) {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+            super.complete();
+        }
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        final List<Set<DataWithMediaType>> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch received;
+
+        RecordingEmitter(int expected) {
+            received = new CountDownLatch(expected);
+        }
+
+        @Override
+        public synchronized void send(Set<DataWithMediaType> items) {
+            events.add(items);
+            received.countDown();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.securehealth.backend.service;
+
+import com.securehealth.backend.dto.LabOrderClaim;
+import com.securehealth.backend.model.LabOrderStatus;
+import com.securehealth.backend.repository.LabOrderRepository;
+import com.securehealth.backend.repository.LabOrderRepository.ClaimedOrder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for LabOrderQueue's leasing rules.
+ * The repository is mocked, so the Postgres SQL (the FOR UPDATE SKIP LOCKED claim in
+ * claimPending, decideLeased, returnExpiredLeases) is not tested here or anywhere else.
+ */
+class LabOrderQueueTest {
+
+    private static final LocalDateTime T = LocalDateTime.of(2026, 10, 20, 9, 30);
+
+    private LabOrderRepository labOrderRepository;
+    private LabOrderQueue labOrderQueue;
+
+    @BeforeEach
+    void setUp() {
+        labOrderRepository = mock(LabOrderRepository.class);
+        labOrderQueue = new LabOrderQueue(labOrderRepository, 300, 20);
+    }
+
+    @Test
+    void testClaim_LeasesForConfiguredDuration() {
+        when(labOrderRepository.claimPending(7L, T, T.plusMinutes(5), 3))
+                .thenReturn(List.of(order(11L, T.plusMinutes(5))));
+
+        List<LabOrderClaim> claims = labOrderQueue.claim(7L, 3, T);
+
+        assertEquals(1, claims.size());
+        assertEquals(11L, claims.get(0).getOrderId());
+        assertEquals(T.plusMinutes(5), claims.get(0).getLeasedUntil());
+    }
+
+    @Test
+    void testClaim_LimitIsClampedToMaxClaim() {
+        labOrderQueue.claim(7L, 500, T);
+        labOrderQueue.claim(7L, 0, T);
+
+        verify(labOrderRepository).claimPending(eq(7L), eq(T), any(), eq(20));
+        verify(labOrderRepository).claimPending(eq(7L), eq(T), any(), eq(1));
+    }
+
+    @Test
+    void testDecide_RequiresLiveLease() {
+        when(labOrderRepository.decideLeased(eq(11L), eq(7L), any(), eq("APPROVED"))).thenReturn(1);
+
+        assertTrue(labOrderQueue.decide(11L, 7L, LabOrderStatus.APPROVED));
+        assertFalse(labOrderQueue.decide(11L, 8L, LabOrderStatus.APPROVED));
+    }
+
+    @Test
+    void testDecide_RejectsPendingAsDecision() {
+        assertThrows(IllegalArgumentException.class, () -> labOrderQueue.decide(11L, 7L, LabOrderStatus.PENDING));
+        verifyNoInteractions(labOrderRepository);
+    }
+
+    @Test
+    void testReturnExpiredLeases_SwallowsFailures() {
+        when(labOrderRepository.returnExpiredLeases(any())).thenThrow(new IllegalStateException("db down"));
+
+        assertDoesNotThrow(() -> labOrderQueue.returnExpiredLeases());
+    }
+
+    private static ClaimedOrder order(long id, LocalDateTime leasedUntil) {
+        return new ClaimedOrder() {
+            @Override
+            public Long getOrderId() {
+                return id;
+            }
+
+            @Override
+            public Long getVisitId() {
+                return 3L;
+            }
+
+            @Override
+            public String getTestType() {
+                return "CBC";
+            }
+
+            @Override
+            public LocalDateTime getCreatedAt() {
+                return T.minusHours(1);
+            }
+
+            @Override
+            public LocalDateTime getLeasedUntil() {
+                return leasedUntil;
+            }
+        };
+    }
+}
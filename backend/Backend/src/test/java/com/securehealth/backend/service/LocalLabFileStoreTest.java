@@ -0,0 +1,88 @@
+package com.securehealth.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LocalLabFileStore's content addressing and ranged reads.
+ */
+class LocalLabFileStoreTest {
+
+    private static final byte[] CONTENT = "lab result body".getBytes(StandardCharsets.UTF_8);
+    // sha256("lab result body")
+    private static final String KEY = "4be5a1b3f16bd1ec24a54dc3f3b130172d6a4dac9d882bed6933b279f509b036";
+
+    @TempDir
+    Path root;
+
+    private LocalLabFileStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new LocalLabFileStore(root.toString());
+    }
+
+    @Test
+    void testStore_NamesFileByContentHash() throws Exception {
+        LabFileStore.StoredFile stored = store.store(new ByteArrayInputStream(CONTENT), 1024);
+
+        assertEquals(CONTENT.length, stored.size());
+        assertEquals(KEY, stored.key());
+        assertEquals(KEY, stored.sha256());
+        Path path = store.localPath(stored.key()).orElseThrow();
+        assertTrue(path.startsWith(root.resolve(stored.key().substring(0, 2))));
+        assertArrayEquals(CONTENT, Files.readAllBytes(path));
+    }
+
+    @Test
+    void testStore_SameContentStoredOnce() throws Exception {
+        LabFileStore.StoredFile first = store.store(new ByteArrayInputStream(CONTENT), 1024);
+        LabFileStore.StoredFile second = store.store(new ByteArrayInputStream(CONTENT), 1024);
+
+        assertEquals(first.key(), second.key());
+        assertEquals(0, countFiles(root.resolve("tmp")));
+    }
+
+    @Test
+    void testStore_TooLargeLeavesNothingBehind() throws Exception {
+        assertThrows(LabFileStore.FileTooLargeException.class,
+                () -> store.store(new ByteArrayInputStream(new byte[200_000]), 100_000));
+
+        try (Stream<Path> files = Files.walk(root)) {
+            assertEquals(0, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void testTransferTo_CopiesRequestedRange() throws Exception {
+        String key = store.store(new ByteArrayInputStream(CONTENT), 1024).key();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        store.transferTo(key, 4, 6, Channels.newChannel(out));
+
+        assertEquals("result", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testLocalPath_RejectsKeysThatAreNotHashes() {
+        assertThrows(IllegalArgumentException.class, () -> store.localPath("../../etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> store.localPath(KEY.toUpperCase()));
+    }
+
+    private static long countFiles(Path dir) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.securehealth.backend.service;
+
+import com.securehealth.backend.dto.PatientSearchPage;
+import com.securehealth.backend.dto.PatientSearchResult;
+import com.securehealth.backend.repository.PatientProfileRepository;
+import com.securehealth.backend.repository.PatientProfileRepository.SearchRow;
+import com.securehealth.backend.util.IdBroadcastChannel;
+import com.securehealth.backend.util.InMemoryIdBroadcastChannel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PatientSearchIndex matching, ranking and incremental updates.
+ */
+class PatientSearchIndexTest {
+
+    private PatientProfileRepository repository;
+    private InMemoryIdBroadcastChannel channel;
+    private PatientSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(PatientProfileRepository.class);
+        channel = new InMemoryIdBroadcastChannel();
+        index = new PatientSearchIndex(repository, channel, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), 1000, 50);
+        when(repository.streamSearchRows()).thenAnswer(inv -> List.of(
+                row(1L, "John Smith", LocalDate.of(1984, 3, 7)),
+                row(2L, "Joanna Smithers", LocalDate.of(1990, 1, 2)),
+                row(3L, "Jón Smíth", LocalDate.of(1984, 11, 30)),
+                row(4L, "Mary O'Brien", LocalDate.of(1975, 6, 15))).stream());
+        index.load();
+    }
+
+    @Test
+    void testSearch_NotReadyUntilLoaded() {
+        PatientSearchIndex loading = new PatientSearchIndex(repository, new InMemoryIdBroadcastChannel(),
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), 1000, 50);
+
+        assertThrows(PatientSearchIndex.IndexNotReadyException.class, () -> loading.search("smith", 0, 10));
+    }
+
+    @Test
+    void testSearch_PrefixRanksWholeWordsFirst() {
+        PatientSearchPage page = index.search("smith jo", 0, 10);
+
+        assertEquals(3, page.getTotal());
+        // "smith" is a whole word of 1 and 3 but only a prefix of "smithers"
+        assertEquals(List.of(1L, 3L, 2L), ids(page));
+        assertFalse(page.isTruncated());
+    }
+
+    @Test
+    void testSearch_IgnoresCaseAccentsAndApostrophes() {
+        assertEquals(List.of(4L), ids(index.search("OBRIEN", 0, 10)));
+        assertEquals(List.of(1L, 3L, 2L), ids(index.search("SMÍTH", 0, 10)));
+        assertEquals(List.of(3L), ids(index.search("jon smith", 0, 10)));
+    }
+
+    @Test
+    void testSearch_FuzzyMatchWhenNoPrefixMatches() {
+        PatientSearchPage page = index.search("smitth", 0, 10);
+
+        assertEquals(List.of(1L, 3L), ids(page));
+        assertEquals(PatientSearchIndex.FUZZY, page.getResults().get(0).getScore());
+    }
+
+    @Test
+    void testSearch_UnknownWordMatchesNothing() {
+        assertEquals(0, index.search("smith zzzz", 0, 10).getTotal());
+    }
+
+    @Test
+    void testSearch_ByDateOfBirthAndYear() {
+        assertEquals(List.of(1L), ids(index.search("7/3/1984", 0, 10)));
+        assertEquals(List.of(1L), ids(index.search("smith 1984-03-07", 0, 10)));
+        assertEquals(List.of(1L, 3L), ids(index.search("1984", 0, 10)));
+        assertEquals(List.of(2L), ids(index.search("jo 1990", 0, 10)));
+    }
+
+    @Test
+    void testSearch_OffsetPagesWithinMaxResults() {
+        PatientSearchPage page = index.search("smi", 1, 1);
+
+        assertEquals(3, page.getTotal());
+        assertEquals(1, page.getResults().size());
+        assertEquals(1, page.getOffset());
+        assertTrue(index.search("smi", 50, 10).getResults().isEmpty());
+    }
+
+    @Test
+    void testOnChange_ReindexesRenamedProfile() {
+        when(repository.findSearchRow(4L)).thenReturn(Optional.of(row(4L, "Mary Smith", LocalDate.of(1975, 6, 15))));
+
+        channel.publish(PatientSearchIndex.TOPIC, 4L);
+
+        assertTrue(ids(index.search("smith", 0, 10)).contains(4L));
+        assertEquals(0, index.search("obrien", 0, 10).getTotal());
+    }
+
+    @Test
+    void testOnChange_DropsDeletedProfile() {
+        when(repository.findSearchRow(1L)).thenReturn(Optional.empty());
+
+        channel.publish(PatientSearchIndex.TOPIC, 1L);
+
+        assertEquals(List.of(3L), ids(index.search("1984", 0, 10)));
+    }
+
+    @Test
+    void testOnChange_StaleReadCannotOverwriteNewerOne() throws Exception {
+        CountDownLatch firstReading = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        AtomicInteger reads = new AtomicInteger();
+        when(repository.findSearchRow(4L)).thenAnswer(inv -> {
+            if (reads.incrementAndGet() == 1) {
+                firstReading.countDown();
+                releaseFirst.await();
+                return Optional.of(row(4L, "Mary O'Brien", LocalDate.of(1975, 6, 15)));
+            }
+            return Optional.of(row(4L, "Mary Smith", LocalDate.of(1975, 6, 15)));
+        });
+
+        Thread first = new Thread(() -> index.onChange(4L));
+        first.start();
+        firstReading.await();
+        Thread second = new Thread(() -> index.onChange(4L));
+        second.start();
+        while (second.getState() != Thread.State.BLOCKED && second.isAlive()) Thread.onSpinWait();
+        releaseFirst.countDown();
+        first.join();
+        second.join();
+
+        assertTrue(ids(index.search("smith", 0, 10)).contains(4L));
+        assertEquals(0, index.search("obrien", 0, 10).getTotal());
+    }
+
+    @Test
+    void testReconcile_CorrectsChangesThatWereNeverAnnounced() {
+        // Since the load: 1 renamed, 4 deleted, 5 created; nothing was published
+        List<SearchRow> table = List.of(
+                row(1L, "John Brown", LocalDate.of(1984, 3, 7)),
+                row(2L, "Joanna Smithers", LocalDate.of(1990, 1, 2)),
+                row(3L, "Jón Smíth", LocalDate.of(1984, 11, 30)),
+                row(5L, "Peter Smith", LocalDate.of(2001, 5, 5)));
+        when(repository.streamSearchRows()).thenAnswer(inv -> table.stream());
+        when(repository.findSearchRows(any())).thenAnswer(inv -> {
+            Collection<Long> wanted = inv.getArgument(0);
+            return table.stream().filter(r -> wanted.contains(r.getProfileId())).toList();
+        });
+
+        index.reconcile();
+
+        assertEquals(List.of(3L, 5L, 2L), ids(index.search("smith", 0, 10)));
+        assertEquals(List.of(1L), ids(index.search("brown", 0, 10)));
+        assertEquals(0, index.search("obrien", 0, 10).getTotal());
+        // Only the three that drifted are re-read
+        verify(repository).findSearchRows(argThat(ids -> Set.copyOf(ids).equals(Set.of(1L, 4L, 5L))));
+    }
+
+    @Test
+    void testReconcile_RereadsProfilesChangedWhileStreaming() {
+        // The stream predates the rename of 4, which is announced mid-stream
+        when(repository.streamSearchRows()).thenAnswer(inv -> {
+            channel.publish(PatientSearchIndex.TOPIC, 4L);
+            return List.of(row(4L, "Mary O'Brien", LocalDate.of(1975, 6, 15))).stream();
+        });
+        when(repository.findSearchRow(4L)).thenReturn(Optional.of(row(4L, "Mary Smith", LocalDate.of(1975, 6, 15))));
+        when(repository.findSearchRows(any())).thenAnswer(inv -> {
+            Collection<Long> wanted = inv.getArgument(0);
+            return wanted.contains(4L) ? List.of(row(4L, "Mary Smith", LocalDate.of(1975, 6, 15))) : List.of();
+        });
+
+        index.reconcile();
+
+        assertEquals(List.of(4L), ids(index.search("mary smith", 0, 10)));
+        assertEquals(0, index.search("obrien", 0, 10).getTotal());
+    }
+
+    @Test
+    void testResubscription_Reconciles() {
+        IdBroadcastChannel redis = mock(IdBroadcastChannel.class);
+        PatientSearchIndex resyncing = new PatientSearchIndex(repository, redis,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), 1000, 50);
+        ArgumentCaptor<Runnable> resync = ArgumentCaptor.forClass(Runnable.class);
+        verify(redis).subscribe(eq(PatientSearchIndex.TOPIC), any(), resync.capture());
+        resyncing.load();
+
+        resync.getValue().run();
+
+        // Once by setUp's index, once by this one's load, once by the reconciliation
+        verify(repository, timeout(2000).times(3)).streamSearchRows();
+    }
+
+    @Test
+    void testTrigramsOf_PadsWord() {
+        assertEquals(Set.of("$an", "ann", "nn$"), PatientSearchIndex.trigramsOf("ann"));
+    }
+
+    private static List<Long> ids(PatientSearchPage page) {
+        return page.getResults().stream().map(PatientSearchResult::getProfileId).toList();
+    }
+
+    private static SearchRow row(long id, String name, LocalDate dateOfBirth) {
+        return new SearchRow() {
+            @Override
+            public Long getProfileId() {
+                return id;
+            }
+
+            @Override
+            public String getFullName() {
+                return name;
+            }
+
+            @Override
+            public LocalDate getDateOfBirth() {
+                return dateOfBirth;
+            }
+        };
+    }
+}
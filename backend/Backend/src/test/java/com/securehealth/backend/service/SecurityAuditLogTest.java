@@ -0,0 +1,167 @@
+package com.securehealth.backend.service;
+
+import com.securehealth.backend.service.SecurityAuditLog.Event;
+import com.securehealth.backend.service.SecurityAuditLog.Overflow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for SecurityAuditLog's ring buffer, overflow policies and COPY rows.
+ */
+class SecurityAuditLogTest {
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testConstructor_RoundsCapacityToPowerOfTwo() {
+        assertEquals(8, auditLog(6, Overflow.BLOCK, 4, 0).capacity());
+        assertEquals(8, auditLog(8, Overflow.BLOCK, 4, 0).capacity());
+    }
+
+    @Test
+    void testTake_ReturnsEventsInOrderUpToBatchSize() throws InterruptedException {
+        SecurityAuditLog audit = auditLog(8, Overflow.BLOCK, 2, 0);
+        audit.record(Event.LOGIN_FAILED, null, "10.0.0.1");
+        audit.record(Event.LOGIN_SUCCESS, 7L, "10.0.0.1");
+        audit.record(Event.LOGOUT, 7L, null);
+
+        assertEquals(List.of("\\N LOGIN_FAILED 10.0.0.1 WARN", "7 LOGIN_SUCCESS 10.0.0.1 INFO"), takeRows(audit));
+        assertEquals(List.of("7 LOGOUT \\N INFO"), takeRows(audit));
+        assertEquals(0, audit.take(0));
+        assertEquals(0, audit.depth());
+    }
+
+    @Test
+    void testRecord_DropOldestOverwritesWhenFull() throws InterruptedException {
+        SecurityAuditLog audit = auditLog(4, Overflow.DROP_OLDEST, 8, 0);
+        for (long userId = 1; userId <= 6; userId++) audit.record(Event.REGISTERED, userId, null);
+
+        assertEquals(4, audit.depth());
+        assertEquals(List.of("3", "4", "5", "6"), takeRows(audit).stream().map(row -> row.split(" ")[0]).toList());
+        assertEquals(2, dropped("overflow"));
+    }
+
+    @Test
+    void testRecord_BlockDropsNewEventAfterTimeout() {
+        SecurityAuditLog audit = auditLog(2, Overflow.BLOCK, 2, 10);
+        audit.record(Event.REGISTERED, 1L, null);
+        audit.record(Event.REGISTERED, 2L, null);
+
+        audit.record(Event.REGISTERED, 3L, null);
+
+        assertEquals(2, audit.depth());
+        assertEquals(1, dropped("timeout"));
+    }
+
+    @Test
+    void testRecord_BlockWaitsForRoom() throws Exception {
+        SecurityAuditLog audit = auditLog(2, Overflow.BLOCK, 2, 5_000);
+        audit.record(Event.REGISTERED, 1L, null);
+        audit.record(Event.REGISTERED, 2L, null);
+
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> audit.record(Event.REGISTERED, 3L, null));
+        Thread.sleep(50);
+        assertFalse(blocked.isDone());
+
+        assertEquals(2, audit.take(0));
+        blocked.get(5, TimeUnit.SECONDS);
+        assertEquals(1, audit.depth());
+        assertEquals(0, dropped("timeout"));
+    }
+
+    @Test
+    void testLag_IsAgeOfOldestUnwrittenEvent() {
+        SecurityAuditLog audit = auditLog(8, Overflow.BLOCK, 4, 0);
+        assertEquals(0, audit.lagMillis(System.currentTimeMillis()));
+
+        audit.record(Event.LOGOUT, 1L, null);
+
+        assertTrue(audit.lagMillis(System.currentTimeMillis() + 1_000) >= 1_000);
+    }
+
+    @Test
+    void testDestroy_FlushesWhatIsBuffered() throws InterruptedException {
+        List<String> written = new ArrayList<>();
+        SecurityAuditLog audit = new SecurityAuditLog(mock(DataSource.class), registry, true, 8, Overflow.BLOCK,
+                4, 60_000, 0) {
+            @Override
+            void write(int count) {
+                StringBuilder rows = new StringBuilder();
+                appendBatch(rows, count);
+                written.add(rows.toString());
+            }
+        };
+        audit.start();
+        for (long userId = 1; userId <= 3; userId++) audit.record(Event.LOGIN_SUCCESS, userId, "10.0.0.1");
+
+        audit.destroy();
+
+        assertEquals(1, written.size());
+        assertEquals(3, written.get(0).lines().count());
+        assertEquals(3, registry.get("audit.events.written").counter().count());
+        audit.record(Event.LOGOUT, 1L, null);
+        assertEquals(0, audit.depth());
+        assertEquals(1, dropped("shutdown"));
+    }
+
+    @Test
+    void testRecord_DisabledIsNoOp() throws InterruptedException {
+        SecurityAuditLog audit = new SecurityAuditLog(mock(DataSource.class), registry, false, 8, Overflow.BLOCK,
+                4, 200, 0);
+
+        audit.record(Event.LOGIN_SUCCESS, 1L, "10.0.0.1");
+
+        assertEquals(0, audit.depth());
+        assertEquals(0, audit.take(0));
+    }
+
+    @Test
+    void testAppendCopyRow_EscapesTextFormat() {
+        StringBuilder row = new StringBuilder();
+        SecurityAuditLog.appendCopyRow(row, 0, Event.REFRESH_TOKEN_REUSED, "a\tb\\c\nd", 0);
+
+        String[] fields = row.toString().split("\t");
+        assertEquals("\\N", fields[0]);
+        assertEquals("REFRESH_TOKEN_REUSED", fields[1]);
+        assertEquals("a\\tb\\\\c\\nd", fields[2]);
+        assertEquals("CRITICAL", fields[3]);
+        assertTrue(row.toString().endsWith("\n"));
+        assertEquals(1, row.toString().lines().count());
+    }
+
+    private SecurityAuditLog auditLog(int capacity, Overflow overflow, int batchSize, long blockTimeoutMillis) {
+        return new SecurityAuditLog(mock(DataSource.class), registry, true, capacity, overflow,
+                batchSize, 200, blockTimeoutMillis);
+    }
+
+    /**
+     * Takes one batch and returns its rows without the timestamp, fields joined by spaces.
+     */
+    private static List<String> takeRows(SecurityAuditLog audit) throws InterruptedException {
+        int count = audit.take(0);
+        StringBuilder rows = new StringBuilder();
+        audit.appendBatch(rows, count);
+        return rows.toString().lines()
+                .map(line -> String.join(" ", List.of(line.split("\t")).subList(0, 4)))
+                .toList();
+    }
+
+    private double dropped(String reason) {
+        return registry.get("audit.events.dropped").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,148 @@
+package com.securehealth.backend.service;
+
+import com.securehealth.backend.model.Session;
+import com.securehealth.backend.repository.SessionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SessionBatchWriter.
+ * The repository is mocked; the transaction manager only hands out dummy transactions.
+ */
+class SessionBatchWriterTest {
+
+    private final SessionRepository sessionRepository = mock(SessionRepository.class);
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    private SessionBatchWriter writer;
+
+    private SessionBatchWriter newWriter(int maxBatchSize, long maxDelayMillis) {
+        return newWriter(maxBatchSize, maxDelayMillis, 5_000);
+    }
+
+    private SessionBatchWriter newWriter(int maxBatchSize, long maxDelayMillis, long commitTimeoutMillis) {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(sessionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Session> sessions = invocation.getArgument(0);
+            batchSizes.add(sessions.size());
+            return sessions;
+        });
+        writer = new SessionBatchWriter(sessionRepository, transactionManager, new SimpleMeterRegistry(),
+                maxBatchSize, maxDelayMillis, commitTimeoutMillis);
+        return writer;
+    }
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        if (writer != null) writer.destroy();
+    }
+
+    @Test
+    void testConcurrentLogins_AreGroupedIntoBatches() throws Exception {
+        SessionBatchWriter writer = newWriter(16, 50);
+        ExecutorService logins = Executors.newFixedThreadPool(32);
+        try {
+            List<Future<Session>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                Session session = session("hash-" + i);
+                results.add(logins.submit(() -> writer.save(session)));
+            }
+            for (Future<Session> result : results) assertNotNull(result.get());
+        } finally {
+            logins.shutdown();
+        }
+
+        assertEquals(32, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.size() < 32, "batches: " + batchSizes);
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 16));
+    }
+
+    @Test
+    void testLoneLogin_IsFlushedByDeadline() {
+        SessionBatchWriter writer = newWriter(50, 5);
+
+        long start = System.nanoTime();
+        writer.save(session("alone"));
+
+        assertEquals(List.of(1), batchSizes);
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+    }
+
+    @Test
+    void testFailedBatch_IsRetriedRowByRow() throws Exception {
+        SessionBatchWriter writer = newWriter(2, 200);
+        when(sessionRepository.saveAll(anyList())).thenThrow(new IllegalStateException("duplicate key"));
+        when(sessionRepository.save(any(Session.class))).thenAnswer(invocation -> {
+            Session session = invocation.getArgument(0);
+            if (session.getRefreshTokenHash().equals("bad")) throw new IllegalStateException("duplicate key");
+            return session;
+        });
+
+        ExecutorService logins = Executors.newFixedThreadPool(2);
+        try {
+            Future<Session> good = logins.submit(() -> writer.save(session("good")));
+            Future<Session> bad = logins.submit(() -> writer.save(session("bad")));
+
+            assertEquals("good", good.get().getRefreshTokenHash());
+            Exception e = assertThrows(Exception.class, bad::get);
+            assertEquals("duplicate key", e.getCause().getMessage());
+        } finally {
+            logins.shutdown();
+        }
+    }
+
+    @Test
+    void testTimedOutLogin_IsWithdrawnNotWritten() throws Exception {
+        SessionBatchWriter writer = newWriter(1, 0, 300);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        when(sessionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Session> sessions = invocation.getArgument(0);
+            sessions.forEach(session -> written.add(session.getRefreshTokenHash()));
+            writing.countDown();
+            release.await(); // a slow commit holds the writer
+            return sessions;
+        });
+
+        ExecutorService logins = Executors.newSingleThreadExecutor();
+        try {
+            Future<Session> first = logins.submit(() -> writer.save(session("first")));
+            assertTrue(writing.await(2, TimeUnit.SECONDS));
+
+            // Queued behind the slow commit until its caller gives up
+            assertThrows(IllegalStateException.class, () -> writer.save(session("late")));
+            release.countDown();
+
+            // Already being written when its own wait ran out, so it waits for the outcome
+            assertEquals("first", first.get().getRefreshTokenHash());
+        } finally {
+            logins.shutdown();
+        }
+
+        verify(sessionRepository, after(300).times(1)).saveAll(anyList());
+        assertEquals(List.of("first"), written);
+    }
+
+    private static Session session(String hash) {
+        Session session = new Session();
+        session.setRefreshTokenHash(hash);
+        return session;
+    }
+}
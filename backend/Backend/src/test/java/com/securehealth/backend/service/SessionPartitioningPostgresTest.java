@@ -0,0 +1,158 @@
+package com.securehealth.backend.service;
+
+import com.securehealth.backend.repository.LoginRepository;
+import com.securehealth.backend.repository.SessionRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs DB/sessions_partitioning.sql against a migrated Postgres holding a few sessions,
+ * then checks the session SQL and SessionPartitionManager on the partitioned table.
+ * The steps build on each other, hence the fixed order. The conversion happens in a
+ * schema of its own, which is dropped afterwards.
+ * Runs only when TEST_POSTGRES_URL is set (see application-postgres.properties).
+ */
+@SpringBootTest(properties = "app.sessions.reaper.pause-ms=0")
+@ActiveProfiles("postgres")
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+@DirtiesContext
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class SessionPartitioningPostgresTest {
+
+    private static final String SCHEMA = "partition_test_" + UUID.randomUUID().toString().substring(0, 8);
+    private static final Path SCRIPT = Path.of("../../DB/sessions_partitioning.sql");
+    private static final LocalDateTime NOW = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+    private static long userId;
+
+    @DynamicPropertySource
+    static void schema(DynamicPropertyRegistry registry) {
+        registry.add("spring.flyway.schemas", () -> SCHEMA);
+        registry.add("spring.datasource.hikari.schema", () -> SCHEMA);
+    }
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private SessionReaper reaper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void convert(@Autowired LoginRepository loginRepository, @Autowired JdbcTemplate jdbcTemplate)
+            throws Exception {
+        userId = loginRepository.insertIfAbsent("owner@pgtest.example", "hash", "PATIENT", NOW).orElseThrow();
+        // Rows that exist before the conversion: expired, live, and live but revoked
+        insertSession(jdbcTemplate, "expired", NOW.minusDays(3), null);
+        insertSession(jdbcTemplate, "live", NOW.plusDays(2), null);
+        insertSession(jdbcTemplate, "revoked", NOW.plusDays(5), NOW.minusDays(10));
+
+        String script = Files.readString(SCRIPT);
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(script); // one call: the DO block must not be split on its semicolons
+            }
+            return null;
+        });
+    }
+
+    @AfterAll
+    static void dropSchema(@Autowired JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    @Order(1)
+    void testScript_KeepsRowsInDailyPartitions() {
+        assertEquals("p", jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE oid = 'sessions'::regclass", String.class));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT count(*) FROM sessions", Integer.class));
+
+        assertEquals(partition(NOW.minusDays(3)), partitionOf("expired"));
+        assertEquals(partition(NOW.plusDays(2)), partitionOf("live"));
+        assertEquals(partition(NOW.plusDays(5)), partitionOf("revoked"));
+    }
+
+    @Test
+    @Order(2)
+    void testRotation_InsertsIntoPartitionedTable() {
+        // The successor takes its ID from the sequence the script kept alive
+        assertTrue(sessionRepository.rotateRefreshToken("live", "live-2", null, null, NOW).isPresent());
+
+        assertEquals(partition(NOW.plusDays(2)), partitionOf("live-2"));
+    }
+
+    @Test
+    @Order(3)
+    void testReaper_DeletesAcrossPartitions() throws Exception {
+        assertEquals(1, reaper.drain(SessionReaper.Reason.EXPIRED, NOW));
+        // "revoked" from before the conversion, and "live" from the rotation, which is too recent
+        assertEquals(1, reaper.drain(SessionReaper.Reason.REVOKED, NOW.minusDays(7)));
+
+        assertEquals(List.of("live", "live-2"), jdbcTemplate.queryForList(
+                "SELECT refresh_token_hash FROM sessions ORDER BY refresh_token_hash", String.class));
+    }
+
+    @Test
+    @Order(4)
+    void testPartitionManager_CreatesAheadAndDropsPastDays() {
+        SessionPartitionManager manager = new SessionPartitionManager(jdbcTemplate, 12, 2000);
+
+        manager.maintain();
+
+        List<String> partitions = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                 WHERE i.inhparent = 'sessions'::regclass
+                """, String.class);
+        LocalDate today = LocalDate.now();
+        assertTrue(partitions.contains(SessionPartitionManager.partitionName(today.plusDays(12))), partitions.toString());
+        assertFalse(partitions.contains(SessionPartitionManager.partitionName(today.minusDays(3))), partitions.toString());
+        assertTrue(partitions.contains(SessionPartitionManager.partitionName(today)), partitions.toString());
+        assertTrue(partitions.contains("sessions_default"));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT count(*) FROM sessions", Integer.class));
+    }
+
+    private String partitionOf(String tokenHash) {
+        return jdbcTemplate.queryForObject(
+                "SELECT tableoid::regclass::text FROM sessions WHERE refresh_token_hash = ?", String.class, tokenHash);
+    }
+
+    private static String partition(LocalDateTime expiresAt) {
+        return SessionPartitionManager.partitionName(expiresAt.toLocalDate());
+    }
+
+    private static void insertSession(JdbcTemplate jdbcTemplate, String tokenHash, LocalDateTime expiresAt,
+                                      LocalDateTime revokedAt) {
+        jdbcTemplate.update("""
+                INSERT INTO sessions (user_id, refresh_token_hash, family_id, expires_at, is_revoked, revoked_at,
+                                      created_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                """, userId, tokenHash, UUID.randomUUID().toString(), expiresAt, revokedAt != null, revokedAt, NOW);
+    }
+}
@@ -0,0 +1,124 @@
+package com.securehealth.backend.service;
+
+import com.securehealth.backend.repository.LoginRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests SessionReaper's chunked keyset deletes (the CTEs in deleteExpiredChunk and
+ * deleteRevokedChunk) against a migrated Postgres.
+ * Each run migrates a schema of its own, so the reaper only sees this class's rows.
+ * Runs only when TEST_POSTGRES_URL is set (see application-postgres.properties).
+ */
+@SpringBootTest(properties = {
+    "app.sessions.reaper.chunk-size=2",
+    "app.sessions.reaper.pause-ms=0"
+})
+@ActiveProfiles("postgres")
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+@DirtiesContext
+class SessionReaperPostgresTest {
+
+    private static final String SCHEMA = "reaper_test_" + UUID.randomUUID().toString().substring(0, 8);
+
+    @DynamicPropertySource
+    static void schema(DynamicPropertyRegistry registry) {
+        registry.add("spring.flyway.schemas", () -> SCHEMA);
+        registry.add("spring.datasource.hikari.schema", () -> SCHEMA);
+    }
+
+    @Autowired
+    private SessionReaper reaper;
+
+    @Autowired
+    private LoginRepository loginRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM sessions");
+        userId = loginRepository.insertIfAbsent(UUID.randomUUID() + "@pgtest.example", "hash", "PATIENT", now)
+                .orElseThrow();
+    }
+
+    @AfterAll
+    static void dropSchema(@Autowired JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    void testDrainExpired_WalksEveryChunkAndKeepsLiveSessions() throws Exception {
+        // Five expired rows over chunks of two; two share a timestamp, so the cursor must tie-break on the ID
+        createSession(now.minusDays(3), null);
+        createSession(now.minusDays(2), null);
+        createSession(now.minusDays(2), null);
+        createSession(now.minusHours(1), null);
+        createSession(now.minusSeconds(1), null);
+        createSession(now.plusDays(7), null);
+        createSession(now.plusMinutes(1), null);
+
+        long deleted = reaper.drain(SessionReaper.Reason.EXPIRED, now);
+
+        assertEquals(5, deleted);
+        assertEquals(0, count("expires_at < ?", now));
+        assertEquals(2, count("expires_at > ?", now));
+    }
+
+    @Test
+    void testDrainRevoked_KeepsSessionsInsideRetention() throws Exception {
+        LocalDateTime cutoff = now.minusDays(7);
+        createSession(now.plusDays(1), now.minusDays(10));
+        createSession(now.plusDays(1), now.minusDays(9));
+        createSession(now.plusDays(1), now.minusDays(8));
+        createSession(now.plusDays(1), now.minusHours(1)); // still needed for reuse detection
+        createSession(now.plusDays(1), null);
+
+        long deleted = reaper.drain(SessionReaper.Reason.REVOKED, cutoff);
+
+        assertEquals(3, deleted);
+        assertEquals(2, count("TRUE"));
+        assertEquals(0, count("revoked_at < ?", cutoff));
+    }
+
+    @Test
+    void testDrain_NothingToDelete() throws Exception {
+        createSession(now.plusDays(7), null);
+
+        assertEquals(0, reaper.drain(SessionReaper.Reason.EXPIRED, now));
+        assertEquals(0, reaper.drain(SessionReaper.Reason.REVOKED, now));
+        assertEquals(1, count("TRUE"));
+    }
+
+    private void createSession(LocalDateTime expiresAt, LocalDateTime revokedAt) {
+        jdbcTemplate.update("""
+                INSERT INTO sessions (user_id, refresh_token_hash, family_id, expires_at, is_revoked, revoked_at,
+                                      created_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                """, userId, UUID.randomUUID().toString(), UUID.randomUUID().toString(), expiresAt,
+                revokedAt != null, revokedAt, now);
+    }
+
+    private int count(String condition, Object... args) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM sessions WHERE " + condition, Integer.class, args);
+    }
+}
@@ -0,0 +1,101 @@
+package com.securehealth.backend.service;
+
+import com.securehealth.backend.repository.SessionRepository;
+import com.securehealth.backend.repository.SessionRepository.ReapedChunk;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SessionReaper's chunk loop and SessionPartitionManager's partition selection.
+ * The repository is mocked and only the partition naming is called; the Postgres SQL (the
+ * delete CTEs, the partition DDL and DB/sessions_partitioning.sql) is covered by
+ * SessionReaperPostgresTest and SessionPartitioningPostgresTest.
+ */
+class SessionReaperTest {
+
+    private SessionRepository sessionRepository;
+    private SimpleMeterRegistry registry;
+    private SessionReaper reaper;
+
+    @BeforeEach
+    void setUp() {
+        sessionRepository = mock(SessionRepository.class);
+        registry = new SimpleMeterRegistry();
+        reaper = new SessionReaper(sessionRepository, registry, 2, 0, 168);
+    }
+
+    @Test
+    void testDrain_FollowsKeysetCursorUntilShortChunk() throws Exception {
+        LocalDateTime t1 = LocalDateTime.of(2026, 1, 1, 10, 0);
+        LocalDateTime t2 = LocalDateTime.of(2026, 1, 1, 11, 0);
+        when(sessionRepository.deleteExpiredChunk(any(), any(), anyLong(), eq(2)))
+                .thenReturn(chunk(2, t1, 5L))
+                .thenReturn(chunk(2, t2, 9L))
+                .thenReturn(chunk(1, t2, 12L));
+
+        long deleted = reaper.drain(SessionReaper.Reason.EXPIRED, LocalDateTime.now());
+
+        assertEquals(5, deleted);
+        verify(sessionRepository).deleteExpiredChunk(any(), eq(t1), eq(5L), eq(2));
+        verify(sessionRepository).deleteExpiredChunk(any(), eq(t2), eq(9L), eq(2));
+        verify(sessionRepository, times(3)).deleteExpiredChunk(any(), any(), anyLong(), anyInt());
+        assertEquals(5.0, registry.get("sessions.reaper.deleted").tag("reason", "expired").counter().count());
+        assertEquals(3, registry.get("sessions.reaper.chunk.duration").timer().count());
+    }
+
+    @Test
+    void testReap_UsesRetentionCutoffForRevokedSessions() {
+        when(sessionRepository.deleteExpiredChunk(any(), any(), anyLong(), anyInt())).thenReturn(Optional.empty());
+        when(sessionRepository.deleteRevokedChunk(any(), any(), anyLong(), anyInt())).thenReturn(Optional.empty());
+
+        reaper.reap();
+
+        verify(sessionRepository).deleteRevokedChunk(
+                argThat(cutoff -> cutoff.isBefore(LocalDateTime.now().minusHours(167))), any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void testReap_SurvivesDatabaseErrors() {
+        when(sessionRepository.deleteExpiredChunk(any(), any(), anyLong(), anyInt()))
+                .thenThrow(new IllegalStateException("connection refused"));
+
+        assertDoesNotThrow(() -> reaper.reap());
+    }
+
+    @Test
+    void testPartitionManager_DropsOnlyFullyExpiredDays() {
+        LocalDate today = LocalDate.of(2026, 3, 10);
+        List<String> partitions = List.of("sessions_p20260308", "sessions_p20260309", "sessions_p20260310",
+                "sessions_p20260317", "sessions_default");
+
+        assertEquals(List.of("sessions_p20260308", "sessions_p20260309"),
+                SessionPartitionManager.expiredPartitions(partitions, today));
+        assertEquals("sessions_p20260310", SessionPartitionManager.partitionName(today));
+    }
+
+    private static Optional<ReapedChunk> chunk(long deleted, LocalDateTime lastTime, Long lastId) {
+        return Optional.of(new ReapedChunk() {
+            public long getDeleted() {
+                return deleted;
+            }
+
+            public LocalDateTime getLastTime() {
+                return lastTime;
+            }
+
+            public Long getLastId() {
+                return lastId;
+            }
+        });
+    }
+}
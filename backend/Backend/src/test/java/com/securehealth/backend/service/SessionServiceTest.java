@@ -0,0 +1,116 @@
+package com.securehealth.backend.service;
+
+import com.securehealth.backend.dto.SessionPage;
+import com.securehealth.backend.repository.SessionRepository;
+import com.securehealth.backend.repository.SessionRepository.ActiveSession;
+import com.securehealth.backend.util.KeysetCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SessionService's keyset paging and revocation.
+ * The repository is mocked, so the keyset SQL in findActivePage is not tested here or anywhere else.
+ */
+class SessionServiceTest {
+
+    private static final LocalDateTime T = LocalDateTime.of(2026, 10, 20, 9, 30);
+
+    private SessionRepository sessionRepository;
+    private SessionService sessionService;
+
+    @BeforeEach
+    void setUp() {
+        sessionRepository = mock(SessionRepository.class);
+        sessionService = new SessionService(sessionRepository, 2, 3);
+    }
+
+    @Test
+    void testListActive_FullPageReturnsCursorOfLastRow() {
+        when(sessionRepository.findActivePage(eq(7L), any(), any(), anyLong(), eq(3)))
+                .thenReturn(List.of(session(30L, T), session(20L, T.minusHours(1)), session(10L, T.minusHours(2))));
+
+        SessionPage page = sessionService.listActive(7L, null, null);
+
+        assertEquals(2, page.getSessions().size());
+        assertEquals(30L, page.getSessions().get(0).getSessionId());
+        KeysetCursor next = KeysetCursor.decode(page.getNextCursor());
+        assertEquals(T.minusHours(1), next.time());
+        assertEquals(20L, next.id());
+    }
+
+    @Test
+    void testListActive_ContinuesFromCursor() {
+        String cursor = new KeysetCursor(T.minusHours(1), 20L).encode();
+        when(sessionRepository.findActivePage(eq(7L), any(), eq(T.minusHours(1)), eq(20L), eq(3)))
+                .thenReturn(List.of(session(10L, T.minusHours(2))));
+
+        SessionPage page = sessionService.listActive(7L, cursor, null);
+
+        assertEquals(1, page.getSessions().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testListActive_CapsPageSize() {
+        when(sessionRepository.findActivePage(any(), any(), any(), anyLong(), anyInt())).thenReturn(List.of());
+
+        sessionService.listActive(7L, null, 1000);
+
+        verify(sessionRepository).findActivePage(eq(7L), any(), any(), anyLong(), eq(4));
+    }
+
+    @Test
+    void testListActive_RejectsMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> sessionService.listActive(7L, "not-a-cursor", null));
+        verifyNoInteractions(sessionRepository);
+    }
+
+    @Test
+    void testRevoke_ScopedToUser() {
+        when(sessionRepository.revokeSession(eq(7L), eq(30L), any())).thenReturn(1);
+        when(sessionRepository.revokeSession(eq(8L), eq(30L), any())).thenReturn(0);
+
+        assertTrue(sessionService.revoke(7L, 30L));
+        assertFalse(sessionService.revoke(8L, 30L));
+    }
+
+    @Test
+    void testRevokeAll_OneStatement() {
+        when(sessionRepository.revokeAllSessions(eq(7L), any())).thenReturn(1500);
+
+        assertEquals(1500, sessionService.revokeAll(7L));
+        verify(sessionRepository, times(1)).revokeAllSessions(eq(7L), any());
+        verifyNoMoreInteractions(sessionRepository);
+    }
+
+    private static ActiveSession session(Long id, LocalDateTime expiresAt) {
+        return new ActiveSession() {
+            public Long getSessionId() {
+                return id;
+            }
+
+            public String getIpAddress() {
+                return "10.0.0.1";
+            }
+
+            public String getUserAgent() {
+                return "JUnit";
+            }
+
+            public LocalDateTime getCreatedAt() {
+                return expiresAt.minusDays(7);
+            }
+
+            public LocalDateTime getExpiresAt() {
+                return expiresAt;
+            }
+        };
+    }
+}
@@ -0,0 +1,147 @@
+package com.securehealth.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.securehealth.backend.dto.VisitTimelinePage;
+import com.securehealth.backend.repository.PatientProfileRepository;
+import com.securehealth.backend.repository.VisitRepository;
+import com.securehealth.backend.repository.VisitRepository.TimelineRow;
+import com.securehealth.backend.util.KeysetCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for VisitTimelineService's keyset paging and streaming.
+ * The repositories are mocked, so the keyset SQL in findTimelinePage and streamTimeline is
+ * not tested here or anywhere else.
+ */
+class VisitTimelineServiceTest {
+
+    private static final LocalDateTime T = LocalDateTime.of(2026, 10, 20, 9, 30);
+
+    private VisitRepository visitRepository;
+    private PatientProfileRepository patientProfileRepository;
+    private VisitTimelineService visitTimelineService;
+
+    @BeforeEach
+    void setUp() {
+        visitRepository = mock(VisitRepository.class);
+        patientProfileRepository = mock(PatientProfileRepository.class);
+        visitTimelineService = new VisitTimelineService(visitRepository, patientProfileRepository,
+                mock(PlatformTransactionManager.class), new ObjectMapper().findAndRegisterModules(), 2, 3);
+    }
+
+    @Test
+    void testPage_FullPageReturnsCursorOfLastRow() {
+        when(visitRepository.findTimelinePage(eq(5L), any(), anyLong(), eq(3)))
+                .thenReturn(List.of(visit(30L, T), visit(20L, T.minusDays(1)), visit(10L, T.minusDays(2))));
+
+        VisitTimelinePage page = visitTimelineService.page(5L, null, null).orElseThrow();
+
+        assertEquals(2, page.getVisits().size());
+        assertEquals("Dr. Grey", page.getVisits().get(0).getDoctorName());
+        KeysetCursor next = KeysetCursor.decode(page.getNextCursor());
+        assertEquals(T.minusDays(1), next.time());
+        assertEquals(20L, next.id());
+        verifyNoInteractions(patientProfileRepository);
+    }
+
+    @Test
+    void testPage_ContinuesFromCursorAndCapsLimit() {
+        String cursor = new KeysetCursor(T.minusDays(1), 20L).encode();
+        when(visitRepository.findTimelinePage(5L, T.minusDays(1), 20L, 4))
+                .thenReturn(List.of(visit(10L, T.minusDays(2))));
+
+        VisitTimelinePage page = visitTimelineService.page(5L, cursor, 50).orElseThrow();
+
+        assertEquals(1, page.getVisits().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testPage_UnknownPatientIsEmpty() {
+        when(visitRepository.findTimelinePage(eq(9L), any(), anyLong(), anyInt())).thenReturn(List.of());
+        when(patientProfileRepository.existsById(9L)).thenReturn(false);
+
+        assertTrue(visitTimelineService.page(9L, null, null).isEmpty());
+    }
+
+    @Test
+    void testPage_PatientWithoutVisitsHasEmptyPage() {
+        when(visitRepository.findTimelinePage(eq(5L), any(), anyLong(), anyInt())).thenReturn(List.of());
+        when(patientProfileRepository.existsById(5L)).thenReturn(true);
+
+        Optional<VisitTimelinePage> page = visitTimelineService.page(5L, null, null);
+
+        assertTrue(page.isPresent());
+        assertTrue(page.get().getVisits().isEmpty());
+    }
+
+    @Test
+    void testPage_RejectsMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> visitTimelineService.page(5L, "not-a-cursor", null));
+    }
+
+    @Test
+    void testStream_WritesOneLinePerVisit() throws Exception {
+        when(visitRepository.streamTimeline(5L)).thenReturn(Stream.of(visit(30L, T), visit(20L, T.minusDays(1))));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        visitTimelineService.stream(5L, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"visitId\":30"));
+        assertTrue(lines[1].contains("\"visitId\":20"));
+    }
+
+    private static TimelineRow visit(long id, LocalDateTime date) {
+        return new TimelineRow() {
+            @Override
+            public Long getVisitId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getVisitDate() {
+                return date;
+            }
+
+            @Override
+            public Long getDoctorId() {
+                return 7L;
+            }
+
+            @Override
+            public String getDoctorName() {
+                return "Dr. Grey";
+            }
+
+            @Override
+            public String getDoctorSpecialization() {
+                return "Cardiology";
+            }
+
+            @Override
+            public String getDiagnosisNotes() {
+                return null;
+            }
+
+            @Override
+            public String getPrescriptionText() {
+                return null;
+            }
+        };
+    }
+}
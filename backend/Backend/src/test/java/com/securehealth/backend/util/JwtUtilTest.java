@@ -1,6 +1,9 @@
 package com.securehealth.backend.util;
 
+import com.securehealth.backend.security.JwtKeyRing;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.Test;
@@ -10,12 +13,12 @@ import org.springframework.test.context.TestPropertySource;
 
 import javax.crypto.SecretKey;
 import java.util.Base64;
+import java.util.Date;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
 @TestPropertySource(properties = {
-    "jwt.secret=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970",
     "jwt.expiration=900000"
 })
 class JwtUtilTest {
@@ -23,17 +26,17 @@ class JwtUtilTest {
     @Autowired
     private JwtUtil jwtUtil;
 
-    private final String secret = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    @Autowired
+    private JwtKeyRing keyRing;
 
     @Test
     void testGenerateAccessToken() {
         String token = jwtUtil.generateAccessToken("test@example.com", "DOCTOR", 100L);
         assertNotNull(token);
-        
-        // Manually parse to verify contents
-        SecretKey key = Keys.hmacShaKeyFor(Base64.getDecoder().decode(secret));
+
+        // Manually parse with the published public key, as another service would
         Claims claims = Jwts.parser()
-                .verifyWith(key)
+                .keyLocator(header -> keyRing.verificationKey(((JwsHeader) header).getKeyId()))
                 .build()
                 .parseSignedClaims(token)
                 .getPayload();
@@ -43,10 +46,68 @@ class JwtUtilTest {
         assertEquals(100, claims.get("userId", Integer.class)); // JWT stores numbers as Integer
     }
 
+    @Test
+    void testGenerateAccessToken_HeaderCarriesKid() {
+        String token = jwtUtil.generateAccessToken("test@example.com", "DOCTOR", 100L);
+
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+
+        assertTrue(header.contains("\"alg\":\"ES256\""));
+        assertTrue(header.contains("\"kid\":\"" + keyRing.signingKey().kid() + "\""));
+    }
+
     @Test
     void testGenerateRefreshToken() {
         String token = jwtUtil.generateRefreshToken();
         assertNotNull(token);
         assertTrue(token.length() > 20); // Should be a long random string
     }
-}
\ No newline at end of file
+
+    @Test
+    void testParseAccessToken_RoundTrip() {
+        String token = jwtUtil.generateAccessToken("nurse@example.com", "NURSE", 7L);
+
+        Claims claims = jwtUtil.parseAccessToken(token);
+
+        assertEquals("nurse@example.com", claims.getSubject());
+        assertEquals("NURSE", claims.get("role", String.class));
+        assertEquals(7L, claims.get("userId", Long.class));
+    }
+
+    @Test
+    void testParseAccessToken_TamperedSignature() {
+        String token = jwtUtil.generateAccessToken("nurse@example.com", "NURSE", 7L);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtUtil.parseAccessToken(tampered));
+    }
+
+    @Test
+    void testParseAccessToken_RejectsHmacToken() {
+        // A token signed with the old shared secret, claiming the current kid
+        SecretKey secret = Keys.hmacShaKeyFor(Base64.getDecoder()
+                .decode("404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970"));
+        String token = Jwts.builder()
+                .header().keyId(keyRing.signingKey().kid()).and()
+                .subject("admin@example.com")
+                .claim("role", "ADMIN")
+                .claim("userId", 1L)
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(secret)
+                .compact();
+
+        assertThrows(JwtException.class, () -> jwtUtil.parseAccessToken(token));
+    }
+
+    @Test
+    void testParseAccessToken_RejectsUnknownKid() {
+        String token = Jwts.builder()
+                .header().keyId("not-a-published-key").and()
+                .subject("admin@example.com")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Jwts.SIG.ES256.keyPair().build().getPrivate(), Jwts.SIG.ES256)
+                .compact();
+
+        assertThrows(JwtException.class, () -> jwtUtil.parseAccessToken(token));
+    }
+}
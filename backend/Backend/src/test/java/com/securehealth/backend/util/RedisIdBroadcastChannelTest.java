@@ -0,0 +1,54 @@
+package com.securehealth.backend.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RedisIdBroadcastChannel's per-topic listener; no Redis is involved.
+ */
+class RedisIdBroadcastChannelTest {
+
+    private final List<Long> received = new ArrayList<>();
+    private final AtomicInteger resyncs = new AtomicInteger();
+    private final RedisIdBroadcastChannel.TopicListener listener =
+            new RedisIdBroadcastChannel.TopicListener("auth:credentials", received::add, resyncs::incrementAndGet);
+
+    @Test
+    void testMessage_IsParsedAsId() {
+        listener.onMessage(message("42"), null);
+        listener.onMessage(message("not-an-id"), null);
+
+        assertEquals(List.of(42L), received);
+    }
+
+    @Test
+    void testFirstSubscription_DoesNotResync() {
+        listener.onChannelSubscribed(channel(), 1);
+
+        assertEquals(0, resyncs.get());
+    }
+
+    @Test
+    void testEverySubscriptionAfterTheFirst_Resyncs() {
+        listener.onChannelSubscribed(channel(), 1);
+        listener.onChannelSubscribed(channel(), 1);
+        listener.onChannelSubscribed(channel(), 1);
+
+        assertEquals(2, resyncs.get());
+    }
+
+    private static byte[] channel() {
+        return "auth:credentials".getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(channel(), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,63 @@
+package com.securehealth.backend.benchmarks;
+
+import com.securehealth.backend.security.Argon2Calibrator.Argon2Parameters;
+import com.securehealth.backend.security.InMemorySigningKeyStore;
+import com.securehealth.backend.security.JwtKeyRing;
+import com.securehealth.backend.security.SigningKeyStore;
+import com.securehealth.backend.util.JwtUtil;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.support.ResourcePropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Builds the objects under test from the backend's own {@code application.properties},
+ * so benchmarks measure the parameters production runs with.
+ */
+final class BackendFixtures {
+
+    private BackendFixtures() {
+    }
+
+    /**
+     * The backend's configuration, overridable with {@code -D} system properties
+     * (e.g. {@code -Dsecurity.argon2.memory-kb=65536} to try a new cost).
+     */
+    static StandardEnvironment environment() {
+        try {
+            StandardEnvironment environment = new StandardEnvironment();
+            environment.getPropertySources().addLast(new ResourcePropertySource("classpath:application.properties"));
+            return environment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("application.properties not found on the classpath", e);
+        }
+    }
+
+    /**
+     * A {@link JwtUtil} wired the way Spring wires it ({@code @Value} arguments), signing
+     * with a {@link JwtKeyRing} over an in-memory key store instead of the database.
+     */
+    static JwtUtil jwtUtil() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.setEnvironment(environment());
+        context.registerBean(SigningKeyStore.class, InMemorySigningKeyStore::new);
+        context.register(JwtKeyRing.class, JwtUtil.class);
+        context.refresh();
+        return context.getBean(JwtUtil.class);
+    }
+
+    /**
+     * The configured Argon2 cost, with the same defaults as {@code SecurityConfig}.
+     */
+    static Argon2Parameters argon2Parameters() {
+        StandardEnvironment properties = environment();
+        return new Argon2Parameters(
+                properties.getProperty("security.argon2.salt-length", Integer.class, 16),
+                properties.getProperty("security.argon2.hash-length", Integer.class, 32),
+                properties.getProperty("security.argon2.parallelism", Integer.class, 1),
+                properties.getProperty("security.argon2.memory-kb", Integer.class, 4096),
+                properties.getProperty("security.argon2.iterations", Integer.class, 3));
+    }
+}
@@ -0,0 +1,57 @@
+package com.securehealth.backend.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs every benchmark twice: single-threaded, then contended with one thread
+ * per core (at least {@value #MIN_CONTENDED_THREADS}, so small machines still see contention).
+ * <p>
+ * The GC profiler is always on, so each result carries {@code gc.alloc.rate.norm}
+ * (bytes allocated per operation) next to its timing. Results go to
+ * {@code <results-dir>/auth-1t.json} and {@code auth-<N>t.json}; keep the files
+ * from two commits and compare them (e.g. jmh.morethan.io) to spot regressions.
+ * </p>
+ * <p>
+ * Standard JMH options are accepted and override the defaults, e.g.
+ * {@code java -jar target/benchmarks.jar Token -wi 1 -i 2}. The output directory
+ * is {@code target/jmh-results} unless {@code -Djmh.results.dir} says otherwise.
+ * </p>
+ */
+public final class BenchmarkRunner {
+
+    private static final int MIN_CONTENDED_THREADS = 4;
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListProfilers()) {
+            Main.main(args);
+            return;
+        }
+        Path resultsDir = Path.of(System.getProperty("jmh.results.dir", "target/jmh-results"));
+        Files.createDirectories(resultsDir);
+
+        int contended = Math.max(MIN_CONTENDED_THREADS, Runtime.getRuntime().availableProcessors());
+        for (int threads : new int[]{1, contended}) {
+            OptionsBuilder options = new OptionsBuilder();
+            options.parent(commandLine);
+            if (commandLine.getIncludes().isEmpty()) options.include(BenchmarkRunner.class.getPackageName() + "\\.");
+            new Runner(options
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(resultsDir.resolve("auth-" + threads + "t.json").toString())
+                    .build()).run();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.securehealth.backend.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.securehealth.backend.dto.LoginResponse;
+import com.securehealth.backend.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of the login/refresh response body, with realistic token sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginResponseBenchmark {
+
+    private ObjectWriter writer;
+    private LoginResponse response;
+
+    @Setup
+    public void setUp() {
+        writer = new ObjectMapper().writerFor(LoginResponse.class);
+        JwtUtil jwtUtil = BackendFixtures.jwtUtil();
+        response = new LoginResponse(
+                jwtUtil.generateAccessToken("doctor@securehealth.test", "DOCTOR", 42L),
+                jwtUtil.generateRefreshToken(),
+                "DOCTOR");
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return writer.writeValueAsBytes(response);
+    }
+}
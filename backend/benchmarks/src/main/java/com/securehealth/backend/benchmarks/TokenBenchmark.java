@@ -0,0 +1,69 @@
+package com.securehealth.backend.benchmarks;
+
+import com.securehealth.backend.service.AuthService;
+import com.securehealth.backend.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token work done on every login and refresh: signing the access token, drawing
+ * the refresh token, and hashing it for storage; plus the ES256 verification an
+ * uncached bearer token costs on every node.
+ * <p>
+ * State is shared across threads ({@link Scope#Benchmark}) as it is in the
+ * application, so multi-threaded runs include contention on the shared
+ * {@code SecureRandom} and signing key.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenBenchmark {
+
+    private JwtUtil jwtUtil;
+    private AuthService authService;
+    private String refreshToken;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = BackendFixtures.jwtUtil();
+        authService = new AuthService(); // hashToken needs none of its collaborators
+        refreshToken = jwtUtil.generateRefreshToken();
+        accessToken = jwtUtil.generateAccessToken("doctor@securehealth.test", "DOCTOR", 42L);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtUtil.generateAccessToken("doctor@securehealth.test", "DOCTOR", 42L);
+    }
+
+    @Benchmark
+    public Claims parseAccessToken() {
+        return jwtUtil.parseAccessToken(accessToken);
+    }
+
+    @Benchmark
+    public String generateRefreshToken() {
+        return jwtUtil.generateRefreshToken();
+    }
+
+    @Benchmark
+    public String hashToken() {
+        return authService.hashToken(refreshToken);
+    }
+}
@@ -0,0 +1,115 @@
+#!/bin/bash
+# Startup benchmark: time from JVM launch to the first successful POST /api/auth/login,
+# and the process RSS at that moment, for each startup mode.
+#
+#   jar           java -jar (the baseline)
+#   lazy          java -jar with the lazy profile
+#   aot           java -jar -Dspring.aot.enabled=true
+#   cds           extracted classpath + AppCDS archive (../startup/cds.sh)
+#   aot-cds       both; what the Docker image runs
+#   aot-cds-lazy  all three
+#
+# Prerequisites:
+#   (cd ../Backend && mvn -Pfast-startup package -DskipTests)
+#   a Postgres reachable through SPRING_DATASOURCE_URL / _USERNAME / _PASSWORD
+#
+# Settings (environment): MODES, RUNS (default 5), BENCH_PORT (8099), BENCH_EMAIL,
+# BENCH_PASSWORD. The user is registered on first use. Each run is a fresh JVM; the
+# medians are printed and every run is written to target/startup-results.csv.
+set -euo pipefail
+
+cd "$(dirname "$0")"
+BACKEND=../Backend
+JAR=$(ls "$BACKEND"/target/backend-*-exec.jar 2>/dev/null | head -1)
+WORK=target/startup
+MODES=${MODES:-"jar lazy aot cds aot-cds aot-cds-lazy"}
+RUNS=${RUNS:-5}
+PORT=${BENCH_PORT:-8099}
+EMAIL=${BENCH_EMAIL:-startup-bench@example.com}
+PASSWORD=${BENCH_PASSWORD:-startup-bench-password}
+TIMEOUT_S=${BENCH_TIMEOUT_S:-120}
+
+if [ -z "$JAR" ]; then
+    echo "No executable jar; run: (cd $BACKEND && mvn -Pfast-startup package -DskipTests)" >&2
+    exit 1
+fi
+if ! unzip -l "$JAR" | grep '__BeanDefinitions' > /dev/null; then
+    echo "$JAR has no AOT classes; rebuild with -Pfast-startup" >&2
+    exit 1
+fi
+
+# The CDS modes run from an extracted copy with an archive made by this JVM
+if [[ " $MODES " == *cds* ]]; then
+    rm -rf "$WORK/app"
+    ../startup/cds.sh extract "$JAR" "$WORK/app"
+    ../startup/cds.sh train "$WORK/app" > "$WORK/cds-train.log" 2>&1
+fi
+JAR=$(cd "$(dirname "$JAR")" && pwd)/$(basename "$JAR")
+
+launch() {
+    local mode=$1 args=(--server.port="$PORT" --spring.jpa.show-sql=false)
+    case "$mode" in
+        jar)          exec java -jar "$JAR" "${args[@]}" ;;
+        lazy)         exec java -jar "$JAR" "${args[@]}" --spring.profiles.active=lazy ;;
+        aot)          exec java -Dspring.aot.enabled=true -jar "$JAR" "${args[@]}" ;;
+        cds)          cd "$WORK/app" && exec java -XX:SharedArchiveFile=app.jsa @launch.args "${args[@]}" ;;
+        aot-cds)      cd "$WORK/app" && exec java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true \
+                          @launch.args "${args[@]}" ;;
+        aot-cds-lazy) cd "$WORK/app" && exec java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true \
+                          @launch.args "${args[@]}" --spring.profiles.active=lazy ;;
+        *) echo "unknown mode $mode" >&2; exit 2 ;;
+    esac
+}
+
+post() {
+    curl -s -o /dev/null -w '%{http_code}' -H 'Content-Type: application/json' \
+        -d "{\"email\":\"$EMAIL\",\"password\":\"$PASSWORD\"$2}" "http://localhost:$PORT/api/auth/$1" || true
+}
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+mkdir -p "$WORK"
+CSV=target/startup-results.csv
+echo "mode,run,first_login_ms,rss_kb" > "$CSV"
+
+for mode in $MODES; do
+    for run in $(seq 1 "$RUNS"); do
+        start=$(now_ms)
+        (launch "$mode") > "$WORK/$mode-$run.log" 2>&1 &
+        pid=$!
+        status=000
+        while [ "$status" != 200 ]; do
+            if ! kill -0 "$pid" 2>/dev/null || [ $(( $(now_ms) - start )) -gt $(( TIMEOUT_S * 1000 )) ]; then
+                echo "$mode run $run did not serve a login; see $WORK/$mode-$run.log" >&2
+                kill "$pid" 2>/dev/null || true
+                exit 1
+            fi
+            status=$(post login "")
+            if [ "$status" = 401 ]; then
+                post register ",\"role\":\"PATIENT\"" > /dev/null
+            elif [ "$status" != 200 ]; then
+                sleep 0.05
+            fi
+        done
+        elapsed=$(( $(now_ms) - start ))
+        rss=$(awk '/^VmRSS:/ { print $2 }' "/proc/$pid/status")
+        kill "$pid"
+        wait "$pid" 2>/dev/null || true
+        echo "$mode,$run,$elapsed,$rss" >> "$CSV"
+        echo "$mode run $run: ${elapsed} ms, RSS $(( rss / 1024 )) MiB" >&2
+    done
+done
+
+echo
+printf '%-14s %22s %16s\n' mode "first login (median)" "RSS (median)"
+for mode in $MODES; do
+    ms=$(awk -F, -v m="$mode" '$1 == m { print $3 }' "$CSV" | median)
+    kb=$(awk -F, -v m="$mode" '$1 == m { print $4 }' "$CSV" | median)
+    printf '%-14s %19s ms %12s MiB\n' "$mode" "$ms" "$(( kb / 1024 ))"
+done
@@ -0,0 +1,73 @@
+#!/bin/sh
+# Prepares the backend for fast starts with class-data sharing (AppCDS).
+#
+#   cds.sh extract <backend-*-exec.jar> <dir>
+#       Unpacks the executable jar into <dir> and writes <dir>/launch.args, a java
+#       @argfile with a plain classpath and the main class. CDS only archives classes
+#       loaded from plain jars: not from the nested jars of the Boot launcher, and not
+#       from directories, so the application classes are re-jarred. Needs a JDK.
+#
+#   cds.sh train <dir>
+#       Starts the app once in <dir> up to the end of context refresh and records
+#       every class it loaded into <dir>/app.jsa. Must run with the JVM that will
+#       use the archive. No database, Redis or secrets are needed: Flyway, schema
+#       validation, Hibernate's JDBC metadata access and Redis are switched off for
+#       this run, which is also why it runs without AOT (where those switches are
+#       fixed at build time), and the encryption keys are throwaway random ones.
+#       Nothing reads the database before the application is ready, and the run
+#       exits at the end of refresh, before that. The archive still covers Spring,
+#       Hibernate, Tomcat and our classes.
+#
+# Start with:  cd <dir> && java -XX:SharedArchiveFile=app.jsa @launch.args
+# (plus -Dspring.aot.enabled=true for a jar built with mvn -Pfast-startup).
+# Used by ../Dockerfile and ../benchmarks/startup-benchmark.sh.
+set -eu
+
+usage() {
+    echo "usage: $0 extract <exec-jar> <dir> | train <dir>" >&2
+    exit 2
+}
+
+extract() {
+    jar_file=$(cd "$(dirname "$1")" && pwd)/$(basename "$1")
+    mkdir -p "$2"
+    cd "$2"
+    jar -xf "$jar_file"
+    jar -cf application.jar -C BOOT-INF/classes .
+    rm -rf BOOT-INF/classes org
+
+    # classpath.idx keeps Boot's library order; CDS requires the same classpath at every start
+    libs=$(sed -n 's/^- "\(.*\)"$/\1/p' BOOT-INF/classpath.idx | tr '\n' ':')
+    main_class=$(sed -n 's/^Start-Class: *//p' META-INF/MANIFEST.MF | tr -d '\r')
+    printf -- '-cp application.jar:%s\n%s\n' "${libs%:}" "$main_class" > launch.args
+}
+
+train() {
+    cd "$1"
+    rm -f app.jsa
+    # Only checked for shape at startup; never used to seal anything in this run
+    throwaway_key=$(head -c 32 /dev/urandom | base64)
+    # Hibernate 6.4 spells "no JDBC metadata access" temp.use_jdbc_metadata_defaults
+    java -XX:ArchiveClassesAtExit=app.jsa \
+        -Dspring.context.exit=onRefresh \
+        -Dspring.aot.enabled=false \
+        -Dspring.flyway.enabled=false \
+        -Dspring.jpa.hibernate.ddl-auto=none \
+        -Dspring.jpa.properties.hibernate.temp.use_jdbc_metadata_defaults=false \
+        -Dapp.redis.enabled=false \
+        -Dmanagement.health.redis.enabled=false \
+        -Djwt.keys.encryption-key="$throwaway_key" \
+        -Dapp.field-encryption.master-key="$throwaway_key" \
+        -Dlogging.level.root=warn \
+        @launch.args
+    test -s app.jsa
+}
+
+[ $# -ge 1 ] || usage
+command=$1
+shift
+case "$command" in
+    extract) [ $# -eq 2 ] || usage; extract "$1" "$2" ;;
+    train) [ $# -eq 1 ] || usage; train "$1" ;;
+    *) usage ;;
+esac